@@ -0,0 +1,94 @@
+/*
+ *
+ * AlignmentBenchmark.java
+ *
+ * Software License Agreement (BSD License)
+ *
+ * Copyright (c) 2009 Daniel Fleischhacker <dev@dfleischhacker.de>
+ * All rights reserved.
+ *
+ * Redistribution and use of this software in source and binary forms, with or
+ * without modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   1. Redistributions of source code must retain the above copyright notice,
+ *      this list of conditions and the following disclaimer.
+ *
+ *   2. Redistributions in binary form must reproduce the above copyright
+ *      notice, this list of conditions and the following disclaimer in the
+ *      documentation and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package de.dfleischhacker.uni.thesis.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import de.dfleischhacker.uni.thesis.utils.alignment.Alignment;
+import de.dfleischhacker.uni.thesis.utils.alignment.AlignmentManager;
+import de.dfleischhacker.uni.thesis.utils.ontology.Ontology;
+
+/**
+ * Measures parsing alignments and validating them against their ontologies.
+ *
+ * The alignment is parsed from memory, so the time for reading the file is
+ * not included. Like alignment files, the parsed document refers to
+ * align.dtd, which is resolved against the working directory, so the
+ * benchmarks have to run in the project directory. The ontologies have twice
+ * as many entities as the alignment has correspondences.
+ * @author Daniel Fleischhacker <dev@dfleischhacker.de>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class AlignmentBenchmark {
+	@Param({ "100", "1000", "10000" })
+	public int size;
+
+	private byte[] xml;
+	private Alignment alignment;
+	private Ontology onto1;
+	private Ontology onto2;
+
+	@Setup
+	public void setUp() throws Exception {
+		onto1 = SyntheticData.createOntology(1, size * 2);
+		onto2 = SyntheticData.createOntology(2, size * 2);
+		alignment = SyntheticData.createAlignment(size, size, 0.2f, SyntheticData.SEED);
+		xml = alignment.toXMLString().getBytes("UTF-8");
+	}
+
+	@Benchmark
+	public Alignment loadAlignment() throws Exception {
+		return AlignmentManager.loadAlignment(new ByteArrayInputStream(xml), 0);
+	}
+
+	@Benchmark
+	public Alignment loadAlignmentWithThreshold() throws Exception {
+		return AlignmentManager.loadAlignment(new ByteArrayInputStream(xml), 0.5f);
+	}
+
+	@Benchmark
+	public boolean validate() throws Exception {
+		return alignment.validate(onto1, onto2);
+	}
+}
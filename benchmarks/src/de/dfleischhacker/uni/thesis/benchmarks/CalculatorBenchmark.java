@@ -0,0 +1,96 @@
+/*
+ *
+ * CalculatorBenchmark.java
+ *
+ * Software License Agreement (BSD License)
+ *
+ * Copyright (c) 2009 Daniel Fleischhacker <dev@dfleischhacker.de>
+ * All rights reserved.
+ *
+ * Redistribution and use of this software in source and binary forms, with or
+ * without modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   1. Redistributions of source code must retain the above copyright notice,
+ *      this list of conditions and the following disclaimer.
+ *
+ *   2. Redistributions in binary form must reproduce the above copyright
+ *      notice, this list of conditions and the following disclaimer in the
+ *      documentation and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package de.dfleischhacker.uni.thesis.benchmarks;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import de.dfleischhacker.uni.thesis.calculator.Calculator;
+import de.dfleischhacker.uni.thesis.utils.alignment.Alignment;
+
+/**
+ * Measures calculating precision and recall of two alignments of the same
+ * size, each with a fifth of wrong correspondences.
+ *
+ * The Calculator reports the sizes on System.out, which is replaced by a
+ * stream discarding everything while the benchmark runs.
+ * @author Daniel Fleischhacker <dev@dfleischhacker.de>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CalculatorBenchmark {
+	@Param({ "100", "1000", "10000" })
+	public int size;
+
+	private Alignment alignment;
+	private Alignment reference;
+	private PrintStream out;
+
+	@Setup
+	public void setUp() {
+		alignment = SyntheticData.createAlignment(size, size, 0.2f, SyntheticData.SEED);
+		reference = SyntheticData.createAlignment(size, size, 0.2f, SyntheticData.SEED + 1);
+		out = System.out;
+		System.setOut(new PrintStream(new OutputStream() {
+			@Override
+			public void write(int b) {
+			}
+
+			@Override
+			public void write(byte[] b, int off, int len) {
+			}
+		}));
+	}
+
+	@TearDown
+	public void tearDown() {
+		System.setOut(out);
+	}
+
+	@Benchmark
+	public float calculate() {
+		Calculator calculator = new Calculator(alignment, reference);
+		return calculator.getPrecision() + calculator.getRecall();
+	}
+}
@@ -0,0 +1,122 @@
+/*
+ *
+ * CorrespondenceBenchmark.java
+ *
+ * Software License Agreement (BSD License)
+ *
+ * Copyright (c) 2009 Daniel Fleischhacker <dev@dfleischhacker.de>
+ * All rights reserved.
+ *
+ * Redistribution and use of this software in source and binary forms, with or
+ * without modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   1. Redistributions of source code must retain the above copyright notice,
+ *      this list of conditions and the following disclaimer.
+ *
+ *   2. Redistributions in binary form must reproduce the above copyright
+ *      notice, this list of conditions and the following disclaimer in the
+ *      documentation and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package de.dfleischhacker.uni.thesis.benchmarks;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import de.dfleischhacker.uni.thesis.utils.alignment.Correspondence;
+
+/**
+ * Measures hashing and comparing correspondences, which is done whenever
+ * alignments are put into or intersected as hash sets.
+ *
+ * The lookups use equal but distinct correspondence objects so that equals
+ * is called for each hit, the misses have the same entities but another
+ * relation.
+ * @author Daniel Fleischhacker <dev@dfleischhacker.de>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CorrespondenceBenchmark {
+	@Param({ "100", "1000", "10000" })
+	public int size;
+
+	private List<Correspondence> correspondences;
+	private List<Correspondence> copies;
+	private List<Correspondence> misses;
+	private Set<Correspondence> set;
+
+	@Setup
+	public void setUp() {
+		correspondences = SyntheticData.createCorrespondences(size, size * 2, 0.2f,
+				SyntheticData.SEED);
+		copies = new ArrayList<Correspondence>(size);
+		misses = new ArrayList<Correspondence>(size);
+		for (Correspondence corr : correspondences) {
+			copies.add(new Correspondence(corr.getEntity1(), corr.getEntity2(),
+					corr.getRelation(), corr.getMeasure()));
+			misses.add(new Correspondence(corr.getEntity1(), corr.getEntity2(),
+					"<", corr.getMeasure()));
+		}
+		set = new HashSet<Correspondence>(correspondences);
+	}
+
+	@Benchmark
+	public void hashCodeOfNew(Blackhole hole) {
+		for (Correspondence corr : correspondences) {
+			hole.consume(new Correspondence(corr.getEntity1(), corr.getEntity2(),
+					corr.getRelation(), corr.getMeasure()).hashCode());
+		}
+	}
+
+	@Benchmark
+	public Set<Correspondence> buildSet() {
+		return new HashSet<Correspondence>(copies);
+	}
+
+	@Benchmark
+	public int lookupHits() {
+		int found = 0;
+		for (Correspondence corr : copies) {
+			if (set.contains(corr)) {
+				found++;
+			}
+		}
+		return found;
+	}
+
+	@Benchmark
+	public int lookupMisses() {
+		int found = 0;
+		for (Correspondence corr : misses) {
+			if (set.contains(corr)) {
+				found++;
+			}
+		}
+		return found;
+	}
+}
@@ -0,0 +1,94 @@
+/*
+ *
+ * OntologyRenamerBenchmark.java
+ *
+ * Software License Agreement (BSD License)
+ *
+ * Copyright (c) 2009 Daniel Fleischhacker <dev@dfleischhacker.de>
+ * All rights reserved.
+ *
+ * Redistribution and use of this software in source and binary forms, with or
+ * without modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   1. Redistributions of source code must retain the above copyright notice,
+ *      this list of conditions and the following disclaimer.
+ *
+ *   2. Redistributions in binary form must reproduce the above copyright
+ *      notice, this list of conditions and the following disclaimer in the
+ *      documentation and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package de.dfleischhacker.uni.thesis.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import de.dfleischhacker.uni.thesis.utils.ontology.OntologyRenamer;
+
+/**
+ * Measures resolving entity URIs into the namespaces of the renamed
+ * ontologies, which is done for every entity of both ontologies and every
+ * correspondence of the alignments.
+ *
+ * A tenth of the URIs belong to the OWL vocabulary, the rest to a synthetic
+ * ontology. Each URI is checked against the blacklists before renaming.
+ * @author Daniel Fleischhacker <dev@dfleischhacker.de>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class OntologyRenamerBenchmark {
+	private static final int URIS = 1000;
+
+	private String[] uris;
+
+	@Setup
+	public void setUp() {
+		uris = new String[URIS];
+		for (int i = 0; i < URIS; i++) {
+			if (i % 10 == 0) {
+				uris[i] = "http://www.w3.org/2002/07/owl#Thing";
+			}
+			else {
+				uris[i] = SyntheticData.getClassURI(1, i);
+			}
+		}
+	}
+
+	@Benchmark
+	public void resolveURI(Blackhole hole) {
+		for (int i = 0; i < uris.length; i++) {
+			hole.consume(OntologyRenamer.resolveURI(1 + i % 2, uris[i]));
+		}
+	}
+
+	@Benchmark
+	public int isBlacklisted() {
+		int blacklisted = 0;
+		for (String uri : uris) {
+			if (OntologyRenamer.isBlacklisted(uri)) {
+				blacklisted++;
+			}
+		}
+		return blacklisted;
+	}
+}
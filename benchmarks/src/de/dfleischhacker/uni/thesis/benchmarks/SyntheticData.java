@@ -0,0 +1,189 @@
+/*
+ *
+ * SyntheticData.java
+ *
+ * Software License Agreement (BSD License)
+ *
+ * Copyright (c) 2009 Daniel Fleischhacker <dev@dfleischhacker.de>
+ * All rights reserved.
+ *
+ * Redistribution and use of this software in source and binary forms, with or
+ * without modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   1. Redistributions of source code must retain the above copyright notice,
+ *      this list of conditions and the following disclaimer.
+ *
+ *   2. Redistributions in binary form must reproduce the above copyright
+ *      notice, this list of conditions and the following disclaimer in the
+ *      documentation and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package de.dfleischhacker.uni.thesis.benchmarks;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import org.semanticweb.owl.apibinding.OWLManager;
+import org.semanticweb.owl.model.OWLAxiom;
+import org.semanticweb.owl.model.OWLClass;
+import org.semanticweb.owl.model.OWLDataFactory;
+import org.semanticweb.owl.model.OWLDataProperty;
+import org.semanticweb.owl.model.OWLObjectProperty;
+import org.semanticweb.owl.model.OWLOntology;
+import org.semanticweb.owl.model.OWLOntologyChangeException;
+import org.semanticweb.owl.model.OWLOntologyCreationException;
+import org.semanticweb.owl.model.OWLOntologyManager;
+import de.dfleischhacker.uni.thesis.utils.alignment.Alignment;
+import de.dfleischhacker.uni.thesis.utils.alignment.AlignmentManager;
+import de.dfleischhacker.uni.thesis.utils.alignment.Correspondence;
+import de.dfleischhacker.uni.thesis.utils.ontology.Ontology;
+
+/**
+ * Creates the ontologies and alignments used by the benchmarks in memory.
+ *
+ * The classes of an ontology form a tree with a fixed branching factor,
+ * siblings are pairwise disjoint. A tenth of the entities are properties,
+ * half object and half data properties. Entities are named by their number,
+ * e.g. base#C42, so that the same numbers in two ontologies denote matching
+ * entities.
+ *
+ * All data is derived from a seed and thus the same in every run.
+ * @author Daniel Fleischhacker <dev@dfleischhacker.de>
+ */
+public class SyntheticData {
+	/**
+	 * Seed used by the benchmarks
+	 */
+	public static final long SEED = 4711;
+
+	private static final int BRANCHING = 4;
+
+	/**
+	 * Returns the base URI of the given synthetic ontology
+	 * @param onto number of the ontology, 1 or 2
+	 * @return base URI
+	 */
+	public static String getBase(int onto) {
+		return "http://bench.dfleischhacker.de/onto" + onto + ".owl";
+	}
+
+	/**
+	 * Returns the URI of the class with the given number
+	 * @param onto number of the ontology, 1 or 2
+	 * @param number number of the class
+	 * @return URI of the class
+	 */
+	public static String getClassURI(int onto, int number) {
+		return getBase(onto) + "#C" + number;
+	}
+
+	/**
+	 * Creates an ontology containing the given number of entities
+	 * @param onto number of the ontology, 1 or 2
+	 * @param entities number of classes and properties
+	 * @return created ontology
+	 */
+	public static Ontology createOntology(int onto, int entities) {
+		OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+		OWLDataFactory factory = manager.getOWLDataFactory();
+		String base = getBase(onto);
+
+		int properties = entities / 10;
+		int classes = entities - properties;
+
+		Set<OWLAxiom> axioms = new HashSet<OWLAxiom>();
+		OWLClass[] classArray = new OWLClass[classes];
+		for (int i = 0; i < classes; i++) {
+			classArray[i] = factory.getOWLClass(URI.create(getClassURI(onto, i)));
+			axioms.add(factory.getOWLDeclarationAxiom(classArray[i]));
+			if (i > 0) {
+				OWLClass parent = classArray[(i - 1) / BRANCHING];
+				axioms.add(factory.getOWLSubClassAxiom(classArray[i], parent));
+				// the previous sibling, if there is one
+				if ((i - 1) % BRANCHING != 0) {
+					axioms.add(factory.getOWLDisjointClassesAxiom(classArray[i - 1], classArray[i]));
+				}
+			}
+		}
+
+		for (int i = 0; i < properties; i++) {
+			OWLClass domain = classArray[i % classes];
+			if (i % 2 == 0) {
+				OWLObjectProperty prop = factory.getOWLObjectProperty(URI.create(base + "#op" + i));
+				axioms.add(factory.getOWLDeclarationAxiom(prop));
+				axioms.add(factory.getOWLObjectPropertyDomainAxiom(prop, domain));
+			}
+			else {
+				OWLDataProperty prop = factory.getOWLDataProperty(URI.create(base + "#dp" + i));
+				axioms.add(factory.getOWLDeclarationAxiom(prop));
+				axioms.add(factory.getOWLDataPropertyDomainAxiom(prop, domain));
+			}
+		}
+
+		try {
+			OWLOntology ontology = manager.createOntology(URI.create(base));
+			manager.addAxioms(ontology, axioms);
+			return new Ontology(ontology, manager);
+		} catch (OWLOntologyCreationException ex) {
+			throw new IllegalStateException("Unable to create synthetic ontology", ex);
+		} catch (OWLOntologyChangeException ex) {
+			throw new IllegalStateException("Unable to create synthetic ontology", ex);
+		}
+	}
+
+	/**
+	 * Creates the correspondences of an alignment between the classes of two
+	 * synthetic ontologies. The given share of the correspondences is noise,
+	 * i.e. relates two classes with different numbers.
+	 * @param size number of correspondences
+	 * @param classes number of classes of each ontology
+	 * @param noise share of wrong correspondences between 0 and 1
+	 * @param seed seed of the random numbers
+	 * @return correspondences
+	 */
+	public static List<Correspondence> createCorrespondences(int size, int classes,
+			float noise, long seed) {
+		Random random = new Random(seed);
+		List<Correspondence> correspondences = new ArrayList<Correspondence>(size);
+		Set<String> used = new HashSet<String>();
+		while (correspondences.size() < size) {
+			int first = random.nextInt(classes);
+			int second = random.nextFloat() < noise ? random.nextInt(classes) : first;
+			Correspondence corr = new Correspondence(getClassURI(1, first),
+					getClassURI(2, second), "=", random.nextFloat());
+			if (used.add(corr.getEntity1() + " " + corr.getEntity2())) {
+				correspondences.add(corr);
+			}
+		}
+		return correspondences;
+	}
+
+	/**
+	 * Creates an alignment between two synthetic ontologies
+	 * @param size number of correspondences
+	 * @param classes number of classes of each ontology
+	 * @param noise share of wrong correspondences between 0 and 1
+	 * @param seed seed of the random numbers
+	 * @return alignment
+	 */
+	public static Alignment createAlignment(int size, int classes, float noise, long seed) {
+		return AlignmentManager.toAlignment(getBase(1), getBase(2),
+				new HashSet<Correspondence>(createCorrespondences(size, classes, noise, seed)));
+	}
+}
@@ -0,0 +1,106 @@
+/*
+ *
+ * TypeMapBenchmark.java
+ *
+ * Software License Agreement (BSD License)
+ *
+ * Copyright (c) 2009 Daniel Fleischhacker <dev@dfleischhacker.de>
+ * All rights reserved.
+ *
+ * Redistribution and use of this software in source and binary forms, with or
+ * without modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   1. Redistributions of source code must retain the above copyright notice,
+ *      this list of conditions and the following disclaimer.
+ *
+ *   2. Redistributions in binary form must reproduce the above copyright
+ *      notice, this list of conditions and the following disclaimer in the
+ *      documentation and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package de.dfleischhacker.uni.thesis.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import de.dfleischhacker.uni.thesis.utils.ontology.Ontology;
+import de.dfleischhacker.uni.thesis.utils.types.TypeMap;
+
+/**
+ * Measures building the type map of two ontologies and looking up the types
+ * of their classes by URI.
+ * @author Daniel Fleischhacker <dev@dfleischhacker.de>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TypeMapBenchmark {
+	@Param({ "100", "1000", "10000" })
+	public int entities;
+
+	private Ontology onto1;
+	private Ontology onto2;
+	private TypeMap map;
+	private String[] uris;
+
+	@Setup
+	public void setUp() {
+		onto1 = SyntheticData.createOntology(1, entities);
+		onto2 = SyntheticData.createOntology(2, entities);
+		map = new TypeMap(onto1, onto2);
+
+		// classes of both ontologies and as many unknown URIs
+		int classes = entities - entities / 10;
+		uris = new String[classes * 2];
+		for (int i = 0; i < classes; i++) {
+			uris[2 * i] = SyntheticData.getClassURI(1 + i % 2, i);
+			uris[2 * i + 1] = SyntheticData.getClassURI(1 + i % 2, classes + i);
+		}
+	}
+
+	@Benchmark
+	public TypeMap createTypeMap() {
+		return new TypeMap(onto1, onto2);
+	}
+
+	@Benchmark
+	public int getHandle() {
+		int found = 0;
+		for (String uri : uris) {
+			if (map.getHandle(uri) != null) {
+				found++;
+			}
+		}
+		return found;
+	}
+
+	@Benchmark
+	public int isClass() {
+		int found = 0;
+		for (String uri : uris) {
+			if (map.isClass(uri)) {
+				found++;
+			}
+		}
+		return found;
+	}
+}
@@ -16,6 +16,29 @@ find_java () {
 	echo "Please set the environment variable JAVA_HOME to match your java directory"
 }
 
+# thin client for a running daemon (started by "run.sh --daemon [PORT]"):
+#	run.sh --remote ONTO1 ONTO2 ALIGNMENT REFALIGN [SEMANTIC [THRESHOLD]]
+# the port is taken from SPART_PORT and defaults to 8765
+if [ "$1" = "--remote" ]; then
+	if [ $# -lt 5 ]; then
+		echo "Usage: $0 --remote ONTO1 ONTO2 ALIGNMENT REFALIGN [SEMANTIC [THRESHOLD]]"
+		exit 1
+	fi
+	absolute () {
+		echo "$(cd "$(dirname "$1")" && pwd)/$(basename "$1")"
+	}
+	# quotes the given text as JSON string
+	json () {
+		local text="${1//\\/\\\\}"
+		echo "\"${text//\"/\\\"}\""
+	}
+	# the daemon only accepts JSON, which forms of other sites can not send
+	curl -s -S "http://localhost:${SPART_PORT:-8765}/evaluate" \
+		-H "Content-Type: application/json" \
+		--data-binary "{\"onto1\":`json "$(absolute "$2")"`,\"onto2\":`json "$(absolute "$3")"`,\"align\":`json "$(absolute "$4")"`,\"ref\":`json "$(absolute "$5")"`,\"semantic\":`json "${6:-natural}"`,\"threshold\":`json "${7:-0}"`}"
+	exit $?
+fi
+
 find_java
 
 # change to directory containing this script and thus the JAR file
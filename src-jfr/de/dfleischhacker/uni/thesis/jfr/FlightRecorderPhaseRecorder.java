@@ -0,0 +1,109 @@
+/*
+ *
+ * FlightRecorderPhaseRecorder.java
+ *
+ * Software License Agreement (BSD License)
+ *
+ * Copyright (c) 2009 Daniel Fleischhacker <dev@dfleischhacker.de>
+ * All rights reserved.
+ *
+ * Redistribution and use of this software in source and binary forms, with or
+ * without modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   1. Redistributions of source code must retain the above copyright notice,
+ *      this list of conditions and the following disclaimer.
+ *
+ *   2. Redistributions in binary form must reproduce the above copyright
+ *      notice, this list of conditions and the following disclaimer in the
+ *      documentation and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package de.dfleischhacker.uni.thesis.jfr;
+
+import de.dfleischhacker.uni.thesis.utils.wrapper.PhaseRecorder;
+
+/**
+ * Emits the phases of the calculations as Java Flight Recorder events, so a
+ * recording of a batch run shows the time and allocations of each phase per
+ * case. If the events are not enabled in the running recording, no events
+ * are created.
+ *
+ * This class needs JFR (Java 11 or later). It is part of the optional
+ * src-jfr source folder which is only built on such a JVM and it is loaded
+ * reflectively by the phase timer.
+ * @author Daniel Fleischhacker <dev@dfleischhacker.de>
+ */
+public class FlightRecorderPhaseRecorder implements PhaseRecorder {
+	private static final Span DISABLED_SPAN = new Span() {
+		@Override
+		public void end(long axiomCount, long resultSize, long entailmentChecks) {
+		}
+	};
+
+	private static final Chunk DISABLED_CHUNK = new Chunk() {
+		@Override
+		public void end(long checked, long total) {
+		}
+	};
+
+	@Override
+	public Span start(String caseId, String semantic, String name) {
+		final PhaseEvent event = new PhaseEvent();
+		if (!event.isEnabled()) {
+			return DISABLED_SPAN;
+		}
+		event.caseId = caseId;
+		event.semantic = semantic;
+		event.phase = name;
+		event.begin();
+		return new Span() {
+			@Override
+			public void end(long axiomCount, long resultSize, long entailmentChecks) {
+				event.end();
+				if (event.shouldCommit()) {
+					event.axiomCount = axiomCount;
+					event.resultSize = resultSize;
+					event.entailmentChecks = entailmentChecks;
+					event.commit();
+				}
+			}
+		};
+	}
+
+	@Override
+	public Chunk startChunk(String caseId, String semantic, String name, long first) {
+		final PairChunkEvent event = new PairChunkEvent();
+		if (!event.isEnabled()) {
+			return DISABLED_CHUNK;
+		}
+		event.caseId = caseId;
+		event.semantic = semantic;
+		event.step = name;
+		event.first = first;
+		event.begin();
+		return new Chunk() {
+			@Override
+			public void end(long checked, long total) {
+				event.end();
+				if (event.shouldCommit()) {
+					event.checked = checked;
+					event.total = total;
+					event.commit();
+				}
+			}
+		};
+	}
+}
@@ -0,0 +1,74 @@
+/*
+ *
+ * PhaseEvent.java
+ *
+ * Software License Agreement (BSD License)
+ *
+ * Copyright (c) 2009 Daniel Fleischhacker <dev@dfleischhacker.de>
+ * All rights reserved.
+ *
+ * Redistribution and use of this software in source and binary forms, with or
+ * without modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   1. Redistributions of source code must retain the above copyright notice,
+ *      this list of conditions and the following disclaimer.
+ *
+ *   2. Redistributions in binary form must reproduce the above copyright
+ *      notice, this list of conditions and the following disclaimer in the
+ *      documentation and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package de.dfleischhacker.uni.thesis.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event of a phase of a calculation or a step of a closure
+ * generation
+ * @author Daniel Fleischhacker <dev@dfleischhacker.de>
+ */
+@Name("de.dfleischhacker.spart.Phase")
+@Label("Evaluation Phase")
+@Description("Phase of a calculation of precision and recall or step of a closure generation")
+@Category("spart")
+@StackTrace(false)
+class PhaseEvent extends Event {
+	@Label("Case")
+	String caseId;
+
+	@Label("Semantic")
+	String semantic;
+
+	@Label("Phase")
+	String phase;
+
+	@Label("Axioms")
+	@Description("Number of axioms of the processed ontologies, -1 if unknown")
+	long axiomCount;
+
+	@Label("Result Size")
+	@Description("Size of the result of the phase, e.g. the closure size, -1 if unknown")
+	long resultSize;
+
+	@Label("Entailment Checks")
+	@Description("Number of entailment checks done, -1 if unknown")
+	long entailmentChecks;
+}
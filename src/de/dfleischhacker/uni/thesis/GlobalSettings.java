@@ -33,6 +33,8 @@
 
 package de.dfleischhacker.uni.thesis;
 
+import de.dfleischhacker.uni.thesis.semantic.closure.UnsatisfiablePolicy;
+
 /**
  * Class which contains most (should be all, but who knows) constants used
  * throughout the code.
@@ -64,4 +66,121 @@ public class GlobalSettings {
 	 * General prefix to be used in cases not matches by the previous prefixes
 	 */
 	public static String GENERAL_PREFIX = "http://thesis.dfleischhacker.de/general";
+
+	/**
+	 * Number of worker threads used for parallelized pre-processing steps
+	 */
+	public static int WORKER_THREADS = Runtime.getRuntime().availableProcessors();
+
+	/**
+	 * If set to true, ontologies loaded from local files are stored as binary
+	 * snapshots which are used instead of parsing the file again as long as
+	 * the file is not changed. Enabled by passing --snapshots to the
+	 * batchmode.
+	 */
+	public static boolean USE_SNAPSHOTS = false;
+
+	/**
+	 * Directory to store ontology snapshots in, by default a directory in the
+	 * home directory of the user
+	 */
+	public static String SNAPSHOT_DIRECTORY =
+			System.getProperty("user.home") + java.io.File.separator + ".spart-snapshots";
+
+	/**
+	 * If set to true, ontologies loaded from local files are kept in memory
+	 * and copied instead of being loaded again as long as the file is not
+	 * changed. Enabled by the evaluation daemon and the main window.
+	 */
+	public static boolean USE_ONTOLOGY_POOL = false;
+
+	/**
+	 * If set to true, alignments loaded from local files are kept in memory
+	 * and copied instead of being parsed again as long as the file is not
+	 * changed. Enabled by the evaluation daemon and the main window.
+	 */
+	public static boolean USE_ALIGNMENT_POOL = false;
+
+	/**
+	 * Maximum number of ontologies kept by the ontology pool. If the pool is
+	 * full, the least recently used ontology is dropped.
+	 */
+	public static int ONTOLOGY_POOL_SIZE = 16;
+
+	/**
+	 * Maximum number of alignments kept by the alignment pool. If the pool is
+	 * full, the least recently used alignment is dropped.
+	 */
+	public static int ALIGNMENT_POOL_SIZE = 64;
+
+	/**
+	 * Class name of the PhaseRecorder the phases of each calculation are
+	 * passed to. The default recorder emits Java Flight Recorder events, it is
+	 * only built and used on JVMs supporting JFR. Set to null to disable.
+	 */
+	public static String PHASE_RECORDER =
+			"de.dfleischhacker.uni.thesis.jfr.FlightRecorderPhaseRecorder";
+
+	/**
+	 * If set to true, each calculation opens an ontology session so that all
+	 * ontologies used in the calculation share one OWL data factory.
+	 */
+	public static boolean USE_ONTOLOGY_SESSIONS = true;
+
+	/**
+	 * If set to true, the pragmatic semantic introduces a named proxy class
+	 * for each property which is defined as the property's restriction. The
+	 * relations between property restrictions are then read off the class
+	 * hierarchy instead of checking each of them separately.
+	 */
+	public static boolean USE_PROXY_CLASSES = false;
+
+	/**
+	 * If set to true, the natural semantic computes the closure of aligned
+	 * ontologies which only consist of a class and property hierarchy by graph
+	 * reachability instead of classifying them using Pellet.
+	 */
+	public static boolean USE_HIERARCHY_CLOSURE = true;
+
+	/**
+	 * If set to true, the closure of aligned ontologies in the OWL 2 EL profile
+	 * is read from the taxonomy created by Pellet's EL classifier instead of
+	 * checking each subsumption using the reasoner.
+	 */
+	public static boolean USE_EL_TAXONOMY = true;
+
+	/**
+	 * If set to true, aligned ontologies which consist of several components
+	 * not sharing any entities are classified component by component in
+	 * parallel instead of as a whole.
+	 */
+	public static boolean USE_PARTITIONED_CLASSIFICATION = false;
+
+	/**
+	 * Determines whether correspondences which are only entailed because one
+	 * of their classes is unsatisfiable in the aligned ontology are added to
+	 * the closure (EMIT) or left out (SUPPRESS).
+	 */
+	public static UnsatisfiablePolicy UNSATISFIABLE_POLICY = UnsatisfiablePolicy.EMIT;
+
+	/**
+	 * If set to true, Pellet's explanation is printed if an aligned ontology
+	 * is inconsistent. Generating the explanation may take a long time.
+	 */
+	public static boolean EXPLAIN_INCONSISTENCY = false;
+
+	/**
+	 * If set to true, the minimal sets of correspondences which make an
+	 * aligned ontology inconsistent are determined and printed. This needs
+	 * many consistency checks and is therefore off by default.
+	 */
+	public static boolean LOCALIZE_CONFLICTS = false;
+
+	/**
+	 * If set to true, the correspondence with the lowest measure of each
+	 * conflicting set is dropped and the closure is generated from the
+	 * remaining correspondences instead of failing. Implies
+	 * LOCALIZE_CONFLICTS.
+	 */
+	public static boolean DROP_CONFLICTING_CORRESPONDENCES = false;
 }
@@ -34,7 +34,10 @@
 package de.dfleischhacker.uni.thesis.semantic;
 
 import de.dfleischhacker.uni.thesis.utils.alignment.Alignment;
+import de.dfleischhacker.uni.thesis.utils.alignment.Correspondence;
 import de.dfleischhacker.uni.thesis.utils.ontology.Ontology;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * This class is used to export the data generated internally in the semantic
@@ -57,6 +60,36 @@ public class ClosureResult {
 	 */
 	private Ontology alignedOntology;
 
+	/**
+	 * Number of entity pairs checked for entailed correspondences
+	 */
+	private long candidatePairs;
+
+	/**
+	 * Number of entity pairs skipped because of unsupported entity types
+	 */
+	private long skippedPairs;
+
+	/**
+	 * Number of entailment checks done for the candidate pairs
+	 */
+	private long entailmentChecks;
+
+	/**
+	 * Number of unsatisfiable classes in the aligned ontology
+	 */
+	private int unsatisfiableClasses;
+
+	/**
+	 * Number of correspondences entailed because of unsatisfiable classes
+	 */
+	private long unsatisfiableCorrespondences;
+
+	/**
+	 * Correspondences dropped to make the aligned ontology consistent
+	 */
+	private List<Correspondence> droppedCorrespondences = Collections.emptyList();
+
 	/**
 	 * Initializes the result object to contain the given alignment closure.
 	 * As this is the main payload of this object there is no way of initialization
@@ -94,4 +127,102 @@ public class ClosureResult {
 	public Ontology getAlignedOntology() {
 		return alignedOntology;
 	}
+
+	/**
+	 * Sets the number of entity pairs which have been checked for entailed
+	 * correspondences and the number of pairs which have been skipped since
+	 * their types are not supported by the semantic.
+	 * @param candidatePairs number of checked pairs
+	 * @param skippedPairs number of skipped pairs
+	 */
+	public void setPairCounts(long candidatePairs, long skippedPairs) {
+		this.candidatePairs = candidatePairs;
+		this.skippedPairs = skippedPairs;
+	}
+
+	/**
+	 * Returns the number of entity pairs checked for entailed correspondences
+	 * @return number of checked pairs
+	 */
+	public long getCandidatePairs() {
+		return candidatePairs;
+	}
+
+	/**
+	 * Returns the number of entity pairs skipped because their types are not
+	 * supported by the semantic
+	 * @return number of skipped pairs
+	 */
+	public long getSkippedPairs() {
+		return skippedPairs;
+	}
+
+	/**
+	 * Sets the number of entailment checks which have been done to decide
+	 * whether the candidate pairs are related. Correspondences decided in bulk
+	 * because of unsatisfiable classes and relations read off the hierarchy of
+	 * proxy classes are not counted.
+	 * @param entailmentChecks number of entailment checks
+	 */
+	public void setEntailmentChecks(long entailmentChecks) {
+		this.entailmentChecks = entailmentChecks;
+	}
+
+	/**
+	 * Returns the number of entailment checks done for the candidate pairs
+	 * @return number of entailment checks
+	 */
+	public long getEntailmentChecks() {
+		return entailmentChecks;
+	}
+
+	/**
+	 * Sets the number of unsatisfiable classes in the aligned ontology and the
+	 * number of correspondences which are entailed because of them. Whether
+	 * these correspondences are part of the closure depends on
+	 * GlobalSettings.UNSATISFIABLE_POLICY.
+	 * @param unsatisfiableClasses number of unsatisfiable classes
+	 * @param unsatisfiableCorrespondences number of correspondences entailed
+	 *	by unsatisfiability
+	 */
+	public void setUnsatisfiableCounts(int unsatisfiableClasses,
+			long unsatisfiableCorrespondences) {
+		this.unsatisfiableClasses = unsatisfiableClasses;
+		this.unsatisfiableCorrespondences = unsatisfiableCorrespondences;
+	}
+
+	/**
+	 * Returns the number of unsatisfiable classes in the aligned ontology
+	 * @return number of unsatisfiable classes
+	 */
+	public int getUnsatisfiableClasses() {
+		return unsatisfiableClasses;
+	}
+
+	/**
+	 * Returns the number of correspondences entailed because of unsatisfiable
+	 * classes
+	 * @return number of correspondences entailed by unsatisfiability
+	 */
+	public long getUnsatisfiableCorrespondences() {
+		return unsatisfiableCorrespondences;
+	}
+
+	/**
+	 * Sets the correspondences which have been dropped from the alignment
+	 * because they made the aligned ontology inconsistent
+	 * @param droppedCorrespondences dropped correspondences
+	 */
+	public void setDroppedCorrespondences(List<Correspondence> droppedCorrespondences) {
+		this.droppedCorrespondences = droppedCorrespondences;
+	}
+
+	/**
+	 * Returns the correspondences which have been dropped from the alignment
+	 * because they made the aligned ontology inconsistent
+	 * @return dropped correspondences, empty if none have been dropped
+	 */
+	public List<Correspondence> getDroppedCorrespondences() {
+		return droppedCorrespondences;
+	}
 }
@@ -33,8 +33,10 @@
 
 package de.dfleischhacker.uni.thesis.semantic;
 
+import de.dfleischhacker.uni.thesis.utils.ontology.BaseMerge;
 import de.dfleischhacker.uni.thesis.utils.ontology.MergingException;
 import de.dfleischhacker.uni.thesis.utils.ontology.Ontology;
+import de.dfleischhacker.uni.thesis.utils.ontology.OntologyRenamer;
 
 /**
  * This defines the interface of the semantic factory used to create instances
@@ -51,4 +53,17 @@ public interface SemanticFactory {
 	 */
 	public SemanticModule getInstance(Ontology onto1, Ontology onto2)
 		throws MergingException;
+
+	/**
+	 * Returns an instance of the corresponding SemanticModule initialized by
+	 * using the given ontologies which have already been renamed by the given
+	 * renamer. Used to create several semantic modules for the same pair of
+	 * ontologies.
+	 * @param onto1 first ontology
+	 * @param onto2 second ontology
+	 * @param renamer renamer which has been used to rename the ontologies
+	 * @param base base merge of the ontologies shared by the modules
+	 */
+	public SemanticModule getInstance(Ontology onto1, Ontology onto2,
+			OntologyRenamer renamer, BaseMerge base);
 }
@@ -37,7 +37,10 @@ import de.dfleischhacker.uni.thesis.semantic.nullsemantic.NullSemanticFactory;
 import de.dfleischhacker.uni.thesis.semantic.naturalsemantic.NaturalSemanticFactory;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
+import de.dfleischhacker.uni.thesis.utils.ontology.BaseMerge;
 import de.dfleischhacker.uni.thesis.utils.ontology.Ontology;
+import de.dfleischhacker.uni.thesis.utils.ontology.OntologyRenamer;
 
 /**
  * Provides methods to get semantic modules and contains a list of available
@@ -112,4 +115,42 @@ public class SemanticManager {
 		System.out.println("No module " + name + " found");
 		return null;
 	}
+
+	/**
+	 * Returns instances of the SemanticModule classes determined by the given
+	 * names, all working on the same pair of ontologies. The ontologies are
+	 * renamed only once and the modules share the merge of the renamed
+	 * ontologies, so they only differ in the translation of correspondences.
+	 * @param names names of the semantic modules to instantiate
+	 * @param onto1 first ontology
+	 * @param onto2 second ontology
+	 * @param deleteABox if true ABox of merged ontology is deleted
+	 * @return instances of the semantic module classes in the order of the
+	 *	given names or null if one of the names does not identify such a class
+	 */
+	public static List<SemanticModule> getModuleInstances(String[] names,
+			Ontology onto1, Ontology onto2, boolean deleteABox) {
+		for (String name : names) {
+			if (!moduleMap.containsKey(name)) {
+				System.out.println("No module " + name + " found");
+				return null;
+			}
+		}
+
+		try {
+			OntologyRenamer renamer = new OntologyRenamer(onto1, onto2);
+			BaseMerge base = new BaseMerge(onto1, onto2, deleteABox);
+
+			List<SemanticModule> res = new ArrayList<SemanticModule>(names.length);
+			for (String name : names) {
+				SemanticModule mod = moduleMap.get(name).getInstance(onto1, onto2, renamer, base);
+				mod.setDeleteABox(deleteABox);
+				res.add(mod);
+			}
+			return res;
+		} catch (Exception ex) {
+			System.out.println("Error getting modules: " + ex.getMessage());
+			return null;
+		}
+	}
 }
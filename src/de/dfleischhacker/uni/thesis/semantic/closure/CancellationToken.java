@@ -0,0 +1,267 @@
+/*
+ *
+ * CancellationToken.java
+ *
+ * Software License Agreement (BSD License)
+ *
+ * Copyright (c) 2009 Daniel Fleischhacker <dev@dfleischhacker.de>
+ * All rights reserved.
+ *
+ * Redistribution and use of this software in source and binary forms, with or
+ * without modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   1. Redistributions of source code must retain the above copyright notice,
+ *      this list of conditions and the following disclaimer.
+ *
+ *   2. Redistributions in binary form must reproduce the above copyright
+ *      notice, this list of conditions and the following disclaimer in the
+ *      documentation and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package de.dfleischhacker.uni.thesis.semantic.closure;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.mindswap.pellet.owlapi.Reasoner;
+import org.mindswap.pellet.utils.Timer;
+
+/**
+ * A CancellationToken is used to abort the generation of alignment closures
+ * from another thread. While a token is open for the current thread, the
+ * semantics register each Pellet reasoner they create with it and check the
+ * token between the single steps of the closure generation.
+ *
+ * Pellet does not react to thread interruption. Instead, it checks its
+ * timers while expanding completion graphs and building the taxonomy, so a
+ * cancelled token starts the main timer of each registered reasoner with a
+ * timeout of one millisecond. The reasoner then aborts its current task by
+ * throwing an org.mindswap.pellet.exceptions.TimeoutException.
+ *
+ * A ClosureProgressListener set on the token is informed about the steps of
+ * the closure generation and the number of candidate pairs checked so far.
+ *
+ * Tokens may be nested: a token opened while another one is open is a child
+ * of the outer token. Cancelling the outer token cancels the child as well,
+ * and the progress is reported to the listeners of both.
+ *
+ * Like OntologySessions, tokens are bound to the thread which opened them and
+ * have to be closed by the same thread.
+ *
+ * @author Daniel Fleischhacker <dev@dfleischhacker.de>
+ */
+public class CancellationToken {
+	private static final ThreadLocal<CancellationToken> current =
+			new ThreadLocal<CancellationToken>();
+
+	// number of checked pairs between two reports to the progress listener
+	private static final int PAIR_REPORT_INTERVAL = 100;
+
+	private volatile boolean cancelled;
+	private final List<Reasoner> reasoners;
+	private final List<CancellationToken> children;
+	private final CancellationToken parent;
+	private ClosureProgressListener listener;
+
+	/**
+	 * Creates a new token, use open() to get a token bound to the current
+	 * thread
+	 * @param parent outer token or null
+	 */
+	private CancellationToken(CancellationToken parent) {
+		reasoners = new ArrayList<Reasoner>();
+		children = new ArrayList<CancellationToken>();
+		this.parent = parent;
+	}
+
+	/**
+	 * Opens a new token for the current thread. If there already is an open
+	 * token, the new token is a child of it and replaces it as current token
+	 * until the new token is closed.
+	 * @return opened token
+	 */
+	public static CancellationToken open() {
+		CancellationToken parent = current.get();
+		CancellationToken token = new CancellationToken(parent);
+		if (parent != null) {
+			parent.addChild(token);
+		}
+		current.set(token);
+		return token;
+	}
+
+	/**
+	 * Returns the token opened by the current thread.
+	 * @return current token or null if no token is open
+	 */
+	public static CancellationToken getCurrent() {
+		return current.get();
+	}
+
+	/**
+	 * Closes this token. Registered reasoners are released and the outer
+	 * token, if any, becomes the current token again.
+	 */
+	public void close() {
+		if (current.get() == this) {
+			if (parent != null) {
+				current.set(parent);
+			}
+			else {
+				current.remove();
+			}
+		}
+		if (parent != null) {
+			parent.removeChild(this);
+		}
+		synchronized (this) {
+			reasoners.clear();
+		}
+	}
+
+	/**
+	 * Cancels the closure generation running in the thread of this token
+	 * including the generations of the child tokens. May be called from any
+	 * thread.
+	 */
+	public void cancel() {
+		List<CancellationToken> cancelledChildren;
+		synchronized (this) {
+			cancelled = true;
+			for (Reasoner reasoner : reasoners) {
+				interrupt(reasoner);
+			}
+			cancelledChildren = new ArrayList<CancellationToken>(children);
+		}
+		for (CancellationToken child : cancelledChildren) {
+			child.cancel();
+		}
+	}
+
+	/**
+	 * Adds a child token, which is cancelled at once if this token has
+	 * already been cancelled
+	 */
+	private void addChild(CancellationToken child) {
+		synchronized (this) {
+			children.add(child);
+			if (!cancelled) {
+				return;
+			}
+		}
+		child.cancel();
+	}
+
+	/**
+	 * Removes a closed child token
+	 */
+	private synchronized void removeChild(CancellationToken child) {
+		children.remove(child);
+	}
+
+	/**
+	 * Returns true if this token has been cancelled
+	 * @return true if cancelled, otherwise false
+	 */
+	public boolean isCancelled() {
+		return cancelled;
+	}
+
+	/**
+	 * Sets the listener to inform about the progress of the closure generation
+	 * @param listener listener or null to remove the listener
+	 */
+	public void setProgressListener(ClosureProgressListener listener) {
+		this.listener = listener;
+	}
+
+	/**
+	 * Registers the given reasoner so that it is interrupted when this token
+	 * is cancelled. If the token has already been cancelled, the reasoner is
+	 * interrupted at once.
+	 * @param reasoner reasoner to register
+	 */
+	public synchronized void register(Reasoner reasoner) {
+		reasoners.add(reasoner);
+		if (cancelled) {
+			interrupt(reasoner);
+		}
+	}
+
+	/**
+	 * Registers the given reasoner with the token of the current thread if
+	 * there is one.
+	 * @param reasoner reasoner to register
+	 */
+	public static void registerReasoner(Reasoner reasoner) {
+		CancellationToken token = current.get();
+		if (token != null) {
+			token.register(reasoner);
+		}
+	}
+
+	/**
+	 * Checks whether the token of the current thread has been cancelled.
+	 * @throws ClosureGenerationException if the token has been cancelled
+	 */
+	public static void checkCancelled() throws ClosureGenerationException {
+		CancellationToken token = current.get();
+		if (token != null && token.cancelled) {
+			throw new ClosureGenerationException("Closure generation has been cancelled");
+		}
+	}
+
+	/**
+	 * Reports the start of the given step to the listeners of the current
+	 * thread's token and its outer tokens.
+	 * @param step step started
+	 */
+	public static void reportStep(ClosureStep step) {
+		for (CancellationToken token = current.get(); token != null; token = token.parent) {
+			if (token.listener != null) {
+				token.listener.stepStarted(step);
+			}
+		}
+	}
+
+	/**
+	 * Reports the number of checked candidate pairs to the listeners of the
+	 * current thread's token and its outer tokens. To keep the overhead low, only
+	 * every PAIR_REPORT_INTERVAL-th pair and the last pair are passed on.
+	 * @param checked number of pairs checked so far
+	 * @param total number of pairs to check
+	 */
+	public static void reportPairs(long checked, long total) {
+		if (checked % PAIR_REPORT_INTERVAL != 0 && checked != total) {
+			return;
+		}
+		for (CancellationToken token = current.get(); token != null; token = token.parent) {
+			if (token.listener != null) {
+				token.listener.pairsChecked(checked, total);
+			}
+		}
+	}
+
+	/**
+	 * Makes the given reasoner time out at its next timer check
+	 */
+	private static void interrupt(Reasoner reasoner) {
+		Timer timer = reasoner.getKB().timers.mainTimer;
+		if (!timer.isStarted()) {
+			timer.start();
+		}
+		timer.setTimeout(1);
+	}
+}
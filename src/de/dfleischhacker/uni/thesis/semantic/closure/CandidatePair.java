@@ -0,0 +1,72 @@
+/*
+ *
+ * CandidatePair.java
+ *
+ * Software License Agreement (BSD License)
+ *
+ * Copyright (c) 2009 Daniel Fleischhacker <dev@dfleischhacker.de>
+ * All rights reserved.
+ *
+ * Redistribution and use of this software in source and binary forms, with or
+ * without modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   1. Redistributions of source code must retain the above copyright notice,
+ *      this list of conditions and the following disclaimer.
+ *
+ *   2. Redistributions in binary form must reproduce the above copyright
+ *      notice, this list of conditions and the following disclaimer in the
+ *      documentation and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package de.dfleischhacker.uni.thesis.semantic.closure;
+
+import de.dfleischhacker.uni.thesis.utils.types.EntityHandle;
+
+/**
+ * A pair of entities, one from each ontology, which is checked for entailed
+ * relations while generating the closure of an alignment.
+ * @author Daniel Fleischhacker <dev@dfleischhacker.de>
+ */
+public class CandidatePair {
+	private EntityHandle entity1;
+	private EntityHandle entity2;
+
+	/**
+	 * Creates a new pair of the given entities
+	 * @param entity1 entity from ontology 1
+	 * @param entity2 entity from ontology 2
+	 */
+	public CandidatePair(EntityHandle entity1, EntityHandle entity2) {
+		this.entity1 = entity1;
+		this.entity2 = entity2;
+	}
+
+	/**
+	 * Returns the entity from ontology 1
+	 * @return entity from ontology 1
+	 */
+	public EntityHandle getEntity1() {
+		return entity1;
+	}
+
+	/**
+	 * Returns the entity from ontology 2
+	 * @return entity from ontology 2
+	 */
+	public EntityHandle getEntity2() {
+		return entity2;
+	}
+}
@@ -0,0 +1,263 @@
+/*
+ *
+ * CandidatePairGenerator.java
+ *
+ * Software License Agreement (BSD License)
+ *
+ * Copyright (c) 2009 Daniel Fleischhacker <dev@dfleischhacker.de>
+ * All rights reserved.
+ *
+ * Redistribution and use of this software in source and binary forms, with or
+ * without modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   1. Redistributions of source code must retain the above copyright notice,
+ *      this list of conditions and the following disclaimer.
+ *
+ *   2. Redistributions in binary form must reproduce the above copyright
+ *      notice, this list of conditions and the following disclaimer in the
+ *      documentation and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package de.dfleischhacker.uni.thesis.semantic.closure;
+
+import de.dfleischhacker.uni.thesis.utils.types.EntityHandle;
+import de.dfleischhacker.uni.thesis.utils.types.EntityType;
+import de.dfleischhacker.uni.thesis.utils.types.TypeMap;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Generates the pairs of entities which have to be checked while generating
+ * the closure of an alignment. The entities of both ontologies are put into
+ * buckets by their type and only pairs whose types are supported by the
+ * semantic are generated, so pairs which can never result in an axiom (e.g.
+ * a class and an individual) are not considered at all.
+ *
+ * The supported combinations of types are given as array of type pairs, e.g.
+ * <pre>{ { CLASS, CLASS }, { OBJECT_PROPERTY, OBJECT_PROPERTY } }</pre>
+ * Each pair of entities is generated only once even if it matches several
+ * type combinations because of entities used as class and property.
+ *
+ * @author Daniel Fleischhacker <dev@dfleischhacker.de>
+ */
+public class CandidatePairGenerator implements Iterable<CandidatePair> {
+	private EntityType[][] supportedTypes;
+
+	private EnumMap<EntityType, List<EntityHandle>> buckets1;
+	private EnumMap<EntityType, List<EntityHandle>> buckets2;
+
+	private List<EntityHandle> handles1;
+	private List<EntityHandle> handles2;
+
+	private long totalPairs;
+	private long generatedPairs;
+	private long candidateCount = -1;
+
+	/**
+	 * Initializes the generator for the entities contained in the given map.
+	 * @param map map containing the entities of both ontologies
+	 * @param supportedTypes combinations of entity types supported by the
+	 *	semantic
+	 */
+	public CandidatePairGenerator(TypeMap map, EntityType[][] supportedTypes) {
+		this.supportedTypes = supportedTypes;
+
+		handles1 = map.getHandles(1);
+		handles2 = map.getHandles(2);
+		buckets1 = createBuckets(handles1);
+		buckets2 = createBuckets(handles2);
+
+		totalPairs = (long) map.getReferencedEntityCount(1) *
+				map.getReferencedEntityCount(2);
+	}
+
+	private static EnumMap<EntityType, List<EntityHandle>> createBuckets(
+			List<EntityHandle> handles) {
+		EnumMap<EntityType, List<EntityHandle>> buckets =
+				new EnumMap<EntityType, List<EntityHandle>>(EntityType.class);
+
+		for (EntityType type : EntityType.values()) {
+			buckets.put(type, new ArrayList<EntityHandle>());
+		}
+
+		for (EntityHandle handle : handles) {
+			for (EntityType type : EntityType.values()) {
+				if (handle.isOfType(type)) {
+					buckets.get(type).add(handle);
+				}
+			}
+		}
+
+		return buckets;
+	}
+
+	/**
+	 * Returns the number of pairs generated so far.
+	 * @return number of generated pairs
+	 */
+	public long getGeneratedPairs() {
+		return generatedPairs;
+	}
+
+	/**
+	 * Returns the number of entity pairs which are not generated because their
+	 * types are not supported. This value is only valid after all pairs have
+	 * been generated.
+	 * @return number of skipped pairs
+	 */
+	public long getSkippedPairs() {
+		return totalPairs - generatedPairs;
+	}
+
+	/**
+	 * Returns the number of pairs generated by a complete iteration. The
+	 * number is calculated from the types of the entities without generating
+	 * the pairs.
+	 * @return number of candidate pairs
+	 */
+	public long getCandidateCount() {
+		if (candidateCount < 0) {
+			Map<EnumSet<EntityType>, Integer> signatures1 = countSignatures(handles1);
+			Map<EnumSet<EntityType>, Integer> signatures2 = countSignatures(handles2);
+			candidateCount = 0;
+			for (Map.Entry<EnumSet<EntityType>, Integer> sig1 : signatures1.entrySet()) {
+				for (Map.Entry<EnumSet<EntityType>, Integer> sig2 : signatures2.entrySet()) {
+					if (isSupported(sig1.getKey(), sig2.getKey())) {
+						candidateCount += (long) sig1.getValue() * sig2.getValue();
+					}
+				}
+			}
+		}
+		return candidateCount;
+	}
+
+	/**
+	 * Counts the entities having the same combination of types
+	 */
+	private static Map<EnumSet<EntityType>, Integer> countSignatures(
+			List<EntityHandle> handles) {
+		Map<EnumSet<EntityType>, Integer> signatures =
+				new HashMap<EnumSet<EntityType>, Integer>();
+		for (EntityHandle handle : handles) {
+			EnumSet<EntityType> signature = EnumSet.noneOf(EntityType.class);
+			for (EntityType type : EntityType.values()) {
+				if (handle.isOfType(type)) {
+					signature.add(type);
+				}
+			}
+			Integer count = signatures.get(signature);
+			signatures.put(signature, count == null ? 1 : count + 1);
+		}
+		return signatures;
+	}
+
+	/**
+	 * Checks whether entities of the given types match any supported type
+	 * combination
+	 */
+	private boolean isSupported(EnumSet<EntityType> types1, EnumSet<EntityType> types2) {
+		for (EntityType[] combination : supportedTypes) {
+			if (types1.contains(combination[0]) && types2.contains(combination[1])) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Checks whether the given pair has already been generated for a type
+	 * combination preceding the given one.
+	 */
+	private boolean isGeneratedBefore(EntityHandle ent1, EntityHandle ent2,
+			int combination) {
+		for (int i = 0; i < combination; i++) {
+			if (ent1.isOfType(supportedTypes[i][0]) &&
+				ent2.isOfType(supportedTypes[i][1])) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns an iterator over all candidate pairs. The pairs are generated
+	 * while iterating.
+	 * @return iterator over candidate pairs
+	 */
+	@Override
+	public Iterator<CandidatePair> iterator() {
+		return new Iterator<CandidatePair>() {
+			private int combination = 0;
+			private int index1 = 0;
+			private int index2 = 0;
+			private CandidatePair next = advance();
+
+			private CandidatePair advance() {
+				while (combination < supportedTypes.length) {
+					List<EntityHandle> bucket1 = buckets1.get(supportedTypes[combination][0]);
+					List<EntityHandle> bucket2 = buckets2.get(supportedTypes[combination][1]);
+
+					if (index1 >= bucket1.size() || bucket2.isEmpty()) {
+						index1 = 0;
+						index2 = 0;
+						combination++;
+						continue;
+					}
+					if (index2 >= bucket2.size()) {
+						index2 = 0;
+						index1++;
+						continue;
+					}
+
+					EntityHandle ent1 = bucket1.get(index1);
+					EntityHandle ent2 = bucket2.get(index2++);
+
+					if (!isGeneratedBefore(ent1, ent2, combination)) {
+						generatedPairs++;
+						return new CandidatePair(ent1, ent2);
+					}
+				}
+				return null;
+			}
+
+			@Override
+			public boolean hasNext() {
+				return next != null;
+			}
+
+			@Override
+			public CandidatePair next() {
+				if (next == null) {
+					throw new NoSuchElementException();
+				}
+				CandidatePair current = next;
+				next = advance();
+				return current;
+			}
+
+			@Override
+			public void remove() {
+				throw new UnsupportedOperationException();
+			}
+		};
+	}
+}
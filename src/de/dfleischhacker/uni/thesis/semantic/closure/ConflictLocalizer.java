@@ -0,0 +1,314 @@
+/*
+ *
+ * ConflictLocalizer.java
+ *
+ * Software License Agreement (BSD License)
+ *
+ * Copyright (c) 2009 Daniel Fleischhacker <dev@dfleischhacker.de>
+ * All rights reserved.
+ *
+ * Redistribution and use of this software in source and binary forms, with or
+ * without modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   1. Redistributions of source code must retain the above copyright notice,
+ *      this list of conditions and the following disclaimer.
+ *
+ *   2. Redistributions in binary form must reproduce the above copyright
+ *      notice, this list of conditions and the following disclaimer in the
+ *      documentation and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package de.dfleischhacker.uni.thesis.semantic.closure;
+
+import de.dfleischhacker.uni.thesis.GlobalSettings;
+import de.dfleischhacker.uni.thesis.utils.alignment.Correspondence;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.mindswap.pellet.owlapi.PelletReasonerFactory;
+import org.mindswap.pellet.owlapi.Reasoner;
+import org.semanticweb.owl.apibinding.OWLManager;
+import org.semanticweb.owl.model.AddAxiom;
+import org.semanticweb.owl.model.OWLAxiom;
+import org.semanticweb.owl.model.OWLOntology;
+import org.semanticweb.owl.model.OWLOntologyChange;
+import org.semanticweb.owl.model.OWLOntologyChangeException;
+import org.semanticweb.owl.model.OWLOntologyCreationException;
+import org.semanticweb.owl.model.OWLOntologyManager;
+import org.semanticweb.owl.model.RemoveAxiom;
+
+/**
+ * Localizes the correspondences which make an aligned ontology inconsistent.
+ * Instead of computing an explanation of the inconsistency, which may take
+ * a long time, only the consistency of the merged ontologies together with
+ * subsets of the correspondences is checked.
+ *
+ * The correspondences are added to a working ontology in chunks of growing
+ * size, most confident first, until it gets inconsistent. A minimal
+ * conflicting set is then extracted from the correspondences added so far by
+ * divide and conquer (QuickXplain). The working ontology is kept loaded in a
+ * single reasoner which is notified about all changes, so axioms do not have
+ * to be loaded again for each check.
+ *
+ * @author Daniel Fleischhacker <dev@dfleischhacker.de>
+ */
+public class ConflictLocalizer {
+	private OWLOntologyManager manager;
+	private OWLOntology ontology;
+	private Reasoner reasoner;
+
+	// axioms added by each correspondence which are not part of the merged
+	// ontologies themselves
+	private Map<Correspondence, Set<OWLAxiom>> correspondenceAxioms;
+	// correspondence axioms currently contained in the working ontology
+	private Set<OWLAxiom> loaded = new HashSet<OWLAxiom>();
+
+	private List<List<Correspondence>> conflicts = new ArrayList<List<Correspondence>>();
+	private List<Correspondence> dropped = new ArrayList<Correspondence>();
+	private int checks;
+
+	/**
+	 * Initializes the localizer for the given axioms.
+	 * @param axioms all axioms of the aligned ontology
+	 * @param correspondenceAxioms axioms added to the aligned ontology for
+	 *	each correspondence
+	 * @throws OWLOntologyCreationException if the working ontology can not be
+	 *	created
+	 * @throws OWLOntologyChangeException if the axioms can not be added to the
+	 *	working ontology
+	 */
+	public ConflictLocalizer(Set<OWLAxiom> axioms,
+			Map<Correspondence, Set<OWLAxiom>> correspondenceAxioms)
+			throws OWLOntologyCreationException, OWLOntologyChangeException {
+		Set<OWLAxiom> base = new HashSet<OWLAxiom>(axioms);
+		for (Set<OWLAxiom> corrAxioms : correspondenceAxioms.values()) {
+			base.removeAll(corrAxioms);
+		}
+
+		// axioms which are already contained in one of the merged ontologies
+		// are no part of the correspondences
+		Set<OWLAxiom> original = new HashSet<OWLAxiom>(base);
+		this.correspondenceAxioms = new LinkedHashMap<Correspondence, Set<OWLAxiom>>();
+		for (Map.Entry<Correspondence, Set<OWLAxiom>> entry : correspondenceAxioms.entrySet()) {
+			Set<OWLAxiom> corrAxioms = new HashSet<OWLAxiom>(entry.getValue());
+			corrAxioms.removeAll(original);
+			this.correspondenceAxioms.put(entry.getKey(), corrAxioms);
+		}
+
+		manager = OWLManager.createOWLOntologyManager();
+		ontology = manager.createOntology(URI.create(GlobalSettings.ALIGNED_NAMESPACE + "conflicts"));
+		manager.addAxioms(ontology, base);
+		reasoner = new PelletReasonerFactory().createReasoner(manager);
+		CancellationToken.registerReasoner(reasoner);
+		reasoner.loadOntologies(Collections.singleton(ontology));
+		manager.addOntologyChangeListener(reasoner);
+	}
+
+	/**
+	 * Checks whether the merged ontologies are consistent without any
+	 * correspondence. If they are not, no conflicting set of correspondences
+	 * can be found.
+	 * @return true if the merged ontologies are consistent, false otherwise
+	 * @throws OWLOntologyChangeException if the working ontology can not be
+	 *	changed
+	 */
+	public boolean isBaseConsistent() throws OWLOntologyChangeException {
+		return isConsistent(Collections.<Correspondence>emptyList());
+	}
+
+	/**
+	 * Finds a minimal set of the given correspondences which is inconsistent
+	 * together with the merged ontologies. Removing any of the returned
+	 * correspondences makes the set consistent. The merged ontologies have
+	 * to be consistent on their own.
+	 * @param correspondences correspondences to search
+	 * @return minimal conflicting set or null if the given correspondences are
+	 *	consistent with the merged ontologies
+	 * @throws OWLOntologyChangeException if the working ontology can not be
+	 *	changed
+	 */
+	public List<Correspondence> findConflict(List<Correspondence> correspondences)
+			throws OWLOntologyChangeException {
+		// add chunks of growing size until the ontology gets inconsistent
+		List<Correspondence> prefix;
+		int chunk = 1;
+		int end = 0;
+		while (true) {
+			if (end == correspondences.size()) {
+				return null;
+			}
+			end = Math.min(correspondences.size(), end + chunk);
+			prefix = correspondences.subList(0, end);
+			if (!isConsistent(prefix)) {
+				break;
+			}
+			chunk *= 2;
+		}
+
+		return quickXplain(Collections.<Correspondence>emptyList(), false,
+			new ArrayList<Correspondence>(prefix));
+	}
+
+	/**
+	 * Removes correspondences until the remaining ones are consistent with the
+	 * merged ontologies. From each minimal conflicting set, the correspondence
+	 * with the lowest measure is dropped.
+	 * @return remaining correspondences or null if the merged ontologies are
+	 *	inconsistent on their own
+	 * @throws OWLOntologyChangeException if the working ontology can not be
+	 *	changed
+	 */
+	public List<Correspondence> resolveConflicts() throws OWLOntologyChangeException {
+		if (!isBaseConsistent()) {
+			return null;
+		}
+
+		List<Correspondence> remaining = new ArrayList<Correspondence>(correspondenceAxioms.keySet());
+		Collections.sort(remaining, new Comparator<Correspondence>() {
+			public int compare(Correspondence c1, Correspondence c2) {
+				return Float.compare(c2.getMeasure(), c1.getMeasure());
+			}
+		});
+
+		List<Correspondence> conflict;
+		while ((conflict = findConflict(remaining)) != null) {
+			conflicts.add(conflict);
+			Correspondence weakest = conflict.get(0);
+			for (Correspondence corr : conflict) {
+				if (corr.getMeasure() < weakest.getMeasure()) {
+					weakest = corr;
+				}
+			}
+			remaining.remove(weakest);
+			dropped.add(weakest);
+		}
+		return remaining;
+	}
+
+	/**
+	 * Returns the conflicting sets found by resolveConflicts
+	 * @return minimal conflicting sets
+	 */
+	public List<List<Correspondence>> getConflicts() {
+		return conflicts;
+	}
+
+	/**
+	 * Returns the correspondences dropped by resolveConflicts
+	 * @return dropped correspondences
+	 */
+	public List<Correspondence> getDropped() {
+		return dropped;
+	}
+
+	/**
+	 * Returns the axioms which have to be removed from the aligned ontology
+	 * to remove the dropped correspondences. Axioms which are also added by
+	 * a remaining correspondence are kept.
+	 * @return axioms of the dropped correspondences
+	 */
+	public Set<OWLAxiom> getDroppedAxioms() {
+		Set<OWLAxiom> axioms = new HashSet<OWLAxiom>();
+		for (Correspondence corr : dropped) {
+			axioms.addAll(correspondenceAxioms.get(corr));
+		}
+		for (Map.Entry<Correspondence, Set<OWLAxiom>> entry : correspondenceAxioms.entrySet()) {
+			if (!dropped.contains(entry.getKey())) {
+				axioms.removeAll(entry.getValue());
+			}
+		}
+		return axioms;
+	}
+
+	/**
+	 * Returns the number of consistency checks done so far
+	 * @return number of consistency checks
+	 */
+	public int getCheckCount() {
+		return checks;
+	}
+
+	/**
+	 * QuickXplain as described by Junker. The background together with all
+	 * candidates has to be inconsistent.
+	 * @param background correspondences which are part of every check
+	 * @param added true if correspondences have been added to the background
+	 *	since its last check
+	 * @param candidates correspondences to search for a conflict
+	 * @return minimal subset of the candidates which is inconsistent together
+	 *	with the background
+	 */
+	private List<Correspondence> quickXplain(List<Correspondence> background,
+			boolean added, List<Correspondence> candidates) throws OWLOntologyChangeException {
+		if (added && !isConsistent(background)) {
+			return Collections.emptyList();
+		}
+		if (candidates.size() == 1) {
+			return candidates;
+		}
+
+		int split = candidates.size() / 2;
+		List<Correspondence> first = candidates.subList(0, split);
+		List<Correspondence> second = candidates.subList(split, candidates.size());
+
+		List<Correspondence> conflict2 = quickXplain(concat(background, first), !first.isEmpty(), second);
+		List<Correspondence> conflict1 = quickXplain(concat(background, conflict2), !conflict2.isEmpty(), first);
+		return concat(conflict1, conflict2);
+	}
+
+	private static List<Correspondence> concat(List<Correspondence> l1, List<Correspondence> l2) {
+		List<Correspondence> res = new ArrayList<Correspondence>(l1.size() + l2.size());
+		res.addAll(l1);
+		res.addAll(l2);
+		return res;
+	}
+
+	/**
+	 * Changes the working ontology to contain the axioms of exactly the given
+	 * correspondences and checks its consistency.
+	 */
+	private boolean isConsistent(List<Correspondence> correspondences) throws OWLOntologyChangeException {
+		Set<OWLAxiom> target = new HashSet<OWLAxiom>();
+		for (Correspondence corr : correspondences) {
+			target.addAll(correspondenceAxioms.get(corr));
+		}
+
+		List<OWLOntologyChange> changes = new ArrayList<OWLOntologyChange>();
+		for (OWLAxiom axiom : loaded) {
+			if (!target.contains(axiom)) {
+				changes.add(new RemoveAxiom(ontology, axiom));
+			}
+		}
+		for (OWLAxiom axiom : target) {
+			if (!loaded.contains(axiom)) {
+				changes.add(new AddAxiom(ontology, axiom));
+			}
+		}
+		if (!changes.isEmpty()) {
+			manager.applyChanges(changes);
+		}
+		loaded = target;
+
+		checks++;
+		return reasoner.isConsistent();
+	}
+}
@@ -0,0 +1,65 @@
+/*
+ *
+ * EntailmentChecker.java
+ *
+ * Software License Agreement (BSD License)
+ *
+ * Copyright (c) 2009 Daniel Fleischhacker <dev@dfleischhacker.de>
+ * All rights reserved.
+ *
+ * Redistribution and use of this software in source and binary forms, with or
+ * without modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   1. Redistributions of source code must retain the above copyright notice,
+ *      this list of conditions and the following disclaimer.
+ *
+ *   2. Redistributions in binary form must reproduce the above copyright
+ *      notice, this list of conditions and the following disclaimer in the
+ *      documentation and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package de.dfleischhacker.uni.thesis.semantic.closure;
+
+import de.dfleischhacker.uni.thesis.semantic.EntailmentCheckException;
+import java.util.Set;
+import org.semanticweb.owl.model.OWLAxiom;
+import org.semanticweb.owl.model.OWLClass;
+
+/**
+ * Interface of the classes which are able to check whether an axiom is
+ * entailed by the aligned ontology while generating the closure of an
+ * alignment.
+ * @author Daniel Fleischhacker <dev@dfleischhacker.de>
+ */
+public interface EntailmentChecker {
+	/**
+	 * Checks whether the given axiom is entailed.
+	 * @param axiom axiom to check
+	 * @return true if the axiom is entailed, false otherwise
+	 * @throws EntailmentCheckException if the entailment of the given axiom
+	 *	can not be checked
+	 */
+	public boolean isEntailed(OWLAxiom axiom) throws EntailmentCheckException;
+
+	/**
+	 * Returns all named classes which are unsatisfiable, not including
+	 * owl:Nothing.
+	 * @return unsatisfiable classes
+	 * @throws EntailmentCheckException if the satisfiability of the classes
+	 *	can not be determined
+	 */
+	public Set<OWLClass> getUnsatisfiableClasses() throws EntailmentCheckException;
+}
@@ -0,0 +1,514 @@
+/*
+ *
+ * HierarchyClosureEngine.java
+ *
+ * Software License Agreement (BSD License)
+ *
+ * Copyright (c) 2009 Daniel Fleischhacker <dev@dfleischhacker.de>
+ * All rights reserved.
+ *
+ * Redistribution and use of this software in source and binary forms, with or
+ * without modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   1. Redistributions of source code must retain the above copyright notice,
+ *      this list of conditions and the following disclaimer.
+ *
+ *   2. Redistributions in binary form must reproduce the above copyright
+ *      notice, this list of conditions and the following disclaimer in the
+ *      documentation and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package de.dfleischhacker.uni.thesis.semantic.closure;
+
+import de.dfleischhacker.uni.thesis.semantic.EntailmentCheckException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.semanticweb.owl.model.AxiomType;
+import org.semanticweb.owl.model.OWLAxiom;
+import org.semanticweb.owl.model.OWLClass;
+import org.semanticweb.owl.model.OWLDataFactory;
+import org.semanticweb.owl.model.OWLDataPropertyDomainAxiom;
+import org.semanticweb.owl.model.OWLDataPropertyExpression;
+import org.semanticweb.owl.model.OWLDataPropertyRangeAxiom;
+import org.semanticweb.owl.model.OWLDataRange;
+import org.semanticweb.owl.model.OWLDataSubPropertyAxiom;
+import org.semanticweb.owl.model.OWLDataType;
+import org.semanticweb.owl.model.OWLDescription;
+import org.semanticweb.owl.model.OWLEquivalentClassesAxiom;
+import org.semanticweb.owl.model.OWLEquivalentDataPropertiesAxiom;
+import org.semanticweb.owl.model.OWLEquivalentObjectPropertiesAxiom;
+import org.semanticweb.owl.model.OWLObject;
+import org.semanticweb.owl.model.OWLObjectPropertyDomainAxiom;
+import org.semanticweb.owl.model.OWLObjectPropertyExpression;
+import org.semanticweb.owl.model.OWLObjectPropertyRangeAxiom;
+import org.semanticweb.owl.model.OWLObjectSubPropertyAxiom;
+import org.semanticweb.owl.model.OWLPropertyExpression;
+import org.semanticweb.owl.model.OWLSubClassAxiom;
+import org.semanticweb.owl.model.OWLUnaryPropertyAxiom;
+import org.semanticweb.owl.vocab.OWLRDFVocabulary;
+
+/**
+ * Computes the entailed subsumptions between named classes and properties of
+ * ontologies which only consist of a class and property hierarchy. In such
+ * ontologies, a subsumption is entailed exactly if there is a path from the
+ * subclass (-property) to the superclass (-property) in the graph of the
+ * asserted subsumptions, so no reasoner is needed.
+ *
+ * The graph's strongly connected components, i.e. the sets of equivalent
+ * entities, are collapsed into single nodes and the reachable components of
+ * each component are stored as bit set.
+ *
+ * Use isApplicable to check whether the engine is complete for a given set
+ * of axioms before using it.
+ *
+ * @author Daniel Fleischhacker <dev@dfleischhacker.de>
+ */
+public class HierarchyClosureEngine implements EntailmentChecker {
+	private OWLClass thing;
+
+	// graph nodes and their successors
+	private Map<OWLObject, Integer> nodes;
+	private List<List<Integer>> successors;
+
+	// component of each node and reachable components of each component
+	private int[] component;
+	private BitSet[] reachable;
+
+	/**
+	 * Checks whether the given axioms only describe a hierarchy of named
+	 * classes and properties. Besides subsumption and equivalence axioms
+	 * between named entities, only declarations, annotations, domains and
+	 * ranges which are named classes or datatypes and functional and
+	 * transitive properties are allowed. None of these can introduce further
+	 * subsumptions between named entities or unsatisfiable entities.
+	 *
+	 * The only exception are data properties with two different datatypes as
+	 * range, e.g. xsd:string and xsd:int, which are empty and thus entailed
+	 * to be a subproperty of every data property. Axioms giving a data
+	 * property more than one datatype other than rdfs:Literal as range are
+	 * not applicable. As ranges are inherited by the subproperties, this also
+	 * holds for different ranges of different data properties if there are
+	 * subsumptions or equivalences between data properties.
+	 * @param axioms axioms to check
+	 * @return true if the engine is complete for the given axioms
+	 */
+	public static boolean isApplicable(Set<OWLAxiom> axioms) {
+		// datatype ranges by data property, rdfs:Literal is skipped
+		Map<OWLDataPropertyExpression, OWLDataRange> ranges =
+				new HashMap<OWLDataPropertyExpression, OWLDataRange>();
+		Set<OWLDataRange> distinctRanges = new HashSet<OWLDataRange>();
+		boolean dataHierarchy = false;
+
+		for (OWLAxiom axiom : axioms) {
+			if (!axiom.isLogicalAxiom()) {
+				continue;
+			}
+
+			AxiomType<?> type = axiom.getAxiomType();
+
+			if (type == AxiomType.SUBCLASS) {
+				OWLSubClassAxiom sub = (OWLSubClassAxiom) axiom;
+				if (!isNamedClass(sub.getSubClass()) || !isNamedClass(sub.getSuperClass())) {
+					return false;
+				}
+			}
+			else if (type == AxiomType.EQUIVALENT_CLASSES) {
+				for (OWLDescription desc : ((OWLEquivalentClassesAxiom) axiom).getDescriptions()) {
+					if (!isNamedClass(desc)) {
+						return false;
+					}
+				}
+			}
+			else if (type == AxiomType.SUB_OBJECT_PROPERTY) {
+				OWLObjectSubPropertyAxiom sub = (OWLObjectSubPropertyAxiom) axiom;
+				if (sub.getSubProperty().isAnonymous() || sub.getSuperProperty().isAnonymous()) {
+					return false;
+				}
+			}
+			else if (type == AxiomType.EQUIVALENT_OBJECT_PROPERTIES) {
+				for (OWLObjectPropertyExpression prop : ((OWLEquivalentObjectPropertiesAxiom) axiom).getProperties()) {
+					if (prop.isAnonymous()) {
+						return false;
+					}
+				}
+			}
+			else if (type == AxiomType.SUB_DATA_PROPERTY
+					|| type == AxiomType.EQUIVALENT_DATA_PROPERTIES) {
+				// data properties are always named
+				dataHierarchy = true;
+			}
+			else if (type == AxiomType.FUNCTIONAL_DATA_PROPERTY) {
+				continue;
+			}
+			else if (type == AxiomType.FUNCTIONAL_OBJECT_PROPERTY
+					|| type == AxiomType.TRANSITIVE_OBJECT_PROPERTY) {
+				if (((OWLUnaryPropertyAxiom<?>) axiom).getProperty().isAnonymous()) {
+					return false;
+				}
+			}
+			else if (type == AxiomType.OBJECT_PROPERTY_DOMAIN) {
+				if (!isNamedClass(((OWLObjectPropertyDomainAxiom) axiom).getDomain())) {
+					return false;
+				}
+			}
+			else if (type == AxiomType.OBJECT_PROPERTY_RANGE) {
+				if (!isNamedClass(((OWLObjectPropertyRangeAxiom) axiom).getRange())) {
+					return false;
+				}
+			}
+			else if (type == AxiomType.DATA_PROPERTY_DOMAIN) {
+				if (!isNamedClass(((OWLDataPropertyDomainAxiom) axiom).getDomain())) {
+					return false;
+				}
+			}
+			else if (type == AxiomType.DATA_PROPERTY_RANGE) {
+				OWLDataPropertyRangeAxiom rangeAxiom = (OWLDataPropertyRangeAxiom) axiom;
+				OWLDataRange range = rangeAxiom.getRange();
+				if (!range.isDataType()) {
+					return false;
+				}
+				if (((OWLDataType) range).getURI().equals(OWLRDFVocabulary.RDFS_LITERAL.getURI())) {
+					continue;
+				}
+				// two different datatypes make the property empty
+				OWLDataRange previous = ranges.put(rangeAxiom.getProperty(), range);
+				if (previous != null && !previous.equals(range)) {
+					return false;
+				}
+				distinctRanges.add(range);
+			}
+			else {
+				return false;
+			}
+		}
+
+		// a subproperty also has the ranges of its superproperties
+		if (dataHierarchy && distinctRanges.size() > 1) {
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Checks whether the given description is a named class other than
+	 * owl:Nothing which would make its subclasses unsatisfiable.
+	 */
+	private static boolean isNamedClass(OWLDescription desc) {
+		return !desc.isAnonymous() && !desc.isOWLNothing();
+	}
+
+	/**
+	 * Builds the subsumption graph from the given axioms and computes its
+	 * transitive closure. The axioms have to be applicable.
+	 * @param axioms axioms of the ontology
+	 * @param factory factory used to obtain owl:Thing
+	 */
+	public HierarchyClosureEngine(Set<OWLAxiom> axioms, OWLDataFactory factory) {
+		thing = factory.getOWLThing();
+		nodes = new HashMap<OWLObject, Integer>();
+		successors = new ArrayList<List<Integer>>();
+
+		getNode(thing);
+
+		for (OWLAxiom axiom : axioms) {
+			AxiomType<?> type = axiom.getAxiomType();
+
+			if (type == AxiomType.SUBCLASS) {
+				OWLSubClassAxiom sub = (OWLSubClassAxiom) axiom;
+				addEdge(sub.getSubClass(), sub.getSuperClass());
+			}
+			else if (type == AxiomType.EQUIVALENT_CLASSES) {
+				addEquivalent(((OWLEquivalentClassesAxiom) axiom).getDescriptions());
+			}
+			else if (type == AxiomType.SUB_OBJECT_PROPERTY) {
+				OWLObjectSubPropertyAxiom sub = (OWLObjectSubPropertyAxiom) axiom;
+				addEdge(sub.getSubProperty(), sub.getSuperProperty());
+			}
+			else if (type == AxiomType.EQUIVALENT_OBJECT_PROPERTIES) {
+				addEquivalent(((OWLEquivalentObjectPropertiesAxiom) axiom).getProperties());
+			}
+			else if (type == AxiomType.SUB_DATA_PROPERTY) {
+				OWLDataSubPropertyAxiom sub = (OWLDataSubPropertyAxiom) axiom;
+				addEdge(sub.getSubProperty(), sub.getSuperProperty());
+			}
+			else if (type == AxiomType.EQUIVALENT_DATA_PROPERTIES) {
+				addEquivalent(((OWLEquivalentDataPropertiesAxiom) axiom).getProperties());
+			}
+		}
+
+		// each class is a subclass of owl:Thing
+		int thingNode = nodes.get(thing);
+		for (Map.Entry<OWLObject, Integer> node : nodes.entrySet()) {
+			if (node.getKey() instanceof OWLClass && node.getValue() != thingNode) {
+				successors.get(node.getValue()).add(thingNode);
+			}
+		}
+
+		computeComponents();
+		computeReachability();
+	}
+
+	private int getNode(OWLObject entity) {
+		Integer node = nodes.get(entity);
+		if (node == null) {
+			node = successors.size();
+			nodes.put(entity, node);
+			successors.add(new ArrayList<Integer>(2));
+		}
+		return node;
+	}
+
+	private void addEdge(OWLObject sub, OWLObject sup) {
+		int subNode = getNode(sub);
+		int supNode = getNode(sup);
+		successors.get(subNode).add(supNode);
+	}
+
+	private void addEquivalent(Set<? extends OWLObject> entities) {
+		OWLObject first = null;
+		OWLObject previous = null;
+		// a cycle through all entities makes them equivalent
+		for (OWLObject entity : entities) {
+			if (first == null) {
+				first = entity;
+			}
+			else {
+				addEdge(previous, entity);
+			}
+			previous = entity;
+		}
+		if (first != null && previous != first) {
+			addEdge(previous, first);
+		}
+	}
+
+	/**
+	 * Computes the strongly connected components of the graph using an
+	 * iterative version of Tarjan's algorithm. The components are numbered in
+	 * reverse topological order, i.e. each component only has edges to
+	 * components with smaller numbers.
+	 */
+	private void computeComponents() {
+		int count = successors.size();
+		component = new int[count];
+		int[] index = new int[count];
+		int[] lowlink = new int[count];
+		boolean[] onStack = new boolean[count];
+		int[] stack = new int[count];
+		int stackSize = 0;
+		int[] callStack = new int[count];
+		int[] edgePosition = new int[count];
+		int nextIndex = 1;
+		int nextComponent = 0;
+
+		for (int start = 0; start < count; start++) {
+			if (index[start] != 0) {
+				continue;
+			}
+
+			int depth = 0;
+			callStack[0] = start;
+			index[start] = lowlink[start] = nextIndex++;
+			stack[stackSize++] = start;
+			onStack[start] = true;
+			edgePosition[start] = 0;
+
+			while (depth >= 0) {
+				int node = callStack[depth];
+				List<Integer> succ = successors.get(node);
+
+				if (edgePosition[node] < succ.size()) {
+					int next = succ.get(edgePosition[node]++);
+					if (index[next] == 0) {
+						index[next] = lowlink[next] = nextIndex++;
+						stack[stackSize++] = next;
+						onStack[next] = true;
+						edgePosition[next] = 0;
+						callStack[++depth] = next;
+					}
+					else if (onStack[next]) {
+						lowlink[node] = Math.min(lowlink[node], index[next]);
+					}
+					continue;
+				}
+
+				// all successors visited, node is root of a component
+				if (lowlink[node] == index[node]) {
+					int member;
+					do {
+						member = stack[--stackSize];
+						onStack[member] = false;
+						component[member] = nextComponent;
+					} while (member != node);
+					nextComponent++;
+				}
+
+				depth--;
+				if (depth >= 0) {
+					int parent = callStack[depth];
+					lowlink[parent] = Math.min(lowlink[parent], lowlink[node]);
+				}
+			}
+		}
+
+		reachable = new BitSet[nextComponent];
+	}
+
+	/**
+	 * Computes the components reachable from each component. Since the
+	 * components are numbered in reverse topological order, the reachable
+	 * components of all successors are known when regarding a component.
+	 */
+	private void computeReachability() {
+		List<List<Integer>> members = new ArrayList<List<Integer>>(reachable.length);
+		for (int i = 0; i < reachable.length; i++) {
+			members.add(new ArrayList<Integer>(1));
+		}
+		for (int node = 0; node < component.length; node++) {
+			members.get(component[node]).add(node);
+		}
+
+		for (int comp = 0; comp < reachable.length; comp++) {
+			BitSet reach = new BitSet(reachable.length);
+			reach.set(comp);
+			for (int node : members.get(comp)) {
+				for (int next : successors.get(node)) {
+					int nextComp = component[next];
+					if (nextComp != comp && !reach.get(nextComp)) {
+						reach.or(reachable[nextComp]);
+					}
+				}
+			}
+			reachable[comp] = reach;
+		}
+	}
+
+	/**
+	 * Checks whether the first entity is subsumed by the second one.
+	 */
+	private boolean isSubsumed(OWLObject sub, OWLObject sup) {
+		if (sub.equals(sup)) {
+			return true;
+		}
+
+		Integer supNode = nodes.get(sup);
+		if (supNode == null) {
+			return sup.equals(thing);
+		}
+
+		Integer subNode = nodes.get(sub);
+		if (subNode == null) {
+			// classes not mentioned in any subsumption are only subsumed
+			// by the superclasses of owl:Thing
+			if (!(sub instanceof OWLClass)) {
+				return false;
+			}
+			subNode = nodes.get(thing);
+		}
+
+		return reachable[component[subNode]].get(component[supNode]);
+	}
+
+	private boolean isSubsumed(Set<? extends OWLObject> equivalent) {
+		OWLObject first = null;
+		for (OWLObject entity : equivalent) {
+			if (first == null) {
+				first = entity;
+			}
+			else if (!isSubsumed(first, entity) || !isSubsumed(entity, first)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Checks whether the given subsumption or equivalence axiom between named
+	 * entities is entailed.
+	 * @param axiom axiom to check
+	 * @return true if the axiom is entailed, false otherwise
+	 * @throws EntailmentCheckException if the axiom is no subsumption or
+	 *	equivalence between named entities
+	 */
+	@Override
+	public boolean isEntailed(OWLAxiom axiom) throws EntailmentCheckException {
+		AxiomType<?> type = axiom.getAxiomType();
+
+		if (type == AxiomType.SUBCLASS) {
+			OWLSubClassAxiom sub = (OWLSubClassAxiom) axiom;
+			if (!sub.getSubClass().isAnonymous() && !sub.getSuperClass().isAnonymous()) {
+				return isSubsumed(sub.getSubClass(), sub.getSuperClass());
+			}
+		}
+		else if (type == AxiomType.EQUIVALENT_CLASSES) {
+			Set<OWLDescription> descs = ((OWLEquivalentClassesAxiom) axiom).getDescriptions();
+			if (!containsAnonymous(descs)) {
+				return isSubsumed(descs);
+			}
+		}
+		else if (type == AxiomType.SUB_OBJECT_PROPERTY) {
+			OWLObjectSubPropertyAxiom sub = (OWLObjectSubPropertyAxiom) axiom;
+			if (!sub.getSubProperty().isAnonymous() && !sub.getSuperProperty().isAnonymous()) {
+				return isSubsumed(sub.getSubProperty(), sub.getSuperProperty());
+			}
+		}
+		else if (type == AxiomType.EQUIVALENT_OBJECT_PROPERTIES) {
+			Set<OWLObjectPropertyExpression> props = ((OWLEquivalentObjectPropertiesAxiom) axiom).getProperties();
+			if (!containsAnonymous(props)) {
+				return isSubsumed(props);
+			}
+		}
+		else if (type == AxiomType.SUB_DATA_PROPERTY) {
+			OWLDataSubPropertyAxiom sub = (OWLDataSubPropertyAxiom) axiom;
+			return isSubsumed(sub.getSubProperty(), sub.getSuperProperty());
+		}
+		else if (type == AxiomType.EQUIVALENT_DATA_PROPERTIES) {
+			Set<OWLDataPropertyExpression> props = ((OWLEquivalentDataPropertiesAxiom) axiom).getProperties();
+			return isSubsumed(props);
+		}
+
+		throw new EntailmentCheckException("Unable to check entailment of " + axiom +
+			" using the class and property hierarchy");
+	}
+
+	private static boolean containsAnonymous(Set<? extends OWLObject> objects) {
+		for (OWLObject obj : objects) {
+			if (obj instanceof OWLDescription && ((OWLDescription) obj).isAnonymous()) {
+				return true;
+			}
+			if (obj instanceof OWLPropertyExpression && ((OWLPropertyExpression<?, ?>) obj).isAnonymous()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the unsatisfiable classes. As the hierarchy can neither state
+	 * disjointness nor refer to owl:Nothing, there are none.
+	 * @return empty set
+	 */
+	@Override
+	public Set<OWLClass> getUnsatisfiableClasses() {
+		return Collections.emptySet();
+	}
+}
@@ -0,0 +1,524 @@
+/*
+ *
+ * PartitionedReasoner.java
+ *
+ * Software License Agreement (BSD License)
+ *
+ * Copyright (c) 2009 Daniel Fleischhacker <dev@dfleischhacker.de>
+ * All rights reserved.
+ *
+ * Redistribution and use of this software in source and binary forms, with or
+ * without modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   1. Redistributions of source code must retain the above copyright notice,
+ *      this list of conditions and the following disclaimer.
+ *
+ *   2. Redistributions in binary form must reproduce the above copyright
+ *      notice, this list of conditions and the following disclaimer in the
+ *      documentation and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package de.dfleischhacker.uni.thesis.semantic.closure;
+
+import de.dfleischhacker.uni.thesis.GlobalSettings;
+import de.dfleischhacker.uni.thesis.semantic.EntailmentCheckException;
+import de.dfleischhacker.uni.thesis.utils.ontology.Ontology;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.mindswap.pellet.owlapi.PelletReasonerFactory;
+import org.mindswap.pellet.owlapi.Reasoner;
+import org.semanticweb.owl.apibinding.OWLManager;
+import org.semanticweb.owl.model.AxiomType;
+import org.semanticweb.owl.model.OWLAxiom;
+import org.semanticweb.owl.model.OWLClass;
+import org.semanticweb.owl.model.OWLDataFactory;
+import org.semanticweb.owl.model.OWLDataPropertyExpression;
+import org.semanticweb.owl.model.OWLDataType;
+import org.semanticweb.owl.model.OWLDescription;
+import org.semanticweb.owl.model.OWLEntity;
+import org.semanticweb.owl.model.OWLEquivalentClassesAxiom;
+import org.semanticweb.owl.model.OWLEquivalentDataPropertiesAxiom;
+import org.semanticweb.owl.model.OWLEquivalentObjectPropertiesAxiom;
+import org.semanticweb.owl.model.OWLIndividual;
+import org.semanticweb.owl.model.OWLLogicalAxiom;
+import org.semanticweb.owl.model.OWLObject;
+import org.semanticweb.owl.model.OWLObjectPropertyExpression;
+import org.semanticweb.owl.model.OWLOntology;
+import org.semanticweb.owl.model.OWLOntologyManager;
+import org.semanticweb.owl.model.OWLSubClassAxiom;
+import org.semanticweb.owl.model.OWLSubPropertyAxiom;
+import org.semanticweb.owl.util.OWLEntityCollector;
+
+/**
+ * Classifies an aligned ontology by splitting it into components of axioms
+ * which do not share any entities and classifying each component using its
+ * own Pellet reasoner. The components are classified in parallel using
+ * GlobalSettings.WORKER_THREADS threads.
+ *
+ * Entailments between entities of the same component are answered by the
+ * component's reasoner. As long as the ontology contains no individuals
+ * (and thus no nominals), a description C of one component is subsumed by a
+ * description D of another component exactly if C is unsatisfiable in its
+ * component or D is equivalent to owl:Thing in its component. The same holds
+ * for properties, which are subsumed by any property if they are empty.
+ * Ontologies containing individuals or axioms which only refer to owl:Thing,
+ * owl:Nothing or datatypes are not split.
+ *
+ * @author Daniel Fleischhacker <dev@dfleischhacker.de>
+ */
+public class PartitionedReasoner implements EntailmentChecker {
+	// component containing no entity
+	private static final int FREE = -1;
+	// entities of a description belong to several components
+	private static final int MIXED = -2;
+
+	private OWLDataFactory factory;
+
+	// component of each entity
+	private Map<OWLEntity, Integer> componentOf;
+	// axioms of each component
+	private List<Set<OWLAxiom>> componentAxioms;
+	// reasoners and entailment checkers of each component
+	private Reasoner[] reasoners;
+	private EntailmentChecker[] checkers;
+
+	/**
+	 * Splits the logical axioms of the given ontology into components.
+	 * @param ontology ontology to split
+	 */
+	public PartitionedReasoner(Ontology ontology) {
+		this.factory = ontology.getManager().getOWLDataFactory();
+		partition(ontology.getLogicalAxioms());
+	}
+
+	/**
+	 * Returns the number of components the ontology has been split into.
+	 * @return number of components
+	 */
+	public int getComponentCount() {
+		return componentAxioms.size();
+	}
+
+	/**
+	 * Splits the given axioms into components using a union-find structure
+	 * over the entities referenced by the axioms.
+	 */
+	private void partition(Set<OWLLogicalAxiom> axioms) {
+		Map<OWLEntity, OWLEntity> parent = new HashMap<OWLEntity, OWLEntity>();
+		Map<OWLAxiom, OWLEntity> axiomEntity = new HashMap<OWLAxiom, OWLEntity>();
+
+		componentOf = new HashMap<OWLEntity, Integer>();
+		componentAxioms = new ArrayList<Set<OWLAxiom>>();
+
+		for (OWLAxiom axiom : axioms) {
+			OWLEntity first = null;
+			for (OWLEntity entity : axiom.getReferencedEntities()) {
+				if (entity instanceof OWLIndividual) {
+					// nominals and assertions may restrict the interpretation
+					// domain, so the ontology must not be split
+					singleComponent(axioms);
+					return;
+				}
+				if (isBuiltIn(entity)) {
+					continue;
+				}
+				if (first == null) {
+					first = find(parent, entity);
+				}
+				else {
+					union(parent, first, entity);
+				}
+			}
+			if (first == null) {
+				// global axiom not referring to any entity
+				singleComponent(axioms);
+				return;
+			}
+			axiomEntity.put(axiom, first);
+		}
+
+		Map<OWLEntity, Integer> rootComponent = new HashMap<OWLEntity, Integer>();
+		for (OWLEntity entity : parent.keySet()) {
+			OWLEntity root = find(parent, entity);
+			Integer component = rootComponent.get(root);
+			if (component == null) {
+				component = componentAxioms.size();
+				rootComponent.put(root, component);
+				componentAxioms.add(new HashSet<OWLAxiom>());
+			}
+			componentOf.put(entity, component);
+		}
+
+		for (Map.Entry<OWLAxiom, OWLEntity> entry : axiomEntity.entrySet()) {
+			componentAxioms.get(componentOf.get(entry.getValue())).add(entry.getKey());
+		}
+	}
+
+	private void singleComponent(Set<OWLLogicalAxiom> axioms) {
+		componentOf.clear();
+		componentAxioms.clear();
+		componentAxioms.add(new HashSet<OWLAxiom>(axioms));
+		for (OWLAxiom axiom : axioms) {
+			for (OWLEntity entity : axiom.getReferencedEntities()) {
+				componentOf.put(entity, 0);
+			}
+		}
+	}
+
+	private static boolean isBuiltIn(OWLEntity entity) {
+		if (entity instanceof OWLClass) {
+			OWLClass cls = (OWLClass) entity;
+			return cls.isOWLThing() || cls.isOWLNothing();
+		}
+		return entity instanceof OWLDataType;
+	}
+
+	private static OWLEntity find(Map<OWLEntity, OWLEntity> parent, OWLEntity entity) {
+		OWLEntity root = entity;
+		OWLEntity next = parent.get(root);
+		while (next != null && next != root) {
+			root = next;
+			next = parent.get(root);
+		}
+		if (next == null) {
+			parent.put(root, root);
+		}
+		// compress path
+		while (entity != root) {
+			OWLEntity up = parent.get(entity);
+			parent.put(entity, root);
+			entity = up;
+		}
+		return root;
+	}
+
+	private static void union(Map<OWLEntity, OWLEntity> parent, OWLEntity root, OWLEntity entity) {
+		OWLEntity otherRoot = find(parent, entity);
+		if (otherRoot != root) {
+			parent.put(otherRoot, root);
+		}
+	}
+
+	/**
+	 * Classifies all components in parallel. Each component is loaded into
+	 * an ontology manager and reasoner of its own.
+	 * @throws Exception if the classification of a component fails
+	 */
+	public void classify() throws Exception {
+		int count = componentAxioms.size();
+		reasoners = new Reasoner[count];
+		checkers = new EntailmentChecker[count];
+
+		final OWLOntologyManager[] managers = new OWLOntologyManager[count];
+		final OWLOntology[] ontologies = new OWLOntology[count];
+		for (int i = 0; i < count; i++) {
+			managers[i] = OWLManager.createOWLOntologyManager();
+			ontologies[i] = managers[i].createOntology(
+				URI.create(GlobalSettings.ALIGNED_NAMESPACE + "component" + i));
+			managers[i].addAxioms(ontologies[i], componentAxioms.get(i));
+		}
+
+		int threads = Math.max(1, Math.min(GlobalSettings.WORKER_THREADS, count));
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		// the components are classified by other threads, so their reasoners
+		// are registered with the token of this thread
+		final CancellationToken token = CancellationToken.getCurrent();
+		try {
+			List<Future<Reasoner>> classifications = new ArrayList<Future<Reasoner>>(count);
+			for (int i = 0; i < count; i++) {
+				final int component = i;
+				classifications.add(executor.submit(new Callable<Reasoner>() {
+					public Reasoner call() {
+						Reasoner reasoner = new PelletReasonerFactory().createReasoner(managers[component]);
+						if (token != null) {
+							token.register(reasoner);
+						}
+						reasoner.loadOntologies(Collections.singleton(ontologies[component]));
+						reasoner.classify();
+						return reasoner;
+					}
+				}));
+			}
+
+			for (int i = 0; i < count; i++) {
+				reasoners[i] = waitFor(classifications.get(i));
+			}
+		}
+		finally {
+			executor.shutdownNow();
+		}
+
+		for (int i = 0; i < count; i++) {
+			if (reasoners[i].isConsistent() && GlobalSettings.USE_EL_TAXONOMY &&
+				TaxonomyEntailmentChecker.isApplicable(reasoners[i])) {
+				checkers[i] = new TaxonomyEntailmentChecker(reasoners[i]);
+			}
+			else {
+				checkers[i] = new ReasonerEntailmentChecker(reasoners[i]);
+			}
+		}
+	}
+
+	/**
+	 * Waits for the given task and passes on the exception which made it fail.
+	 * @param future task to wait for
+	 * @return result of the task
+	 * @throws java.lang.Exception exception thrown by the task
+	 */
+	private static <T> T waitFor(Future<T> future) throws Exception {
+		try {
+			return future.get();
+		}
+		catch (ExecutionException e) {
+			if (e.getCause() instanceof Exception) {
+				throw (Exception) e.getCause();
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * Checks whether all components are consistent
+	 * @return true if the ontology is consistent, false otherwise
+	 */
+	public boolean isConsistent() {
+		for (Reasoner reasoner : reasoners) {
+			if (!reasoner.isConsistent()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the unsatisfiable classes of all components
+	 * @return unsatisfiable classes
+	 * @throws EntailmentCheckException if the satisfiability of the classes
+	 *	can not be determined
+	 */
+	@Override
+	public Set<OWLClass> getUnsatisfiableClasses() throws EntailmentCheckException {
+		Set<OWLClass> classes = new HashSet<OWLClass>();
+		for (EntailmentChecker checker : checkers) {
+			classes.addAll(checker.getUnsatisfiableClasses());
+		}
+		return classes;
+	}
+
+	/**
+	 * Returns the reasoners of the components
+	 * @return reasoner of each component
+	 */
+	public Reasoner[] getReasoners() {
+		return reasoners;
+	}
+
+	/**
+	 * Returns the component the given objects belong to.
+	 * @return component number, FREE if no object belongs to a component or
+	 *	MIXED if they belong to different components
+	 */
+	private int getComponent(Set<? extends OWLObject> objects) {
+		Set<OWLEntity> entities = new HashSet<OWLEntity>();
+		for (OWLObject obj : objects) {
+			if (obj instanceof OWLEntity) {
+				entities.add((OWLEntity) obj);
+			}
+			else if (obj instanceof OWLDescription) {
+				OWLEntityCollector collector = new OWLEntityCollector();
+				((OWLDescription) obj).accept(collector);
+				entities.addAll(collector.getObjects());
+			}
+			else if (obj instanceof OWLObjectPropertyExpression) {
+				OWLEntityCollector collector = new OWLEntityCollector();
+				((OWLObjectPropertyExpression) obj).accept(collector);
+				entities.addAll(collector.getObjects());
+			}
+			else {
+				return MIXED;
+			}
+		}
+
+		int component = FREE;
+		int named = 0;
+		boolean free = false;
+		for (OWLEntity entity : entities) {
+			if (isBuiltIn(entity)) {
+				continue;
+			}
+			named++;
+			Integer entityComponent = componentOf.get(entity);
+			if (entityComponent == null) {
+				// an entity not used by any axiom is a component of its own
+				free = true;
+			}
+			else if (component == FREE) {
+				component = entityComponent;
+			}
+			else if (component != entityComponent) {
+				return MIXED;
+			}
+		}
+
+		if (free) {
+			return named == 1 ? FREE : MIXED;
+		}
+		return component;
+	}
+
+	private int getComponent(OWLObject obj) {
+		return getComponent(Collections.singleton(obj));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean isEntailed(OWLAxiom axiom) throws EntailmentCheckException {
+		Set<OWLObject> objects = new HashSet<OWLObject>();
+		AxiomType<?> type = axiom.getAxiomType();
+
+		if (type == AxiomType.SUBCLASS) {
+			OWLSubClassAxiom sub = (OWLSubClassAxiom) axiom;
+			objects.add(sub.getSubClass());
+			objects.add(sub.getSuperClass());
+		}
+		else if (type == AxiomType.EQUIVALENT_CLASSES) {
+			objects.addAll(((OWLEquivalentClassesAxiom) axiom).getDescriptions());
+		}
+		else if (type == AxiomType.SUB_OBJECT_PROPERTY || type == AxiomType.SUB_DATA_PROPERTY) {
+			OWLSubPropertyAxiom<?> sub = (OWLSubPropertyAxiom<?>) axiom;
+			objects.add(sub.getSubProperty());
+			objects.add(sub.getSuperProperty());
+		}
+		else if (type == AxiomType.EQUIVALENT_OBJECT_PROPERTIES) {
+			objects.addAll(((OWLEquivalentObjectPropertiesAxiom) axiom).getProperties());
+		}
+		else if (type == AxiomType.EQUIVALENT_DATA_PROPERTIES) {
+			objects.addAll(((OWLEquivalentDataPropertiesAxiom) axiom).getProperties());
+		}
+		else {
+			throw new EntailmentCheckException("Unable to check entailment of " + axiom +
+				" using a partitioned ontology");
+		}
+
+		// all objects belong to a single component
+		int component = getComponent(objects);
+		if (component >= 0) {
+			return checkers[component].isEntailed(axiom);
+		}
+		if (objects.size() == 1) {
+			// a free entity is only related to itself
+			return true;
+		}
+
+		List<OWLObject> list = new ArrayList<OWLObject>(objects);
+		if (type == AxiomType.SUBCLASS || type == AxiomType.SUB_OBJECT_PROPERTY
+				|| type == AxiomType.SUB_DATA_PROPERTY) {
+			OWLObject subObject;
+			OWLObject superObject;
+			if (type == AxiomType.SUBCLASS) {
+				subObject = ((OWLSubClassAxiom) axiom).getSubClass();
+				superObject = ((OWLSubClassAxiom) axiom).getSuperClass();
+			}
+			else {
+				subObject = ((OWLSubPropertyAxiom<?>) axiom).getSubProperty();
+				superObject = ((OWLSubPropertyAxiom<?>) axiom).getSuperProperty();
+			}
+			return isSubsumedAcross(subObject, superObject);
+		}
+
+		for (OWLObject first : list) {
+			for (OWLObject second : list) {
+				if (first != second && !isSubsumedAcross(first, second)) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Checks whether the first object is subsumed by the second one if they
+	 * belong to different components.
+	 */
+	private boolean isSubsumedAcross(OWLObject sub, OWLObject sup) throws EntailmentCheckException {
+		int subComponent = getComponent(sub);
+		int supComponent = getComponent(sup);
+		if (subComponent == MIXED || supComponent == MIXED) {
+			throw new EntailmentCheckException("Unable to check entailment between " +
+				sub + " and " + sup + " using a partitioned ontology");
+		}
+		if (subComponent == supComponent && subComponent >= 0) {
+			return checkers[subComponent].isEntailed(createSubsumption(sub, sup));
+		}
+
+		if (sub instanceof OWLDescription) {
+			return !isSatisfiable(subComponent, (OWLDescription) sub) ||
+				isThing(supComponent, (OWLDescription) sup);
+		}
+		if (sub instanceof OWLObjectPropertyExpression) {
+			return !isSatisfiable(subComponent, factory.getOWLObjectSomeRestriction(
+				(OWLObjectPropertyExpression) sub, factory.getOWLThing()));
+		}
+		return !isSatisfiable(subComponent, factory.getOWLDataSomeRestriction(
+			(OWLDataPropertyExpression) sub, factory.getTopDataType()));
+	}
+
+	private OWLAxiom createSubsumption(OWLObject sub, OWLObject sup) {
+		if (sub instanceof OWLDescription) {
+			return factory.getOWLSubClassAxiom((OWLDescription) sub, (OWLDescription) sup);
+		}
+		if (sub instanceof OWLObjectPropertyExpression) {
+			return factory.getOWLSubObjectPropertyAxiom(
+				(OWLObjectPropertyExpression) sub, (OWLObjectPropertyExpression) sup);
+		}
+		return factory.getOWLSubDataPropertyAxiom(
+			(OWLDataPropertyExpression) sub, (OWLDataPropertyExpression) sup);
+	}
+
+	private boolean isSatisfiable(int component, OWLDescription desc) {
+		if (desc.isOWLNothing()) {
+			return false;
+		}
+		if (component == FREE) {
+			return true;
+		}
+		return reasoners[component].isSatisfiable(desc);
+	}
+
+	private boolean isThing(int component, OWLDescription desc) {
+		if (desc.isOWLThing()) {
+			return true;
+		}
+		if (component == FREE) {
+			return false;
+		}
+		// desc is equivalent to owl:Thing iff its complement is unsatisfiable
+		return !reasoners[component].isSatisfiable(factory.getOWLObjectComplementOf(desc));
+	}
+}
@@ -0,0 +1,76 @@
+/*
+ *
+ * ReasonerEntailmentChecker.java
+ *
+ * Software License Agreement (BSD License)
+ *
+ * Copyright (c) 2009 Daniel Fleischhacker <dev@dfleischhacker.de>
+ * All rights reserved.
+ *
+ * Redistribution and use of this software in source and binary forms, with or
+ * without modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   1. Redistributions of source code must retain the above copyright notice,
+ *      this list of conditions and the following disclaimer.
+ *
+ *   2. Redistributions in binary form must reproduce the above copyright
+ *      notice, this list of conditions and the following disclaimer in the
+ *      documentation and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package de.dfleischhacker.uni.thesis.semantic.closure;
+
+import de.dfleischhacker.uni.thesis.semantic.EntailmentCheckException;
+import java.util.HashSet;
+import java.util.Set;
+import org.mindswap.pellet.owlapi.Reasoner;
+import org.semanticweb.owl.model.OWLAxiom;
+import org.semanticweb.owl.model.OWLClass;
+
+/**
+ * Checks the entailment of axioms using a Pellet reasoner.
+ * @author Daniel Fleischhacker <dev@dfleischhacker.de>
+ */
+public class ReasonerEntailmentChecker implements EntailmentChecker {
+	private Reasoner reasoner;
+
+	/**
+	 * Initializes the checker to use the given reasoner. The reasoner has to
+	 * have the aligned ontology loaded.
+	 * @param reasoner reasoner to use
+	 */
+	public ReasonerEntailmentChecker(Reasoner reasoner) {
+		this.reasoner = reasoner;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean isEntailed(OWLAxiom axiom) throws EntailmentCheckException {
+		return reasoner.isEntailed(axiom);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Set<OWLClass> getUnsatisfiableClasses() throws EntailmentCheckException {
+		Set<OWLClass> classes = new HashSet<OWLClass>(reasoner.getInconsistentClasses());
+		classes.remove(reasoner.getManager().getOWLDataFactory().getOWLNothing());
+		return classes;
+	}
+}
@@ -0,0 +1,182 @@
+/*
+ *
+ * TaxonomyEntailmentChecker.java
+ *
+ * Software License Agreement (BSD License)
+ *
+ * Copyright (c) 2009 Daniel Fleischhacker <dev@dfleischhacker.de>
+ * All rights reserved.
+ *
+ * Redistribution and use of this software in source and binary forms, with or
+ * without modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   1. Redistributions of source code must retain the above copyright notice,
+ *      this list of conditions and the following disclaimer.
+ *
+ *   2. Redistributions in binary form must reproduce the above copyright
+ *      notice, this list of conditions and the following disclaimer in the
+ *      documentation and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package de.dfleischhacker.uni.thesis.semantic.closure;
+
+import aterm.ATermAppl;
+import de.dfleischhacker.uni.thesis.semantic.EntailmentCheckException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import org.mindswap.pellet.KnowledgeBase;
+import org.mindswap.pellet.owlapi.Reasoner;
+import org.mindswap.pellet.taxonomy.Taxonomy;
+import org.mindswap.pellet.taxonomy.TaxonomyNode;
+import org.mindswap.pellet.utils.ATermUtils;
+import org.semanticweb.owl.model.AxiomType;
+import org.semanticweb.owl.model.OWLAxiom;
+import org.semanticweb.owl.model.OWLClass;
+import org.semanticweb.owl.model.OWLDescription;
+import org.semanticweb.owl.model.OWLEquivalentClassesAxiom;
+import org.semanticweb.owl.model.OWLSubClassAxiom;
+
+/**
+ * Checks the entailment of subsumptions between named classes using the
+ * taxonomy of a classified Pellet knowledge base. This is used for ontologies
+ * in the OWL 2 EL profile which Pellet classifies using its EL classifier
+ * instead of the tableau reasoner. The superclasses of each class are read
+ * from the taxonomy only once.
+ *
+ * All other axioms, and classes which are not contained in the taxonomy, are
+ * passed on to the reasoner.
+ *
+ * @author Daniel Fleischhacker <dev@dfleischhacker.de>
+ */
+public class TaxonomyEntailmentChecker implements EntailmentChecker {
+	private Reasoner reasoner;
+	private Taxonomy<ATermAppl> taxonomy;
+
+	// superclasses of classes already regarded
+	private Map<ATermAppl, Set<ATermAppl>> superClasses;
+
+	/**
+	 * Checks whether the knowledge base of the given reasoner is in the EL
+	 * profile and thus classified by Pellet's EL classifier.
+	 * @param reasoner reasoner to check
+	 * @return true if the loaded ontologies are in the EL profile
+	 */
+	public static boolean isApplicable(Reasoner reasoner) {
+		return reasoner.getKB().getExpressivity().isEL();
+	}
+
+	/**
+	 * Initializes the checker using the given reasoner. The reasoner has to
+	 * be classified already.
+	 * @param reasoner classified reasoner
+	 */
+	public TaxonomyEntailmentChecker(Reasoner reasoner) {
+		KnowledgeBase kb = reasoner.getKB();
+		this.reasoner = reasoner;
+		this.taxonomy = kb.getTaxonomy();
+		this.superClasses = new HashMap<ATermAppl, Set<ATermAppl>>();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean isEntailed(OWLAxiom axiom) throws EntailmentCheckException {
+		AxiomType<?> type = axiom.getAxiomType();
+
+		if (type == AxiomType.SUBCLASS) {
+			OWLSubClassAxiom sub = (OWLSubClassAxiom) axiom;
+			int res = isSubClass(sub.getSubClass(), sub.getSuperClass());
+			if (res >= 0) {
+				return res == 1;
+			}
+		}
+		else if (type == AxiomType.EQUIVALENT_CLASSES) {
+			Set<OWLDescription> descs = ((OWLEquivalentClassesAxiom) axiom).getDescriptions();
+			if (descs.size() == 2) {
+				OWLDescription[] pair = descs.toArray(new OWLDescription[2]);
+				int res1 = isSubClass(pair[0], pair[1]);
+				int res2 = isSubClass(pair[1], pair[0]);
+				if (res1 == 0 || res2 == 0) {
+					return false;
+				}
+				if (res1 == 1 && res2 == 1) {
+					return true;
+				}
+			}
+		}
+
+		return reasoner.isEntailed(axiom);
+	}
+
+	/**
+	 * Checks whether the first description is a subclass of the second one
+	 * using the taxonomy.
+	 * @return 1 if it is a subclass, 0 if it is not, -1 if this can not be
+	 *	decided using the taxonomy
+	 */
+	private int isSubClass(OWLDescription sub, OWLDescription sup) {
+		ATermAppl subTerm = toTerm(sub);
+		ATermAppl supTerm = toTerm(sup);
+		if (subTerm == null || supTerm == null) {
+			return -1;
+		}
+
+		TaxonomyNode<ATermAppl> subNode = taxonomy.getNode(subTerm);
+		TaxonomyNode<ATermAppl> supNode = taxonomy.getNode(supTerm);
+		if (subNode == null || supNode == null) {
+			return -1;
+		}
+		if (subNode.equals(supNode)) {
+			return 1;
+		}
+		if (subNode.isHidden() || supNode.isHidden()) {
+			return -1;
+		}
+
+		Set<ATermAppl> supers = superClasses.get(subTerm);
+		if (supers == null) {
+			supers = taxonomy.getFlattenedSupers(subTerm, false);
+			superClasses.put(subTerm, supers);
+		}
+		return supers.contains(supTerm) ? 1 : 0;
+	}
+
+	private static ATermAppl toTerm(OWLDescription desc) {
+		if (desc.isAnonymous()) {
+			return null;
+		}
+		if (desc.isOWLThing()) {
+			return ATermUtils.TOP;
+		}
+		if (desc.isOWLNothing()) {
+			return ATermUtils.BOTTOM;
+		}
+		return ATermUtils.makeTermAppl(desc.asOWLClass().getURI().toString());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Set<OWLClass> getUnsatisfiableClasses() throws EntailmentCheckException {
+		Set<OWLClass> classes = new HashSet<OWLClass>(reasoner.getInconsistentClasses());
+		classes.remove(reasoner.getManager().getOWLDataFactory().getOWLNothing());
+		return classes;
+	}
+}
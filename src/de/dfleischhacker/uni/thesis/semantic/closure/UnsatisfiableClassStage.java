@@ -0,0 +1,161 @@
+/*
+ *
+ * UnsatisfiableClassStage.java
+ *
+ * Software License Agreement (BSD License)
+ *
+ * Copyright (c) 2009 Daniel Fleischhacker <dev@dfleischhacker.de>
+ * All rights reserved.
+ *
+ * Redistribution and use of this software in source and binary forms, with or
+ * without modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   1. Redistributions of source code must retain the above copyright notice,
+ *      this list of conditions and the following disclaimer.
+ *
+ *   2. Redistributions in binary form must reproduce the above copyright
+ *      notice, this list of conditions and the following disclaimer in the
+ *      documentation and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package de.dfleischhacker.uni.thesis.semantic.closure;
+
+import de.dfleischhacker.uni.thesis.semantic.EntailmentCheckException;
+import java.util.Set;
+import org.semanticweb.owl.model.AxiomType;
+import org.semanticweb.owl.model.OWLAxiom;
+import org.semanticweb.owl.model.OWLClass;
+import org.semanticweb.owl.model.OWLDescription;
+import org.semanticweb.owl.model.OWLEquivalentClassesAxiom;
+import org.semanticweb.owl.model.OWLSubClassAxiom;
+
+/**
+ * Decides class correspondences involving unsatisfiable classes without
+ * asking the reasoner. An unsatisfiable class is a subclass of every class,
+ * so it takes part in a lot of entailed correspondences. The set of
+ * unsatisfiable classes is retrieved once after classification and all
+ * correspondences affected by it are emitted or suppressed according to the
+ * given policy.
+ * @author Daniel Fleischhacker <dev@dfleischhacker.de>
+ */
+public class UnsatisfiableClassStage {
+	private Set<OWLClass> unsatisfiable;
+
+	private UnsatisfiablePolicy policy;
+
+	// number of entailed correspondences involving unsatisfiable classes
+	private long entailedCount;
+
+	/**
+	 * Initializes the stage using the unsatisfiable classes of the given
+	 * checker.
+	 * @param checker checker of the classified aligned ontology
+	 * @param policy policy for correspondences entailed by unsatisfiability
+	 * @throws EntailmentCheckException if the unsatisfiable classes can not be
+	 *	determined
+	 */
+	public UnsatisfiableClassStage(EntailmentChecker checker,
+			UnsatisfiablePolicy policy) throws EntailmentCheckException {
+		this.unsatisfiable = checker.getUnsatisfiableClasses();
+		this.policy = policy;
+	}
+
+	/**
+	 * Checks whether the given axiom is a subsumption or equivalence between
+	 * named classes of which at least one is unsatisfiable. The entailment of
+	 * such axioms is decided by this stage.
+	 * @param axiom axiom to check
+	 * @return true if the axiom is decided by this stage, false otherwise
+	 */
+	public boolean isAffected(OWLAxiom axiom) {
+		if (unsatisfiable.isEmpty()) {
+			return false;
+		}
+
+		if (axiom.getAxiomType() == AxiomType.SUBCLASS) {
+			OWLSubClassAxiom sub = (OWLSubClassAxiom) axiom;
+			return isUnsatisfiable(sub.getSubClass()) || isUnsatisfiable(sub.getSuperClass());
+		}
+
+		if (axiom.getAxiomType() == AxiomType.EQUIVALENT_CLASSES) {
+			for (OWLDescription desc : ((OWLEquivalentClassesAxiom) axiom).getDescriptions()) {
+				if (isUnsatisfiable(desc)) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Checks whether the correspondence represented by the given affected
+	 * axiom is to be added to the closure. The axiom is entailed if its
+	 * subclass is unsatisfiable or, for equivalences, if all of its classes
+	 * are unsatisfiable. Entailed axioms are only added if the policy is EMIT.
+	 * @param axiom axiom for which isAffected returned true
+	 * @return true if the correspondence is entailed and emitted, false
+	 *	otherwise
+	 */
+	public boolean isEmitted(OWLAxiom axiom) {
+		boolean entailed = true;
+		if (axiom.getAxiomType() == AxiomType.SUBCLASS) {
+			entailed = isUnsatisfiable(((OWLSubClassAxiom) axiom).getSubClass());
+		}
+		else {
+			for (OWLDescription desc : ((OWLEquivalentClassesAxiom) axiom).getDescriptions()) {
+				if (!isUnsatisfiable(desc)) {
+					entailed = false;
+				}
+			}
+		}
+
+		if (!entailed) {
+			return false;
+		}
+		entailedCount++;
+		return policy == UnsatisfiablePolicy.EMIT;
+	}
+
+	/**
+	 * Returns the number of unsatisfiable classes of the aligned ontology
+	 * @return number of unsatisfiable classes
+	 */
+	public int getUnsatisfiableCount() {
+		return unsatisfiable.size();
+	}
+
+	/**
+	 * Returns the number of correspondences which have been entailed because
+	 * of unsatisfiable classes. Depending on the policy, they have been
+	 * emitted or suppressed.
+	 * @return number of correspondences entailed by unsatisfiability
+	 */
+	public long getEntailedCount() {
+		return entailedCount;
+	}
+
+	/**
+	 * Returns the policy used by this stage
+	 * @return policy
+	 */
+	public UnsatisfiablePolicy getPolicy() {
+		return policy;
+	}
+
+	private boolean isUnsatisfiable(OWLDescription desc) {
+		return !desc.isAnonymous() && unsatisfiable.contains(desc.asOWLClass());
+	}
+}
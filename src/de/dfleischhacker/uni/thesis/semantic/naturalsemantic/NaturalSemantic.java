@@ -39,28 +39,48 @@ import java.net.URI;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import org.mindswap.pellet.PelletOptions;
 import org.mindswap.pellet.exceptions.InconsistentOntologyException;
 import org.mindswap.pellet.owlapi.PelletReasonerFactory;
 import org.mindswap.pellet.owlapi.Reasoner;
 import org.semanticweb.owl.model.OWLAxiom;
 import org.semanticweb.owl.model.OWLDataFactory;
 import org.semanticweb.owl.model.OWLDataProperty;
-import org.semanticweb.owl.model.OWLEntity;
+import org.semanticweb.owl.model.OWLException;
 import org.semanticweb.owl.model.OWLObjectProperty;
 import org.semanticweb.owl.model.OWLOntology;
+import org.semanticweb.owl.model.OWLOntologyChange;
 import org.semanticweb.owl.model.OWLOntologyChangeException;
 import org.semanticweb.owl.model.OWLOntologyCreationException;
+import org.semanticweb.owl.model.RemoveAxiom;
 import de.dfleischhacker.uni.thesis.GlobalSettings;
+import de.dfleischhacker.uni.thesis.semantic.closure.CandidatePair;
+import de.dfleischhacker.uni.thesis.semantic.closure.CandidatePairGenerator;
+import de.dfleischhacker.uni.thesis.semantic.closure.CancellationToken;
+import de.dfleischhacker.uni.thesis.semantic.closure.ClosureStep;
 import de.dfleischhacker.uni.thesis.semantic.closure.ClosureGenerationException;
+import de.dfleischhacker.uni.thesis.semantic.closure.ConflictLocalizer;
+import de.dfleischhacker.uni.thesis.semantic.closure.EntailmentChecker;
+import de.dfleischhacker.uni.thesis.semantic.closure.HierarchyClosureEngine;
+import de.dfleischhacker.uni.thesis.semantic.closure.PartitionedReasoner;
+import de.dfleischhacker.uni.thesis.semantic.closure.ReasonerEntailmentChecker;
+import de.dfleischhacker.uni.thesis.semantic.closure.TaxonomyEntailmentChecker;
+import de.dfleischhacker.uni.thesis.semantic.closure.UnsatisfiableClassStage;
+import de.dfleischhacker.uni.thesis.semantic.closure.UnsatisfiablePolicy;
 import de.dfleischhacker.uni.thesis.utils.alignment.Alignment;
 import de.dfleischhacker.uni.thesis.utils.alignment.AlignmentManager;
 import de.dfleischhacker.uni.thesis.utils.alignment.Correspondence;
+import de.dfleischhacker.uni.thesis.utils.ontology.BaseMerge;
 import de.dfleischhacker.uni.thesis.utils.ontology.MergingException;
 import de.dfleischhacker.uni.thesis.utils.ontology.Ontology;
 import de.dfleischhacker.uni.thesis.utils.ontology.OntologyManager;
 import de.dfleischhacker.uni.thesis.utils.ontology.OntologyRenamer;
+import de.dfleischhacker.uni.thesis.utils.types.EntityHandle;
+import de.dfleischhacker.uni.thesis.utils.types.EntityType;
 import de.dfleischhacker.uni.thesis.utils.types.TypeMap;
 
 /**
@@ -90,10 +110,20 @@ public class NaturalSemantic implements SemanticModule {
 	private TypeMap map;
 	private Reasoner reasoner;
 	private OntologyRenamer renamer;
+	private BaseMerge base;
 	private boolean deleteABox;
 
 	static List<String> supportedRelations;
 
+	/*
+	 * Combinations of entity types supported by this semantic
+	 */
+	static final EntityType[][] supportedTypes = {
+		{ EntityType.CLASS, EntityType.CLASS },
+		{ EntityType.OBJECT_PROPERTY, EntityType.OBJECT_PROPERTY },
+		{ EntityType.DATA_PROPERTY, EntityType.DATA_PROPERTY }
+	};
+
 	/*
 	 * Add all relations supported by the NaturalSemantic to the list
 	 */
@@ -130,6 +160,27 @@ public class NaturalSemantic implements SemanticModule {
 		map = renamer.getTypeMap();
 	}
 
+	/**
+	 * Initializes the natural semantic module using ontologies which have already
+	 * been renamed by the given renamer. This allows several semantics to
+	 * work on the same pair of ontologies. If a base merge is given, the
+	 * semantic uses its axioms as long as it agrees with the semantic on
+	 * deleting the ABox.
+	 * @param onto1 ontology 1, renamed by renamer
+	 * @param onto2 ontology 2, renamed by renamer
+	 * @param renamer renamer used to rename the given ontologies
+	 * @param base base merge of the given ontologies, may be null
+	 */
+	public NaturalSemantic(Ontology onto1, Ontology onto2, OntologyRenamer renamer, BaseMerge base) {
+		this.onto1 = onto1;
+		this.onto2 = onto2;
+		this.deleteABox = true;
+
+		this.renamer = renamer;
+		this.base = base;
+		map = renamer.getTypeMap();
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -199,132 +250,246 @@ public class NaturalSemantic implements SemanticModule {
 	 */
 	private OWLAxiom toAxiom(String entURI1, String relation, String entURI2,
 			Ontology ontology) {
+		EntityHandle ent1 = map.getHandle(entURI1);
+		EntityHandle ent2 = map.getHandle(entURI2);
+
+		if (ent1 == null || ent2 == null) {
+			return null;
+		}
+
+		return toAxiom(ent1, relation, ent2,
+			ontology.getManager().getOWLDataFactory());
+	}
+
+	/**
+	 * Returns an axiom which represents the relation identified by the given
+	 * relation symbol between the entities of the given handles. The axiom is
+	 * built from the OWL objects kept by the handles. If the combination of
+	 * entity types and relation is unsupported by the natural semantic null
+	 * will be returned.
+	 * @param ent1 handle of first entity
+	 * @param relation relation symbol
+	 * @param ent2 handle of second entity
+	 * @param factory factory to create axiom with
+	 * @return axiom representing the given relation or null on an unsupported
+	 *	combination of entities and relation
+	 */
+	private OWLAxiom toAxiom(EntityHandle ent1, String relation,
+			EntityHandle ent2, OWLDataFactory factory) {
 		OWLAxiom axiom = null;
-		OWLDataFactory factory = ontology.getManager().getOWLDataFactory();
 
 		// handle C - C correspondences
-		if (map.isClass(entURI1) && map.isClass(entURI2)) {
+		if (ent1.isClass() && ent2.isClass()) {
 			if (relation.equalsIgnoreCase("=")) {
 				axiom = factory.getOWLEquivalentClassesAxiom(
-						factory.getOWLClass(
-							URI.create(entURI1)
-						),
-						factory.getOWLClass(
-							URI.create(entURI2)
-						)
-					);
+						ent1.getOWLClass(), ent2.getOWLClass());
 			}
 			if (relation.equalsIgnoreCase("<")) {
 				axiom = factory.getOWLSubClassAxiom(
-						factory.getOWLClass(
-							URI.create(entURI1)
-						),
-						factory.getOWLClass(
-							URI.create(entURI2)
-						)
-					);
+						ent1.getOWLClass(), ent2.getOWLClass());
 			}
 			if (relation.equalsIgnoreCase(">")) {
 				axiom = factory.getOWLSubClassAxiom(
-						factory.getOWLClass(
-							URI.create(entURI2)
-						),
-						factory.getOWLClass(
-							URI.create(entURI1)
-						)
-					);
+						ent2.getOWLClass(), ent1.getOWLClass());
 			}
 		}
 
 		// handle OP - OP correspondences
-		if (map.isObjectProperty(entURI1) &&
-			map.isObjectProperty(entURI2)) {
-
+		if (ent1.isObjectProperty() && ent2.isObjectProperty()) {
 			if (relation.equalsIgnoreCase("=")) {
-				HashSet<OWLObjectProperty> properties = new HashSet(2);
-				properties.add(
-					factory.getOWLObjectProperty(
-						URI.create(entURI1)
-					)
-				);
-				properties.add(
-					factory.getOWLObjectProperty(
-						URI.create(entURI2)
-					)
-				);
+				HashSet<OWLObjectProperty> properties = new HashSet<OWLObjectProperty>(2);
+				properties.add(ent1.getOWLObjectProperty());
+				properties.add(ent2.getOWLObjectProperty());
 
 				axiom = factory.getOWLEquivalentObjectPropertiesAxiom(properties);
 			}
 
 			if (relation.equalsIgnoreCase("<")) {
 				axiom = factory.getOWLSubObjectPropertyAxiom(
-					factory.getOWLObjectProperty(
-						URI.create(entURI1)
-					),
-					factory.getOWLObjectProperty(
-						URI.create(entURI2)
-					)
-				);
+					ent1.getOWLObjectProperty(), ent2.getOWLObjectProperty());
 			}
 
 			if (relation.equalsIgnoreCase(">")) {
 				axiom = factory.getOWLSubObjectPropertyAxiom(
-					factory.getOWLObjectProperty(
-						URI.create(entURI2)
-					),
-					factory.getOWLObjectProperty(
-						URI.create(entURI1)
-					)
-				);
+					ent2.getOWLObjectProperty(), ent1.getOWLObjectProperty());
 			}
 		}
 
 		// handle DP - DP correspondences
-		if (map.isDataProperty(entURI1) &&
-			map.isDataProperty(entURI2)) {
-
+		if (ent1.isDataProperty() && ent2.isDataProperty()) {
 			if (relation.equalsIgnoreCase("=")) {
-				HashSet<OWLDataProperty> properties = new HashSet(2);
-				properties.add(
-					factory.getOWLDataProperty(
-						URI.create(entURI1)
-					)
-				);
-				properties.add(
-					factory.getOWLDataProperty(
-						URI.create(entURI2)
-					)
-				);
+				HashSet<OWLDataProperty> properties = new HashSet<OWLDataProperty>(2);
+				properties.add(ent1.getOWLDataProperty());
+				properties.add(ent2.getOWLDataProperty());
 
 				axiom = factory.getOWLEquivalentDataPropertiesAxiom(properties);
 			}
 
 			if (relation.equalsIgnoreCase("<")) {
 				axiom = factory.getOWLSubDataPropertyAxiom(
-					factory.getOWLDataProperty(
-						URI.create(entURI1)
-					),
-					factory.getOWLDataProperty(
-						URI.create(entURI2)
-					)
-				);
+					ent1.getOWLDataProperty(), ent2.getOWLDataProperty());
 			}
 
 			if (relation.equalsIgnoreCase(">")) {
 				axiom = factory.getOWLSubDataPropertyAxiom(
-					factory.getOWLDataProperty(
-						URI.create(entURI2)
-					),
-					factory.getOWLDataProperty(
-						URI.create(entURI1)
-					)
-				);
+					ent2.getOWLDataProperty(), ent1.getOWLDataProperty());
 			}
 		}
 
 		return axiom;
 	}
 
+	/**
+	 * Returns the entailment checker to use for the given classified reasoner.
+	 * If the aligned ontology is in the EL profile, Pellet has classified it
+	 * using its EL classifier and the subsumptions between named classes are
+	 * read from the resulting taxonomy.
+	 * @param reasoner classified reasoner
+	 * @return entailment checker for the closure generation
+	 */
+	private EntailmentChecker createEntailmentChecker(Reasoner reasoner) {
+		if (GlobalSettings.USE_EL_TAXONOMY && TaxonomyEntailmentChecker.isApplicable(reasoner)) {
+			System.out.println("Aligned ontology is in the EL profile (" +
+				reasoner.getKB().getExpressivity() + "), reading closure from taxonomy");
+			return new TaxonomyEntailmentChecker(reasoner);
+		}
+		return new ReasonerEntailmentChecker(reasoner);
+	}
+
+	/**
+	 * Splits the aligned ontology into components which do not share any
+	 * entities and classifies them in parallel. This is only done if
+	 * GlobalSettings.USE_PARTITIONED_CLASSIFICATION is set and the ontology
+	 * actually splits into more than one component.
+	 * @param alignedOntology aligned ontology to classify
+	 * @return classified components or null if the ontology is not split
+	 * @throws ClosureGenerationException if the classification fails
+	 */
+	private PartitionedReasoner classifyPartitioned(Ontology alignedOntology)
+			throws ClosureGenerationException {
+		if (!GlobalSettings.USE_PARTITIONED_CLASSIFICATION ||
+			!alignedOntology.getManager().getImports(alignedOntology).isEmpty()) {
+			return null;
+		}
+
+		PartitionedReasoner partitioned = new PartitionedReasoner(alignedOntology);
+		if (partitioned.getComponentCount() < 2) {
+			return null;
+		}
+
+		System.out.println("Starting classification of " +
+			partitioned.getComponentCount() + " components");
+		try {
+			partitioned.classify();
+		} catch (Exception ex) {
+			throw new ClosureGenerationException(ex.getMessage());
+		}
+		System.out.println("Finished classification");
+		if (!partitioned.isConsistent()) {
+			if (GlobalSettings.EXPLAIN_INCONSISTENCY) {
+				for (Reasoner componentReasoner : partitioned.getReasoners()) {
+					if (!componentReasoner.isConsistent()) {
+						System.out.println("Expl: " + componentReasoner.getExplanation());
+					}
+				}
+			}
+			throw new InconsistentOntologyException("Combined ontology is inconsistent");
+		}
+		return partitioned;
+	}
+
+	/**
+	 * Classifies the aligned ontology, either as a whole or split into its
+	 * components.
+	 * @param alignedOntology aligned ontology to classify
+	 * @return entailment checker for the closure generation
+	 * @throws ClosureGenerationException if the classification fails
+	 * @throws InconsistentOntologyException if the aligned ontology is
+	 *	inconsistent
+	 */
+	private EntailmentChecker classify(Ontology alignedOntology)
+			throws ClosureGenerationException {
+		CancellationToken.reportStep(ClosureStep.CLASSIFYING);
+
+		// the classification of completely defined concepts misses some
+		// subsumptions depending on the order of the concepts, see the
+		// pragmatic semantic; remove the following line if the Pellet bug
+		// has been fixed
+		PelletOptions.USE_CD_CLASSIFICATION = false;
+
+		EntailmentChecker checker = classifyPartitioned(alignedOntology);
+		if (checker != null) {
+			return checker;
+		}
+
+		PelletReasonerFactory factory = new PelletReasonerFactory();
+		reasoner = factory.createReasoner(alignedOntology.getManager());
+		CancellationToken.registerReasoner(reasoner);
+		Set<OWLOntology> importsClosure = alignedOntology.getManager().getImportsClosure(alignedOntology);
+		reasoner.loadOntologies(importsClosure);
+		System.out.println("Starting classification");
+		reasoner.classify();
+		System.out.println("Finished classification");
+		if (!reasoner.isConsistent()) {
+			if (GlobalSettings.EXPLAIN_INCONSISTENCY) {
+				System.out.println("Expl: " + reasoner.getExplanation());
+			}
+			throw new InconsistentOntologyException("Combined ontology is inconsistent");
+		}
+		return createEntailmentChecker(reasoner);
+	}
+
+	/**
+	 * Localizes the minimal sets of correspondences which make the aligned
+	 * ontology inconsistent. If GlobalSettings.DROP_CONFLICTING_CORRESPONDENCES
+	 * is set, the correspondence with the lowest measure of each set is removed
+	 * from the aligned ontology.
+	 * @param alignedOntology inconsistent aligned ontology
+	 * @param correspondenceAxioms axioms added for each correspondence
+	 * @return dropped correspondences
+	 * @throws ClosureGenerationException if the conflicts can not be localized
+	 * @throws InconsistentOntologyException if the ontology stays inconsistent
+	 */
+	private List<Correspondence> localizeConflicts(Ontology alignedOntology,
+			Map<Correspondence, Set<OWLAxiom>> correspondenceAxioms)
+			throws ClosureGenerationException {
+		System.out.println("Localizing conflicting correspondences");
+		ConflictLocalizer localizer;
+		List<Correspondence> remaining;
+		try {
+			localizer = new ConflictLocalizer(alignedOntology.getAxioms(), correspondenceAxioms);
+			remaining = localizer.resolveConflicts();
+		} catch (OWLException ex) {
+			throw new ClosureGenerationException(ex.getMessage());
+		}
+		if (remaining == null) {
+			throw new InconsistentOntologyException("Combined ontology is inconsistent without correspondences");
+		}
+
+		for (List<Correspondence> conflict : localizer.getConflicts()) {
+			System.out.println("Conflicting correspondences: " + conflict);
+		}
+		System.out.println("Found " + localizer.getConflicts().size() + " conflicts using " +
+			localizer.getCheckCount() + " consistency checks");
+		if (!GlobalSettings.DROP_CONFLICTING_CORRESPONDENCES) {
+			throw new InconsistentOntologyException("Combined ontology is inconsistent");
+		}
+
+		List<OWLOntologyChange> changes = new ArrayList<OWLOntologyChange>();
+		for (OWLAxiom axiom : localizer.getDroppedAxioms()) {
+			changes.add(new RemoveAxiom(alignedOntology, axiom));
+		}
+		try {
+			alignedOntology.getManager().applyChanges(changes);
+		} catch (OWLOntologyChangeException ex) {
+			throw new ClosureGenerationException(ex.getMessage());
+		}
+		for (Correspondence corr : localizer.getDropped()) {
+			System.out.println("Dropped correspondence: " + corr);
+		}
+		return localizer.getDropped();
+	}
+
 	/**
 	 * Returns the closure of the given alignment. This is the method which
 	 * should be used from external methods to get the alignment closure.
@@ -336,6 +501,7 @@ public class NaturalSemantic implements SemanticModule {
 		/*
 		 * Merge the ontologies given the alignment and semantic.
 		 */
+		CancellationToken.reportStep(ClosureStep.MERGING);
 		Ontology alignedOntology;
 		try {
 			alignedOntology = OntologyManager.createOntology(URI.create(GlobalSettings.ALIGNED_NAMESPACE));
@@ -343,31 +509,32 @@ public class NaturalSemantic implements SemanticModule {
 			throw new MergingException(ex.getMessage());
 		}
 
-		// add axioms from ontology 1 to the aligned ontology
-		for (OWLAxiom axiom : onto1.getAxioms()) {
-			try {
-				alignedOntology.getManager().addAxiom(alignedOntology, axiom);
-			} catch (OWLOntologyChangeException ex) {
-				throw new MergingException(ex.getMessage());
-			}
+		// copy the merged axioms of both ontologies into the aligned ontology,
+		// their ABox has already been deleted by the base merge if requested
+		if (base == null || base.isDeleteABox() != deleteABox) {
+			base = new BaseMerge(onto1, onto2, deleteABox);
 		}
-
-		// copy axioms from onto2 into aligned ontology
-		for (OWLAxiom axiom : onto2.getAxioms()) {
-			try {
-				alignedOntology.getManager().addAxiom(alignedOntology, axiom);
-			} catch (OWLOntologyChangeException ex) {
-				throw new MergingException(ex.getMessage());
-			}
+		try {
+			alignedOntology.getManager().addAxioms(alignedOntology, base.getAxioms());
+		} catch (OWLOntologyChangeException ex) {
+			throw new MergingException(ex.getMessage());
 		}
 
 		// add all axioms generated by the translation of correspondences
+		Map<Correspondence, Set<OWLAxiom>> correspondenceAxioms =
+			new LinkedHashMap<Correspondence, Set<OWLAxiom>>();
 		for (Correspondence corr : align.getCorrespondences()) {
 			try {
 				Set<OWLAxiom> axiomset = this.toAxiom(corr, alignedOntology);
 				for (OWLAxiom axiom : axiomset) {
 					alignedOntology.getManager().addAxiom(alignedOntology, axiom);
 				}
+				if (correspondenceAxioms.containsKey(corr)) {
+					correspondenceAxioms.get(corr).addAll(axiomset);
+				}
+				else {
+					correspondenceAxioms.put(corr, new HashSet<OWLAxiom>(axiomset));
+				}
 			} catch (OWLOntologyChangeException ex) {
 				throw new MergingException(ex.getMessage());
 			}
@@ -376,70 +543,110 @@ public class NaturalSemantic implements SemanticModule {
 			}
 		}
 
-		PelletReasonerFactory factory = new PelletReasonerFactory();
+		OWLDataFactory dataFactory = alignedOntology.getManager().getOWLDataFactory();
 
-		if (deleteABox) {
+		/*
+		 * ontologies which only consist of a class and property hierarchy
+		 * do not need a reasoner, their closure is computed by reachability
+		 */
+		EntailmentChecker checker;
+		List<Correspondence> dropped = Collections.emptyList();
+		Set<OWLAxiom> alignedAxioms = alignedOntology.getAxioms();
+		if (GlobalSettings.USE_HIERARCHY_CLOSURE &&
+			alignedOntology.getManager().getImports(alignedOntology).isEmpty() &&
+			HierarchyClosureEngine.isApplicable(alignedAxioms)) {
+			System.out.println("Aligned ontology is a pure hierarchy, computing closure by reachability");
+			checker = new HierarchyClosureEngine(alignedAxioms, dataFactory);
+		}
+		else {
 			try {
-				alignedOntology.deleteABox();
-			} catch (Exception ex) {
-				System.out.println("Unable to delete ABox");
+				checker = classify(alignedOntology);
+			} catch (InconsistentOntologyException ex) {
+				if (!GlobalSettings.LOCALIZE_CONFLICTS &&
+					!GlobalSettings.DROP_CONFLICTING_CORRESPONDENCES) {
+					throw ex;
+				}
+				dropped = localizeConflicts(alignedOntology, correspondenceAxioms);
+				checker = classify(alignedOntology);
 			}
 		}
 
-		reasoner = factory.createReasoner(alignedOntology.getManager());
-		Set<OWLOntology> importsClosure = alignedOntology.getManager().getImportsClosure(alignedOntology);
-		reasoner.loadOntologies(importsClosure);
-		System.out.println("Starting classification");
-		reasoner.classify();
-		System.out.println("Finished classification");
-		if (!reasoner.isConsistent()) {
-			System.out.println("Expl: " + reasoner.getExplanation());
-			throw new InconsistentOntologyException("Combined ontology is inconsistent");
-		}
-
 		Alignment closure = AlignmentManager.getEmptyAlignment();
 		closure.setOntology1(onto1.getURI().toString());
 		closure.setOntology2(onto2.getURI().toString());
 
-		Set<OWLEntity> entities1 = onto1.getReferencedEntities();
-		Set<OWLEntity> entities2 = onto2.getReferencedEntities();
+		CandidatePairGenerator candidates = new CandidatePairGenerator(map, supportedTypes);
+		long candidateCount = candidates.getCandidateCount();
+		long checkedPairs = 0;
+		long entailmentChecks = 0;
+
+		// correspondences of unsatisfiable classes are decided in bulk
+		UnsatisfiableClassStage unsatisfiable;
+		try {
+			unsatisfiable = new UnsatisfiableClassStage(checker, GlobalSettings.UNSATISFIABLE_POLICY);
+		} catch (EntailmentCheckException ex) {
+			throw new ClosureGenerationException(ex.getMessage());
+		}
 
 		/*
-		 * iterate over all possible entity-relation-entity combinations and
-		 * check if they are entailed by the aligned ontology
+		 * iterate over all entity-relation-entity combinations of supported
+		 * entity types and check if they are entailed by the aligned ontology
 		 */
-		for (OWLEntity ent1 : entities1) {
-			for (OWLEntity ent2 : entities2) {
-				for (String relation : supportedRelations) {
-					OWLAxiom axiom = this.toAxiom(
-						ent1.getURI().toString(),
-						relation,
-						ent2.getURI().toString(),
-						alignedOntology
-					);
+		CancellationToken.reportStep(ClosureStep.CHECKING_PAIRS);
+		for (CandidatePair pair : candidates) {
+			CancellationToken.checkCancelled();
+			CancellationToken.reportPairs(checkedPairs++, candidateCount);
+			EntityHandle ent1 = pair.getEntity1();
+			EntityHandle ent2 = pair.getEntity2();
+			for (String relation : supportedRelations) {
+				OWLAxiom axiom = this.toAxiom(ent1, relation, ent2, dataFactory);
+
+				// the combination of entities and relation is unsupported
+				if (axiom == null) {
+					continue;
+				}
 
-					// the combination of entities and relation is unsupported
-					if (axiom == null) {
-						continue;
+				boolean entailed = false;
+				if (unsatisfiable.isAffected(axiom)) {
+					entailed = unsatisfiable.isEmitted(axiom);
+				}
+				else {
+					entailmentChecks++;
+					try {
+						entailed = checker.isEntailed(axiom);
+					} catch (EntailmentCheckException ex) {
+						throw new ClosureGenerationException(ex.getMessage());
 					}
+				}
 
-					boolean entailed = false;
-					entailed = reasoner.isEntailed(axiom);
-
-					if (entailed) {
-						Correspondence corr = new Correspondence(
-								ent1.getURI().toString(),
-								ent2.getURI().toString(),
-								relation
-						);
-						closure.addCorrespondence(corr);
-					}
+				if (entailed) {
+					Correspondence corr = new Correspondence(
+							ent1.getURI(),
+							ent2.getURI(),
+							relation
+					);
+					closure.addCorrespondence(corr);
 				}
 			}
 		}
+		CancellationToken.reportPairs(checkedPairs, candidateCount);
+		System.out.println("Checked " + candidates.getGeneratedPairs() +
+			" entity pairs, skipped " + candidates.getSkippedPairs() +
+			" pairs of unsupported entity types");
+		if (unsatisfiable.getUnsatisfiableCount() > 0) {
+			System.out.println("Found " + unsatisfiable.getUnsatisfiableCount() +
+				" unsatisfiable classes, " + unsatisfiable.getEntailedCount() +
+				" correspondences entailed by them have been " +
+				(unsatisfiable.getPolicy() == UnsatisfiablePolicy.EMIT ? "emitted" : "suppressed"));
+		}
 
 		ClosureResult res = new ClosureResult(closure);
 		res.setAlignedOntology(alignedOntology);
+		res.setPairCounts(candidates.getGeneratedPairs(), candidates.getSkippedPairs());
+		res.setEntailmentChecks(entailmentChecks);
+		res.setUnsatisfiableCounts(unsatisfiable.getUnsatisfiableCount(),
+			unsatisfiable.getEntailedCount());
+		res.setDroppedCorrespondences(dropped);
 		return res;
 	}
 }
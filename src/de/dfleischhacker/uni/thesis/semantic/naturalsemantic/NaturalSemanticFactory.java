@@ -34,8 +34,10 @@
 package de.dfleischhacker.uni.thesis.semantic.naturalsemantic;
 
 import de.dfleischhacker.uni.thesis.semantic.*;
+import de.dfleischhacker.uni.thesis.utils.ontology.BaseMerge;
 import de.dfleischhacker.uni.thesis.utils.ontology.MergingException;
 import de.dfleischhacker.uni.thesis.utils.ontology.Ontology;
+import de.dfleischhacker.uni.thesis.utils.ontology.OntologyRenamer;
 
 /**
  * The factory implementation for the NaturalSemantic class. Solely used
@@ -58,4 +60,15 @@ public class NaturalSemanticFactory implements SemanticFactory {
 			throws MergingException{
 		return new NaturalSemantic(onto1, onto2);
 	}
+
+	/**
+	 * Creates an instance of the NaturalSemantic class working on already renamed
+	 * ontologies
+	 * @return the new NaturalSemantic instance
+	 */
+	@Override
+	public SemanticModule getInstance(Ontology onto1, Ontology onto2,
+			OntologyRenamer renamer, BaseMerge base) {
+		return new NaturalSemantic(onto1, onto2, renamer, base);
+	}
 }
@@ -34,8 +34,10 @@
 package de.dfleischhacker.uni.thesis.semantic.nullsemantic;
 
 import de.dfleischhacker.uni.thesis.semantic.*;
+import de.dfleischhacker.uni.thesis.utils.ontology.BaseMerge;
 import de.dfleischhacker.uni.thesis.utils.ontology.MergingException;
 import de.dfleischhacker.uni.thesis.utils.ontology.Ontology;
+import de.dfleischhacker.uni.thesis.utils.ontology.OntologyRenamer;
 
 /**
  * The factory implementation for the NullSemantic class. Solely used
@@ -58,4 +60,15 @@ public class NullSemanticFactory implements SemanticFactory {
 			throws MergingException{
 		return new NullSemantic();
 	}
+
+	/**
+	 * Creates an instance of the NullSemantic class, the ontologies, the
+	 * renamer and the base merge are ignored
+	 * @return the new NullSemantic instance
+	 */
+	@Override
+	public SemanticModule getInstance(Ontology onto1, Ontology onto2,
+			OntologyRenamer renamer, BaseMerge base) {
+		return new NullSemantic();
+	}
 }
@@ -34,8 +34,10 @@
 package de.dfleischhacker.uni.thesis.semantic.pragmaticsemantic;
 
 import de.dfleischhacker.uni.thesis.semantic.*;
+import de.dfleischhacker.uni.thesis.utils.ontology.BaseMerge;
 import de.dfleischhacker.uni.thesis.utils.ontology.MergingException;
 import de.dfleischhacker.uni.thesis.utils.ontology.Ontology;
+import de.dfleischhacker.uni.thesis.utils.ontology.OntologyRenamer;
 
 /**
  * The factory implementation for the PragmaticSemantic class. Solely used
@@ -58,4 +60,15 @@ public class PragmaticSemanticFactory implements SemanticFactory {
 			throws MergingException{
 		return new PragmaticSemantic(onto1, onto2);
 	}
+
+	/**
+	 * Returns an instance of the PragmaticSemantic class working on already renamed
+	 * ontologies
+	 * @return the new PragmaticSemantic instance
+	 */
+	@Override
+	public SemanticModule getInstance(Ontology onto1, Ontology onto2,
+			OntologyRenamer renamer, BaseMerge base) {
+		return new PragmaticSemantic(onto1, onto2, renamer, base);
+	}
 }
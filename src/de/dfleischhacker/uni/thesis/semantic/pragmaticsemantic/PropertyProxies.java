@@ -0,0 +1,208 @@
+/*
+ *
+ * PropertyProxies.java
+ *
+ * Software License Agreement (BSD License)
+ *
+ * Copyright (c) 2009 Daniel Fleischhacker <dev@dfleischhacker.de>
+ * All rights reserved.
+ *
+ * Redistribution and use of this software in source and binary forms, with or
+ * without modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   1. Redistributions of source code must retain the above copyright notice,
+ *      this list of conditions and the following disclaimer.
+ *
+ *   2. Redistributions in binary form must reproduce the above copyright
+ *      notice, this list of conditions and the following disclaimer in the
+ *      documentation and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package de.dfleischhacker.uni.thesis.semantic.pragmaticsemantic;
+
+import de.dfleischhacker.uni.thesis.GlobalSettings;
+import de.dfleischhacker.uni.thesis.utils.types.EntityHandle;
+import de.dfleischhacker.uni.thesis.utils.types.TypeMap;
+import java.net.URI;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import org.mindswap.pellet.owlapi.Reasoner;
+import org.semanticweb.owl.model.OWLAxiom;
+import org.semanticweb.owl.model.OWLClass;
+import org.semanticweb.owl.model.OWLDataFactory;
+
+/**
+ * Named proxy classes for the properties of the pragmatic semantic. The
+ * pragmatic semantic represents a property p by the restriction "some values
+ * of p" (i.e. the domain of p) if it is related to a property of another kind.
+ * Checking the entailment of axioms between such restrictions requires a
+ * separate reasoner call for each pair.
+ *
+ * For each property a proxy class P with P = some p.Thing is introduced before
+ * the aligned ontology is classified. The relations between the restrictions
+ * are then read off the classified hierarchy of the proxy classes at once.
+ *
+ * @author Daniel Fleischhacker <dev@dfleischhacker.de>
+ */
+class PropertyProxies {
+	private static final String PROXY_NAMESPACE = GlobalSettings.GENERAL_PREFIX + "/proxy#";
+
+	// proxy classes of data and object properties
+	private Map<EntityHandle, OWLClass> dataProxies;
+	private Map<EntityHandle, OWLClass> objectProxies;
+
+	// definitions of proxy classes
+	private Set<OWLAxiom> axioms;
+
+	// proxy classes and their (inferred) superclasses including themselves
+	private Map<OWLClass, Set<OWLClass>> superClasses;
+
+	// unsatisfiable proxy classes
+	private Set<OWLClass> unsatisfiable;
+
+	/**
+	 * Creates the proxy classes for all properties contained in the given
+	 * map.
+	 * @param map map containing the properties of both ontologies
+	 * @param factory factory to create proxy classes and definitions with
+	 */
+	PropertyProxies(TypeMap map, OWLDataFactory factory) {
+		dataProxies = new HashMap<EntityHandle, OWLClass>();
+		objectProxies = new HashMap<EntityHandle, OWLClass>();
+		axioms = new HashSet<OWLAxiom>();
+
+		for (int i = 0; i < map.size(); i++) {
+			EntityHandle handle = map.getHandle(i);
+
+			if (handle.isDataProperty()) {
+				OWLClass proxy = factory.getOWLClass(
+					URI.create(PROXY_NAMESPACE + "DataProxy_" + handle.getId()));
+				dataProxies.put(handle, proxy);
+				axioms.add(factory.getOWLEquivalentClassesAxiom(proxy,
+					factory.getOWLDataSomeRestriction(
+						handle.getOWLDataProperty(), factory.getTopDataType())));
+			}
+
+			if (handle.isObjectProperty()) {
+				OWLClass proxy = factory.getOWLClass(
+					URI.create(PROXY_NAMESPACE + "ObjectProxy_" + handle.getId()));
+				objectProxies.put(handle, proxy);
+				axioms.add(factory.getOWLEquivalentClassesAxiom(proxy,
+					factory.getOWLObjectSomeRestriction(
+						handle.getOWLObjectProperty(), factory.getOWLThing())));
+			}
+		}
+	}
+
+	/**
+	 * Returns the axioms defining the proxy classes. These have to be added to
+	 * the aligned ontology before it is classified.
+	 * @return definitions of proxy classes
+	 */
+	Set<OWLAxiom> getAxioms() {
+		return axioms;
+	}
+
+	/**
+	 * Reads the inferred superclasses of all proxy classes from the given
+	 * reasoner. The reasoner has to be classified already.
+	 * @param reasoner classified reasoner
+	 */
+	void readHierarchy(Reasoner reasoner) {
+		superClasses = new HashMap<OWLClass, Set<OWLClass>>();
+		unsatisfiable = new HashSet<OWLClass>(reasoner.getInconsistentClasses());
+
+		readHierarchy(reasoner, dataProxies.values());
+		readHierarchy(reasoner, objectProxies.values());
+	}
+
+	private void readHierarchy(Reasoner reasoner, Iterable<OWLClass> proxies) {
+		for (OWLClass proxy : proxies) {
+			if (unsatisfiable.contains(proxy)) {
+				continue;
+			}
+			Set<OWLClass> supers = new HashSet<OWLClass>();
+			supers.add(proxy);
+			supers.addAll(reasoner.getEquivalentClasses(proxy));
+			for (Set<OWLClass> ancestors : reasoner.getAncestorClasses(proxy)) {
+				supers.addAll(ancestors);
+			}
+			superClasses.put(proxy, supers);
+		}
+	}
+
+	/**
+	 * Checks whether the given pair of entities is represented by proxy
+	 * classes, i.e. whether the pragmatic semantic relates them by the
+	 * restrictions of their properties (DP - DP, DP - OP and OP - DP).
+	 * @param ent1 entity of ontology 1
+	 * @param ent2 entity of ontology 2
+	 * @return true if the pair is represented by proxy classes
+	 */
+	boolean isProxyPair(EntityHandle ent1, EntityHandle ent2) {
+		return (ent1.isObjectProperty() && ent2.isDataProperty()) ||
+			(ent1.isDataProperty() && ent2.isObjectProperty()) ||
+			(ent1.isDataProperty() && ent2.isDataProperty());
+	}
+
+	/**
+	 * Checks whether the given relation between the restrictions of the given
+	 * properties is entailed. The pair has to be a proxy pair and the
+	 * hierarchy has to be read before.
+	 * @param ent1 property of ontology 1
+	 * @param relation relation symbol
+	 * @param ent2 property of ontology 2
+	 * @return true if the relation is entailed, false otherwise
+	 */
+	boolean isEntailed(EntityHandle ent1, String relation, EntityHandle ent2) {
+		OWLClass proxy1;
+		OWLClass proxy2;
+
+		// same precedence of entity types as used by PragmaticSemantic.toAxiom
+		if (ent1.isObjectProperty() && ent2.isDataProperty()) {
+			proxy1 = objectProxies.get(ent1);
+			proxy2 = dataProxies.get(ent2);
+		}
+		else if (ent1.isDataProperty() && ent2.isObjectProperty()) {
+			proxy1 = dataProxies.get(ent1);
+			proxy2 = objectProxies.get(ent2);
+		}
+		else {
+			proxy1 = dataProxies.get(ent1);
+			proxy2 = dataProxies.get(ent2);
+		}
+
+		if (relation.equalsIgnoreCase("=")) {
+			return isSubClass(proxy1, proxy2) && isSubClass(proxy2, proxy1);
+		}
+		if (relation.equalsIgnoreCase("<")) {
+			return isSubClass(proxy2, proxy1);
+		}
+		if (relation.equalsIgnoreCase(">")) {
+			return isSubClass(proxy1, proxy2);
+		}
+		return false;
+	}
+
+	private boolean isSubClass(OWLClass sub, OWLClass sup) {
+		if (unsatisfiable.contains(sub)) {
+			return true;
+		}
+		return superClasses.get(sub).contains(sup);
+	}
+}
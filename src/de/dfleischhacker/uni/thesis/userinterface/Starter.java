@@ -35,6 +35,9 @@ package de.dfleischhacker.uni.thesis.userinterface;
 
 import de.dfleischhacker.uni.thesis.userinterface.swing.MainWindow;
 import de.dfleischhacker.uni.thesis.userinterface.textbased.BatchStarter;
+import de.dfleischhacker.uni.thesis.userinterface.textbased.BenchmarkStarter;
+import de.dfleischhacker.uni.thesis.userinterface.textbased.EvaluationDaemon;
+import de.dfleischhacker.uni.thesis.userinterface.textbased.GeneratorStarter;
 
 /**
  * This class wraps around the different types of userinterfaces to provide
@@ -66,6 +69,21 @@ public class Starter {
 			return;
 		}
 
+		if (args[0].equals("--daemon")) {
+			EvaluationDaemon.main(removeArg(args, 0));
+			return;
+		}
+
+		if (args[0].equals("--generate")) {
+			GeneratorStarter.main(removeArg(args, 0));
+			return;
+		}
+
+		if (args[0].equals("--benchmark")) {
+			BenchmarkStarter.main(removeArg(args, 0));
+			return;
+		}
+
 		if (args[0].equals("--help")) {
 			showHelp();
 			return;
@@ -112,6 +130,16 @@ public class Starter {
 				"To use the batchmode please pass the argument\n" +
 				"\t--batch\n" +
 				"for more help concerning the batchmode use\n" +
-				"\t--batch --help");
+				"\t--batch --help\n" +
+				"To start the evaluation daemon listening on localhost use\n" +
+				"\t--daemon [PORT]\n" +
+				"To generate synthetic test cases for the batchmode use\n" +
+				"\t--generate [OPTION VALUE]... DIRECTORY\n" +
+				"for more help concerning the options use\n" +
+				"\t--generate --help\n" +
+				"To measure how the evaluation scales use\n" +
+				"\t--benchmark [OPTION VALUE]... DIRECTORY\n" +
+				"for more help concerning the options use\n" +
+				"\t--benchmark --help");
 	}
 }
@@ -0,0 +1,148 @@
+/*
+ *
+ * AlignmentFilter.java
+ *
+ * Software License Agreement (BSD License)
+ *
+ * Copyright (c) 2009 Daniel Fleischhacker <dev@dfleischhacker.de>
+ * All rights reserved.
+ *
+ * Redistribution and use of this software in source and binary forms, with or
+ * without modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   1. Redistributions of source code must retain the above copyright notice,
+ *      this list of conditions and the following disclaimer.
+ *
+ *   2. Redistributions in binary form must reproduce the above copyright
+ *      notice, this list of conditions and the following disclaimer in the
+ *      documentation and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package de.dfleischhacker.uni.thesis.userinterface.swing;
+
+/**
+ * Criteria for the correspondences shown by an AlignmentTableModel. Criteria
+ * which are not set do not restrict the shown correspondences.
+ * @author Daniel Fleischhacker <dev@dfleischhacker.de>
+ */
+public class AlignmentFilter {
+	private String text;
+	private boolean prefix;
+	private String relation;
+	private float minConfidence = Float.NEGATIVE_INFINITY;
+	private float maxConfidence = Float.POSITIVE_INFINITY;
+	private AlignmentTableModel.State state;
+
+	/**
+	 * Returns the text searched in the local names and URIs of the entities
+	 * @return searched text or null
+	 */
+	public String getText() {
+		return text;
+	}
+
+	/**
+	 * Sets the text searched in the local names and URIs of the entities,
+	 * ignoring case
+	 * @param text text to search or null
+	 */
+	public void setText(String text) {
+		this.text = text == null || text.length() == 0 ? null : text;
+	}
+
+	/**
+	 * Returns true if the names or URIs have to start with the searched text
+	 * @return true if searching for prefixes, false if searching for substrings
+	 */
+	public boolean isPrefix() {
+		return prefix;
+	}
+
+	/**
+	 * Sets whether the names or URIs have to start with the searched text or
+	 * only contain it
+	 * @param prefix true to search for prefixes, false to search for substrings
+	 */
+	public void setPrefix(boolean prefix) {
+		this.prefix = prefix;
+	}
+
+	/**
+	 * Returns the relation of the shown correspondences
+	 * @return relation or null
+	 */
+	public String getRelation() {
+		return relation;
+	}
+
+	/**
+	 * Sets the relation of the shown correspondences
+	 * @param relation relation or null
+	 */
+	public void setRelation(String relation) {
+		this.relation = relation;
+	}
+
+	/**
+	 * Returns the minimum confidence of the shown correspondences
+	 * @return minimum confidence
+	 */
+	public float getMinConfidence() {
+		return minConfidence;
+	}
+
+	/**
+	 * Sets the minimum confidence of the shown correspondences
+	 * @param minConfidence minimum confidence, Float.NEGATIVE_INFINITY for no
+	 *	minimum
+	 */
+	public void setMinConfidence(float minConfidence) {
+		this.minConfidence = minConfidence;
+	}
+
+	/**
+	 * Returns the maximum confidence of the shown correspondences
+	 * @return maximum confidence
+	 */
+	public float getMaxConfidence() {
+		return maxConfidence;
+	}
+
+	/**
+	 * Sets the maximum confidence of the shown correspondences
+	 * @param maxConfidence maximum confidence, Float.POSITIVE_INFINITY for no
+	 *	maximum
+	 */
+	public void setMaxConfidence(float maxConfidence) {
+		this.maxConfidence = maxConfidence;
+	}
+
+	/**
+	 * Returns the state of the shown correspondences
+	 * @return state or null
+	 */
+	public AlignmentTableModel.State getState() {
+		return state;
+	}
+
+	/**
+	 * Sets the state of the shown correspondences
+	 * @param state state or null
+	 */
+	public void setState(AlignmentTableModel.State state) {
+		this.state = state;
+	}
+}
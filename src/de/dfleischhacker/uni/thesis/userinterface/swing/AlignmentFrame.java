@@ -34,10 +34,17 @@
 package de.dfleischhacker.uni.thesis.userinterface.swing;
 
 
+import java.awt.Color;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import javax.swing.JTextField;
+import javax.swing.UIManager;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import javax.xml.parsers.ParserConfigurationException;
 import org.xml.sax.SAXException;
 import de.dfleischhacker.uni.thesis.utils.alignment.Alignment;
@@ -46,10 +53,15 @@ import de.dfleischhacker.uni.thesis.utils.alignment.AlignmentManager;
 
 /**
  * Frame to compare aligments to reference alignments. The differences are
- * highlighted by using colors.
+ * highlighted by using colors. The shown correspondences can be searched by
+ * the names or URIs of their entities and filtered by relation, confidence and
+ * state.
  * @author Daniel Fleischhacker <dev@dfleischhacker.de>
  */
 public class AlignmentFrame extends javax.swing.JFrame {
+	private static final Color INVALID_INPUT_COLOR = new Color(0xffa9a9);
+
+	private AlignmentTableModel tableModel;
 
     /**
 	 * Creates new form AlignmentFrame.
@@ -60,8 +72,97 @@ public class AlignmentFrame extends javax.swing.JFrame {
     public AlignmentFrame(Alignment align, Alignment refalign) {
         initComponents();
 		fillTable(align, refalign);
+		initSearch();
     }
 
+	/**
+	 * Fills the relation chooser and applies the filter whenever one of the
+	 * text fields of the search panel is changed
+	 */
+	private void initSearch() {
+		for (String relation : tableModel.getRelations()) {
+			relationChooser.addItem(relation);
+		}
+
+		DocumentListener listener = new DocumentListener() {
+			@Override
+			public void insertUpdate(DocumentEvent e) {
+				applyFilter();
+			}
+
+			@Override
+			public void removeUpdate(DocumentEvent e) {
+				applyFilter();
+			}
+
+			@Override
+			public void changedUpdate(DocumentEvent e) {
+				applyFilter();
+			}
+		};
+		searchField.getDocument().addDocumentListener(listener);
+		minConfidenceField.getDocument().addDocumentListener(listener);
+		maxConfidenceField.getDocument().addDocumentListener(listener);
+		showResultCount();
+	}
+
+	/**
+	 * Applies the criteria of the search panel to the table
+	 */
+	private void applyFilter() {
+		if (tableModel == null) {
+			return;
+		}
+		AlignmentFilter filter = new AlignmentFilter();
+		filter.setText(searchField.getText().trim());
+		filter.setPrefix(matchModeChooser.getSelectedIndex() == 1);
+		if (relationChooser.getSelectedIndex() > 0) {
+			filter.setRelation(relationChooser.getSelectedItem().toString());
+		}
+		filter.setMinConfidence(parseConfidence(minConfidenceField, Float.NEGATIVE_INFINITY));
+		filter.setMaxConfidence(parseConfidence(maxConfidenceField, Float.POSITIVE_INFINITY));
+		switch (stateChooser.getSelectedIndex()) {
+			case 1:
+				filter.setState(AlignmentTableModel.State.CORRECT);
+				break;
+			case 2:
+				filter.setState(AlignmentTableModel.State.WRONG);
+				break;
+			case 3:
+				filter.setState(AlignmentTableModel.State.REFERENCE_ONLY);
+				break;
+		}
+		tableModel.setFilter(filter);
+		showResultCount();
+	}
+
+	/**
+	 * Returns the confidence entered into the given field or the given
+	 * default if the field is empty or does not contain a number. Invalid
+	 * numbers are highlighted.
+	 */
+	private float parseConfidence(JTextField field, float defaultValue) {
+		String text = field.getText().trim();
+		field.setBackground(UIManager.getColor("TextField.background"));
+		if (text.length() == 0) {
+			return defaultValue;
+		}
+		try {
+			return Float.parseFloat(text);
+		} catch (NumberFormatException ex) {
+			field.setBackground(INVALID_INPUT_COLOR);
+			return defaultValue;
+		}
+	}
+
+	/**
+	 * Shows the number of correspondences matching the search
+	 */
+	private void showResultCount() {
+		resultLabel.setText(tableModel.getRowCount() + " of " +
+			tableModel.getCorrespondenceCount() + " shown");
+	}
+
 	/**
 	 * Fills the table by using the given alignments
 	 * @param refalign reference alignment
@@ -70,9 +171,8 @@ public class AlignmentFrame extends javax.swing.JFrame {
 	 * @param alignClosure closure of alignment
 	 */
 	private void fillTable(Alignment align, Alignment refalign) {
-		correspondenceTable.setModel(
-			new AlignmentTableModel(align, refalign)
-		);
+		tableModel = new AlignmentTableModel(align, refalign);
+		correspondenceTable.setModel(tableModel);
 		correspondenceTable.setDefaultRenderer(Object.class, new AlignmentTableRenderer());
 		correspondenceTable.getColumnModel().getColumn(0).setPreferredWidth(5);
 		correspondenceTable.getColumnModel().getColumn(1).setPreferredWidth(200);
@@ -80,6 +180,21 @@ public class AlignmentFrame extends javax.swing.JFrame {
 		correspondenceTable.getColumnModel().getColumn(3).setPreferredWidth(5);
 		correspondenceTable.getColumnModel().getColumn(4).setPreferredWidth(25);
 		correspondenceTable.getColumnModel().getColumn(5).setPreferredWidth(5);
+
+		// sort by the clicked column, a second click reverses the order
+		correspondenceTable.getTableHeader().addMouseListener(new MouseAdapter() {
+			@Override
+			public void mouseClicked(MouseEvent e) {
+				int column = correspondenceTable.convertColumnIndexToModel(
+					correspondenceTable.getTableHeader().columnAtPoint(e.getPoint()));
+				if (column < 0) {
+					return;
+				}
+				boolean ascending = column != tableModel.getSortColumn() ||
+					!tableModel.isSortAscending();
+				tableModel.sort(column, ascending);
+			}
+		});
 	}
 
     /** This method is called from within the constructor to
@@ -91,6 +206,19 @@ public class AlignmentFrame extends javax.swing.JFrame {
     // <editor-fold defaultstate="collapsed" desc="Generated Code">//GEN-BEGIN:initComponents
     private void initComponents() {
 
+        searchPanel = new javax.swing.JPanel();
+        jLabel3 = new javax.swing.JLabel();
+        searchField = new javax.swing.JTextField();
+        matchModeChooser = new javax.swing.JComboBox<String>();
+        jLabel4 = new javax.swing.JLabel();
+        relationChooser = new javax.swing.JComboBox<String>();
+        jLabel5 = new javax.swing.JLabel();
+        minConfidenceField = new javax.swing.JTextField();
+        jLabel6 = new javax.swing.JLabel();
+        maxConfidenceField = new javax.swing.JTextField();
+        jLabel7 = new javax.swing.JLabel();
+        stateChooser = new javax.swing.JComboBox<String>();
+        resultLabel = new javax.swing.JLabel();
         jScrollPane1 = new javax.swing.JScrollPane();
         correspondenceTable = new javax.swing.JTable();
         exitButton = new javax.swing.JButton();
@@ -100,6 +228,93 @@ public class AlignmentFrame extends javax.swing.JFrame {
         setDefaultCloseOperation(javax.swing.WindowConstants.EXIT_ON_CLOSE);
         setTitle("Alignment Viewer");
 
+        searchPanel.setBorder(javax.swing.BorderFactory.createTitledBorder("Search"));
+
+        jLabel3.setText("Entity:");
+
+        matchModeChooser.setModel(new javax.swing.DefaultComboBoxModel<String>(new String[] { "contains", "starts with" }));
+        matchModeChooser.addActionListener(new java.awt.event.ActionListener() {
+            public void actionPerformed(java.awt.event.ActionEvent evt) {
+                filterChanged(evt);
+            }
+        });
+
+        jLabel4.setText("Relation:");
+
+        relationChooser.setModel(new javax.swing.DefaultComboBoxModel<String>(new String[] { "any" }));
+        relationChooser.addActionListener(new java.awt.event.ActionListener() {
+            public void actionPerformed(java.awt.event.ActionEvent evt) {
+                filterChanged(evt);
+            }
+        });
+
+        jLabel5.setText("Confidence:");
+
+        jLabel6.setText("to");
+
+        jLabel7.setText("State:");
+
+        stateChooser.setModel(new javax.swing.DefaultComboBoxModel<String>(new String[] { "any", "correct", "wrong", "only in reference" }));
+        stateChooser.addActionListener(new java.awt.event.ActionListener() {
+            public void actionPerformed(java.awt.event.ActionEvent evt) {
+                filterChanged(evt);
+            }
+        });
+
+        javax.swing.GroupLayout searchPanelLayout = new javax.swing.GroupLayout(searchPanel);
+        searchPanel.setLayout(searchPanelLayout);
+        searchPanelLayout.setHorizontalGroup(
+            searchPanelLayout.createParallelGroup(javax.swing.GroupLayout.Alignment.LEADING)
+            .addGroup(searchPanelLayout.createSequentialGroup()
+                .addContainerGap()
+                .addGroup(searchPanelLayout.createParallelGroup(javax.swing.GroupLayout.Alignment.LEADING)
+                    .addComponent(jLabel3)
+                    .addComponent(jLabel5))
+                .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+                .addGroup(searchPanelLayout.createParallelGroup(javax.swing.GroupLayout.Alignment.LEADING)
+                    .addGroup(searchPanelLayout.createSequentialGroup()
+                        .addComponent(searchField, javax.swing.GroupLayout.DEFAULT_SIZE, 200, Short.MAX_VALUE)
+                        .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+                        .addComponent(matchModeChooser, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE)
+                        .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.UNRELATED)
+                        .addComponent(jLabel4)
+                        .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+                        .addComponent(relationChooser, javax.swing.GroupLayout.PREFERRED_SIZE, 80, javax.swing.GroupLayout.PREFERRED_SIZE))
+                    .addGroup(searchPanelLayout.createSequentialGroup()
+                        .addComponent(minConfidenceField, javax.swing.GroupLayout.PREFERRED_SIZE, 50, javax.swing.GroupLayout.PREFERRED_SIZE)
+                        .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+                        .addComponent(jLabel6)
+                        .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+                        .addComponent(maxConfidenceField, javax.swing.GroupLayout.PREFERRED_SIZE, 50, javax.swing.GroupLayout.PREFERRED_SIZE)
+                        .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.UNRELATED)
+                        .addComponent(jLabel7)
+                        .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+                        .addComponent(stateChooser, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE)
+                        .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.UNRELATED)
+                        .addComponent(resultLabel, javax.swing.GroupLayout.DEFAULT_SIZE, 100, Short.MAX_VALUE)))
+                .addContainerGap())
+        );
+        searchPanelLayout.setVerticalGroup(
+            searchPanelLayout.createParallelGroup(javax.swing.GroupLayout.Alignment.LEADING)
+            .addGroup(searchPanelLayout.createSequentialGroup()
+                .addGroup(searchPanelLayout.createParallelGroup(javax.swing.GroupLayout.Alignment.BASELINE)
+                    .addComponent(jLabel3)
+                    .addComponent(searchField, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE)
+                    .addComponent(matchModeChooser, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE)
+                    .addComponent(jLabel4)
+                    .addComponent(relationChooser, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE))
+                .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+                .addGroup(searchPanelLayout.createParallelGroup(javax.swing.GroupLayout.Alignment.BASELINE)
+                    .addComponent(jLabel5)
+                    .addComponent(minConfidenceField, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE)
+                    .addComponent(jLabel6)
+                    .addComponent(maxConfidenceField, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE)
+                    .addComponent(jLabel7)
+                    .addComponent(stateChooser, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE)
+                    .addComponent(resultLabel))
+                .addContainerGap(javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE))
+        );
+
         correspondenceTable.setModel(new javax.swing.table.DefaultTableModel(
             new Object [][] {
 
@@ -128,6 +343,7 @@ public class AlignmentFrame extends javax.swing.JFrame {
             .addGroup(layout.createSequentialGroup()
                 .addContainerGap()
                 .addGroup(layout.createParallelGroup(javax.swing.GroupLayout.Alignment.LEADING)
+                    .addComponent(searchPanel, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
                     .addComponent(jLabel1)
                     .addComponent(jScrollPane1, javax.swing.GroupLayout.Alignment.TRAILING, javax.swing.GroupLayout.DEFAULT_SIZE, 618, Short.MAX_VALUE)
                     .addComponent(jLabel2)
@@ -138,6 +354,8 @@ public class AlignmentFrame extends javax.swing.JFrame {
             layout.createParallelGroup(javax.swing.GroupLayout.Alignment.LEADING)
             .addGroup(layout.createSequentialGroup()
                 .addContainerGap()
+                .addComponent(searchPanel, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE)
+                .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
                 .addComponent(jScrollPane1, javax.swing.GroupLayout.PREFERRED_SIZE, 464, javax.swing.GroupLayout.PREFERRED_SIZE)
                 .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.UNRELATED)
                 .addComponent(jLabel1)
@@ -151,6 +369,10 @@ public class AlignmentFrame extends javax.swing.JFrame {
         pack();
     }// </editor-fold>//GEN-END:initComponents
 
+	private void filterChanged(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_filterChanged
+		applyFilter();
+	}//GEN-LAST:event_filterChanged
+
 	private void exitButtonActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_exitButtonActionPerformed
 		this.setVisible(false);
 		this.dispose();
@@ -189,7 +411,20 @@ public class AlignmentFrame extends javax.swing.JFrame {
     private javax.swing.JButton exitButton;
     private javax.swing.JLabel jLabel1;
     private javax.swing.JLabel jLabel2;
+    private javax.swing.JLabel jLabel3;
+    private javax.swing.JLabel jLabel4;
+    private javax.swing.JLabel jLabel5;
+    private javax.swing.JLabel jLabel6;
+    private javax.swing.JLabel jLabel7;
     private javax.swing.JScrollPane jScrollPane1;
+    private javax.swing.JComboBox<String> matchModeChooser;
+    private javax.swing.JTextField maxConfidenceField;
+    private javax.swing.JTextField minConfidenceField;
+    private javax.swing.JComboBox<String> relationChooser;
+    private javax.swing.JLabel resultLabel;
+    private javax.swing.JTextField searchField;
+    private javax.swing.JPanel searchPanel;
+    private javax.swing.JComboBox<String> stateChooser;
     // End of variables declaration//GEN-END:variables
 
 }
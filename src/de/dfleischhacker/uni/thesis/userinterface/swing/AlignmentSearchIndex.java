@@ -0,0 +1,259 @@
+/*
+ *
+ * AlignmentSearchIndex.java
+ *
+ * Software License Agreement (BSD License)
+ *
+ * Copyright (c) 2009 Daniel Fleischhacker <dev@dfleischhacker.de>
+ * All rights reserved.
+ *
+ * Redistribution and use of this software in source and binary forms, with or
+ * without modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   1. Redistributions of source code must retain the above copyright notice,
+ *      this list of conditions and the following disclaimer.
+ *
+ *   2. Redistributions in binary form must reproduce the above copyright
+ *      notice, this list of conditions and the following disclaimer in the
+ *      documentation and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package de.dfleischhacker.uni.thesis.userinterface.swing;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import de.dfleischhacker.uni.thesis.utils.alignment.Correspondence;
+
+/**
+ * Index over the entities of the correspondences shown by an
+ * AlignmentTableModel. The local names and the URIs of all entities are used
+ * as keys, ignoring case. A sorted array of the keys serves as prefix index,
+ * an index from the trigrams contained in the keys to the keys serves as
+ * substring index. Each key refers to the correspondences of the entities
+ * it has been created for, so a search only has to look at the few distinct
+ * entities instead of all correspondences.
+ * @author Daniel Fleischhacker <dev@dfleischhacker.de>
+ */
+public class AlignmentSearchIndex {
+	// length of the substrings used by the substring index
+	private static final int GRAM_LENGTH = 3;
+
+	private int correspondenceCount;
+
+	// sorted distinct keys
+	private String[] keys;
+	// for each key the correspondences containing an entity with this key
+	private int[][] keyRows;
+	// for each trigram the sorted numbers of the keys containing it
+	private HashMap<String, int[]> grams;
+
+	/**
+	 * Growable list of ints
+	 */
+	private static class IntList {
+		int[] data = new int[4];
+		int size;
+
+		void add(int value) {
+			if (size == data.length) {
+				data = Arrays.copyOf(data, size * 2);
+			}
+			data[size++] = value;
+		}
+
+		int last() {
+			return size == 0 ? -1 : data[size - 1];
+		}
+
+		int[] toArray() {
+			return Arrays.copyOf(data, size);
+		}
+	}
+
+	/**
+	 * Creates the index of the given correspondences
+	 * @param correspondences correspondences indexed by their row in the
+	 *	model
+	 * @param model model used to get the local names of the entities
+	 */
+	public AlignmentSearchIndex(Correspondence[] correspondences, AlignmentTableModel model) {
+		correspondenceCount = correspondences.length;
+
+		// collect the correspondences of each entity, the indexes are added in
+		// ascending order, so duplicates are always at the end
+		HashMap<String, IntList> rowsByEntity = new HashMap<String, IntList>();
+		for (int i = 0; i < correspondences.length; i++) {
+			addRow(rowsByEntity, correspondences[i].getEntity1(), i);
+			addRow(rowsByEntity, correspondences[i].getEntity2(), i);
+		}
+
+		// derive the keys from the distinct entities, a local name may be
+		// shared by several entities
+		HashMap<String, List<int[]>> rowsByKey = new HashMap<String, List<int[]>>();
+		for (Map.Entry<String, IntList> entry : rowsByEntity.entrySet()) {
+			int[] rows = entry.getValue().toArray();
+			addRows(rowsByKey, entry.getKey().toLowerCase(), rows);
+			addRows(rowsByKey, model.getLocalName(entry.getKey()).toLowerCase(), rows);
+		}
+
+		keys = rowsByKey.keySet().toArray(new String[rowsByKey.size()]);
+		Arrays.sort(keys);
+		keyRows = new int[keys.length][];
+		HashMap<String, IntList> gramLists = new HashMap<String, IntList>();
+		for (int k = 0; k < keys.length; k++) {
+			keyRows[k] = merge(rowsByKey.get(keys[k]));
+			for (int pos = 0; pos + GRAM_LENGTH <= keys[k].length(); pos++) {
+				String gram = keys[k].substring(pos, pos + GRAM_LENGTH);
+				IntList list = gramLists.get(gram);
+				if (list == null) {
+					list = new IntList();
+					gramLists.put(gram, list);
+				}
+				if (list.last() != k) {
+					list.add(k);
+				}
+			}
+		}
+
+		grams = new HashMap<String, int[]>();
+		for (Map.Entry<String, IntList> entry : gramLists.entrySet()) {
+			grams.put(entry.getKey(), entry.getValue().toArray());
+		}
+	}
+
+	private static void addRow(HashMap<String, IntList> rowsByEntity, String uri, int row) {
+		IntList rows = rowsByEntity.get(uri);
+		if (rows == null) {
+			rows = new IntList();
+			rowsByEntity.put(uri, rows);
+		}
+		if (rows.last() != row) {
+			rows.add(row);
+		}
+	}
+
+	private static void addRows(HashMap<String, List<int[]>> rowsByKey, String key, int[] rows) {
+		List<int[]> list = rowsByKey.get(key);
+		if (list == null) {
+			list = new ArrayList<int[]>(1);
+			rowsByKey.put(key, list);
+		}
+		list.add(rows);
+	}
+
+	/**
+	 * Merges the given sorted arrays into one sorted array without duplicates
+	 */
+	private static int[] merge(List<int[]> arrays) {
+		if (arrays.size() == 1) {
+			return arrays.get(0);
+		}
+		int length = 0;
+		for (int[] array : arrays) {
+			length += array.length;
+		}
+		int[] merged = new int[length];
+		int pos = 0;
+		for (int[] array : arrays) {
+			System.arraycopy(array, 0, merged, pos, array.length);
+			pos += array.length;
+		}
+		Arrays.sort(merged);
+		int size = 0;
+		for (int i = 0; i < merged.length; i++) {
+			if (size == 0 || merged[size - 1] != merged[i]) {
+				merged[size++] = merged[i];
+			}
+		}
+		return Arrays.copyOf(merged, size);
+	}
+
+	/**
+	 * Returns the number of distinct keys
+	 * @return number of keys
+	 */
+	public int getKeyCount() {
+		return keys.length;
+	}
+
+	/**
+	 * Returns the correspondences having an entity whose local name or URI
+	 * starts with the given text, ignoring case
+	 * @param text prefix to search
+	 * @return set of the model indexes of the matching correspondences
+	 */
+	public BitSet findPrefix(String text) {
+		String prefix = text.toLowerCase();
+		BitSet res = new BitSet(correspondenceCount);
+		int k = Arrays.binarySearch(keys, prefix);
+		if (k < 0) {
+			k = -k - 1;
+		}
+		for (; k < keys.length && keys[k].startsWith(prefix); k++) {
+			addRows(res, k);
+		}
+		return res;
+	}
+
+	/**
+	 * Returns the correspondences having an entity whose local name or URI
+	 * contains the given text, ignoring case
+	 * @param text text to search
+	 * @return set of the model indexes of the matching correspondences
+	 */
+	public BitSet findSubstring(String text) {
+		String substring = text.toLowerCase();
+		BitSet res = new BitSet(correspondenceCount);
+		if (substring.length() < GRAM_LENGTH) {
+			// too short for the substring index, check all keys
+			for (int k = 0; k < keys.length; k++) {
+				if (keys[k].contains(substring)) {
+					addRows(res, k);
+				}
+			}
+			return res;
+		}
+
+		// only the keys containing the rarest trigram of the text have to be
+		// checked
+		int[] candidates = null;
+		for (int pos = 0; pos + GRAM_LENGTH <= substring.length(); pos++) {
+			int[] keysOfGram = grams.get(substring.substring(pos, pos + GRAM_LENGTH));
+			if (keysOfGram == null) {
+				return res;
+			}
+			if (candidates == null || keysOfGram.length < candidates.length) {
+				candidates = keysOfGram;
+			}
+		}
+		for (int k : candidates) {
+			if (keys[k].contains(substring)) {
+				addRows(res, k);
+			}
+		}
+		return res;
+	}
+
+	private void addRows(BitSet res, int key) {
+		for (int row : keyRows[key]) {
+			res.set(row);
+		}
+	}
+}
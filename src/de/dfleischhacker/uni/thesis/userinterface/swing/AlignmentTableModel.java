@@ -31,76 +31,142 @@
  * POSSIBILITY OF SUCH DAMAGE.
  */
 
-
 package de.dfleischhacker.uni.thesis.userinterface.swing;
 
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Set;
-import javax.swing.table.DefaultTableModel;
+import java.util.TreeSet;
+import javax.swing.table.AbstractTableModel;
 import de.dfleischhacker.uni.thesis.utils.alignment.Alignment;
 import de.dfleischhacker.uni.thesis.utils.alignment.Correspondence;
 
 /**
  * TableModel used to show Alignments.
+ *
+ * The correspondences of both alignments are kept in a single array which is
+ * indexed by the model's rows, the cells are only created when the table asks
+ * for them. Sorting and filtering only rearrange an array of indexes into the
+ * correspondence array, so even closures with millions of correspondences can
+ * be shown without copying them into rows.
  * @author Daniel Fleischhacker <dev@dfleischhacker.de>
  */
-public class AlignmentTableModel extends DefaultTableModel {
-	private int curRowNumber = 1;
+public class AlignmentTableModel extends AbstractTableModel {
+	/**
+	 * State of a correspondence regarding the reference alignment
+	 */
+	public enum State {
+		/**
+		 * Contained in the alignment and in the reference alignment
+		 */
+		CORRECT,
+
+		/**
+		 * Only contained in the alignment
+		 */
+		WRONG,
+
+		/**
+		 * Only contained in the reference alignment
+		 */
+		REFERENCE_ONLY
+	}
+
+	private static final String[] COLUMN_NAMES = {
+		"No", "Entity 1", "Entity 2", "Rel", "Conf", "S"
+	};
+
+	// all correspondences, first the ones of the alignment then the ones
+	// only contained in the reference alignment
+	private Correspondence[] correspondences;
+	// number of correspondences contained in the alignment
+	private int alignmentSize;
+	// states of the correspondences
+	private State[] states;
+
+	// indexes of the shown correspondences in the order they are shown
+	private int[] rows;
+
+	// local names already extracted from entity URIs
+	private HashMap<String, String> names;
+
+	// ranks of the local names of entity 1 and 2 by column, created when
+	// sorting by the column for the first time
+	private int[][] nameRanks = new int[3][];
+
+	private int sortColumn = 0;
+	private boolean sortAscending = true;
+
+	private AlignmentFilter filter;
+	private AlignmentSearchIndex searchIndex;
 
 	/**
-	 * TableModel for displaying differences between alignments. It generates
-	 * the tables and adds the columns and rows.
-	 * @param align
-	 * @param refalign
+	 * TableModel for displaying differences between alignments.
+	 * @param align alignment
+	 * @param refalign reference alignment
 	 */
 	public AlignmentTableModel(Alignment align, Alignment refalign) {
 		Set<Correspondence> alignSet = align.getCorrespondences();
 		Set<Correspondence> refalignSet = refalign.getCorrespondences();
 
-		addColumn("No");
-		addColumn("Entity 1");
-		addColumn("Entity 2");
-		addColumn("Rel");
-		addColumn("Conf");
-		addColumn("S");
+		int referenceOnly = 0;
+		for (Correspondence correspondence : refalignSet) {
+			if (!alignSet.contains(correspondence)) {
+				referenceOnly++;
+			}
+		}
 
+		alignmentSize = alignSet.size();
+		correspondences = new Correspondence[alignmentSize + referenceOnly];
+		int i = 0;
 		for (Correspondence correspondence : alignSet) {
-			String[] row = new String[6];
-			row[0] = Integer.toString(curRowNumber++);
-			row[1] = extractName(correspondence.getEntity1());
-			row[2] = extractName(correspondence.getEntity2());
-			row[3] = correspondence.getRelation();
-			row[4] = Float.toString(Math.round(correspondence.getMeasure()*100)/(float)100);
-
-			String state = "";
-			if (refalignSet.contains(correspondence)) {
-				state = "\u2714";
+			correspondences[i++] = correspondence;
+		}
+		for (Correspondence correspondence : refalignSet) {
+			if (!alignSet.contains(correspondence)) {
+				correspondences[i++] = correspondence;
+			}
+		}
+
+		states = new State[correspondences.length];
+		for (i = 0; i < correspondences.length; i++) {
+			if (i >= alignmentSize) {
+				states[i] = State.REFERENCE_ONLY;
+			}
+			else if (refalignSet.contains(correspondences[i])) {
+				states[i] = State.CORRECT;
 			}
 			else {
-				state = "\u2718";
+				states[i] = State.WRONG;
 			}
-
-			row[5] = state;
-
-			addRow(row);
 		}
 
-		for (Correspondence correspondence : refalignSet) {
-			if (alignSet.contains(correspondence)) {
-				continue;
-			}
+		names = new HashMap<String, String>();
+		filter = new AlignmentFilter();
+		rows = new int[correspondences.length];
+		for (i = 0; i < rows.length; i++) {
+			rows[i] = i;
+		}
+	}
 
-			String[] row = new String[6];
-			row[0] = Integer.toString(curRowNumber++);
-			row[1] = extractName(correspondence.getEntity1());
-			row[2] = extractName(correspondence.getEntity2());
-			row[3] = correspondence.getRelation();
-			row[4] = Float.toString(Math.round(correspondence.getMeasure()*100)/(float)100);
+	@Override
+	public int getRowCount() {
+		return rows.length;
+	}
 
-			row[5] = "";
+	@Override
+	public int getColumnCount() {
+		return COLUMN_NAMES.length;
+	}
 
-			addRow(row);
-		}
+	@Override
+	public String getColumnName(int column) {
+		return COLUMN_NAMES[column];
 	}
 
 	/**
@@ -111,6 +177,318 @@ public class AlignmentTableModel extends DefaultTableModel {
 		return false;
 	}
 
+	@Override
+	public Object getValueAt(int row, int column) {
+		int index = rows[row];
+		Correspondence correspondence = correspondences[index];
+		switch (column) {
+			case 0:
+				return Integer.toString(index + 1);
+			case 1:
+				return getLocalName(correspondence.getEntity1());
+			case 2:
+				return getLocalName(correspondence.getEntity2());
+			case 3:
+				return correspondence.getRelation();
+			case 4:
+				return Float.toString(Math.round(correspondence.getMeasure()*100)/(float)100);
+			case 5:
+				switch (states[index]) {
+					case CORRECT:
+						return "\u2714";
+					case WRONG:
+						return "\u2718";
+					default:
+						return "";
+				}
+			default:
+				throw new IndexOutOfBoundsException("invalid column: " + column);
+		}
+	}
+
+	/**
+	 * Returns the correspondence shown in the given row
+	 * @param row row of the table
+	 * @return correspondence shown in the row
+	 */
+	public Correspondence getCorrespondence(int row) {
+		return correspondences[rows[row]];
+	}
+
+	/**
+	 * Returns the state of the correspondence shown in the given row
+	 * @param row row of the table
+	 * @return state of the correspondence shown in the row
+	 */
+	public State getState(int row) {
+		return states[rows[row]];
+	}
+
+	/**
+	 * Returns the number of correspondences of both alignments, including the
+	 * ones which are filtered out
+	 * @return total number of correspondences
+	 */
+	public int getCorrespondenceCount() {
+		return correspondences.length;
+	}
+
+	/**
+	 * Returns the column the rows are sorted by
+	 * @return sort column
+	 */
+	public int getSortColumn() {
+		return sortColumn;
+	}
+
+	/**
+	 * Returns true if the rows are sorted ascending
+	 * @return true if sorted ascending, false if sorted descending
+	 */
+	public boolean isSortAscending() {
+		return sortAscending;
+	}
+
+	/**
+	 * Sorts the rows by the given column. Column 0 restores the original
+	 * order.
+	 * @param column column to sort by
+	 * @param ascending true to sort ascending, false to sort descending
+	 */
+	public void sort(int column, boolean ascending) {
+		if (column < 0 || column >= COLUMN_NAMES.length) {
+			throw new IndexOutOfBoundsException("invalid column: " + column);
+		}
+		sortColumn = column;
+		sortAscending = ascending;
+		sortRows(rows);
+		fireTableDataChanged();
+	}
+
+	/**
+	 * Only shows the correspondences matching all given criteria. Each
+	 * criterion may be null to not filter by it.
+	 * @param entity text contained in the local name or URI of one of the
+	 *	entities, ignoring case
+	 * @param relation relation of the correspondence
+	 * @param state state of the correspondence
+	 */
+	public void setFilter(String entity, String relation, State state) {
+		AlignmentFilter newFilter = new AlignmentFilter();
+		newFilter.setText(entity);
+		newFilter.setRelation(relation);
+		newFilter.setState(state);
+		setFilter(newFilter);
+	}
+
+	/**
+	 * Only shows the correspondences matching the given filter. Entities are
+	 * searched using the search index which is created when it is needed for
+	 * the first time.
+	 * @param filter filter to apply, null to show all correspondences
+	 */
+	public void setFilter(AlignmentFilter filter) {
+		this.filter = filter == null ? new AlignmentFilter() : filter;
+
+		BitSet candidates = null;
+		if (this.filter.getText() != null) {
+			candidates = this.filter.isPrefix() ?
+				getSearchIndex().findPrefix(this.filter.getText()) :
+				getSearchIndex().findSubstring(this.filter.getText());
+		}
+
+		int count = 0;
+		int[] matching = new int[candidates == null ?
+			correspondences.length : candidates.cardinality()];
+		if (candidates == null) {
+			for (int i = 0; i < correspondences.length; i++) {
+				if (matches(i)) {
+					matching[count++] = i;
+				}
+			}
+		}
+		else {
+			for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+				if (matches(i)) {
+					matching[count++] = i;
+				}
+			}
+		}
+		int[] filtered = new int[count];
+		System.arraycopy(matching, 0, filtered, 0, count);
+		sortRows(filtered);
+		rows = filtered;
+		fireTableDataChanged();
+	}
+
+	/**
+	 * Returns the filter currently applied
+	 * @return current filter
+	 */
+	public AlignmentFilter getFilter() {
+		return filter;
+	}
+
+	/**
+	 * Returns the index used to search the entities of the correspondences,
+	 * creating it if needed
+	 * @return search index
+	 */
+	public AlignmentSearchIndex getSearchIndex() {
+		if (searchIndex == null) {
+			searchIndex = new AlignmentSearchIndex(correspondences, this);
+		}
+		return searchIndex;
+	}
+
+	/**
+	 * Returns the distinct relations of all correspondences
+	 * @return sorted relations
+	 */
+	public List<String> getRelations() {
+		TreeSet<String> relations = new TreeSet<String>();
+		for (Correspondence correspondence : correspondences) {
+			relations.add(correspondence.getRelation());
+		}
+		return new ArrayList<String>(relations);
+	}
+
+	/**
+	 * Checks whether the correspondence with the given index matches the
+	 * criteria of the current filter except for the searched text
+	 */
+	private boolean matches(int index) {
+		Correspondence correspondence = correspondences[index];
+		if (filter.getState() != null && states[index] != filter.getState()) {
+			return false;
+		}
+		if (filter.getRelation() != null && !filter.getRelation().equals(correspondence.getRelation())) {
+			return false;
+		}
+		float measure = correspondence.getMeasure();
+		if (measure < filter.getMinConfidence() || measure > filter.getMaxConfidence()) {
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Sorts the given indexes by the current sort column
+	 */
+	private void sortRows(int[] indexes) {
+		if ((sortColumn == 1 || sortColumn == 2) && nameRanks[sortColumn] == null) {
+			nameRanks[sortColumn] = rankNames(sortColumn);
+		}
+		int[] buffer = new int[indexes.length];
+		mergeSort(indexes, buffer, 0, indexes.length);
+	}
+
+	/**
+	 * Returns the rank of the local name of entity 1 or 2 for each
+	 * correspondence. Comparing the ranks is much faster than comparing the
+	 * names themselves, which would be done about n log n times. The ranks
+	 * do not depend on the filter, so they are only computed once per column.
+	 */
+	private int[] rankNames(int column) {
+		HashMap<String, Integer> uriRanks = new HashMap<String, Integer>();
+		for (Correspondence correspondence : correspondences) {
+			uriRanks.put(column == 1 ? correspondence.getEntity1() : correspondence.getEntity2(), null);
+		}
+		String[] uris = uriRanks.keySet().toArray(new String[uriRanks.size()]);
+		Arrays.sort(uris, new Comparator<String>() {
+			@Override
+			public int compare(String uri1, String uri2) {
+				return getLocalName(uri1).compareToIgnoreCase(getLocalName(uri2));
+			}
+		});
+		for (int i = 0; i < uris.length; i++) {
+			uriRanks.put(uris[i], i);
+		}
+
+		int[] ranks = new int[correspondences.length];
+		for (int i = 0; i < correspondences.length; i++) {
+			ranks[i] = uriRanks.get(column == 1 ?
+				correspondences[i].getEntity1() : correspondences[i].getEntity2());
+		}
+		return ranks;
+	}
+
+	/**
+	 * Stable merge sort of the index range [from, to). Already sorted ranges
+	 * are detected, so sorting sorted indexes only takes linear time.
+	 */
+	private void mergeSort(int[] indexes, int[] buffer, int from, int to) {
+		if (to - from < 2) {
+			return;
+		}
+		int middle = (from + to) >>> 1;
+		mergeSort(indexes, buffer, from, middle);
+		mergeSort(indexes, buffer, middle, to);
+		if (compare(indexes[middle - 1], indexes[middle]) <= 0) {
+			return;
+		}
+		System.arraycopy(indexes, from, buffer, from, to - from);
+		int left = from;
+		int right = middle;
+		for (int i = from; i < to; i++) {
+			if (right >= to || (left < middle && compare(buffer[left], buffer[right]) <= 0)) {
+				indexes[i] = buffer[left++];
+			}
+			else {
+				indexes[i] = buffer[right++];
+			}
+		}
+	}
+
+	/**
+	 * Compares the correspondences with the given indexes by the current sort
+	 * column
+	 */
+	private int compare(int index1, int index2) {
+		Correspondence c1 = correspondences[index1];
+		Correspondence c2 = correspondences[index2];
+		int res;
+		switch (sortColumn) {
+			case 0:
+				res = index1 < index2 ? -1 : (index1 == index2 ? 0 : 1);
+				break;
+			case 1:
+			case 2:
+				res = nameRanks[sortColumn][index1] - nameRanks[sortColumn][index2];
+				break;
+			case 3:
+				res = c1.getRelation().compareTo(c2.getRelation());
+				break;
+			case 4:
+				res = Float.compare(c1.getMeasure(), c2.getMeasure());
+				break;
+			case 5:
+				res = states[index1].compareTo(states[index2]);
+				break;
+			default:
+				res = 0;
+		}
+		if (res == 0 && sortColumn != 0) {
+			// keep the original order of equal rows
+			return index1 < index2 ? -1 : (index1 == index2 ? 0 : 1);
+		}
+		return sortAscending ? res : -res;
+	}
+
+	/**
+	 * Returns the local name of the given entity URI, extracting it only once
+	 * @param uri URI of an entity
+	 * @return local name of the entity
+	 */
+	String getLocalName(String uri) {
+		String name = names.get(uri);
+		if (name == null) {
+			name = extractName(uri);
+			names.put(uri, name);
+		}
+		return name;
+	}
+
 	/**
 	 * Extracts the entity name from a given URI. This is done in several steps
 	 * until the first method succeeds. First, the last fragment of the URI
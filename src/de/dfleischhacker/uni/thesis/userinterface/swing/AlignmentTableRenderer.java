@@ -43,19 +43,24 @@ import javax.swing.table.DefaultTableCellRenderer;
  * @author Daniel Fleischhacker <dev@dfleischhacker.de>
  */
 public class AlignmentTableRenderer extends DefaultTableCellRenderer{
+	private static final Color CORRECT_COLOR = new Color(0xa9ffab);
+	private static final Color WRONG_COLOR = new Color(0xffa9a9);
+	private static final Color REFERENCE_ONLY_COLOR = new Color(0xfffca9);
 
 	@Override
 	public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected, boolean hasFocus, int row, int column) {
 		Component cell = super.getTableCellRendererComponent(table, value, isSelected, hasFocus, row, column);
-		
-		if (table.getModel().getValueAt(row, 5).toString().contains("\u2714")) {
-			cell.setBackground(new Color(0xa9ffab));
+
+		AlignmentTableModel.State state =
+			((AlignmentTableModel) table.getModel()).getState(row);
+		if (state == AlignmentTableModel.State.CORRECT) {
+			cell.setBackground(CORRECT_COLOR);
 		}
-		else if (table.getModel().getValueAt(row, 5).toString().contains("\u2718")) {
-			cell.setBackground(new Color(0xffa9a9));
+		else if (state == AlignmentTableModel.State.WRONG) {
+			cell.setBackground(WRONG_COLOR);
 		}
 		else {
-			cell.setBackground(new Color(0xfffca9));
+			cell.setBackground(REFERENCE_ONLY_COLOR);
 		}
 		return cell;
 	}
@@ -32,17 +32,32 @@
  */
 package de.dfleischhacker.uni.thesis.userinterface.swing;
 
+import java.awt.Color;
+import java.awt.Font;
 import java.io.File;
 import java.net.URI;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.swing.JFileChooser;
 import javax.swing.JOptionPane;
+import javax.swing.JScrollPane;
+import javax.swing.JTextArea;
+import javax.swing.JTextField;
+import javax.swing.SwingWorker;
 import javax.swing.UnsupportedLookAndFeelException;
 import javax.swing.filechooser.FileNameExtensionFilter;
+import de.dfleischhacker.uni.thesis.GlobalSettings;
+import de.dfleischhacker.uni.thesis.semantic.ClosureResult;
+import de.dfleischhacker.uni.thesis.semantic.closure.ClosureStep;
+import de.dfleischhacker.uni.thesis.utils.alignment.Alignment;
 import de.dfleischhacker.uni.thesis.utils.alignment.AlignmentManager;
 import de.dfleischhacker.uni.thesis.utils.ontology.OntologyManager;
 import de.dfleischhacker.uni.thesis.utils.wrapper.CalculationResult;
+import de.dfleischhacker.uni.thesis.utils.wrapper.Evaluation;
+import de.dfleischhacker.uni.thesis.utils.wrapper.Phase;
+import de.dfleischhacker.uni.thesis.utils.wrapper.ProgressListener;
 import de.dfleischhacker.uni.thesis.utils.wrapper.Wrapper;
 import de.dfleischhacker.uni.thesis.utils.wrapper.WrapperException;
 import javax.swing.UIManager;
@@ -55,6 +70,9 @@ public class MainWindow extends javax.swing.JFrame {
 	// constant containing name of null semantic
 	public final String NULL_SEMANTIC = "Null Semantic (Classical Precision & Recall)";
 
+	// background of file name fields whose file could not be loaded
+	private static final Color INVALID_FILE_COLOR = new Color(255, 200, 200);
+
 	// save the values already got from user
 	private File referenceAlignmentFile;
 	private File alignmentFile;
@@ -66,6 +84,15 @@ public class MainWindow extends javax.swing.JFrame {
 	private File lastLoadPath;
 	private File lastSavePath;
 
+	// worker computing the current evaluation or null
+	private EvaluationWorker worker;
+
+	// workers loading the chosen files in the background
+	private PreloadWorker firstOntologyPreload;
+	private PreloadWorker secondOntologyPreload;
+	private PreloadWorker referenceAlignmentPreload;
+	private PreloadWorker alignmentPreload;
+
 	/** Creates new form MainWindow */
 	public MainWindow() {
 		initComponents();
@@ -101,6 +128,8 @@ public class MainWindow extends javax.swing.JFrame {
         jLabel7 = new javax.swing.JLabel();
         semanticChooser = new javax.swing.JComboBox();
         computeButton = new javax.swing.JButton();
+        progressBar = new javax.swing.JProgressBar();
+        cancelButton = new javax.swing.JButton();
         jPanel4 = new javax.swing.JPanel();
         jLabel8 = new javax.swing.JLabel();
         jLabel10 = new javax.swing.JLabel();
@@ -122,6 +151,7 @@ public class MainWindow extends javax.swing.JFrame {
         jPanel7 = new javax.swing.JPanel();
         inspectAlignButton = new javax.swing.JButton();
         inspectAlignClosureButton = new javax.swing.JButton();
+        statisticsButton = new javax.swing.JButton();
 
         javax.swing.GroupLayout jPanel5Layout = new javax.swing.GroupLayout(jPanel5);
         jPanel5.setLayout(jPanel5Layout);
@@ -282,6 +312,17 @@ public class MainWindow extends javax.swing.JFrame {
             }
         });
 
+        progressBar.setString("");
+        progressBar.setStringPainted(true);
+
+        cancelButton.setText("Cancel");
+        cancelButton.setEnabled(false);
+        cancelButton.addActionListener(new java.awt.event.ActionListener() {
+            public void actionPerformed(java.awt.event.ActionEvent evt) {
+                cancelButtonActionPerformed(evt);
+            }
+        });
+
         javax.swing.GroupLayout jPanel3Layout = new javax.swing.GroupLayout(jPanel3);
         jPanel3.setLayout(jPanel3Layout);
         jPanel3Layout.setHorizontalGroup(
@@ -293,6 +334,10 @@ public class MainWindow extends javax.swing.JFrame {
                         .addComponent(semanticChooser, javax.swing.GroupLayout.PREFERRED_SIZE, 421, javax.swing.GroupLayout.PREFERRED_SIZE)
                         .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
                         .addComponent(computeButton, javax.swing.GroupLayout.DEFAULT_SIZE, 125, Short.MAX_VALUE))
+                    .addGroup(jPanel3Layout.createSequentialGroup()
+                        .addComponent(progressBar, javax.swing.GroupLayout.PREFERRED_SIZE, 421, javax.swing.GroupLayout.PREFERRED_SIZE)
+                        .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+                        .addComponent(cancelButton, javax.swing.GroupLayout.DEFAULT_SIZE, 125, Short.MAX_VALUE))
                     .addComponent(jLabel7))
                 .addContainerGap())
         );
@@ -304,6 +349,10 @@ public class MainWindow extends javax.swing.JFrame {
                 .addGroup(jPanel3Layout.createParallelGroup(javax.swing.GroupLayout.Alignment.BASELINE)
                     .addComponent(semanticChooser, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE)
                     .addComponent(computeButton))
+                .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+                .addGroup(jPanel3Layout.createParallelGroup(javax.swing.GroupLayout.Alignment.CENTER)
+                    .addComponent(progressBar, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE)
+                    .addComponent(cancelButton))
                 .addContainerGap(javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE))
         );
 
@@ -478,15 +527,24 @@ public class MainWindow extends javax.swing.JFrame {
             }
         });
 
+        statisticsButton.setText("Statistics");
+        statisticsButton.addActionListener(new java.awt.event.ActionListener() {
+            public void actionPerformed(java.awt.event.ActionEvent evt) {
+                statisticsButtonActionPerformed(evt);
+            }
+        });
+
         javax.swing.GroupLayout jPanel7Layout = new javax.swing.GroupLayout(jPanel7);
         jPanel7.setLayout(jPanel7Layout);
         jPanel7Layout.setHorizontalGroup(
             jPanel7Layout.createParallelGroup(javax.swing.GroupLayout.Alignment.LEADING)
             .addGroup(jPanel7Layout.createSequentialGroup()
                 .addContainerGap()
-                .addComponent(inspectAlignButton, javax.swing.GroupLayout.PREFERRED_SIZE, 293, javax.swing.GroupLayout.PREFERRED_SIZE)
+                .addComponent(inspectAlignButton, javax.swing.GroupLayout.PREFERRED_SIZE, 220, javax.swing.GroupLayout.PREFERRED_SIZE)
+                .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+                .addComponent(inspectAlignClosureButton, javax.swing.GroupLayout.DEFAULT_SIZE, 220, Short.MAX_VALUE)
                 .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
-                .addComponent(inspectAlignClosureButton, javax.swing.GroupLayout.DEFAULT_SIZE, 253, Short.MAX_VALUE)
+                .addComponent(statisticsButton)
                 .addContainerGap())
         );
         jPanel7Layout.setVerticalGroup(
@@ -494,7 +552,8 @@ public class MainWindow extends javax.swing.JFrame {
             .addGroup(jPanel7Layout.createSequentialGroup()
                 .addGroup(jPanel7Layout.createParallelGroup(javax.swing.GroupLayout.Alignment.BASELINE)
                     .addComponent(inspectAlignButton)
-                    .addComponent(inspectAlignClosureButton))
+                    .addComponent(inspectAlignClosureButton)
+                    .addComponent(statisticsButton))
                 .addContainerGap(13, Short.MAX_VALUE))
         );
 
@@ -556,6 +615,15 @@ public class MainWindow extends javax.swing.JFrame {
 		if (ret == JFileChooser.APPROVE_OPTION) {
 			firstOntologyURI = fileChooser.getSelectedFile().toURI();
 			firstOntologyFileName.setText(fileChooser.getSelectedFile().getAbsolutePath().toString());
+			final URI uri = firstOntologyURI;
+			firstOntologyPreload = preload(firstOntologyPreload, new PreloadWorker(
+					firstOntologyFileName, "Error loading first ontology") {
+				@Override
+				protected Void doInBackground() throws Exception {
+					Wrapper.checkOntology1(uri);
+					return null;
+				}
+			});
 			if (firstOntologyURI != null && secondOntologyURI != null)
 				setStateAlignmentPanel(true);
 			lastLoadPath = fileChooser.getCurrentDirectory();
@@ -576,6 +644,15 @@ public class MainWindow extends javax.swing.JFrame {
 		if (ret == JFileChooser.APPROVE_OPTION) {
 			secondOntologyURI = fileChooser.getSelectedFile().toURI();
 			secondOntologyFileName.setText(fileChooser.getSelectedFile().getAbsolutePath().toString());
+			final URI uri = secondOntologyURI;
+			secondOntologyPreload = preload(secondOntologyPreload, new PreloadWorker(
+					secondOntologyFileName, "Error loading second ontology") {
+				@Override
+				protected Void doInBackground() throws Exception {
+					Wrapper.checkOntology2(uri);
+					return null;
+				}
+			});
 			if (firstOntologyURI != null && secondOntologyURI != null)
 				setStateAlignmentPanel(true);
 			lastLoadPath = fileChooser.getCurrentDirectory();
@@ -596,6 +673,15 @@ public class MainWindow extends javax.swing.JFrame {
 		if (ret == JFileChooser.APPROVE_OPTION) {
 			referenceAlignmentFile = fileChooser.getSelectedFile();
 			referenceAlignmentFileName.setText(referenceAlignmentFile.getAbsolutePath().toString());
+			final String filename = referenceAlignmentFile.getAbsolutePath();
+			referenceAlignmentPreload = preload(referenceAlignmentPreload, new PreloadWorker(
+					referenceAlignmentFileName, "Error loading reference alignment") {
+				@Override
+				protected Void doInBackground() throws Exception {
+					Wrapper.checkReferenceAlignment(filename);
+					return null;
+				}
+			});
 			if (referenceAlignmentFile != null && alignmentFile != null)
 				setStateSemanticPanel(true);
 			lastLoadPath = fileChooser.getCurrentDirectory();
@@ -616,6 +702,15 @@ public class MainWindow extends javax.swing.JFrame {
 		if (ret == JFileChooser.APPROVE_OPTION) {
 			alignmentFile = fileChooser.getSelectedFile();
 			alignmentFileName.setText(alignmentFile.getAbsolutePath().toString());
+			final String filename = alignmentFile.getAbsolutePath();
+			alignmentPreload = preload(alignmentPreload, new PreloadWorker(
+					alignmentFileName, "Error loading alignment") {
+				@Override
+				protected Void doInBackground() throws Exception {
+					Wrapper.checkEvaluationAlignment(filename);
+					return null;
+				}
+			});
 			if (referenceAlignmentFile != null && alignmentFile != null)
 				setStateSemanticPanel(true);
 			lastLoadPath = fileChooser.getCurrentDirectory();
@@ -715,109 +810,35 @@ public class MainWindow extends javax.swing.JFrame {
 	private void computeButtonActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_computeButtonActionPerformed
 		setStateSavePanel(false);
 		setStateViewPanel(false);
-		
-		try {
-			Wrapper.checkOntology1(firstOntologyURI);
-		} catch (WrapperException ex) {
-			JOptionPane.showMessageDialog(this, ex.getMessage(),
-				"Error loading first ontology",
-				JOptionPane.ERROR_MESSAGE
-			);
-			return;
-		}
-		try {
-			Wrapper.checkOntology2(secondOntologyURI);
-		} catch (WrapperException ex) {
-			JOptionPane.showMessageDialog(this, ex.getMessage(),
-				"Error loading second ontology",
-				JOptionPane.ERROR_MESSAGE
-			);
-			return;
-		}
-		try {
-			Wrapper.checkReferenceAlignment(referenceAlignmentFile.getAbsolutePath().toString());
-		} catch (WrapperException ex) {
-			JOptionPane.showMessageDialog(this, ex.getMessage(),
-				"Error loading reference alignment",
-				JOptionPane.ERROR_MESSAGE
-			);
-			return;
-		}
-		try {
-			Wrapper.checkEvaluationAlignment(alignmentFile.getAbsolutePath().toString());
-		} catch (WrapperException ex) {
-			JOptionPane.showMessageDialog(this, ex.getMessage(),
-				"Error loading alignment",
-				JOptionPane.ERROR_MESSAGE
-			);
-			return;
-		}
-		
-		semanticName = semanticChooser.getSelectedItem().toString();
-		try {
-			// handle special description of null semantic
-			Wrapper.checkSemantic(semanticName.equalsIgnoreCase(NULL_SEMANTIC) ?
-						"Null Semantic" : semanticName);
-		} catch (WrapperException ex) {
-			JOptionPane.showMessageDialog(this, ex.getMessage(),
-				"Error loading semantic",
-				JOptionPane.ERROR_MESSAGE
-			);
-			return;
-		}
+		setStateComputing(true);
 
+		semanticName = semanticChooser.getSelectedItem().toString();
 		res = null;
-		try {
-			res = Wrapper.calculate(firstOntologyURI, secondOntologyURI,
-					alignmentFile.getAbsolutePath().toString(),
-					referenceAlignmentFile.getAbsolutePath().toString(),
-					semanticName.equalsIgnoreCase(NULL_SEMANTIC) ?
-						"Null Semantic" : semanticName);
-		} catch (WrapperException ex) {
-			JOptionPane.showMessageDialog(this, ex.getMessage(),
-				"Error computing semantic precision and recall",
-				JOptionPane.ERROR_MESSAGE
-			);
-			return;
-		}
+		precisionValue.setText("?");
+		recallValue.setText("?");
+		referenceAlignmentStats.setText("?");
+		alignmentStats.setText("?");
+		intersectionSize.setText("?");
+
+		// handle special description of null semantic
+		worker = new EvaluationWorker(new Evaluation(firstOntologyURI, secondOntologyURI,
+				alignmentFile.getAbsolutePath().toString(),
+				referenceAlignmentFile.getAbsolutePath().toString(),
+				semanticName.equalsIgnoreCase(NULL_SEMANTIC) ?
+					"Null Semantic" : semanticName,
+				0.0f, true),
+				new PreloadWorker[] {firstOntologyPreload, secondOntologyPreload,
+					referenceAlignmentPreload, alignmentPreload});
+		worker.execute();
+	}//GEN-LAST:event_computeButtonActionPerformed
 
-		if (semanticName.equalsIgnoreCase(NULL_SEMANTIC)) {
-			setStateSavePanel(false);
-			setStateViewPanel(false);
-			inspectAlignButton.setEnabled(true);
-			referenceAlignmentStats.setText(
-				Integer.toString(
-					res.getOriginalReference().getCorrespondenceCount()
-				) +
-				" / -"
-			);
-			alignmentStats.setText(
-				Integer.toString(
-					res.getOriginalAlignment().getCorrespondenceCount()
-				) +
-				" / -"
-			);
+	private void cancelButtonActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_cancelButtonActionPerformed
+		if (worker != null) {
+			cancelButton.setEnabled(false);
+			progressBar.setString("Cancelling...");
+			worker.cancelEvaluation();
 		}
-		else {
-			setStateSavePanel(true);
-			setStateViewPanel(true);
-			// set statistics fields
-			referenceAlignmentStats.setText(
-				Integer.toString(res.getOriginalReference().getCorrespondenceCount())
-				+ " / " +
-				Integer.toString(res.getReferenceClosure().getCorrespondenceCount())
-			);
-			alignmentStats.setText(
-				Integer.toString(res.getOriginalAlignment().getCorrespondenceCount())
-				+ " / " + 
-				Integer.toString(res.getEvaluationClosure().getCorrespondenceCount())
-			);
-		}
-		intersectionSize.setText(Integer.toString(res.getIntersection().getCorrespondenceCount()));
-
-		precisionValue.setText(Float.toString(res.getPrecision()));
-		recallValue.setText(Float.toString(res.getRecall()));
-	}//GEN-LAST:event_computeButtonActionPerformed
+	}//GEN-LAST:event_cancelButtonActionPerformed
 
 	private void inspectAlignButtonActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_inspectAlignButtonActionPerformed
 		new AlignmentFrame(res.getOriginalAlignment(), res.getOriginalReference()).setVisible(true);
@@ -827,6 +848,14 @@ public class MainWindow extends javax.swing.JFrame {
 		new AlignmentFrame(res.getEvaluationClosure(), res.getReferenceClosure()).setVisible(true);
 	}//GEN-LAST:event_inspectAlignClosureButtonActionPerformed
 
+	private void statisticsButtonActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_statisticsButtonActionPerformed
+		JTextArea text = new JTextArea(res.getStatistics().toString());
+		text.setEditable(false);
+		text.setFont(new Font(Font.MONOSPACED, Font.PLAIN, text.getFont().getSize()));
+		JOptionPane.showMessageDialog(this, new JScrollPane(text),
+			"Statistics", JOptionPane.INFORMATION_MESSAGE);
+	}//GEN-LAST:event_statisticsButtonActionPerformed
+
 	private void saveMergedOntologyButtonActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_saveMergedOntologyButtonActionPerformed
 		JFileChooser fileChooser = null;
 		if (lastSavePath == null) {
@@ -856,6 +885,10 @@ public class MainWindow extends javax.swing.JFrame {
 	 * @param args the command line arguments
 	 */
 	public static void main(String args[]) {
+		// keep the chosen files in memory so that they are loaded only once
+		GlobalSettings.USE_ONTOLOGY_POOL = true;
+		GlobalSettings.USE_ALIGNMENT_POOL = true;
+
 		java.awt.EventQueue.invokeLater(new Runnable() {
 
 			@Override
@@ -906,12 +939,334 @@ public class MainWindow extends javax.swing.JFrame {
 	public void setStateViewPanel(boolean state) {
 		inspectAlignButton.setEnabled(state);
 		inspectAlignClosureButton.setEnabled(state);
+		statisticsButton.setEnabled(state);
+	}
+
+	/**
+	 * Sets the state of the window while an evaluation is computed. The
+	 * input elements are disabled and the progress bar and the cancel button
+	 * are enabled.
+	 * @param computing true if an evaluation is computed
+	 */
+	public void setStateComputing(boolean computing) {
+		loadFirstOntologyButton.setEnabled(!computing);
+		loadSecondOntologyButton.setEnabled(!computing);
+		setStateAlignmentPanel(!computing);
+		setStateSemanticPanel(!computing);
+		cancelButton.setEnabled(computing);
+		progressBar.setIndeterminate(computing);
+		progressBar.setValue(0);
+		progressBar.setString(computing ? "Starting computation" : "");
+	}
+
+	/**
+	 * Starts loading a chosen file in the background, replacing the worker
+	 * which loaded the previously chosen file
+	 * @param previous worker loading the previously chosen file or null
+	 * @param preload worker loading the chosen file
+	 * @return started worker
+	 */
+	private PreloadWorker preload(PreloadWorker previous, PreloadWorker preload) {
+		if (previous != null) {
+			previous.cancel(false);
+		}
+		preload.execute();
+		return preload;
+	}
+
+	/**
+	 * Shows the sizes of an alignment and its closure in the statistics field
+	 * of the given phase
+	 */
+	private void showClosureStats(Phase phase, int alignmentSize, int closureSize) {
+		String stats = Integer.toString(alignmentSize) + " / " + Integer.toString(closureSize);
+		if (phase == Phase.EVALUATION_CLOSURE) {
+			alignmentStats.setText(stats);
+		}
+		else {
+			referenceAlignmentStats.setText(stats);
+		}
+	}
+
+	/**
+	 * Shows the result of a finished evaluation
+	 */
+	private void showResult() {
+		if (semanticName.equalsIgnoreCase(NULL_SEMANTIC)) {
+			setStateSavePanel(false);
+			setStateViewPanel(false);
+			inspectAlignButton.setEnabled(true);
+			statisticsButton.setEnabled(true);
+			referenceAlignmentStats.setText(
+				Integer.toString(
+					res.getOriginalReference().getCorrespondenceCount()
+				) +
+				" / -"
+			);
+			alignmentStats.setText(
+				Integer.toString(
+					res.getOriginalAlignment().getCorrespondenceCount()
+				) +
+				" / -"
+			);
+		}
+		else {
+			setStateSavePanel(true);
+			setStateViewPanel(true);
+			// set statistics fields
+			referenceAlignmentStats.setText(
+				Integer.toString(res.getOriginalReference().getCorrespondenceCount())
+				+ " / " +
+				Integer.toString(res.getReferenceClosure().getCorrespondenceCount())
+			);
+			alignmentStats.setText(
+				Integer.toString(res.getOriginalAlignment().getCorrespondenceCount())
+				+ " / " + 
+				Integer.toString(res.getEvaluationClosure().getCorrespondenceCount())
+			);
+		}
+		intersectionSize.setText(Integer.toString(res.getIntersection().getCorrespondenceCount()));
+
+		precisionValue.setText(Float.toString(res.getPrecision()));
+		recallValue.setText(Float.toString(res.getRecall()));
+	}
+
+	/**
+	 * Progress of the running evaluation passed from the worker to the event
+	 * dispatch thread
+	 */
+	private static class Progress {
+		String text;
+		long checked;
+		long total;
+		Phase closurePhase;
+		int alignmentSize;
+		int closureSize;
+	}
+
+	/**
+	 * Loads a chosen file in the background as soon as it has been chosen.
+	 * Since the ontology and alignment pools are enabled, the evaluation gets
+	 * copies of the loaded files instead of parsing them again. A file which
+	 * can not be loaded is marked in its file name field at once.
+	 */
+	private abstract class PreloadWorker extends SwingWorker<Void, Void> {
+		private final JTextField field;
+		private final String filename;
+		private final String errorTitle;
+
+		PreloadWorker(JTextField field, String errorTitle) {
+			this.field = field;
+			this.filename = field.getText();
+			this.errorTitle = errorTitle;
+			field.setBackground(UIManager.getColor("TextField.background"));
+			field.setToolTipText("Loading...");
+		}
+
+		/**
+		 * Returns the title of the error message shown if the file can not
+		 * be loaded
+		 * @return error title
+		 */
+		String getErrorTitle() {
+			return errorTitle;
+		}
+
+		@Override
+		protected void done() {
+			if (isCancelled() || !filename.equals(field.getText())) {
+				return;
+			}
+			try {
+				get();
+				field.setToolTipText(null);
+			} catch (InterruptedException ex) {
+				return;
+			} catch (ExecutionException ex) {
+				Throwable cause = ex.getCause();
+				field.setBackground(INVALID_FILE_COLOR);
+				field.setToolTipText(cause instanceof WrapperException ?
+					cause.getMessage() : cause.toString());
+			}
+		}
+	}
+
+	/**
+	 * Computes an evaluation in the background and shows its progress and
+	 * result in the window. Before starting the evaluation, the worker waits
+	 * for the files to be loaded by their preload workers and reports their
+	 * errors.
+	 */
+	private class EvaluationWorker extends SwingWorker<CalculationResult, Progress>
+			implements ProgressListener {
+		private Evaluation evaluation;
+		private PreloadWorker[] preloads;
+		private volatile String errorTitle;
+		private volatile String closureName;
+
+		EvaluationWorker(Evaluation evaluation, PreloadWorker[] preloads) {
+			this.evaluation = evaluation;
+			this.preloads = preloads;
+			evaluation.setProgressListener(this);
+		}
+
+		/**
+		 * Cancels the evaluation, also aborting a running classification
+		 */
+		void cancelEvaluation() {
+			evaluation.cancel();
+			cancel(true);
+		}
+
+		@Override
+		protected CalculationResult doInBackground() throws Exception {
+			publishText("Waiting for files to be loaded");
+			for (PreloadWorker preload : preloads) {
+				errorTitle = preload.getErrorTitle();
+				try {
+					preload.get();
+				} catch (ExecutionException ex) {
+					if (ex.getCause() instanceof Exception) {
+						throw (Exception) ex.getCause();
+					}
+					throw ex;
+				}
+			}
+			errorTitle = "Error loading semantic";
+			Wrapper.checkSemantic(evaluation.getNameSemantic());
+
+			errorTitle = "Error computing semantic precision and recall";
+			return evaluation.call();
+		}
+
+		private void publishText(String text) {
+			Progress progress = new Progress();
+			progress.text = text;
+			publish(progress);
+		}
+
+		@Override
+		public void phaseStarted(Evaluation evaluation, Phase phase) {
+			switch (phase) {
+				case LOADING_ONTOLOGIES:
+					publishText("Loading ontologies");
+					break;
+				case LOADING_ALIGNMENTS:
+					publishText("Loading alignments");
+					break;
+				case RENAMING_ONTOLOGIES:
+					publishText("Renaming ontologies");
+					break;
+				case EVALUATION_CLOSURE:
+					closureName = "Alignment closure";
+					publishText(closureName);
+					break;
+				case REFERENCE_CLOSURE:
+					closureName = "Reference alignment closure";
+					publishText(closureName);
+					break;
+				case CALCULATING_MEASURES:
+					publishText("Calculating precision and recall");
+					break;
+				case FINISHED:
+					publishText("Finished");
+					break;
+			}
+		}
+
+		@Override
+		public void closureStepStarted(Evaluation evaluation, ClosureStep step) {
+			switch (step) {
+				case MERGING:
+					publishText(closureName + ": merging ontologies");
+					break;
+				case DELETING_ABOX:
+					publishText(closureName + ": deleting ABox");
+					break;
+				case CLASSIFYING:
+					publishText(closureName + ": classifying");
+					break;
+				case CHECKING_PAIRS:
+					publishText(closureName + ": checking pairs");
+					break;
+			}
+		}
+
+		@Override
+		public void pairsChecked(Evaluation evaluation, long checked, long total) {
+			Progress progress = new Progress();
+			progress.text = closureName + ": checking pair " + checked + " of " + total;
+			progress.checked = checked;
+			progress.total = total;
+			publish(progress);
+		}
+
+		@Override
+		public void closureFinished(Evaluation evaluation, Phase phase, Alignment alignment,
+				ClosureResult closure) {
+			Progress progress = new Progress();
+			progress.text = closureName + " finished";
+			progress.closurePhase = phase;
+			progress.alignmentSize = alignment.getCorrespondenceCount();
+			progress.closureSize = closure.getClosure().getCorrespondenceCount();
+			publish(progress);
+		}
+
+		@Override
+		protected void process(List<Progress> chunks) {
+			if (isCancelled()) {
+				return;
+			}
+			for (Progress progress : chunks) {
+				if (progress.closurePhase != null) {
+					showClosureStats(progress.closurePhase, progress.alignmentSize,
+						progress.closureSize);
+				}
+			}
+			Progress last = chunks.get(chunks.size() - 1);
+			progressBar.setString(last.text);
+			if (last.total > 0) {
+				progressBar.setIndeterminate(false);
+				progressBar.setValue((int) (last.checked * 100 / last.total));
+			}
+			else {
+				progressBar.setIndeterminate(true);
+			}
+		}
+
+		@Override
+		protected void done() {
+			worker = null;
+			setStateComputing(false);
+			if (isCancelled()) {
+				progressBar.setString("Computation cancelled");
+				return;
+			}
+			try {
+				res = get();
+			} catch (InterruptedException ex) {
+				return;
+			} catch (ExecutionException ex) {
+				Throwable cause = ex.getCause();
+				progressBar.setString("Computation failed");
+				JOptionPane.showMessageDialog(MainWindow.this,
+					cause instanceof WrapperException ? cause.getMessage() : cause.toString(),
+					errorTitle,
+					JOptionPane.ERROR_MESSAGE
+				);
+				return;
+			}
+			progressBar.setValue(100);
+			progressBar.setString("Finished");
+			showResult();
+		}
 	}
 
     // Variables declaration - do not modify//GEN-BEGIN:variables
     private javax.swing.JButton aboutButton;
     private javax.swing.JTextField alignmentFileName;
     private javax.swing.JTextField alignmentStats;
+    private javax.swing.JButton cancelButton;
     private javax.swing.JButton computeButton;
     private javax.swing.JButton exitButton;
     private javax.swing.JTextField firstOntologyFileName;
@@ -942,6 +1297,7 @@ public class MainWindow extends javax.swing.JFrame {
     private javax.swing.JButton loadReferenceAlignmentButton;
     private javax.swing.JButton loadSecondOntologyButton;
     private javax.swing.JTextField precisionValue;
+    private javax.swing.JProgressBar progressBar;
     private javax.swing.JTextField recallValue;
     private javax.swing.JTextField referenceAlignmentFileName;
     private javax.swing.JTextField referenceAlignmentStats;
@@ -951,5 +1307,6 @@ public class MainWindow extends javax.swing.JFrame {
     private javax.swing.JButton saveReferenceAlignmentClosureButton;
     private javax.swing.JTextField secondOntologyFileName;
     private javax.swing.JComboBox semanticChooser;
+    private javax.swing.JButton statisticsButton;
     // End of variables declaration//GEN-END:variables
 }
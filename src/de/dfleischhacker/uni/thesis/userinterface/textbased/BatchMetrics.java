@@ -0,0 +1,475 @@
+/*
+ *
+ * BatchMetrics.java
+ *
+ * Software License Agreement (BSD License)
+ *
+ * Copyright (c) 2009 Daniel Fleischhacker <dev@dfleischhacker.de>
+ * All rights reserved.
+ *
+ * Redistribution and use of this software in source and binary forms, with or
+ * without modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   1. Redistributions of source code must retain the above copyright notice,
+ *      this list of conditions and the following disclaimer.
+ *
+ *   2. Redistributions in binary form must reproduce the above copyright
+ *      notice, this list of conditions and the following disclaimer in the
+ *      documentation and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package de.dfleischhacker.uni.thesis.userinterface.textbased;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import de.dfleischhacker.uni.thesis.utils.alignment.AlignmentManager;
+import de.dfleischhacker.uni.thesis.utils.alignment.AlignmentPool;
+import de.dfleischhacker.uni.thesis.utils.ontology.OntologyManager;
+import de.dfleischhacker.uni.thesis.utils.ontology.OntologyPool;
+import de.dfleischhacker.uni.thesis.utils.wrapper.CalculationResult;
+import de.dfleischhacker.uni.thesis.utils.wrapper.PhaseRecorder;
+import de.dfleischhacker.uni.thesis.utils.wrapper.Wrapper;
+
+/**
+ * Collects the progress of a batch run and serves it in the Prometheus text
+ * format on the loopback interface while the run is going on.
+ *
+ *		http://localhost:PORT/metrics
+ *
+ * The batchmodes report the number of cases they are going to evaluate and
+ * each case started, completed or failed. The cases are evaluated in groups,
+ * i.e. the subdirectories of the general batchmode and the pairs of
+ * ontologies of the conference batchmode. Cases of a group which are neither
+ * completed nor failed when the next group is started, e.g. because an
+ * ontology could not be loaded, are counted as skipped.
+ *
+ * While the server is running, the metrics are registered as phase recorder
+ * so that the current phase and closure step as well as the progress of
+ * checking the candidate pairs are known. The durations of all phases and
+ * steps are kept in histograms.
+ *
+ * Besides that, the heap usage of the JVM and the hits and misses of the
+ * ontology pool, the alignment pool and the ontology snapshots are exported.
+ * @author Daniel Fleischhacker <dev@dfleischhacker.de>
+ */
+class BatchMetrics implements PhaseRecorder {
+	// upper bounds of the buckets of the duration histograms in seconds
+	private static final double[] BUCKETS =
+			{ 0.01, 0.1, 0.5, 1, 5, 10, 30, 60, 300, 900, 3600 };
+
+	private HttpServer server;
+	private ExecutorService executor;
+
+	private long runStart;
+	private long runEnd;
+	private int scheduled;
+	private int completed;
+	private int failed;
+	private int skipped;
+	private int groupCases;
+	private int groupDone;
+
+	private String currentCase;
+	private String currentSemantic;
+	private String currentPhase;
+	private String currentStep;
+	private long phaseStart;
+	private long pairsChecked;
+	private long pairsTotal;
+	private long lastPeakHeap;
+
+	private LinkedHashMap<String, Histogram> durations;
+
+	/**
+	 * Distribution of the durations of a phase or step
+	 */
+	private static class Histogram {
+		long[] buckets = new long[BUCKETS.length];
+		long count;
+		double sum;
+
+		void observe(double seconds) {
+			for (int i = 0; i < BUCKETS.length; i++) {
+				if (seconds <= BUCKETS[i]) {
+					buckets[i]++;
+				}
+			}
+			count++;
+			sum += seconds;
+		}
+	}
+
+	/**
+	 * Initializes the metrics of a run which has not been started yet
+	 */
+	BatchMetrics() {
+		startRun(0);
+	}
+
+	/**
+	 * Starts serving the metrics on the given port of the loopback interface
+	 * and registers the metrics as phase recorder
+	 * @param port port to listen on
+	 * @throws IOException thrown if the port can not be bound
+	 */
+	void startServer(int port) throws IOException {
+		server = HttpServer.create(new InetSocketAddress(InetAddress.getByName(null), port), 0);
+		server.createContext("/metrics", new MetricsHandler());
+		executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "metrics");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		server.setExecutor(executor);
+		server.start();
+		Wrapper.addPhaseRecorder(this);
+	}
+
+	/**
+	 * Stops serving the metrics if the server has been started
+	 */
+	void stopServer() {
+		if (server == null) {
+			return;
+		}
+		Wrapper.removePhaseRecorder(this);
+		server.stop(0);
+		executor.shutdownNow();
+		server = null;
+	}
+
+	/**
+	 * Resets the metrics for a new run
+	 * @param cases number of cases to evaluate
+	 */
+	synchronized void startRun(int cases) {
+		runStart = System.currentTimeMillis();
+		runEnd = 0;
+		scheduled = cases;
+		completed = 0;
+		failed = 0;
+		skipped = 0;
+		groupCases = 0;
+		groupDone = 0;
+		lastPeakHeap = -1;
+		durations = new LinkedHashMap<String, Histogram>();
+		clearCurrent();
+	}
+
+	/**
+	 * Starts the next group of cases, the cases left of the previous group are
+	 * counted as skipped
+	 * @param cases number of cases in the group
+	 */
+	synchronized void startGroup(int cases) {
+		closeGroup();
+		groupCases = cases;
+	}
+
+	/**
+	 * Sets the case which is evaluated now
+	 * @param name name of the case
+	 */
+	synchronized void caseStarted(String name) {
+		clearCurrent();
+		currentCase = name;
+	}
+
+	/**
+	 * Counts the current case as completed
+	 * @param results results calculated for the case
+	 */
+	synchronized void caseCompleted(List<CalculationResult> results) {
+		completed++;
+		groupDone++;
+		long peakHeap = -1;
+		for (CalculationResult res : results) {
+			if (res.getStatistics() != null) {
+				peakHeap = Math.max(peakHeap, res.getStatistics().getPeakHeap());
+			}
+		}
+		if (peakHeap >= 0) {
+			lastPeakHeap = peakHeap;
+		}
+		clearCurrent();
+	}
+
+	/**
+	 * Counts the current case as failed
+	 */
+	synchronized void caseFailed() {
+		failed++;
+		groupDone++;
+		clearCurrent();
+	}
+
+	/**
+	 * Ends the run, all cases not evaluated are counted as skipped
+	 */
+	synchronized void finishRun() {
+		closeGroup();
+		skipped = scheduled - completed - failed;
+		runEnd = System.currentTimeMillis();
+		clearCurrent();
+	}
+
+	@Override
+	public synchronized Span start(String caseId, String semantic, final String name) {
+		final boolean step = name.indexOf('.') >= 0;
+		if (step) {
+			currentStep = name.substring(name.indexOf('.') + 1);
+		}
+		else {
+			currentPhase = name;
+			currentStep = null;
+			phaseStart = System.nanoTime();
+		}
+		currentSemantic = semantic;
+		pairsChecked = -1;
+		pairsTotal = -1;
+
+		final long start = System.nanoTime();
+		return new Span() {
+			@Override
+			public void end(long axiomCount, long resultSize, long entailmentChecks) {
+				phaseEnded(name, step, (System.nanoTime() - start) / 1e9);
+			}
+		};
+	}
+
+	@Override
+	public Chunk startChunk(String caseId, String semantic, String name, long first) {
+		return new Chunk() {
+			@Override
+			public void end(long checked, long total) {
+				pairsProgressed(checked, total);
+			}
+		};
+	}
+
+	/**
+	 * Returns the metrics in the Prometheus text format
+	 * @return metrics
+	 */
+	synchronized String format() {
+		StringBuilder out = new StringBuilder();
+		long now = runEnd > 0 ? runEnd : System.currentTimeMillis();
+		double runSeconds = (now - runStart) / 1000.0;
+
+		header(out, "spart_cases_scheduled", "gauge", "Number of cases of the batch run");
+		sample(out, "spart_cases_scheduled", null, scheduled);
+		header(out, "spart_cases_completed_total", "counter", "Number of cases evaluated");
+		sample(out, "spart_cases_completed_total", null, completed);
+		header(out, "spart_cases_failed_total", "counter", "Number of cases which could not be evaluated");
+		sample(out, "spart_cases_failed_total", null, failed);
+		header(out, "spart_cases_skipped_total", "counter", "Number of cases skipped because of missing or unloadable files");
+		sample(out, "spart_cases_skipped_total", null, skipped);
+		header(out, "spart_cases_pending", "gauge", "Number of cases still to evaluate");
+		sample(out, "spart_cases_pending", null,
+				Math.max(0, scheduled - completed - failed - skipped));
+		header(out, "spart_run_duration_seconds", "gauge", "Time since the start of the batch run");
+		sample(out, "spart_run_duration_seconds", null, runSeconds);
+		header(out, "spart_throughput_cases_per_hour", "gauge", "Cases completed or failed per hour");
+		sample(out, "spart_throughput_cases_per_hour", null,
+				runSeconds > 0 ? (completed + failed) * 3600 / runSeconds : 0);
+
+		header(out, "spart_current_case_info", "gauge", "Case, semantic, phase and closure step evaluated now");
+		if (currentCase != null) {
+			sample(out, "spart_current_case_info",
+					label("case", currentCase) + "," +
+					label("semantic", currentSemantic) + "," +
+					label("phase", currentPhase) + "," +
+					label("step", currentStep), 1);
+		}
+		header(out, "spart_current_phase_duration_seconds", "gauge", "Time since the start of the current phase");
+		sample(out, "spart_current_phase_duration_seconds", null,
+				currentPhase != null ? (System.nanoTime() - phaseStart) / 1e9 : 0);
+		header(out, "spart_current_pairs_checked", "gauge", "Candidate pairs of the current closure step checked so far");
+		header(out, "spart_current_pairs_total", "gauge", "Candidate pairs of the current closure step");
+		if (pairsTotal >= 0) {
+			sample(out, "spart_current_pairs_checked", null, pairsChecked);
+			sample(out, "spart_current_pairs_total", null, pairsTotal);
+		}
+
+		header(out, "spart_phase_duration_seconds", "histogram", "Durations of the phases and closure steps");
+		for (Map.Entry<String, Histogram> entry : durations.entrySet()) {
+			String phase = label("phase", entry.getKey());
+			Histogram histogram = entry.getValue();
+			for (int i = 0; i < BUCKETS.length; i++) {
+				sample(out, "spart_phase_duration_seconds_bucket",
+						phase + "," + label("le", String.valueOf(BUCKETS[i])), histogram.buckets[i]);
+			}
+			sample(out, "spart_phase_duration_seconds_bucket",
+					phase + "," + label("le", "+Inf"), histogram.count);
+			sample(out, "spart_phase_duration_seconds_sum", phase, histogram.sum);
+			sample(out, "spart_phase_duration_seconds_count", phase, histogram.count);
+		}
+
+		MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+		header(out, "spart_heap_used_bytes", "gauge", "Heap used by the JVM and the reasoners");
+		sample(out, "spart_heap_used_bytes", null, heap.getUsed());
+		header(out, "spart_heap_committed_bytes", "gauge", "Heap committed by the JVM");
+		sample(out, "spart_heap_committed_bytes", null, heap.getCommitted());
+		header(out, "spart_heap_max_bytes", "gauge", "Maximum heap of the JVM");
+		sample(out, "spart_heap_max_bytes", null, heap.getMax());
+		header(out, "spart_case_peak_heap_bytes", "gauge", "Peak heap usage of the last case completed");
+		if (lastPeakHeap >= 0) {
+			sample(out, "spart_case_peak_heap_bytes", null, lastPeakHeap);
+		}
+
+		OntologyPool ontologyPool = OntologyManager.getPool();
+		AlignmentPool alignmentPool = AlignmentManager.getPool();
+		header(out, "spart_cache_entries", "gauge", "Number of entries of the pools");
+		sample(out, "spart_cache_entries", label("cache", "ontology_pool"), ontologyPool.size());
+		sample(out, "spart_cache_entries", label("cache", "alignment_pool"), alignmentPool.size());
+		int[][] uses = {
+			{ ontologyPool.getHits(), ontologyPool.getMisses() },
+			{ alignmentPool.getHits(), alignmentPool.getMisses() },
+			{ OntologyManager.getSnapshotHits(), OntologyManager.getSnapshotMisses() }
+		};
+		String[] caches = { "ontology_pool", "alignment_pool", "ontology_snapshot" };
+		header(out, "spart_cache_hits_total", "counter", "Number of requests answered from the cache");
+		for (int i = 0; i < caches.length; i++) {
+			sample(out, "spart_cache_hits_total", label("cache", caches[i]), uses[i][0]);
+		}
+		header(out, "spart_cache_misses_total", "counter", "Number of requests not answered from the cache");
+		for (int i = 0; i < caches.length; i++) {
+			sample(out, "spart_cache_misses_total", label("cache", caches[i]), uses[i][1]);
+		}
+		header(out, "spart_cache_hit_ratio", "gauge", "Share of the requests answered from the cache");
+		for (int i = 0; i < caches.length; i++) {
+			int requests = uses[i][0] + uses[i][1];
+			sample(out, "spart_cache_hit_ratio", label("cache", caches[i]),
+					requests > 0 ? (double) uses[i][0] / requests : 0);
+		}
+		return out.toString();
+	}
+
+	/**
+	 * Records the duration of a phase or step which has ended
+	 */
+	private synchronized void phaseEnded(String name, boolean step, double seconds) {
+		Histogram histogram = durations.get(name);
+		if (histogram == null) {
+			histogram = new Histogram();
+			durations.put(name, histogram);
+		}
+		histogram.observe(seconds);
+		if (step) {
+			pairsChecked = -1;
+			pairsTotal = -1;
+		}
+	}
+
+	/**
+	 * Records the number of candidate pairs checked so far
+	 */
+	private synchronized void pairsProgressed(long checked, long total) {
+		if (total >= 0) {
+			pairsChecked = checked;
+			pairsTotal = total;
+		}
+	}
+
+	/**
+	 * Counts the cases left of the current group as skipped
+	 */
+	private void closeGroup() {
+		skipped += Math.max(0, groupCases - groupDone);
+		groupCases = 0;
+		groupDone = 0;
+	}
+
+	/**
+	 * Forgets the current case
+	 */
+	private void clearCurrent() {
+		currentCase = null;
+		currentSemantic = null;
+		currentPhase = null;
+		currentStep = null;
+		pairsChecked = -1;
+		pairsTotal = -1;
+	}
+
+	/**
+	 * Appends the help and type lines of a metric
+	 */
+	private static void header(StringBuilder out, String name, String type, String help) {
+		out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+		out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+	}
+
+	/**
+	 * Appends a sample of a metric
+	 */
+	private static void sample(StringBuilder out, String name, String labels, double value) {
+		out.append(name);
+		if (labels != null) {
+			out.append('{').append(labels).append('}');
+		}
+		out.append(' ');
+		if (value == Math.rint(value) && Math.abs(value) < Long.MAX_VALUE) {
+			out.append((long) value);
+		}
+		else {
+			out.append(value);
+		}
+		out.append('\n');
+	}
+
+	/**
+	 * Returns the given label with its value quoted as required by the text
+	 * format
+	 */
+	private static String label(String name, String value) {
+		if (value == null) {
+			value = "";
+		}
+		value = value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+		return name + "=\"" + value + "\"";
+	}
+
+	/**
+	 * Handles requests for the metrics
+	 */
+	private class MetricsHandler implements HttpHandler {
+		@Override
+		public void handle(HttpExchange exchange) throws IOException {
+			byte[] body = format().getBytes("UTF-8");
+			exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+			exchange.sendResponseHeaders(200, body.length);
+			OutputStream out = exchange.getResponseBody();
+			out.write(body);
+			out.close();
+		}
+	}
+}
@@ -35,13 +35,18 @@ package de.dfleischhacker.uni.thesis.userinterface.textbased;
 
 import java.io.File;
 import java.io.FilenameFilter;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
+import java.util.List;
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.transform.TransformerConfigurationException;
 import javax.xml.transform.TransformerException;
+import de.dfleischhacker.uni.thesis.GlobalSettings;
 import de.dfleischhacker.uni.thesis.utils.wrapper.CalculationResult;
 import de.dfleischhacker.uni.thesis.utils.wrapper.Wrapper;
 import de.dfleischhacker.uni.thesis.utils.wrapper.WrapperException;
@@ -86,6 +91,16 @@ import de.dfleischhacker.uni.thesis.utils.wrapper.WrapperException;
  * The results are written into an XML file named results.xml which is placed
  * in the base-directory.
  *
+ * To evaluate the alignments under several semantics at once, the semantic
+ * names may be passed as a comma separated list.
+ *
+ *		--semantics SEMANTIC[,SEMANTIC...] BASEDIR
+ *
+ * Each case is loaded and merged only once for all given semantics. The
+ * results.xml file then contains one resultset per semantic. --semantics may
+ * be given before or after the options --snapshots and --metrics but is not
+ * supported by the conference batchmode.
+ *
  *
  * <h3>Conference batchmode</h3>
  * As the conference test set would be very hard to evaluate using the general
@@ -96,7 +111,7 @@ import de.dfleischhacker.uni.thesis.utils.wrapper.WrapperException;
  *		--conference THRESHOLD SEMANTIC BASEDIR
  *
  * The argument "--conference" activates the conference mode. The next argument
- * specifies the threshold. This is a quirk of the conference evaluation. Only
+ * specifies the threshold or a comma separated list of thresholds. This is a quirk of the conference evaluation. Only
  * correspondences with a threshold equal or greater than the specified threshold
  * are considered during the evaluation, all other correspondences are ignored.
  * This argument must be parseable into a float type, i.e. 0.2 , 0.5 or 0.7 .
@@ -119,6 +134,33 @@ import de.dfleischhacker.uni.thesis.utils.wrapper.WrapperException;
  *
  * The results are saved into the base directory as an XML file named results.xml
  *
+ * If a list of thresholds is given, e.g. 0.9,0.7,0.5, each alignment is
+ * evaluated for all thresholds in descending order, reusing the loaded
+ * ontologies and the closure of the reference alignment. This yields one
+ * precision/recall point per threshold for each case. The results for each
+ * threshold are saved into a file named results-THRESHOLD.xml
+ *
+ * <h3>Metrics</h3>
+ * Both batchmodes may be watched while running by prefixing the arguments
+ * with
+ *
+ *		--metrics PORT
+ *
+ * The number of completed, failed and pending cases, the current case and
+ * phase, the durations of the phases, the heap usage and the hit rates of
+ * the ontology and alignment caches are then served in the Prometheus text
+ * format at http://localhost:PORT/metrics until the run has finished.
+ *
+ * <h3>Snapshots</h3>
+ * Parsing large ontologies again in each run may be avoided by prefixing the
+ * arguments with
+ *
+ *		--snapshots DIRECTORY
+ *
+ * Ontologies loaded from local files are then stored as binary snapshots in
+ * the given directory, which are used in later runs as long as the files do
+ * not change.
+ *
  * @author Daniel Fleischhacker <dev@dfleischhacker.de>
  */
 public class BatchStarter {
@@ -127,6 +169,9 @@ public class BatchStarter {
 	// used to blacklist alignments which cause overwhelming runtime in Pellet
 	static HashSet<String> conferenceBlacklist;
 
+	// progress of the current run, served if --metrics is given
+	private static BatchMetrics metrics = new BatchMetrics();
+
 	static {
 		semanticResolverTable = new HashMap<String, String>();
 		semanticResolverTable.put("null", "Null Semantic");
@@ -146,6 +191,59 @@ public class BatchStarter {
 	 * @param args command-line arguments
 	 */
 	public static void main(String[] args) {
+		// options preceding the batchmode arguments, in any order
+		String[] semantics = null;
+		boolean options = true;
+		while (options && args.length > 2) {
+			if (args[0].equalsIgnoreCase("--snapshots")) {
+				GlobalSettings.USE_SNAPSHOTS = true;
+				GlobalSettings.SNAPSHOT_DIRECTORY = args[1];
+			}
+			else if (args[0].equalsIgnoreCase("--metrics")) {
+				int port = 0;
+				try {
+					port = Integer.parseInt(args[1]);
+				} catch (NumberFormatException ex) {
+					showHelp();
+					System.exit(1);
+				}
+				try {
+					metrics.startServer(port);
+				} catch (IOException ex) {
+					System.out.println("Unable to serve metrics: " + ex.getMessage());
+					System.exit(1);
+				}
+				System.out.println("Serving metrics on http://localhost:" + port + "/metrics");
+			}
+			else if (args[0].equalsIgnoreCase("--semantics")) {
+				semantics = args[1].split(",");
+				for (int i = 0; i < semantics.length; i++) {
+					if (!semanticResolverTable.containsKey(semantics[i].trim())) {
+						showHelp();
+						System.exit(1);
+					}
+					semantics[i] = semanticResolverTable.get(semantics[i].trim());
+				}
+			}
+			else {
+				options = false;
+				continue;
+			}
+			args = Arrays.copyOfRange(args, 2, args.length);
+		}
+
+		// several semantics are only supported by the general batchmode, so
+		// only the directory may follow
+		if (semantics != null) {
+			if (args.length != 1 || args[0].startsWith("--")) {
+				showHelp();
+				System.exit(1);
+			}
+			handleBatchmode(args[0], semantics);
+			metrics.stopServer();
+			return;
+		}
+
 		if ((args.length != 2 && args.length != 4) || args[0].equals("--help")) {
 			showHelp();
 			System.exit(1);
@@ -154,7 +252,7 @@ public class BatchStarter {
 		String pathname = null;
 		String semantic = null;
 		boolean conferenceMode = false;
-		float threshold = 0;
+		float[] thresholds = null;
 
 		int index = 0;
 
@@ -167,7 +265,7 @@ public class BatchStarter {
 				System.exit(1);
 			}
 			index++;
-			threshold = Float.valueOf(args[index]);
+			thresholds = parseThresholds(args[index]);
 			index++;
 		}
 
@@ -183,11 +281,12 @@ public class BatchStarter {
 
 
 		if (conferenceMode) {
-			handleConferenceBatchmode(pathname, semantic, threshold);
+			handleConferenceBatchmode(pathname, semantic, thresholds);
 		}
 		else {
 			handleBatchmode(pathname, semantic);
 		}
+		metrics.stopServer();
 	}
 
 	/**
@@ -195,18 +294,41 @@ public class BatchStarter {
 	 * @param pathname path of basedir
 	 */
 	public static void handleBatchmode(String pathname, String semantic) {
+		handleBatchmode(pathname, new String[] { semantic });
+	}
+
+	/**
+	 * Handles the general batchmode for the given semantics. If more than one
+	 * semantic is given, each case is loaded only once and evaluated under
+	 * all semantics. The results of all semantics are written into one
+	 * results file.
+	 * @param pathname path of basedir
+	 * @param semantics names of the semantics to use for evaluation
+	 */
+	public static void handleBatchmode(String pathname, String[] semantics) {
 		File basedir = new File(pathname);
 		if (!basedir.isDirectory()) {
 			showHelp();
 		}
 
 
-		ResultAggregator agg = new ResultAggregator(basedir.getAbsolutePath(), semantic);
+		ArrayList<ResultAggregator> aggs = new ArrayList<ResultAggregator>(semantics.length);
+		for (String semantic : semantics) {
+			aggs.add(new ResultAggregator(basedir.getAbsolutePath(), semantic));
+		}
+
+		int cases = 0;
+		for (File subdir : basedir.listFiles()) {
+			cases += countAlignments(subdir);
+		}
+		metrics.startRun(cases);
+
 		// traverse over subdirs
 		for (File subdir : basedir.listFiles()) {
 			System.out.println("===========================================================\n" +
 					subdir + "\n" +
 					"--------------------------------------------------------");
+			metrics.startGroup(countAlignments(subdir));
 			if (!subdir.isDirectory()) {
 				System.out.println("Skipping: not a directory");
 				continue;
@@ -295,46 +417,61 @@ public class BatchStarter {
 				continue;
 			}
 
-			CalculationResult res = null;
+			List<CalculationResult> results = null;
 
 			for (File align : aligns) {
 				String prefix = align.getName().substring(0, align.getName().lastIndexOf(".rdf"));
 				System.out.println("=============================================");
 				System.out.println("Processing " + align.getName());
+				metrics.caseStarted(subdir.getName() + File.separator + align.getName());
 				try {
-					res = Wrapper.calculate(onto1.toURI(), onto2.toURI(),
-							align.getAbsolutePath(), refalign.getAbsolutePath(), semantic);
+					if (semantics.length == 1) {
+						results = Collections.singletonList(
+								Wrapper.calculate(onto1.toURI(), onto2.toURI(),
+								align.getAbsolutePath(), refalign.getAbsolutePath(), semantics[0]));
+					}
+					else {
+						results = Wrapper.calculateSemantics(onto1.toURI(), onto2.toURI(),
+								align.getAbsolutePath(), refalign.getAbsolutePath(), semantics,
+								0, true);
+					}
 				} catch (WrapperException ex) {
 					System.out.println("Skipping: unable to calculate precision and recall ("+
 							ex.getMessage() + ")");
 
-					// add errormessage to aggregator
-					agg.addError(prefix, subdir.getName(),
-							"Unable to calculate precision and recall ("+
-							ex.getMessage() + ")");
+					// add errormessage to aggregators
+					for (ResultAggregator agg : aggs) {
+						agg.addError(prefix, subdir.getName(),
+								"Unable to calculate precision and recall ("+
+								ex.getMessage() + ")");
+					}
+					metrics.caseFailed();
 					continue;
 				}
+				metrics.caseCompleted(results);
 
-				// add results to aggregator
-				agg.addResult(prefix, subdir.getName(), res.getPrecision(), res.getRecall(),
-						res.getOriginalAlignment().getCorrespondenceCount(),
-						res.getOriginalReference().getCorrespondenceCount(),
-						res.getEvaluationClosure().getCorrespondenceCount(),
-						res.getReferenceClosure().getCorrespondenceCount(),
-						res.getIntersection().getCorrespondenceCount()
-				);
+				for (int i = 0; i < semantics.length; i++) {
+					CalculationResult res = results.get(i);
 
-				System.out.println("Precision: " + res.getPrecision() + "\t\tRecall: " + res.getRecall());
+					// add results to aggregator
+					aggs.get(i).addResult(prefix, subdir.getName(), res);
 
-				// null semantic hasn't got any additional output
-				if (semantic.equals("Null Semantic")) {
-					continue;
+					if (semantics.length > 1) {
+						System.out.print(semantics[i] + ":\t");
+					}
+					System.out.println("Precision: " + res.getPrecision() + "\t\tRecall: " + res.getRecall());
 				}
 			} // end evaluation alignment traverse
 		} // end subdir traverse
+		metrics.finishRun();
 		try {
 			// end subdir traverse
-			agg.writeXML(basedir.getAbsolutePath() + File.separator + "results.xml");
+			if (aggs.size() == 1) {
+				aggs.get(0).writeXML(basedir.getAbsolutePath() + File.separator + "results.xml");
+			}
+			else {
+				ResultAggregator.writeXML(basedir.getAbsolutePath() + File.separator + "results.xml", aggs);
+			}
 		} catch (ParserConfigurationException ex) {
 			System.out.println("Unable to write aggregated results file");
 		} catch (TransformerConfigurationException ex) {
@@ -344,15 +481,39 @@ public class BatchStarter {
 		}
 	}
 
+	/**
+	 * Parses a comma separated list of thresholds and returns them in
+	 * descending order
+	 * @param list list of thresholds
+	 * @return thresholds in descending order
+	 */
+	private static float[] parseThresholds(String list) {
+		String[] parts = list.split(",");
+		float[] thresholds = new float[parts.length];
+		for (int i = 0; i < parts.length; i++) {
+			thresholds[i] = Float.valueOf(parts[i].trim());
+		}
+		Arrays.sort(thresholds);
+		for (int i = 0; i < thresholds.length / 2; i++) {
+			float tmp = thresholds[i];
+			thresholds[i] = thresholds[thresholds.length - 1 - i];
+			thresholds[thresholds.length - 1 - i] = tmp;
+		}
+		return thresholds;
+	}
+
 	/**
 	 * Handles the special batchmode used for evaluating the conference testset
 	 * @param pathname pathname to read data from
 	 * @param semantic semantic to use for evaluation
-	 * @param threshold threshold to use for alignment loading (dont load
-	 *	correspondences with confidence less than threshold
+	 * @param thresholds thresholds to use for alignment loading in descending
+	 *	order (dont load correspondences with confidence less than threshold).
+	 *	If more than one threshold is given, each alignment is evaluated for
+	 *	all thresholds at once and the results for each threshold are written
+	 *	to a file of its own.
 	 */
 	private static void handleConferenceBatchmode(String pathname, String semantic,
-			float threshold) {
+			float[] thresholds) {
 		File basedir = new File(pathname);
 
 		if (!basedir.isDirectory()) {
@@ -390,8 +551,23 @@ public class BatchStarter {
 		// generate list of matchers from map
 		ArrayList<String> matcherList = new ArrayList<String>(matchers.keySet());
 
+		int cases = 0;
+		for (File firstOntology : ontologyFiles) {
+			for (File secondOntology : ontologyFiles) {
+				String reference = cutSuffix(firstOntology.getName()) + "-" +
+						cutSuffix(secondOntology.getName());
+				if (firstOntology != secondOntology && referenceAlignments.containsKey(reference)) {
+					cases += countConferenceCases(reference, matcherList, alignments);
+				}
+			}
+		}
+		metrics.startRun(cases);
+
 		// now evaluate each possible combination
-		ResultAggregator agg = new ResultAggregator(basedir.getAbsolutePath(), semantic);
+		ResultAggregator[] aggs = new ResultAggregator[thresholds.length];
+		for (int i = 0; i < thresholds.length; i++) {
+			aggs[i] = new ResultAggregator(basedir.getAbsolutePath(), semantic);
+		}
 		for (File firstOntology : ontologyFiles) {
 				try {
 					Wrapper.checkOntology1(firstOntology.toURI());
@@ -423,6 +599,7 @@ public class BatchStarter {
 				}
 
 				File curReferenceFile = referenceAlignments.get(curReference);
+				metrics.startGroup(countConferenceCases(curReference, matcherList, alignments));
 				try {
 					Wrapper.checkReferenceAlignment(curReferenceFile.getAbsolutePath());
 				} catch (WrapperException ex) {
@@ -438,7 +615,10 @@ public class BatchStarter {
 
 					if (conferenceBlacklist.contains(curAlignment)) {
 						System.out.println("Skipping because blacklisted");
-						agg.addError(matcher, curReference, "Blacklisted");
+						for (ResultAggregator agg : aggs) {
+							agg.addError(matcher, curReference, "Blacklisted");
+						}
+						metrics.caseFailed();
 						continue;
 					}
 
@@ -447,6 +627,7 @@ public class BatchStarter {
 						continue;
 					}
 					File curAlignmentFile = alignments.get(curAlignment);
+					metrics.caseStarted(curAlignment);
 
 					try {
 						Wrapper.checkEvaluationAlignment(curAlignmentFile.getAbsolutePath());
@@ -456,47 +637,111 @@ public class BatchStarter {
 						continue;
 					}
 
-					CalculationResult res = null;
+					List<CalculationResult> resList = null;
 
 
 					try {
-						res = Wrapper.calculate(firstOntology.toURI(), secondOntology.toURI(),
-								curAlignmentFile.getAbsolutePath(),
-								curReferenceFile.getAbsolutePath(),
-								semantic, threshold);
+						if (thresholds.length == 1) {
+							resList = Collections.singletonList(Wrapper.calculate(
+									firstOntology.toURI(), secondOntology.toURI(),
+									curAlignmentFile.getAbsolutePath(),
+									curReferenceFile.getAbsolutePath(),
+									semantic, thresholds[0]));
+						}
+						else {
+							resList = Wrapper.calculateSweep(
+									firstOntology.toURI(), secondOntology.toURI(),
+									curAlignmentFile.getAbsolutePath(),
+									curReferenceFile.getAbsolutePath(),
+									semantic, thresholds, true);
+						}
 					} catch (WrapperException ex) {
 						System.out.println("Skipping: unable to calculate precision and recall ("+
 								ex.getMessage() + ")");
 
 						// add errormessage to aggregator
-						agg.addError(matcher, curReference,
-								"Unable to calculate precision and recall ("+
-								ex.getMessage() + ")");
+						for (ResultAggregator agg : aggs) {
+							agg.addError(matcher, curReference,
+									"Unable to calculate precision and recall ("+
+									ex.getMessage() + ")");
+						}
+						metrics.caseFailed();
 						continue;
 					}
-
-					// add results to aggregator
-					agg.addResult(matcher, curReference, res.getPrecision(), res.getRecall(),
-						res.getOriginalAlignment().getCorrespondenceCount(),
-						res.getOriginalReference().getCorrespondenceCount(),
-						res.getEvaluationClosure().getCorrespondenceCount(),
-						res.getReferenceClosure().getCorrespondenceCount(),
-						res.getIntersection().getCorrespondenceCount()
-					);
-
-					System.out.println("Precision: " + res.getPrecision() + "\t\tRecall: " + res.getRecall());
+					metrics.caseCompleted(resList);
+
+					// add results to aggregator, the results are ordered like
+					// the thresholds
+					for (int i = 0; i < thresholds.length; i++) {
+						CalculationResult res = resList.get(i);
+						aggs[i].addResult(matcher, curReference, res);
+
+						if (thresholds.length > 1) {
+							System.out.print("Threshold: " + res.getThreshold() + "\t\t");
+						}
+						System.out.println("Precision: " + res.getPrecision() + "\t\tRecall: " + res.getRecall());
+					}
 				} // end walk matchers
-				try {
-					agg.writeXML(basedir.getAbsolutePath() + File.separator + "results.xml");
-				} catch (ParserConfigurationException ex) {
-					System.out.println("Unable to write aggregated results file");
-				} catch (TransformerConfigurationException ex) {
-					System.out.println("Unable to write aggregated results file");
-				} catch (TransformerException ex) {
-					System.out.println("Unable to write aggregated results file");
+				for (int i = 0; i < thresholds.length; i++) {
+					String filename = "results.xml";
+					if (thresholds.length > 1) {
+						filename = "results-" + thresholds[i] + ".xml";
+					}
+					try {
+						aggs[i].writeXML(basedir.getAbsolutePath() + File.separator + filename);
+					} catch (ParserConfigurationException ex) {
+						System.out.println("Unable to write aggregated results file");
+					} catch (TransformerConfigurationException ex) {
+						System.out.println("Unable to write aggregated results file");
+					} catch (TransformerException ex) {
+						System.out.println("Unable to write aggregated results file");
+					}
 				}
 			}
 		}
+		metrics.finishRun();
+	}
+
+	/**
+	 * Returns the number of alignments to evaluate in the given subdirectory
+	 * of the general batchmode
+	 * @param subdir subdirectory of the basedir
+	 * @return number of alignments besides the reference alignment
+	 */
+	private static int countAlignments(File subdir) {
+		if (!subdir.isDirectory()) {
+			return 0;
+		}
+		int count = 0;
+		for (File entry : subdir.listFiles(new RDFFileNameFilter())) {
+			String name = entry.getName();
+			if (!name.equals("onto1.rdf") && !name.equals("onto2.rdf") &&
+					!name.equals("refalign.rdf")) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Returns the number of cases of the conference batchmode for the given
+	 * reference alignment, blacklisted cases are included since they are
+	 * reported as errors
+	 * @param reference name of the reference alignment
+	 * @param matchers names of the matchers
+	 * @param alignments alignments to evaluate by name
+	 * @return number of cases
+	 */
+	private static int countConferenceCases(String reference, List<String> matchers,
+			HashMap<String, File> alignments) {
+		int count = 0;
+		for (String matcher : matchers) {
+			String name = matcher + "-" + reference;
+			if (alignments.containsKey(name) || conferenceBlacklist.contains(name)) {
+				count++;
+			}
+		}
+		return count;
 	}
 
 	/**
@@ -504,8 +749,14 @@ public class BatchStarter {
 	 */
 	private static void showHelp() {
 		//TODO: complete help
-		System.out.println("Please pass arguments as follows:\n\t[--conference THRESHOLD] SEMANTICNAME DIRECTORY");
+		System.out.println("Please pass arguments as follows:\n\t[--conference THRESHOLD[,THRESHOLD...]] SEMANTICNAME DIRECTORY");
+		System.out.println("\tor\n\t--semantics SEMANTICNAME[,SEMANTICNAME...] DIRECTORY");
+		System.out.println("\tto evaluate the general batchmode under several semantics at once");
 		System.out.println("Where SEMANTICNAME is one of: null, natural, pragmatic");
+		System.out.println("Prefix the arguments with --metrics PORT to serve the progress on\n" +
+				"\thttp://localhost:PORT/metrics");
+		System.out.println("Prefix the arguments with --snapshots DIRECTORY to store snapshots\n" +
+				"\tof the loaded ontologies there and reuse them in later runs");
 	}
 
 	/**
@@ -0,0 +1,264 @@
+/*
+ *
+ * BenchmarkStarter.java
+ *
+ * Software License Agreement (BSD License)
+ *
+ * Copyright (c) 2009 Daniel Fleischhacker <dev@dfleischhacker.de>
+ * All rights reserved.
+ *
+ * Redistribution and use of this software in source and binary forms, with or
+ * without modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   1. Redistributions of source code must retain the above copyright notice,
+ *      this list of conditions and the following disclaimer.
+ *
+ *   2. Redistributions in binary form must reproduce the above copyright
+ *      notice, this list of conditions and the following disclaimer in the
+ *      documentation and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package de.dfleischhacker.uni.thesis.userinterface.textbased;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import de.dfleischhacker.uni.thesis.utils.benchmark.BenchmarkReport;
+import de.dfleischhacker.uni.thesis.utils.benchmark.BenchmarkResult;
+import de.dfleischhacker.uni.thesis.utils.benchmark.MacroBenchmark;
+import de.dfleischhacker.uni.thesis.utils.generator.GenerationException;
+import de.dfleischhacker.uni.thesis.utils.wrapper.WrapperException;
+
+/**
+ * Runs the macro benchmark from the commandline.
+ *
+ *		--benchmark [OPTION VALUE]... OUTDIR
+ *
+ * The cases are generated into OUTDIR/cases, the output of the calculations
+ * is written to OUTDIR/calculations.log. The results are written to
+ * OUTDIR/results.csv and the scaling curves to OUTDIR/curve-SERIES.csv. If a
+ * baseline is given, the results are compared to it and the exit code is 2
+ * if there are regressions.
+ *
+ * <ul>
+ *	<li>--seed N: seed of the generated cases (default 1)</li>
+ *	<li>--warmups N: runs of each point which are not measured (default 1)</li>
+ *	<li>--repetitions N: measured runs of each point (default 3)</li>
+ *	<li>--classes N,N,...: sizes of the ontologies, "none" to skip the series
+ *		(default 50,100,200,400)</li>
+ *	<li>--alignment-sizes N,N,...: sizes of the alignments, "none" to skip
+ *		the series (default 25,50,100,200)</li>
+ *	<li>--alignment-classes N: size of the ontologies of the alignment series
+ *		(default 200)</li>
+ *	<li>--semantics NAME,NAME,...: semantics to use (default
+ *		null,natural,pragmatic)</li>
+ *	<li>--baseline FILE: results.csv of an earlier run to compare to</li>
+ *	<li>--tolerance SHARE: allowed increase over the baseline (default
+ *		0.2)</li>
+ *	<li>--min-time MS: shortest time in the baseline to compare (default
+ *		50)</li>
+ *	<li>--min-heap MB: smallest peak heap usage in the baseline to compare
+ *		(default 32)</li>
+ * </ul>
+ * @author Daniel Fleischhacker <dev@dfleischhacker.de>
+ */
+public class BenchmarkStarter {
+	private static File baseline;
+	private static double tolerance = 0.2;
+	private static double minTime = 50;
+	private static double minHeap = 32;
+
+	/**
+	 * Runs the benchmark described by the command-line arguments
+	 * @param args command-line arguments
+	 */
+	public static void main(String[] args) {
+		if (args.length % 2 != 1 || args[0].equals("--help")) {
+			showHelp();
+			System.exit(1);
+		}
+
+		MacroBenchmark benchmark = new MacroBenchmark();
+		try {
+			for (int i = 0; i < args.length - 1; i += 2) {
+				if (!setOption(benchmark, args[i], args[i + 1])) {
+					showHelp();
+					System.exit(1);
+				}
+			}
+		} catch (IllegalArgumentException ex) {
+			System.out.println("Invalid value: " + ex.getMessage());
+			showHelp();
+			System.exit(1);
+		}
+
+		File outdir = new File(args[args.length - 1]);
+		if (!outdir.isDirectory() && !outdir.mkdirs()) {
+			System.out.println("Unable to create directory " + outdir);
+			System.exit(1);
+		}
+
+		List<BenchmarkResult> baselineResults = null;
+		try {
+			if (baseline != null) {
+				// read it first to fail before running for hours
+				baselineResults = BenchmarkReport.readResults(baseline);
+			}
+
+			PrintStream log = new PrintStream(new FileOutputStream(
+					new File(outdir, "calculations.log")));
+			List<BenchmarkResult> results;
+			try {
+				benchmark.setLog(log);
+				results = benchmark.run(new File(outdir, "cases"));
+			}
+			finally {
+				log.close();
+			}
+
+			BenchmarkReport.writeResults(results, new File(outdir, "results.csv"));
+			BenchmarkReport.writeCurves(results, outdir);
+			for (Map.Entry<String, String> curve : BenchmarkReport.formatCurves(results).entrySet()) {
+				System.out.println("\nSeries " + curve.getKey() + ":");
+				System.out.print(curve.getValue());
+			}
+			System.out.println("\nResults written to " + outdir);
+
+			if (baselineResults != null) {
+				List<String> regressions = BenchmarkReport.compare(baselineResults, results,
+						tolerance, minTime, minHeap);
+				if (regressions.isEmpty()) {
+					System.out.println("No regressions compared to " + baseline);
+				}
+				else {
+					System.out.println(regressions.size() + " regressions compared to "
+							+ baseline + ":");
+					for (String regression : regressions) {
+						System.out.println("\t" + regression);
+					}
+					System.exit(2);
+				}
+			}
+		} catch (IOException ex) {
+			System.out.println("Unable to read or write results: " + ex.getMessage());
+			System.exit(1);
+		} catch (GenerationException ex) {
+			System.out.println("Unable to generate cases: " + ex.getMessage());
+			System.exit(1);
+		} catch (WrapperException ex) {
+			System.out.println("Unable to evaluate case: " + ex.getMessage());
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * Sets the given option of the benchmark
+	 * @return false if the option is unknown
+	 * @throws IllegalArgumentException thrown if the value is invalid
+	 */
+	private static boolean setOption(MacroBenchmark benchmark, String option, String value) {
+		if (option.equals("--seed")) {
+			benchmark.setSeed(Long.parseLong(value));
+		}
+		else if (option.equals("--warmups")) {
+			benchmark.setWarmups(parseCount(value, 0));
+		}
+		else if (option.equals("--repetitions")) {
+			benchmark.setRepetitions(parseCount(value, 1));
+		}
+		else if (option.equals("--classes")) {
+			benchmark.setClassSizes(parseSizes(value));
+		}
+		else if (option.equals("--alignment-sizes")) {
+			benchmark.setAlignmentSizes(parseSizes(value));
+		}
+		else if (option.equals("--alignment-classes")) {
+			benchmark.setAlignmentSeriesClasses(parseCount(value, 1));
+		}
+		else if (option.equals("--semantics")) {
+			List<String> semantics = new ArrayList<String>();
+			for (String name : value.split(",")) {
+				String semantic = BatchStarter.semanticResolverTable.get(name.toLowerCase());
+				if (semantic == null) {
+					throw new IllegalArgumentException(name + " is no semantic");
+				}
+				semantics.add(semantic);
+			}
+			benchmark.setSemantics(semantics);
+		}
+		else if (option.equals("--baseline")) {
+			baseline = new File(value);
+		}
+		else if (option.equals("--tolerance")) {
+			tolerance = Double.parseDouble(value);
+			if (tolerance < 0) {
+				throw new IllegalArgumentException(value + " is less than 0");
+			}
+		}
+		else if (option.equals("--min-time")) {
+			minTime = Double.parseDouble(value);
+		}
+		else if (option.equals("--min-heap")) {
+			minHeap = Double.parseDouble(value);
+		}
+		else {
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Parses a number which must not be less than the given minimum
+	 */
+	private static int parseCount(String value, int minimum) {
+		int count = Integer.parseInt(value);
+		if (count < minimum) {
+			throw new IllegalArgumentException(value + " is less than " + minimum);
+		}
+		return count;
+	}
+
+	/**
+	 * Parses a comma-separated list of sizes, "none" for an empty list
+	 */
+	private static int[] parseSizes(String value) {
+		if (value.equals("none")) {
+			return new int[0];
+		}
+		String[] parts = value.split(",");
+		int[] sizes = new int[parts.length];
+		for (int i = 0; i < parts.length; i++) {
+			sizes[i] = parseCount(parts[i], 1);
+		}
+		return sizes;
+	}
+
+	/**
+	 * Prints some help lines
+	 */
+	private static void showHelp() {
+		System.out.println("Please pass arguments as follows:\n\t--benchmark [OPTION VALUE]... OUTDIR");
+		System.out.println("Where OPTION is one of:\n" +
+				"\t--seed N, --warmups N, --repetitions N, --classes N,N,...,\n" +
+				"\t--alignment-sizes N,N,..., --alignment-classes N,\n" +
+				"\t--semantics NAME,NAME,..., --baseline FILE, --tolerance SHARE,\n" +
+				"\t--min-time MS, --min-heap MB");
+	}
+}
@@ -0,0 +1,645 @@
+/*
+ *
+ * EvaluationDaemon.java
+ *
+ * Software License Agreement (BSD License)
+ *
+ * Copyright (c) 2009 Daniel Fleischhacker <dev@dfleischhacker.de>
+ * All rights reserved.
+ *
+ * Redistribution and use of this software in source and binary forms, with or
+ * without modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   1. Redistributions of source code must retain the above copyright notice,
+ *      this list of conditions and the following disclaimer.
+ *
+ *   2. Redistributions in binary form must reproduce the above copyright
+ *      notice, this list of conditions and the following disclaimer in the
+ *      documentation and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package de.dfleischhacker.uni.thesis.userinterface.textbased;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.util.HashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import de.dfleischhacker.uni.thesis.GlobalSettings;
+import de.dfleischhacker.uni.thesis.semantic.SemanticManager;
+import de.dfleischhacker.uni.thesis.utils.alignment.AlignmentManager;
+import de.dfleischhacker.uni.thesis.utils.alignment.AlignmentPool;
+import de.dfleischhacker.uni.thesis.utils.ontology.OntologyManager;
+import de.dfleischhacker.uni.thesis.utils.ontology.OntologyPool;
+import de.dfleischhacker.uni.thesis.utils.wrapper.CalculationResult;
+import de.dfleischhacker.uni.thesis.utils.wrapper.Wrapper;
+import de.dfleischhacker.uni.thesis.utils.wrapper.WrapperException;
+
+/**
+ * Long-running evaluation server which keeps the JVM, the loaded classes of
+ * Pellet and the OWL API and the ontology pool warm between calculations.
+ * It listens for HTTP requests on the loopback interface only.
+ *
+ *		--daemon [PORT]
+ *
+ * The following requests are accepted, parameters are passed URL encoded in
+ * the query string or as JSON object of strings, numbers and booleans in the
+ * body of a POST request. /evaluate and /shutdown are only accepted as POST
+ * requests with the Content-Type application/json, so they are neither
+ * triggered by following or prefetching a link nor by a form of another
+ * site: browsers send JSON to other sites only after asking the daemon in a
+ * preflight request, which it never allows.
+ *
+ * <h3>/evaluate</h3>
+ * Calculates precision and recall. The parameters are
+ * <ul>
+ *	<li>onto1, onto2: paths or URIs of the ontologies</li>
+ *	<li>align: path of the alignment to evaluate</li>
+ *	<li>ref: path of the reference alignment</li>
+ *	<li>semantic: null, natural or pragmatic or the full name of the semantic
+ *		(default natural)</li>
+ *	<li>threshold: minimum measure of correspondences (default 0)</li>
+ *	<li>deleteABox: true or false (default true)</li>
+ * </ul>
+ * The numbers of the CalculationResult are returned as JSON object.
+ *
+ * <h3>/status</h3>
+ * Returns the number of evaluations and the state of the ontology and
+ * alignment pools.
+ *
+ * <h3>/shutdown</h3>
+ * Stops the daemon.
+ *
+ * Requests are processed one after the other by a single thread.
+ * @author Daniel Fleischhacker <dev@dfleischhacker.de>
+ */
+public class EvaluationDaemon {
+	/**
+	 * Port used if none is given on the commandline
+	 */
+	public static final int DEFAULT_PORT = 8765;
+
+	private HttpServer server;
+	private ExecutorService executor;
+	private CountDownLatch shutdown;
+	private int evaluations;
+
+	/**
+	 * Starts the daemon on the port given on the commandline
+	 * @param args command-line arguments
+	 */
+	public static void main(String[] args) {
+		if (args.length > 1 || (args.length == 1 && args[0].equals("--help"))) {
+			showHelp();
+			System.exit(1);
+		}
+
+		int port = DEFAULT_PORT;
+		if (args.length == 1) {
+			try {
+				port = Integer.parseInt(args[0]);
+			} catch (NumberFormatException ex) {
+				showHelp();
+				System.exit(1);
+			}
+		}
+
+		GlobalSettings.USE_ONTOLOGY_POOL = true;
+		GlobalSettings.USE_ALIGNMENT_POOL = true;
+
+		EvaluationDaemon daemon = new EvaluationDaemon();
+		try {
+			daemon.start(port);
+		} catch (IOException ex) {
+			System.out.println("Unable to start daemon: " + ex.getMessage());
+			System.exit(1);
+		}
+		System.out.println("Listening on localhost:" + port);
+
+		try {
+			daemon.awaitShutdown();
+		} catch (InterruptedException ex) {
+			System.out.println("Interrupted while waiting for shutdown request");
+		}
+		System.out.println("Shutting down");
+		daemon.stop();
+		System.exit(0);
+	}
+
+	/**
+	 * Starts listening on the given port of the loopback interface
+	 * @param port port to listen on
+	 * @throws IOException thrown if the port can not be bound
+	 */
+	public void start(int port) throws IOException {
+		server = HttpServer.create(new InetSocketAddress(InetAddress.getByName(null), port), 0);
+		server.createContext("/evaluate", new EvaluateHandler());
+		server.createContext("/status", new StatusHandler());
+		server.createContext("/shutdown", new ShutdownHandler());
+		executor = Executors.newSingleThreadExecutor();
+		server.setExecutor(executor);
+		shutdown = new CountDownLatch(1);
+		server.start();
+	}
+
+	/**
+	 * Waits until a shutdown request has been received
+	 * @throws InterruptedException thrown if interrupted while waiting
+	 */
+	public void awaitShutdown() throws InterruptedException {
+		shutdown.await();
+	}
+
+	/**
+	 * Stops the daemon
+	 */
+	public void stop() {
+		server.stop(1);
+		executor.shutdownNow();
+	}
+
+	/**
+	 * Handles evaluation requests
+	 */
+	private class EvaluateHandler implements HttpHandler {
+		@Override
+		public void handle(HttpExchange exchange) throws IOException {
+			if (!requireJsonPost(exchange)) {
+				return;
+			}
+			HashMap<String, String> params;
+			try {
+				params = readParameters(exchange);
+			} catch (IllegalArgumentException ex) {
+				sendError(exchange, 400, "invalid JSON: " + ex.getMessage());
+				return;
+			}
+
+			String[] required = { "onto1", "onto2", "align", "ref" };
+			for (String name : required) {
+				if (!params.containsKey(name)) {
+					sendError(exchange, 400, "missing parameter '" + name + "'");
+					return;
+				}
+			}
+
+			String semantic = params.containsKey("semantic") ? params.get("semantic") : "natural";
+			if (BatchStarter.semanticResolverTable.containsKey(semantic)) {
+				semantic = BatchStarter.semanticResolverTable.get(semantic);
+			}
+			if (!SemanticManager.isModuleAvailable(semantic)) {
+				sendError(exchange, 400, "'" + semantic + "' is not a valid semantic");
+				return;
+			}
+
+			float threshold = 0;
+			if (params.containsKey("threshold")) {
+				try {
+					threshold = Float.parseFloat(params.get("threshold"));
+				} catch (NumberFormatException ex) {
+					sendError(exchange, 400, "invalid threshold '" + params.get("threshold") + "'");
+					return;
+				}
+			}
+			boolean deleteABox = !params.containsKey("deleteABox") ||
+					Boolean.parseBoolean(params.get("deleteABox"));
+
+			System.out.println("=============================================");
+			System.out.println("Processing " + params.get("align"));
+			long start = System.currentTimeMillis();
+			StringBuilder json = new StringBuilder("{");
+			try {
+				CalculationResult res = Wrapper.calculate(toURI(params.get("onto1")),
+						toURI(params.get("onto2")), params.get("align"), params.get("ref"),
+						semantic, threshold, deleteABox);
+				long time = System.currentTimeMillis() - start;
+				evaluations++;
+				System.out.println("Precision: " + res.getPrecision() + "\t\tRecall: " + res.getRecall());
+
+				// the original alignments are loaded again for the result and
+				// are missing if that failed
+				if (res.getOriginalAlignment() == null || res.getOriginalReference() == null) {
+					sendError(exchange, 500, "unable to load the alignments again for the result");
+					return;
+				}
+				appendField(json, "semantic", semantic);
+				appendField(json, "onto1", res.getNameOnto1());
+				appendField(json, "onto2", res.getNameOnto2());
+				appendField(json, "evaluationAlignment", res.getNameEvAlign());
+				appendField(json, "referenceAlignment", res.getNameRefAlign());
+				appendField(json, "threshold", res.getThreshold());
+				appendField(json, "precision", res.getPrecision());
+				appendField(json, "recall", res.getRecall());
+				appendField(json, "entityCountOnto1", res.getEntCountOnto1());
+				appendField(json, "entityCountOnto2", res.getEntCountOnto2());
+				appendField(json, "evaluationAlignmentSize", res.getOriginalAlignment().getCorrespondenceCount());
+				appendField(json, "referenceAlignmentSize", res.getOriginalReference().getCorrespondenceCount());
+				appendField(json, "evaluationClosureSize", res.getEvaluationClosure().getCorrespondenceCount());
+				appendField(json, "referenceClosureSize", res.getReferenceClosure().getCorrespondenceCount());
+				appendField(json, "intersectionSize", res.getIntersection().getCorrespondenceCount());
+				appendField(json, "time", time);
+			} catch (WrapperException ex) {
+				sendError(exchange, 500, ex.getMessage());
+				return;
+			} catch (RuntimeException ex) {
+				sendError(exchange, 500, ex.toString());
+				return;
+			}
+			json.setLength(json.length() - 1);
+			json.append("}");
+			send(exchange, 200, json.toString());
+		}
+	}
+
+	/**
+	 * Handles status requests
+	 */
+	private class StatusHandler implements HttpHandler {
+		@Override
+		public void handle(HttpExchange exchange) throws IOException {
+			OntologyPool pool = OntologyManager.getPool();
+			StringBuilder json = new StringBuilder("{");
+			appendField(json, "evaluations", evaluations);
+			appendField(json, "pooledOntologies", pool.size());
+			appendField(json, "poolHits", pool.getHits());
+			appendField(json, "poolMisses", pool.getMisses());
+			AlignmentPool alignmentPool = AlignmentManager.getPool();
+			appendField(json, "pooledAlignments", alignmentPool.size());
+			appendField(json, "alignmentPoolHits", alignmentPool.getHits());
+			appendField(json, "alignmentPoolMisses", alignmentPool.getMisses());
+			json.setLength(json.length() - 1);
+			json.append("}");
+			send(exchange, 200, json.toString());
+		}
+	}
+
+	/**
+	 * Handles shutdown requests
+	 */
+	private class ShutdownHandler implements HttpHandler {
+		@Override
+		public void handle(HttpExchange exchange) throws IOException {
+			if (!requireJsonPost(exchange)) {
+				return;
+			}
+			send(exchange, 200, "{\"shutdown\":true}");
+			shutdown.countDown();
+		}
+	}
+
+	/**
+	 * Checks whether the given request is a POST request with the
+	 * Content-Type application/json and answers it with status 405 or 415
+	 * otherwise
+	 * @return true if the request is a POST request of JSON
+	 */
+	private static boolean requireJsonPost(HttpExchange exchange) throws IOException {
+		if (!exchange.getRequestMethod().equalsIgnoreCase("POST")) {
+			exchange.getResponseHeaders().set("Allow", "POST");
+			sendError(exchange, 405, exchange.getRequestMethod() + " is not allowed, use POST");
+			return false;
+		}
+		String type = exchange.getRequestHeaders().getFirst("Content-Type");
+		if (type == null || !type.split(";")[0].trim().equalsIgnoreCase("application/json")) {
+			sendError(exchange, 415, "Content-Type " + type + " is not allowed, use application/json");
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Reads the parameters from the query string and, for POST requests, from
+	 * the JSON object in the request body
+	 * @throws IllegalArgumentException thrown if the body is no valid JSON
+	 *		object of strings, numbers and booleans
+	 */
+	private static HashMap<String, String> readParameters(HttpExchange exchange)
+			throws IOException {
+		HashMap<String, String> params = new HashMap<String, String>();
+		parseParameters(exchange.getRequestURI().getRawQuery(), params);
+
+		if (exchange.getRequestMethod().equalsIgnoreCase("POST")) {
+			InputStream in = exchange.getRequestBody();
+			ByteArrayOutputStream body = new ByteArrayOutputStream();
+			byte[] buffer = new byte[4096];
+			int read;
+			while ((read = in.read(buffer)) != -1) {
+				body.write(buffer, 0, read);
+			}
+			in.close();
+			parseJsonParameters(body.toString("UTF-8"), params);
+		}
+		return params;
+	}
+
+	/**
+	 * Parses URL encoded parameters into the given map
+	 */
+	private static void parseParameters(String query, HashMap<String, String> params)
+			throws UnsupportedEncodingException {
+		if (query == null || query.length() == 0) {
+			return;
+		}
+		for (String pair : query.split("&")) {
+			int index = pair.indexOf('=');
+			if (index < 0) {
+				params.put(URLDecoder.decode(pair, "UTF-8"), "");
+			}
+			else {
+				params.put(URLDecoder.decode(pair.substring(0, index), "UTF-8"),
+						URLDecoder.decode(pair.substring(index + 1), "UTF-8"));
+			}
+		}
+	}
+
+	/**
+	 * Parses a JSON object of strings, numbers and booleans into the given
+	 * map. Numbers and booleans are kept as written, null values are ignored.
+	 * An empty text is treated as empty object.
+	 * @throws IllegalArgumentException thrown if the text is no such object
+	 */
+	private static void parseJsonParameters(String text, HashMap<String, String> params) {
+		JsonScanner scanner = new JsonScanner(text);
+		if (!scanner.skipWhitespace()) {
+			return;
+		}
+		scanner.expect('{');
+		if (scanner.peek() == '}') {
+			scanner.expect('}');
+		}
+		else {
+			do {
+				String name = scanner.readString();
+				scanner.expect(':');
+				String value = scanner.readValue();
+				if (value != null) {
+					params.put(name, value);
+				}
+			} while (scanner.accept(','));
+			scanner.expect('}');
+		}
+		if (scanner.skipWhitespace()) {
+			throw new IllegalArgumentException("unexpected text after the object");
+		}
+	}
+
+	/**
+	 * Reads the tokens of a flat JSON object
+	 */
+	private static class JsonScanner {
+		private final String text;
+		private int pos;
+
+		JsonScanner(String text) {
+			this.text = text;
+		}
+
+		/**
+		 * Skips whitespace and returns whether there is text left
+		 */
+		boolean skipWhitespace() {
+			while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+				pos++;
+			}
+			return pos < text.length();
+		}
+
+		/**
+		 * Returns the next character which is not whitespace
+		 */
+		char peek() {
+			if (!skipWhitespace()) {
+				throw new IllegalArgumentException("unexpected end of text");
+			}
+			return text.charAt(pos);
+		}
+
+		/**
+		 * Skips the given character if it is the next one
+		 * @return true if the character has been skipped
+		 */
+		boolean accept(char c) {
+			if (skipWhitespace() && text.charAt(pos) == c) {
+				pos++;
+				return true;
+			}
+			return false;
+		}
+
+		/**
+		 * Skips the given character which has to be the next one
+		 */
+		void expect(char c) {
+			if (!accept(c)) {
+				throw new IllegalArgumentException("expected '" + c + "' at position " + pos);
+			}
+		}
+
+		/**
+		 * Reads a string, number or boolean, null values are returned as null
+		 */
+		String readValue() {
+			if (peek() == '"') {
+				return readString();
+			}
+			int start = pos;
+			while (pos < text.length() && "+-.0123456789eEtruefalsn".indexOf(text.charAt(pos)) >= 0) {
+				pos++;
+			}
+			String value = text.substring(start, pos);
+			if (value.equals("null")) {
+				return null;
+			}
+			if (value.equals("true") || value.equals("false")) {
+				return value;
+			}
+			try {
+				Double.parseDouble(value);
+			} catch (NumberFormatException ex) {
+				throw new IllegalArgumentException("invalid value at position " + start);
+			}
+			return value;
+		}
+
+		/**
+		 * Reads a quoted string
+		 */
+		String readString() {
+			expect('"');
+			StringBuilder res = new StringBuilder();
+			while (pos < text.length()) {
+				char c = text.charAt(pos++);
+				if (c == '"') {
+					return res.toString();
+				}
+				if (c != '\\') {
+					res.append(c);
+					continue;
+				}
+				if (pos >= text.length()) {
+					break;
+				}
+				c = text.charAt(pos++);
+				switch (c) {
+					case 'b':
+						res.append('\b');
+						break;
+					case 'f':
+						res.append('\f');
+						break;
+					case 'n':
+						res.append('\n');
+						break;
+					case 'r':
+						res.append('\r');
+						break;
+					case 't':
+						res.append('\t');
+						break;
+					case 'u':
+						if (pos + 4 > text.length()) {
+							throw new IllegalArgumentException("invalid escape at position " + pos);
+						}
+						try {
+							res.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+						} catch (NumberFormatException ex) {
+							throw new IllegalArgumentException("invalid escape at position " + pos);
+						}
+						pos += 4;
+						break;
+					default:
+						res.append(c);
+				}
+			}
+			throw new IllegalArgumentException("unterminated string");
+		}
+	}
+
+	/**
+	 * Returns the URI for the given path or URI
+	 */
+	private static URI toURI(String name) {
+		if (name.contains("://")) {
+			return URI.create(name);
+		}
+		return new File(name).toURI();
+	}
+
+	/**
+	 * Appends the given string field followed by a comma to the JSON object
+	 */
+	private static void appendField(StringBuilder json, String name, String value) {
+		json.append(quote(name)).append(':');
+		json.append(value == null ? "null" : quote(value));
+		json.append(',');
+	}
+
+	/**
+	 * Appends the given number field followed by a comma to the JSON object.
+	 * NaN and infinite values are written as null.
+	 */
+	private static void appendField(StringBuilder json, String name, double value) {
+		json.append(quote(name)).append(':');
+		if (Double.isNaN(value) || Double.isInfinite(value)) {
+			json.append("null");
+		}
+		else if (value == Math.rint(value)) {
+			json.append((long) value);
+		}
+		else {
+			json.append((float) value);
+		}
+		json.append(',');
+	}
+
+	/**
+	 * Returns the given string as quoted JSON string
+	 */
+	private static String quote(String value) {
+		StringBuilder res = new StringBuilder("\"");
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			switch (c) {
+				case '"':
+					res.append("\\\"");
+					break;
+				case '\\':
+					res.append("\\\\");
+					break;
+				case '\n':
+					res.append("\\n");
+					break;
+				case '\r':
+					res.append("\\r");
+					break;
+				case '\t':
+					res.append("\\t");
+					break;
+				default:
+					if (c < 0x20) {
+						res.append(String.format("\\u%04x", (int) c));
+					}
+					else {
+						res.append(c);
+					}
+			}
+		}
+		res.append('"');
+		return res.toString();
+	}
+
+	/**
+	 * Sends an error as JSON object
+	 */
+	private static void sendError(HttpExchange exchange, int status, String message)
+			throws IOException {
+		System.out.println("Error: " + message);
+		send(exchange, status, "{" + quote("error") + ":" + quote(message) + "}");
+	}
+
+	/**
+	 * Sends the given JSON text as response
+	 */
+	private static void send(HttpExchange exchange, int status, String json)
+			throws IOException {
+		byte[] body = (json + "\n").getBytes("UTF-8");
+		exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+		exchange.sendResponseHeaders(status, body.length);
+		OutputStream out = exchange.getResponseBody();
+		out.write(body);
+		out.close();
+	}
+
+	/**
+	 * Prints some help lines
+	 */
+	private static void showHelp() {
+		System.out.println("Please pass arguments as follows:\n\t--daemon [PORT]");
+		System.out.println("The daemon listens on localhost, the default port is " + DEFAULT_PORT);
+	}
+}
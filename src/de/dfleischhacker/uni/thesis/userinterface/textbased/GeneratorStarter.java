@@ -0,0 +1,189 @@
+/*
+ *
+ * GeneratorStarter.java
+ *
+ * Software License Agreement (BSD License)
+ *
+ * Copyright (c) 2009 Daniel Fleischhacker <dev@dfleischhacker.de>
+ * All rights reserved.
+ *
+ * Redistribution and use of this software in source and binary forms, with or
+ * without modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   1. Redistributions of source code must retain the above copyright notice,
+ *      this list of conditions and the following disclaimer.
+ *
+ *   2. Redistributions in binary form must reproduce the above copyright
+ *      notice, this list of conditions and the following disclaimer in the
+ *      documentation and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package de.dfleischhacker.uni.thesis.userinterface.textbased;
+
+import java.io.File;
+import de.dfleischhacker.uni.thesis.utils.generator.CaseGenerator;
+import de.dfleischhacker.uni.thesis.utils.generator.GenerationException;
+
+/**
+ * Generates synthetic test cases for the general batchmode from the
+ * commandline.
+ *
+ *		--generate [OPTION VALUE]... BASEDIR
+ *
+ * The cases are written into subdirectories case01, case02, ... of BASEDIR,
+ * which can then be passed to the batchmode. The options control the size
+ * and shape of the cases, see CaseGenerator for their meaning.
+ *
+ * <ul>
+ *	<li>--seed N: seed of the random decisions (default 1)</li>
+ *	<li>--cases N: number of cases (default 1)</li>
+ *	<li>--classes N: classes per ontology (default 100)</li>
+ *	<li>--object-properties N: object properties per ontology (default 10)</li>
+ *	<li>--data-properties N: data properties per ontology (default 10)</li>
+ *	<li>--depth N: maximum depth of the class hierarchy (default 5)</li>
+ *	<li>--branching N: subclasses per class (default 4)</li>
+ *	<li>--nominals F: share of classes restricted by nominals (default 0)</li>
+ *	<li>--disjointness F: probability of siblings being disjoint (default 0.2)</li>
+ *	<li>--divergence F: share of classes moved up in ontology 2 (default 0.1)</li>
+ *	<li>--alignment-size N: correspondences of the reference alignment
+ *		(default 50)</li>
+ *	<li>--noise F: share of wrong correspondences in the matcher alignments
+ *		(default 0.2)</li>
+ *	<li>--matchers N: matcher alignments per case (default 2)</li>
+ * </ul>
+ * @author Daniel Fleischhacker <dev@dfleischhacker.de>
+ */
+public class GeneratorStarter {
+	/**
+	 * Generates the cases described by the command-line arguments
+	 * @param args command-line arguments
+	 */
+	public static void main(String[] args) {
+		if (args.length % 2 != 1 || args[0].equals("--help")) {
+			showHelp();
+			System.exit(1);
+		}
+
+		CaseGenerator generator = new CaseGenerator();
+		try {
+			for (int i = 0; i < args.length - 1; i += 2) {
+				if (!setOption(generator, args[i], args[i + 1])) {
+					showHelp();
+					System.exit(1);
+				}
+			}
+		} catch (IllegalArgumentException ex) {
+			System.out.println("Invalid value: " + ex.getMessage());
+			showHelp();
+			System.exit(1);
+		}
+
+		File basedir = new File(args[args.length - 1]);
+		try {
+			for (File dir : generator.generate(basedir)) {
+				System.out.println("Generated " + dir);
+			}
+		} catch (GenerationException ex) {
+			System.out.println("Unable to generate cases: " + ex.getMessage());
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * Sets the given option of the generator
+	 * @return false if the option is unknown
+	 * @throws IllegalArgumentException thrown if the value is invalid
+	 */
+	private static boolean setOption(CaseGenerator generator, String option, String value) {
+		if (option.equals("--seed")) {
+			generator.setSeed(Long.parseLong(value));
+		}
+		else if (option.equals("--cases")) {
+			generator.setCases(parseCount(value, 1));
+		}
+		else if (option.equals("--classes")) {
+			generator.setClasses(parseCount(value, 1));
+		}
+		else if (option.equals("--object-properties")) {
+			generator.setObjectProperties(parseCount(value, 0));
+		}
+		else if (option.equals("--data-properties")) {
+			generator.setDataProperties(parseCount(value, 0));
+		}
+		else if (option.equals("--depth")) {
+			generator.setDepth(parseCount(value, 1));
+		}
+		else if (option.equals("--branching")) {
+			generator.setBranching(parseCount(value, 1));
+		}
+		else if (option.equals("--nominals")) {
+			generator.setNominalDensity(parseShare(value));
+		}
+		else if (option.equals("--disjointness")) {
+			generator.setDisjointness(parseShare(value));
+		}
+		else if (option.equals("--divergence")) {
+			generator.setDivergence(parseShare(value));
+		}
+		else if (option.equals("--alignment-size")) {
+			generator.setAlignmentSize(parseCount(value, 1));
+		}
+		else if (option.equals("--noise")) {
+			generator.setNoise(parseShare(value));
+		}
+		else if (option.equals("--matchers")) {
+			generator.setMatchers(parseCount(value, 0));
+		}
+		else {
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Parses a number which must not be less than the given minimum
+	 */
+	private static int parseCount(String value, int minimum) {
+		int count = Integer.parseInt(value);
+		if (count < minimum) {
+			throw new IllegalArgumentException(value + " is less than " + minimum);
+		}
+		return count;
+	}
+
+	/**
+	 * Parses a share between 0 and 1
+	 */
+	private static float parseShare(String value) {
+		float share = Float.parseFloat(value);
+		if (share < 0 || share > 1) {
+			throw new IllegalArgumentException(value + " is not between 0 and 1");
+		}
+		return share;
+	}
+
+	/**
+	 * Prints some help lines
+	 */
+	private static void showHelp() {
+		System.out.println("Please pass arguments as follows:\n\t--generate [OPTION VALUE]... BASEDIR");
+		System.out.println("Where OPTION is one of:\n" +
+				"\t--seed N, --cases N, --classes N, --object-properties N,\n" +
+				"\t--data-properties N, --depth N, --branching N, --nominals SHARE,\n" +
+				"\t--disjointness SHARE, --divergence SHARE, --alignment-size N,\n" +
+				"\t--noise SHARE, --matchers N");
+	}
+}
@@ -33,8 +33,12 @@
 
 package de.dfleischhacker.uni.thesis.userinterface.textbased;
 
+import de.dfleischhacker.uni.thesis.utils.wrapper.CalculationResult;
+import de.dfleischhacker.uni.thesis.utils.wrapper.EvaluationStatistics;
 import java.io.File;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.transform.OutputKeys;
@@ -75,6 +79,7 @@ public class ResultAggregator {
 		public int evaluationClosureSize;
 		public int referenceClosureSize;
 		public int intersectionSize;
+		public EvaluationStatistics statistics;
 	}
 
 	/**
@@ -133,6 +138,24 @@ public class ResultAggregator {
 		results.get(subject).put(testcase,res);
 	}
 
+	/**
+	 * Adds the values of the given calculation result including its
+	 * statistics for a specific subject and testcase combination into the
+	 * result log.
+	 * @param subject string identifying the subject
+	 * @param testcase string identifying the specific testcase
+	 * @param res calculation result to add
+	 */
+	public void addResult(String subject, String testcase, CalculationResult res) {
+		addResult(subject, testcase, res.getPrecision(), res.getRecall(),
+				res.getOriginalAlignment().getCorrespondenceCount(),
+				res.getOriginalReference().getCorrespondenceCount(),
+				res.getEvaluationClosure().getCorrespondenceCount(),
+				res.getReferenceClosure().getCorrespondenceCount(),
+				res.getIntersection().getCorrespondenceCount());
+		results.get(subject).get(testcase).statistics = res.getStatistics();
+	}
+
 	/**
 	 * Logs an error occuring during calculation.
 	 * @param subject subject the error occurs for
@@ -182,6 +205,38 @@ public class ResultAggregator {
 		Document doc =
 			DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument();
 		doc.appendChild(doc.createProcessingInstruction("xml-stylesheet", "type=\"text/xsl\" href=\"results.xsl\""));
+		doc.appendChild(createResultsetElement(doc));
+		writeDocument(doc, filename);
+	}
+
+	/**
+	 * Writes the results aggregated by the given ResultAggregators into one
+	 * file. Each aggregator is written as a resultset element like the one
+	 * written by writeXML(String), all of them are wrapped into a resultsets
+	 * element.
+	 * @param filename filename to write the aggreated results to
+	 * @param aggregators aggregators whose results to write
+	 */
+	public static void writeXML(String filename, List<ResultAggregator> aggregators) throws ParserConfigurationException, TransformerConfigurationException, TransformerException {
+		Document doc =
+			DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument();
+		Element root = doc.createElement("resultsets");
+		root.setAttribute("xmlns", "http://uni.dfleischhacker.de/thesis/resultset#");
+
+		for (ResultAggregator agg : aggregators) {
+			root.appendChild(agg.createResultsetElement(doc));
+		}
+
+		doc.appendChild(root);
+		writeDocument(doc, filename);
+	}
+
+	/**
+	 * Creates the resultset element containing the aggregated results
+	 * @param doc document to create the element for
+	 * @return resultset element
+	 */
+	private Element createResultsetElement(Document doc) {
 		Element root = doc.createElement("resultset");
 		root.setAttribute("xmlns", "http://uni.dfleischhacker.de/thesis/resultset#");
 		root.setAttribute("xmlns:xsd", "http://www.w3.org/2001/XMLSchema#");
@@ -274,6 +329,10 @@ public class ResultAggregator {
 				ent.appendChild(doc.createTextNode(Integer.toString(result.intersectionSize)));
 				resNode.appendChild(ent);
 
+				if (result.statistics != null) {
+					resNode.appendChild(createStatisticsElement(doc, result.statistics));
+				}
+
 				subjectNode.appendChild(resNode);
 			}
 
@@ -295,9 +354,56 @@ public class ResultAggregator {
 
 			root.appendChild(subjectNode);
 		}
-		
-		doc.appendChild(root);
 
+		return root;
+	}
+
+	/**
+	 * Creates the statistics element of a testcase containing the timings
+	 * in milliseconds, the counters and the peak heap usage in bytes
+	 * @param doc document to create the element for
+	 * @param statistics statistics to write
+	 * @return statistics element
+	 */
+	private static Element createStatisticsElement(Document doc, EvaluationStatistics statistics) {
+		Element statNode = doc.createElement("statistics");
+		for (EvaluationStatistics.Timing timing : statistics.getTimings()) {
+			Element timingNode = doc.createElement("timing");
+			timingNode.setAttribute("name", timing.getName());
+
+			Element ent = doc.createElement("wallTime");
+			ent.appendChild(doc.createTextNode(Double.toString(timing.getWallTime() / 1e6)));
+			timingNode.appendChild(ent);
+
+			if (timing.getCpuTime() >= 0) {
+				ent = doc.createElement("cpuTime");
+				ent.appendChild(doc.createTextNode(Double.toString(timing.getCpuTime() / 1e6)));
+				timingNode.appendChild(ent);
+			}
+			statNode.appendChild(timingNode);
+		}
+
+		for (Map.Entry<String, Long> counter : statistics.getCounters().entrySet()) {
+			Element ent = doc.createElement("counter");
+			ent.setAttribute("name", counter.getKey());
+			ent.appendChild(doc.createTextNode(Long.toString(counter.getValue())));
+			statNode.appendChild(ent);
+		}
+
+		if (statistics.getPeakHeap() >= 0) {
+			Element ent = doc.createElement("peakHeap");
+			ent.appendChild(doc.createTextNode(Long.toString(statistics.getPeakHeap())));
+			statNode.appendChild(ent);
+		}
+		return statNode;
+	}
+
+	/**
+	 * Writes the given document into the given file
+	 * @param doc document to write
+	 * @param filename name of file to write to
+	 */
+	private static void writeDocument(Document doc, String filename) throws TransformerConfigurationException, TransformerException {
 		// write data to file
 		File file = new File(filename);
 		StreamResult strRes = new StreamResult(file);
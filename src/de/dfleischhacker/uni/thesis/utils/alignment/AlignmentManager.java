@@ -34,11 +34,16 @@
 
 package de.dfleischhacker.uni.thesis.utils.alignment;
 
+import de.dfleischhacker.uni.thesis.GlobalSettings;
+import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
@@ -58,6 +63,8 @@ import org.xml.sax.SAXException;
  * @author Daniel Fleischhacker <dev@dfleischhacker.de>
  */
 public class AlignmentManager {
+	private static final AlignmentPool pool = new AlignmentPool(GlobalSettings.ALIGNMENT_POOL_SIZE);
+
 	/**
 	 * Private constructor to prevent instantiation
 	 */
@@ -74,6 +81,20 @@ public class AlignmentManager {
 	 */
 	public static Alignment loadAlignment(InputStream stream, float threshold)
 		throws SAXException, IOException, ParserConfigurationException, AlignmentFormatException {
+		return loadAlignment(stream, threshold, null);
+	}
+
+	/**
+	 * Loads an alignment from the given stream. If several cells share the
+	 * entities and the relation, the first one satisfying the threshold is
+	 * kept.
+	 * @param cells if not null, all cells satisfying the threshold are added
+	 *		to this list in the order of the document, including the
+	 *		duplicates not contained in the alignment
+	 */
+	private static Alignment loadAlignment(InputStream stream, float threshold,
+			List<Correspondence> cells)
+		throws SAXException, IOException, ParserConfigurationException, AlignmentFormatException {
 		Alignment alignment = new Alignment();
         DocumentBuilder docBuilder =
                 DocumentBuilderFactory.newInstance().newDocumentBuilder();
@@ -187,6 +208,9 @@ public class AlignmentManager {
 
 			corr.setMeasure(measureValue);
 
+			if (cells != null) {
+				cells.add(corr);
+			}
 			alignment.addCorrespondence(corr);
 		}
 
@@ -214,7 +238,7 @@ public class AlignmentManager {
 	public static Alignment loadAlignment(String filename, float threshold)
             throws FileNotFoundException, SAXException, IOException,
             ParserConfigurationException, Exception {
-		return loadAlignment(new FileInputStream(filename), threshold);
+		return loadAlignmentFromFile(filename, threshold);
 	}
 
 	/**
@@ -225,7 +249,112 @@ public class AlignmentManager {
 	public static Alignment loadAlignment(String filename)
             throws FileNotFoundException, SAXException, IOException,
             ParserConfigurationException, AlignmentFormatException {
-		return loadAlignment(new FileInputStream(filename), 0);
+		return loadAlignmentFromFile(filename, 0);
+	}
+
+	/**
+	 * Loads an alignment from the given file once for each of the given
+	 * thresholds. Each of the returned alignments contains the same
+	 * correspondences as the one returned by loadAlignment(filename,
+	 * threshold), but the file is only read once.
+	 * @param filename file to load alignment from
+	 * @param thresholds thresholds in ascending order
+	 * @return alignments in the order of the thresholds
+	 */
+	public static List<Alignment> loadAlignments(String filename, float[] thresholds)
+            throws FileNotFoundException, SAXException, IOException,
+            ParserConfigurationException, AlignmentFormatException {
+		List<Alignment> alignments = new ArrayList<Alignment>(thresholds.length);
+		if (GlobalSettings.USE_ALIGNMENT_POOL) {
+			// the pool reads the file only once by itself
+			for (float threshold : thresholds) {
+				alignments.add(loadAlignmentFromFile(filename, threshold));
+			}
+			return alignments;
+		}
+
+		List<Correspondence> cells = new ArrayList<Correspondence>();
+		Alignment lowest = loadAlignment(new FileInputStream(filename), thresholds[0], cells);
+		alignments.add(lowest);
+		for (int i = 1; i < thresholds.length; i++) {
+			alignments.add(selectCorrespondences(lowest, cells, thresholds[i]));
+		}
+		return alignments;
+	}
+
+	/**
+	 * Returns the pool used to keep loaded alignments in memory if
+	 * GlobalSettings.USE_ALIGNMENT_POOL is set
+	 * @return alignment pool
+	 */
+	public static AlignmentPool getPool() {
+		return pool;
+	}
+
+	/**
+	 * Loads an alignment from the given file. If
+	 * GlobalSettings.USE_ALIGNMENT_POOL is set, the complete alignment is
+	 * pooled and the correspondences satisfying the threshold are copied from
+	 * the pool as long as the file has not changed.
+	 */
+	private static Alignment loadAlignmentFromFile(String filename, float threshold)
+            throws FileNotFoundException, SAXException, IOException,
+            ParserConfigurationException, AlignmentFormatException {
+		if (!GlobalSettings.USE_ALIGNMENT_POOL) {
+			return loadAlignment(new FileInputStream(filename), threshold);
+		}
+
+		File source = new File(filename);
+		Alignment alignment = pool.get(source, threshold);
+		if (alignment != null) {
+			if (GlobalSettings.DEBUG) {
+				System.out.println("loaded " + source + " from alignment pool");
+			}
+			return alignment;
+		}
+
+		Alignment complete;
+		List<Correspondence> cells = new ArrayList<Correspondence>();
+		try {
+			complete = loadAlignment(new FileInputStream(source), 0, cells);
+		}
+		catch (AlignmentFormatException ex) {
+			if (threshold <= 0) {
+				throw ex;
+			}
+			// correspondences below the threshold are not validated, so the
+			// alignment might still be loadable without the pool
+			return loadAlignment(new FileInputStream(source), threshold);
+		}
+		pool.put(source, complete, cells);
+		// select directly, getting it from the pool would count as hit
+		return selectCorrespondences(complete, cells, threshold);
+	}
+
+	/**
+	 * Creates a new alignment with the data of the given one containing the
+	 * given cells which satisfy the threshold. Like when loading the alignment
+	 * with this threshold, the first of several cells sharing the entities and
+	 * the relation is kept. Correspondences are not modified after loading, so
+	 * they are shared between the alignments.
+	 * @param alignment alignment to copy the data from
+	 * @param cells cells of the alignment in the order of the document
+	 * @param threshold minimum confidence of the selected cells
+	 * @return alignment containing the selected cells
+	 */
+	static Alignment selectCorrespondences(Alignment alignment, List<Correspondence> cells,
+			float threshold) {
+		Set<Correspondence> corrSet = new HashSet<Correspondence>();
+		for (Correspondence corr : cells) {
+			if (corr.getMeasure() >= threshold) {
+				corrSet.add(corr);
+			}
+		}
+		Alignment selected = new Alignment(alignment.getOntology1(),
+				alignment.getOntology2(), corrSet);
+		selected.setLevel(alignment.getLevel());
+		selected.setType(alignment.getType());
+		return selected;
 	}
 
 	/**
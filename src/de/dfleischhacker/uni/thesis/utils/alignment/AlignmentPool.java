@@ -0,0 +1,150 @@
+/*
+ *
+ * AlignmentPool.java
+ *
+ * Software License Agreement (BSD License)
+ *
+ * Copyright (c) 2009 Daniel Fleischhacker <dev@dfleischhacker.de>
+ * All rights reserved.
+ *
+ * Redistribution and use of this software in source and binary forms, with or
+ * without modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   1. Redistributions of source code must retain the above copyright notice,
+ *      this list of conditions and the following disclaimer.
+ *
+ *   2. Redistributions in binary form must reproduce the above copyright
+ *      notice, this list of conditions and the following disclaimer in the
+ *      documentation and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package de.dfleischhacker.uni.thesis.utils.alignment;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * Keeps alignments loaded from local files in memory so that they do not have
+ * to be parsed again for each calculation.
+ *
+ * The pool keeps all cells of the alignment in the order of the file and
+ * hands out new alignments containing only the correspondences satisfying the
+ * requested confidence threshold, selected like when loading the file with
+ * this threshold. Like the ontology pool, an entry is only used as long as the
+ * modification time and the size of its file have not changed. If the pool is
+ * full, the least recently used alignment is dropped.
+ * @author Daniel Fleischhacker <dev@dfleischhacker.de>
+ */
+public class AlignmentPool {
+	private LinkedHashMap<String, Entry> entries;
+	private int capacity;
+	private int hits;
+	private int misses;
+
+	/**
+	 * Pooled alignment and the state of the file it was loaded from
+	 */
+	private static class Entry {
+		long lastModified;
+		long length;
+		Alignment alignment;
+		List<Correspondence> cells;
+	}
+
+	/**
+	 * Initializes an empty pool
+	 * @param capacity maximum number of pooled alignments
+	 */
+	public AlignmentPool(int capacity) {
+		// access order, so the least recently used entry comes first
+		entries = new LinkedHashMap<String, Entry>(16, 0.75f, true);
+		this.capacity = capacity;
+	}
+
+	/**
+	 * Returns a copy of the pooled alignment loaded from the given file
+	 * containing only the correspondences with at least the given confidence.
+	 * @param source file the alignment has been loaded from
+	 * @param threshold minimum confidence of the returned correspondences
+	 * @return copy of pooled alignment or null if the alignment is not pooled
+	 *	or its file has changed since it has been added
+	 */
+	public synchronized Alignment get(File source, float threshold) {
+		Entry entry = entries.get(source.getAbsolutePath());
+		if (entry == null || entry.lastModified != source.lastModified() ||
+				entry.length != source.length()) {
+			misses++;
+			return null;
+		}
+		hits++;
+		return AlignmentManager.selectCorrespondences(entry.alignment, entry.cells, threshold);
+	}
+
+	/**
+	 * Adds the given alignment loaded completely from the given file to the
+	 * pool. The given alignment must not be altered afterwards.
+	 * @param source file the alignment has been loaded from
+	 * @param alignment alignment loaded from the file without threshold
+	 * @param cells all cells of the file in the order of the document
+	 */
+	public synchronized void put(File source, Alignment alignment, List<Correspondence> cells) {
+		Entry entry = new Entry();
+		entry.lastModified = source.lastModified();
+		entry.length = source.length();
+		entry.alignment = alignment;
+		entry.cells = new ArrayList<Correspondence>(cells);
+		entries.put(source.getAbsolutePath(), entry);
+		Iterator<String> eldest = entries.keySet().iterator();
+		while (entries.size() > capacity) {
+			eldest.next();
+			eldest.remove();
+		}
+	}
+
+	/**
+	 * Removes all alignments from the pool
+	 */
+	public synchronized void clear() {
+		entries.clear();
+	}
+
+	/**
+	 * Returns the number of pooled alignments
+	 * @return number of pooled alignments
+	 */
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	/**
+	 * Returns the number of requests answered from the pool
+	 * @return number of hits
+	 */
+	public synchronized int getHits() {
+		return hits;
+	}
+
+	/**
+	 * Returns the number of requests which could not be answered from the pool
+	 * @return number of misses
+	 */
+	public synchronized int getMisses() {
+		return misses;
+	}
+}
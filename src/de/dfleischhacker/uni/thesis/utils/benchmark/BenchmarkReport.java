@@ -0,0 +1,253 @@
+/*
+ *
+ * BenchmarkReport.java
+ *
+ * Software License Agreement (BSD License)
+ *
+ * Copyright (c) 2009 Daniel Fleischhacker <dev@dfleischhacker.de>
+ * All rights reserved.
+ *
+ * Redistribution and use of this software in source and binary forms, with or
+ * without modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   1. Redistributions of source code must retain the above copyright notice,
+ *      this list of conditions and the following disclaimer.
+ *
+ *   2. Redistributions in binary form must reproduce the above copyright
+ *      notice, this list of conditions and the following disclaimer in the
+ *      documentation and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package de.dfleischhacker.uni.thesis.utils.benchmark;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Writes and reads the results of the MacroBenchmark and compares them to a
+ * baseline.
+ *
+ * The results are stored as CSV file with one line per point and metric, a
+ * file written by an earlier run serves as baseline. The scaling curves are
+ * written as one CSV file per series with one line per size and the total
+ * time and peak heap usage of each semantic as columns, ready to be plotted.
+ * @author Daniel Fleischhacker <dev@dfleischhacker.de>
+ */
+public class BenchmarkReport {
+	/**
+	 * Writes the given results as CSV file
+	 * @param results results to write
+	 * @param file file to write to
+	 * @throws IOException thrown if the file could not be written
+	 */
+	public static void writeResults(List<BenchmarkResult> results, File file) throws IOException {
+		PrintWriter writer = new PrintWriter(new BufferedWriter(new FileWriter(file)));
+		try {
+			writer.println(BenchmarkResult.CSV_HEADER);
+			for (BenchmarkResult result : results) {
+				writer.println(result.toCSV());
+			}
+		}
+		finally {
+			writer.close();
+		}
+		if (writer.checkError()) {
+			throw new IOException("Unable to write " + file);
+		}
+	}
+
+	/**
+	 * Reads the results from a CSV file written by writeResults
+	 * @param file file to read
+	 * @return results in the order of the file
+	 * @throws IOException thrown if the file could not be read or is malformed
+	 */
+	public static List<BenchmarkResult> readResults(File file) throws IOException {
+		List<BenchmarkResult> results = new ArrayList<BenchmarkResult>();
+		BufferedReader reader = new BufferedReader(new FileReader(file));
+		try {
+			String line = reader.readLine();
+			if (line == null || !line.equals(BenchmarkResult.CSV_HEADER)) {
+				throw new IOException(file + " is no result file of the benchmark");
+			}
+			while ((line = reader.readLine()) != null) {
+				if (line.length() == 0) {
+					continue;
+				}
+				try {
+					results.add(BenchmarkResult.parseCSV(line));
+				} catch (IllegalArgumentException ex) {
+					throw new IOException("Malformed line in " + file + ": " + ex.getMessage());
+				}
+			}
+		}
+		finally {
+			reader.close();
+		}
+		return results;
+	}
+
+	/**
+	 * Writes the scaling curves of all series contained in the given results
+	 * into the given directory, one file curve-SERIES.csv per series
+	 * @param results results to take the curves from
+	 * @param dir directory to write to
+	 * @return written files
+	 * @throws IOException thrown if a file could not be written
+	 */
+	public static List<File> writeCurves(List<BenchmarkResult> results, File dir)
+			throws IOException {
+		List<File> files = new ArrayList<File>();
+		for (Map.Entry<String, String> curve : formatCurves(results).entrySet()) {
+			File file = new File(dir, "curve-" + curve.getKey() + ".csv");
+			PrintWriter writer = new PrintWriter(new BufferedWriter(new FileWriter(file)));
+			try {
+				writer.print(curve.getValue());
+			}
+			finally {
+				writer.close();
+			}
+			if (writer.checkError()) {
+				throw new IOException("Unable to write " + file);
+			}
+			files.add(file);
+		}
+		return files;
+	}
+
+	/**
+	 * Returns the scaling curves of all series contained in the given results
+	 * as CSV, i.e. for each size a line with the median total time and peak
+	 * heap usage of each semantic
+	 * @param results results to take the curves from
+	 * @return map from series to CSV content, in the order of the results
+	 */
+	public static Map<String, String> formatCurves(List<BenchmarkResult> results) {
+		// series -> semantic -> size -> metric -> median
+		Map<String, Map<String, Map<Integer, Map<String, Double>>>> curves =
+				new LinkedHashMap<String, Map<String, Map<Integer, Map<String, Double>>>>();
+		for (BenchmarkResult result : results) {
+			if (!result.getMetric().equals("total") && !result.getMetric().equals("peakHeap")) {
+				continue;
+			}
+			Map<String, Map<Integer, Map<String, Double>>> series = curves.get(result.getSeries());
+			if (series == null) {
+				series = new LinkedHashMap<String, Map<Integer, Map<String, Double>>>();
+				curves.put(result.getSeries(), series);
+			}
+			Map<Integer, Map<String, Double>> semantic = series.get(result.getSemantic());
+			if (semantic == null) {
+				semantic = new TreeMap<Integer, Map<String, Double>>();
+				series.put(result.getSemantic(), semantic);
+			}
+			Map<String, Double> point = semantic.get(result.getSize());
+			if (point == null) {
+				point = new HashMap<String, Double>();
+				semantic.put(result.getSize(), point);
+			}
+			point.put(result.getMetric(), result.getMedian());
+		}
+
+		Map<String, String> formatted = new LinkedHashMap<String, String>();
+		for (Map.Entry<String, Map<String, Map<Integer, Map<String, Double>>>> series
+				: curves.entrySet()) {
+			StringBuilder res = new StringBuilder("size");
+			TreeMap<Integer, Boolean> sizes = new TreeMap<Integer, Boolean>();
+			for (Map.Entry<String, Map<Integer, Map<String, Double>>> semantic
+					: series.getValue().entrySet()) {
+				res.append(",").append(semantic.getKey()).append(" total ms,")
+						.append(semantic.getKey()).append(" peak heap MB");
+				for (Integer size : semantic.getValue().keySet()) {
+					sizes.put(size, Boolean.TRUE);
+				}
+			}
+			res.append("\n");
+			for (Integer size : sizes.keySet()) {
+				res.append(size);
+				for (Map<Integer, Map<String, Double>> semantic : series.getValue().values()) {
+					Map<String, Double> point = semantic.get(size);
+					res.append(",").append(formatValue(point, "total"));
+					res.append(",").append(formatValue(point, "peakHeap"));
+				}
+				res.append("\n");
+			}
+			formatted.put(series.getKey(), res.toString());
+		}
+		return formatted;
+	}
+
+	/**
+	 * Returns the given metric of the point formatted for a curve or an empty
+	 * string if it has not been measured
+	 */
+	private static String formatValue(Map<String, Double> point, String metric) {
+		if (point == null || !point.containsKey(metric)) {
+			return "";
+		}
+		return String.format(Locale.US, "%.1f", point.get(metric));
+	}
+
+	/**
+	 * Compares the results to the baseline and returns the regressions, i.e.
+	 * the metrics whose median exceeds the median of the baseline by more than
+	 * the given tolerance. Times and heap usages whose median in the baseline
+	 * is below the given minimum are not compared, as they are dominated by
+	 * noise. Metrics missing in either results are skipped.
+	 * @param baseline results of the baseline
+	 * @param results current results
+	 * @param tolerance allowed relative increase, e.g. 0.2 for 20%
+	 * @param minTime minimum time in ms to compare
+	 * @param minHeap minimum heap usage in MB to compare
+	 * @return descriptions of the regressions, empty if there are none
+	 */
+	public static List<String> compare(List<BenchmarkResult> baseline,
+			List<BenchmarkResult> results, double tolerance, double minTime, double minHeap) {
+		Map<String, BenchmarkResult> base = new HashMap<String, BenchmarkResult>();
+		for (BenchmarkResult result : baseline) {
+			base.put(result.getKey(), result);
+		}
+
+		List<String> regressions = new ArrayList<String>();
+		for (BenchmarkResult result : results) {
+			BenchmarkResult old = base.get(result.getKey());
+			if (old == null || !old.getUnit().equals(result.getUnit()) || old.getMedian() <= 0) {
+				continue;
+			}
+			double minimum = result.getUnit().equals("ms") ? minTime : minHeap;
+			if (old.getMedian() < minimum) {
+				continue;
+			}
+			if (result.getMedian() > old.getMedian() * (1 + tolerance)) {
+				regressions.add(String.format(Locale.US, "%s: %.1f %s -> %.1f %s (%+.0f%%)",
+						result.getKey(), old.getMedian(), old.getUnit(), result.getMedian(),
+						result.getUnit(), (result.getMedian() / old.getMedian() - 1) * 100));
+			}
+		}
+		return regressions;
+	}
+}
@@ -0,0 +1,204 @@
+/*
+ *
+ * BenchmarkResult.java
+ *
+ * Software License Agreement (BSD License)
+ *
+ * Copyright (c) 2009 Daniel Fleischhacker <dev@dfleischhacker.de>
+ * All rights reserved.
+ *
+ * Redistribution and use of this software in source and binary forms, with or
+ * without modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   1. Redistributions of source code must retain the above copyright notice,
+ *      this list of conditions and the following disclaimer.
+ *
+ *   2. Redistributions in binary form must reproduce the above copyright
+ *      notice, this list of conditions and the following disclaimer in the
+ *      documentation and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package de.dfleischhacker.uni.thesis.utils.benchmark;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Measured value of a single metric of a benchmark point, i.e. the total or
+ * the phase times or the peak heap usage of evaluating the case of a given
+ * size using a given semantic. Each result is aggregated over all repeated
+ * runs of the point.
+ * @author Daniel Fleischhacker <dev@dfleischhacker.de>
+ */
+public class BenchmarkResult {
+	/**
+	 * Header line of the CSV files results are written to
+	 */
+	public static final String CSV_HEADER = "series,size,semantic,metric,unit,median,min,max,runs";
+
+	private String series;
+	private int size;
+	private String semantic;
+	private String metric;
+	private String unit;
+	private double median;
+	private double min;
+	private double max;
+	private int runs;
+
+	/**
+	 * Creates a new result from the given values
+	 */
+	public BenchmarkResult(String series, int size, String semantic, String metric, String unit,
+			double median, double min, double max, int runs) {
+		this.series = series;
+		this.size = size;
+		this.semantic = semantic;
+		this.metric = metric;
+		this.unit = unit;
+		this.median = median;
+		this.min = min;
+		this.max = max;
+		this.runs = runs;
+	}
+
+	/**
+	 * Creates a new result from the given samples of all runs
+	 * @param samples measured values, sorted in place
+	 */
+	public BenchmarkResult(String series, int size, String semantic, String metric, String unit,
+			List<Double> samples) {
+		this(series, size, semantic, metric, unit, 0, 0, 0, samples.size());
+		Collections.sort(samples);
+		int count = samples.size();
+		if (count % 2 == 1) {
+			median = samples.get(count / 2);
+		}
+		else {
+			median = (samples.get(count / 2 - 1) + samples.get(count / 2)) / 2;
+		}
+		min = samples.get(0);
+		max = samples.get(count - 1);
+	}
+
+	/**
+	 * Parses a line of a CSV file written by toCSV
+	 * @param line line to parse
+	 * @return parsed result
+	 * @throws IllegalArgumentException thrown if the line is malformed
+	 */
+	public static BenchmarkResult parseCSV(String line) {
+		String[] fields = line.split(",");
+		if (fields.length != 9) {
+			throw new IllegalArgumentException("Expected 9 fields in line '" + line + "'");
+		}
+		return new BenchmarkResult(fields[0], Integer.parseInt(fields[1]), fields[2], fields[3],
+				fields[4], Double.parseDouble(fields[5]), Double.parseDouble(fields[6]),
+				Double.parseDouble(fields[7]), Integer.parseInt(fields[8]));
+	}
+
+	/**
+	 * Returns the result as line of a CSV file
+	 * @return line without line break
+	 */
+	public String toCSV() {
+		return String.format(Locale.US, "%s,%d,%s,%s,%s,%.3f,%.3f,%.3f,%d", series, size, semantic,
+				metric, unit, median, min, max, runs);
+	}
+
+	/**
+	 * Returns a key identifying the measured metric and point, results of
+	 * different runs of the benchmark having the same key are comparable
+	 * @return key
+	 */
+	public String getKey() {
+		return series + "-" + size + " " + semantic + " " + metric;
+	}
+
+	/**
+	 * Returns the name of the series, i.e. the size varied by the series
+	 * @return name of series
+	 */
+	public String getSeries() {
+		return series;
+	}
+
+	/**
+	 * Returns the size of the point within its series
+	 * @return size
+	 */
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 * Returns the name of the semantic
+	 * @return name of semantic
+	 */
+	public String getSemantic() {
+		return semantic;
+	}
+
+	/**
+	 * Returns the name of the metric, i.e. "total", a phase or step or
+	 * "peakHeap"
+	 * @return name of metric
+	 */
+	public String getMetric() {
+		return metric;
+	}
+
+	/**
+	 * Returns the unit of the values, "ms" or "MB"
+	 * @return unit
+	 */
+	public String getUnit() {
+		return unit;
+	}
+
+	/**
+	 * Returns the median of all runs
+	 * @return median
+	 */
+	public double getMedian() {
+		return median;
+	}
+
+	/**
+	 * Returns the minimum of all runs
+	 * @return minimum
+	 */
+	public double getMin() {
+		return min;
+	}
+
+	/**
+	 * Returns the maximum of all runs
+	 * @return maximum
+	 */
+	public double getMax() {
+		return max;
+	}
+
+	/**
+	 * Returns the number of runs
+	 * @return number of runs
+	 */
+	public int getRuns() {
+		return runs;
+	}
+}
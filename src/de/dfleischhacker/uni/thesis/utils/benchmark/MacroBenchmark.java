@@ -0,0 +1,313 @@
+/*
+ *
+ * MacroBenchmark.java
+ *
+ * Software License Agreement (BSD License)
+ *
+ * Copyright (c) 2009 Daniel Fleischhacker <dev@dfleischhacker.de>
+ * All rights reserved.
+ *
+ * Redistribution and use of this software in source and binary forms, with or
+ * without modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   1. Redistributions of source code must retain the above copyright notice,
+ *      this list of conditions and the following disclaimer.
+ *
+ *   2. Redistributions in binary form must reproduce the above copyright
+ *      notice, this list of conditions and the following disclaimer in the
+ *      documentation and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package de.dfleischhacker.uni.thesis.utils.benchmark;
+
+import java.io.File;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import de.dfleischhacker.uni.thesis.utils.generator.CaseGenerator;
+import de.dfleischhacker.uni.thesis.utils.generator.GenerationException;
+import de.dfleischhacker.uni.thesis.utils.wrapper.CalculationResult;
+import de.dfleischhacker.uni.thesis.utils.wrapper.EvaluationStatistics;
+import de.dfleischhacker.uni.thesis.utils.wrapper.Wrapper;
+import de.dfleischhacker.uni.thesis.utils.wrapper.WrapperException;
+
+/**
+ * Measures how the complete calculation scales with the size of the
+ * ontologies and of the alignments.
+ *
+ * The benchmark consists of two series of synthetic cases created by the
+ * CaseGenerator from a fixed seed. The series "classes" varies the number of
+ * classes of both ontologies, the alignments containing half as many
+ * correspondences as there are classes. The series "alignment" varies the
+ * size of the alignments for ontologies of a fixed number of classes. Each
+ * case is evaluated using each semantic, first a number of warm-up runs which
+ * are not measured, then the measured runs.
+ *
+ * For each point, i.e. series, size and semantic, the benchmark yields the
+ * median, minimum and maximum of the total time, of the time of each phase
+ * and step as recorded in the EvaluationStatistics and of the peak heap
+ * usage.
+ * @author Daniel Fleischhacker <dev@dfleischhacker.de>
+ */
+public class MacroBenchmark {
+	/**
+	 * Name of the series varying the size of the ontologies
+	 */
+	public static final String SERIES_CLASSES = "classes";
+
+	/**
+	 * Name of the series varying the size of the alignments
+	 */
+	public static final String SERIES_ALIGNMENT = "alignment";
+
+	private static final double NANOS_PER_MS = 1000000.0;
+	private static final double BYTES_PER_MB = 1024.0 * 1024.0;
+
+	private long seed = 1;
+	private int warmups = 1;
+	private int repetitions = 3;
+	private int[] classSizes = { 50, 100, 200, 400 };
+	private int[] alignmentSizes = { 25, 50, 100, 200 };
+	private int alignmentSeriesClasses = 200;
+	private List<String> semantics = Arrays.asList("Null Semantic", "Natural Semantic",
+			"Pragmatic Semantic");
+	private PrintStream log;
+	// stands in for the log if there is none, shared by all calculations
+	private final PrintStream discard = new PrintStream(new NullOutputStream());
+
+	/**
+	 * A case of the benchmark
+	 */
+	private static class Point {
+		String series;
+		int size;
+		int classes;
+		int alignmentSize;
+
+		Point(String series, int size, int classes, int alignmentSize) {
+			this.series = series;
+			this.size = size;
+			this.classes = classes;
+			this.alignmentSize = alignmentSize;
+		}
+	}
+
+	/**
+	 * Generates the cases into the given directory, evaluates them and
+	 * returns the results. The output of the calculations is written to the
+	 * log set by setLog or discarded if there is none.
+	 * @param basedir directory to generate the cases in
+	 * @return results of all points in the order they have been measured
+	 * @throws GenerationException thrown if a case could not be generated
+	 * @throws WrapperException thrown if a case could not be evaluated
+	 */
+	public List<BenchmarkResult> run(File basedir) throws GenerationException, WrapperException {
+		for (String semantic : semantics) {
+			Wrapper.checkSemantic(semantic);
+		}
+
+		List<Point> points = new ArrayList<Point>();
+		for (int classes : classSizes) {
+			points.add(new Point(SERIES_CLASSES, classes, classes, Math.max(1, classes / 2)));
+		}
+		for (int alignmentSize : alignmentSizes) {
+			points.add(new Point(SERIES_ALIGNMENT, alignmentSize, alignmentSeriesClasses,
+					alignmentSize));
+		}
+
+		List<BenchmarkResult> results = new ArrayList<BenchmarkResult>();
+		for (Point point : points) {
+			File dir = generateCase(point, new File(basedir, point.series + "-" + point.size));
+			for (String semantic : semantics) {
+				System.out.println("Measuring " + point.series + "-" + point.size + " using "
+						+ semantic);
+				results.addAll(measure(point, dir, semantic));
+			}
+		}
+		return results;
+	}
+
+	/**
+	 * Generates the case of the given point
+	 * @return directory of the case
+	 */
+	private File generateCase(Point point, File dir) throws GenerationException {
+		CaseGenerator generator = new CaseGenerator();
+		generator.setSeed(seed);
+		generator.setClasses(point.classes);
+		generator.setObjectProperties(Math.max(1, point.classes / 10));
+		generator.setDataProperties(Math.max(1, point.classes / 10));
+		generator.setAlignmentSize(point.alignmentSize);
+		generator.setMatchers(1);
+		return generator.generate(dir).get(0);
+	}
+
+	/**
+	 * Evaluates the case of the given point using the given semantic and
+	 * aggregates the measured runs
+	 */
+	private List<BenchmarkResult> measure(Point point, File dir, String semantic)
+			throws WrapperException {
+		File onto1 = new File(dir, "onto1.rdf");
+		File onto2 = new File(dir, "onto2.rdf");
+		String align = new File(dir, "matcher1.rdf").getAbsolutePath();
+		String refalign = new File(dir, "refalign.rdf").getAbsolutePath();
+
+		for (int i = 0; i < warmups; i++) {
+			calculate(onto1, onto2, align, refalign, semantic);
+		}
+
+		// samples of the times in ms by metric, in the order of the phases
+		Map<String, List<Double>> times = new LinkedHashMap<String, List<Double>>();
+		times.put("total", new ArrayList<Double>());
+		List<Double> heap = new ArrayList<Double>();
+		for (int i = 0; i < repetitions; i++) {
+			// leave as little garbage of previous runs as possible
+			System.gc();
+			long start = System.nanoTime();
+			CalculationResult result = calculate(onto1, onto2, align, refalign, semantic);
+			times.get("total").add((System.nanoTime() - start) / NANOS_PER_MS);
+
+			EvaluationStatistics statistics = result.getStatistics();
+			for (EvaluationStatistics.Timing timing : statistics.getTimings()) {
+				List<Double> samples = times.get(timing.getName());
+				if (samples == null) {
+					samples = new ArrayList<Double>();
+					times.put(timing.getName(), samples);
+				}
+				samples.add(timing.getWallTime() / NANOS_PER_MS);
+			}
+			if (statistics.getPeakHeap() >= 0) {
+				heap.add(statistics.getPeakHeap() / BYTES_PER_MB);
+			}
+		}
+
+		List<BenchmarkResult> results = new ArrayList<BenchmarkResult>();
+		for (Map.Entry<String, List<Double>> entry : times.entrySet()) {
+			results.add(new BenchmarkResult(point.series, point.size, semantic, entry.getKey(),
+					"ms", entry.getValue()));
+		}
+		if (!heap.isEmpty()) {
+			results.add(new BenchmarkResult(point.series, point.size, semantic, "peakHeap",
+					"MB", heap));
+		}
+		return results;
+	}
+
+	/**
+	 * Runs a single calculation, redirecting its output to the log. This
+	 * includes standard error, where Pellet reports the classification
+	 * progress.
+	 */
+	private CalculationResult calculate(File onto1, File onto2, String align, String refalign,
+			String semantic) throws WrapperException {
+		PrintStream out = System.out;
+		PrintStream err = System.err;
+		PrintStream target = log != null ? log : discard;
+		System.setOut(target);
+		System.setErr(target);
+		try {
+			return Wrapper.calculate(onto1.toURI(), onto2.toURI(), align, refalign, semantic);
+		}
+		finally {
+			System.setOut(out);
+			System.setErr(err);
+		}
+	}
+
+	/**
+	 * Output stream discarding everything written to it
+	 */
+	private static class NullOutputStream extends OutputStream {
+		@Override
+		public void write(int b) {
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+		}
+	}
+
+	/**
+	 * Sets the seed the cases are generated from
+	 * @param seed seed
+	 */
+	public void setSeed(long seed) {
+		this.seed = seed;
+	}
+
+	/**
+	 * Sets the number of runs of each point which are not measured
+	 * @param warmups number of warm-up runs
+	 */
+	public void setWarmups(int warmups) {
+		this.warmups = warmups;
+	}
+
+	/**
+	 * Sets the number of measured runs of each point
+	 * @param repetitions number of measured runs
+	 */
+	public void setRepetitions(int repetitions) {
+		this.repetitions = repetitions;
+	}
+
+	/**
+	 * Sets the numbers of classes of the series "classes", an empty array
+	 * skips the series
+	 * @param classSizes numbers of classes
+	 */
+	public void setClassSizes(int[] classSizes) {
+		this.classSizes = classSizes;
+	}
+
+	/**
+	 * Sets the alignment sizes of the series "alignment", an empty array
+	 * skips the series
+	 * @param alignmentSizes numbers of correspondences
+	 */
+	public void setAlignmentSizes(int[] alignmentSizes) {
+		this.alignmentSizes = alignmentSizes;
+	}
+
+	/**
+	 * Sets the number of classes of the ontologies of the series "alignment"
+	 * @param alignmentSeriesClasses number of classes
+	 */
+	public void setAlignmentSeriesClasses(int alignmentSeriesClasses) {
+		this.alignmentSeriesClasses = alignmentSeriesClasses;
+	}
+
+	/**
+	 * Sets the names of the semantics each case is evaluated with
+	 * @param semantics names of semantics
+	 */
+	public void setSemantics(List<String> semantics) {
+		this.semantics = semantics;
+	}
+
+	/**
+	 * Sets the stream the output of the calculations is written to
+	 * @param log stream or null to discard the output
+	 */
+	public void setLog(PrintStream log) {
+		this.log = log;
+	}
+}
@@ -0,0 +1,535 @@
+/*
+ *
+ * CaseGenerator.java
+ *
+ * Software License Agreement (BSD License)
+ *
+ * Copyright (c) 2009 Daniel Fleischhacker <dev@dfleischhacker.de>
+ * All rights reserved.
+ *
+ * Redistribution and use of this software in source and binary forms, with or
+ * without modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   1. Redistributions of source code must retain the above copyright notice,
+ *      this list of conditions and the following disclaimer.
+ *
+ *   2. Redistributions in binary form must reproduce the above copyright
+ *      notice, this list of conditions and the following disclaimer in the
+ *      documentation and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package de.dfleischhacker.uni.thesis.utils.generator;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import org.semanticweb.owl.apibinding.OWLManager;
+import org.semanticweb.owl.model.OWLAxiom;
+import org.semanticweb.owl.model.OWLClass;
+import org.semanticweb.owl.model.OWLDataFactory;
+import org.semanticweb.owl.model.OWLDataProperty;
+import org.semanticweb.owl.model.OWLDescription;
+import org.semanticweb.owl.model.OWLException;
+import org.semanticweb.owl.model.OWLIndividual;
+import org.semanticweb.owl.model.OWLObjectProperty;
+import org.semanticweb.owl.model.OWLOntology;
+import org.semanticweb.owl.model.OWLOntologyManager;
+import de.dfleischhacker.uni.thesis.utils.alignment.Alignment;
+import de.dfleischhacker.uni.thesis.utils.alignment.AlignmentManager;
+import de.dfleischhacker.uni.thesis.utils.alignment.Correspondence;
+import de.dfleischhacker.uni.thesis.utils.ontology.Ontology;
+import de.dfleischhacker.uni.thesis.utils.ontology.OntologyManager;
+
+/**
+ * Generates synthetic test cases of a controlled size and shape in the
+ * directory layout of the general batchmode:
+ *
+ *	basedir/
+ *		case01/
+ *			onto1.rdf
+ *			onto2.rdf
+ *			refalign.rdf
+ *			matcher1.rdf
+ *			...
+ *		case02/
+ *			...
+ *
+ * Both ontologies of a case share the same structure. The classes form a
+ * hierarchy of the given depth in which every class has at most the given
+ * number of subclasses, as long as the classes fit into the hierarchy.
+ * Adjacent siblings are disjoint with the given probability. Object and data
+ * properties get a random domain, object properties a random range and some
+ * of them a super property. With the given nominal density, a class is
+ * restricted by a nominal, either as subclass of a one-of description or of
+ * a value restriction. In the second ontology, the given share of classes is
+ * moved up to its grandparent so that the ontologies are not identical.
+ *
+ * The reference alignment contains equivalences between the same entities of
+ * both ontologies. Each matcher alignment misses the given share of the
+ * reference correspondences and contains as many wrong correspondences
+ * between entities of the same kind instead. Correct correspondences have a
+ * confidence of at least 0.5, wrong ones of at most 0.8.
+ *
+ * All random decisions depend on the seed only, so the same settings always
+ * yield the same files.
+ * @author Daniel Fleischhacker <dev@dfleischhacker.de>
+ */
+public class CaseGenerator {
+	/**
+	 * Namespace the URIs of the generated ontologies start with
+	 */
+	public static final String NAMESPACE = "http://thesis.dfleischhacker.de/synthetic/";
+
+	private long seed = 1;
+	private int cases = 1;
+	private int classes = 100;
+	private int objectProperties = 10;
+	private int dataProperties = 10;
+	private int depth = 5;
+	private int branching = 4;
+	private float nominalDensity = 0;
+	private float disjointness = 0.2f;
+	private float divergence = 0.1f;
+	private int alignmentSize = 50;
+	private float noise = 0.2f;
+	private int matchers = 2;
+
+	/**
+	 * Structure shared by both ontologies of a case
+	 */
+	private static class Structure {
+		int[] parent;
+		int[] parent2;
+		List<int[]> disjoint = new ArrayList<int[]>();
+		int[] domain;
+		int[] range;
+		int[] superProperty;
+		int[] dataDomain;
+		// 0 for none, 1 for one-of, 2 for value restriction
+		int[] nominal;
+		int[] nominalProperty;
+	}
+
+	/**
+	 * Generates the configured number of cases into the given directory
+	 * @param basedir directory to create the case directories in
+	 * @return created case directories
+	 * @throws GenerationException thrown if a file could not be written
+	 */
+	public List<File> generate(File basedir) throws GenerationException {
+		Random seeds = new Random(seed);
+		List<File> dirs = new ArrayList<File>();
+		for (int i = 1; i <= cases; i++) {
+			File dir = new File(basedir, String.format("case%02d", i));
+			generateCase(dir, i, new Random(seeds.nextLong()));
+			dirs.add(dir);
+		}
+		return dirs;
+	}
+
+	/**
+	 * Generates a single case into the given directory
+	 */
+	private void generateCase(File dir, int number, Random random) throws GenerationException {
+		if (!dir.isDirectory() && !dir.mkdirs()) {
+			throw new GenerationException("Unable to create directory " + dir);
+		}
+		String base = NAMESPACE + String.format("case%02d", number);
+		Structure structure = createStructure(random);
+
+		writeOntology(createOntology(structure, base + "/onto1", structure.parent),
+				new File(dir, "onto1.rdf"));
+		writeOntology(createOntology(structure, base + "/onto2", structure.parent2),
+				new File(dir, "onto2.rdf"));
+
+		int entities = classes + objectProperties + dataProperties;
+		List<Integer> order = new ArrayList<Integer>(entities);
+		for (int i = 0; i < entities; i++) {
+			order.add(i);
+		}
+		Collections.shuffle(order, random);
+		List<Integer> aligned = order.subList(0, Math.min(alignmentSize, entities));
+
+		Set<Correspondence> reference = new HashSet<Correspondence>();
+		for (int entity : aligned) {
+			reference.add(new Correspondence(getURI(base + "/onto1", entity),
+					getURI(base + "/onto2", entity), "=", 1.0f));
+		}
+		writeAlignment(AlignmentManager.toAlignment(base + "/onto1", base + "/onto2", reference),
+				new File(dir, "refalign.rdf"));
+
+		for (int m = 1; m <= matchers; m++) {
+			Set<Correspondence> found = new HashSet<Correspondence>();
+			Set<String> pairs = new HashSet<String>();
+			int wrong = 0;
+			for (int entity : aligned) {
+				if (random.nextFloat() < noise) {
+					wrong++;
+					continue;
+				}
+				found.add(new Correspondence(getURI(base + "/onto1", entity),
+						getURI(base + "/onto2", entity), "=", 0.5f + random.nextFloat() / 2));
+				pairs.add(entity + " " + entity);
+			}
+			// give up on wrong correspondences if there are not enough pairs
+			for (int tries = 0; wrong > 0 && tries < 100 * wrong; tries++) {
+				int first = random.nextInt(entities);
+				int second = randomOfSameKind(first, random);
+				if (first != second && pairs.add(first + " " + second)) {
+					found.add(new Correspondence(getURI(base + "/onto1", first),
+							getURI(base + "/onto2", second), "=", random.nextFloat() * 0.8f));
+					wrong--;
+				}
+			}
+			writeAlignment(AlignmentManager.toAlignment(base + "/onto1", base + "/onto2", found),
+					new File(dir, "matcher" + m + ".rdf"));
+		}
+	}
+
+	/**
+	 * Creates the random structure of the ontologies of a case
+	 */
+	private Structure createStructure(Random random) {
+		Structure s = new Structure();
+		s.parent = new int[classes];
+		int[] level = new int[classes];
+		int[] children = new int[classes];
+		int[] lastChild = new int[classes + 1];
+		Arrays.fill(lastChild, -1);
+
+		int next = 0;
+		for (int i = 0; i < classes; i++) {
+			if (i < branching || depth <= 1) {
+				s.parent[i] = -1;
+			}
+			else {
+				// fill the hierarchy breadth first, then spread the remaining
+				// classes over the levels above the deepest one
+				while (next < i && (children[next] >= branching || level[next] >= depth - 1)) {
+					next++;
+				}
+				int parent = next;
+				while (parent >= i || level[parent] >= depth - 1) {
+					parent = random.nextInt(i);
+				}
+				s.parent[i] = parent;
+				level[i] = level[parent] + 1;
+				children[parent]++;
+			}
+
+			int sibling = lastChild[s.parent[i] + 1];
+			if (sibling >= 0 && random.nextFloat() < disjointness) {
+				s.disjoint.add(new int[] { sibling, i });
+			}
+			lastChild[s.parent[i] + 1] = i;
+		}
+
+		s.parent2 = s.parent.clone();
+		for (int i = 0; i < classes; i++) {
+			if (s.parent[i] >= 0 && random.nextFloat() < divergence) {
+				s.parent2[i] = s.parent[s.parent[i]];
+			}
+		}
+
+		s.domain = new int[objectProperties];
+		s.range = new int[objectProperties];
+		s.superProperty = new int[objectProperties];
+		for (int i = 0; i < objectProperties; i++) {
+			s.domain[i] = classes > 0 ? random.nextInt(classes) : -1;
+			s.range[i] = classes > 0 ? random.nextInt(classes) : -1;
+			s.superProperty[i] = i > 0 && random.nextFloat() < 0.2f ? random.nextInt(i) : -1;
+		}
+		s.dataDomain = new int[dataProperties];
+		for (int i = 0; i < dataProperties; i++) {
+			s.dataDomain[i] = classes > 0 ? random.nextInt(classes) : -1;
+		}
+
+		s.nominal = new int[classes];
+		s.nominalProperty = new int[classes];
+		for (int i = 0; i < classes; i++) {
+			if (random.nextFloat() < nominalDensity) {
+				if (objectProperties > 0 && random.nextBoolean()) {
+					s.nominal[i] = 2;
+					s.nominalProperty[i] = random.nextInt(objectProperties);
+				}
+				else {
+					s.nominal[i] = 1;
+				}
+			}
+		}
+		return s;
+	}
+
+	/**
+	 * Creates an ontology with the given structure and class hierarchy
+	 */
+	private Ontology createOntology(Structure s, String base, int[] parent)
+			throws GenerationException {
+		OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+		OWLDataFactory factory = manager.getOWLDataFactory();
+		Set<OWLAxiom> axioms = new HashSet<OWLAxiom>();
+
+		OWLClass[] classArray = new OWLClass[classes];
+		for (int i = 0; i < classes; i++) {
+			classArray[i] = factory.getOWLClass(URI.create(getURI(base, i)));
+			axioms.add(factory.getOWLDeclarationAxiom(classArray[i]));
+		}
+		for (int i = 0; i < classes; i++) {
+			if (parent[i] >= 0) {
+				axioms.add(factory.getOWLSubClassAxiom(classArray[i], classArray[parent[i]]));
+			}
+		}
+		for (int[] pair : s.disjoint) {
+			axioms.add(factory.getOWLDisjointClassesAxiom(classArray[pair[0]], classArray[pair[1]]));
+		}
+
+		OWLObjectProperty[] objectArray = new OWLObjectProperty[objectProperties];
+		for (int i = 0; i < objectProperties; i++) {
+			objectArray[i] = factory.getOWLObjectProperty(URI.create(getURI(base, classes + i)));
+			axioms.add(factory.getOWLDeclarationAxiom(objectArray[i]));
+			if (s.domain[i] >= 0) {
+				axioms.add(factory.getOWLObjectPropertyDomainAxiom(objectArray[i],
+						classArray[s.domain[i]]));
+				axioms.add(factory.getOWLObjectPropertyRangeAxiom(objectArray[i],
+						classArray[s.range[i]]));
+			}
+			if (s.superProperty[i] >= 0) {
+				axioms.add(factory.getOWLSubObjectPropertyAxiom(objectArray[i],
+						objectArray[s.superProperty[i]]));
+			}
+		}
+		for (int i = 0; i < dataProperties; i++) {
+			OWLDataProperty prop = factory.getOWLDataProperty(
+					URI.create(getURI(base, classes + objectProperties + i)));
+			axioms.add(factory.getOWLDeclarationAxiom(prop));
+			if (s.dataDomain[i] >= 0) {
+				axioms.add(factory.getOWLDataPropertyDomainAxiom(prop, classArray[s.dataDomain[i]]));
+			}
+		}
+
+		for (int i = 0; i < classes; i++) {
+			if (s.nominal[i] == 0) {
+				continue;
+			}
+			OWLIndividual ind = factory.getOWLIndividual(URI.create(base + "#i" + i));
+			OWLDescription desc;
+			if (s.nominal[i] == 1) {
+				OWLIndividual other = factory.getOWLIndividual(URI.create(base + "#j" + i));
+				desc = factory.getOWLObjectOneOf(ind, other);
+			}
+			else {
+				desc = factory.getOWLObjectValueRestriction(objectArray[s.nominalProperty[i]], ind);
+			}
+			axioms.add(factory.getOWLSubClassAxiom(classArray[i], desc));
+		}
+
+		try {
+			OWLOntology ontology = manager.createOntology(URI.create(base));
+			manager.addAxioms(ontology, axioms);
+			return new Ontology(ontology, manager);
+		} catch (OWLException ex) {
+			throw new GenerationException("Unable to create ontology " + base + ": " +
+					ex.getMessage());
+		}
+	}
+
+	/**
+	 * Returns the URI of the entity with the given number. Classes come
+	 * first, then object properties, then data properties.
+	 */
+	private String getURI(String base, int entity) {
+		if (entity < classes) {
+			return base + "#C" + entity;
+		}
+		entity -= classes;
+		if (entity < objectProperties) {
+			return base + "#op" + entity;
+		}
+		return base + "#dp" + (entity - objectProperties);
+	}
+
+	/**
+	 * Returns a random entity of the same kind as the given one
+	 */
+	private int randomOfSameKind(int entity, Random random) {
+		if (entity < classes) {
+			return random.nextInt(classes);
+		}
+		if (entity < classes + objectProperties) {
+			return classes + random.nextInt(objectProperties);
+		}
+		return classes + objectProperties + random.nextInt(dataProperties);
+	}
+
+	/**
+	 * Writes the given ontology as RDF/XML
+	 */
+	private static void writeOntology(Ontology onto, File file) throws GenerationException {
+		try {
+			OntologyManager.writeOntology(onto, file.getAbsolutePath());
+		} catch (OWLException ex) {
+			throw new GenerationException("Unable to write " + file + ": " + ex.getMessage());
+		}
+	}
+
+	/**
+	 * Writes the given alignment. Unlike AlignmentManager.writeAlignment, no
+	 * DTD is referenced so that the alignment can be loaded regardless of the
+	 * working directory.
+	 */
+	private static void writeAlignment(Alignment alignment, File file) throws GenerationException {
+		try {
+			Transformer trans = TransformerFactory.newInstance().newTransformer();
+			trans.setOutputProperty(OutputKeys.INDENT, "yes");
+			OutputStream out = new FileOutputStream(file);
+			try {
+				trans.transform(new DOMSource(alignment.toXML()), new StreamResult(out));
+			}
+			finally {
+				out.close();
+			}
+		} catch (IOException ex) {
+			throw new GenerationException("Unable to write " + file + ": " + ex.getMessage());
+		} catch (ParserConfigurationException ex) {
+			throw new GenerationException("Unable to write " + file + ": " + ex.getMessage());
+		} catch (TransformerException ex) {
+			throw new GenerationException("Unable to write " + file + ": " + ex.getMessage());
+		}
+	}
+
+	/**
+	 * Sets the seed all random decisions depend on
+	 * @param seed seed
+	 */
+	public void setSeed(long seed) {
+		this.seed = seed;
+	}
+
+	/**
+	 * Sets the number of cases to generate
+	 * @param cases number of cases
+	 */
+	public void setCases(int cases) {
+		this.cases = cases;
+	}
+
+	/**
+	 * Sets the number of classes of each ontology
+	 * @param classes number of classes
+	 */
+	public void setClasses(int classes) {
+		this.classes = classes;
+	}
+
+	/**
+	 * Sets the number of object properties of each ontology
+	 * @param objectProperties number of object properties
+	 */
+	public void setObjectProperties(int objectProperties) {
+		this.objectProperties = objectProperties;
+	}
+
+	/**
+	 * Sets the number of data properties of each ontology
+	 * @param dataProperties number of data properties
+	 */
+	public void setDataProperties(int dataProperties) {
+		this.dataProperties = dataProperties;
+	}
+
+	/**
+	 * Sets the maximum depth of the class hierarchy, 1 for a flat hierarchy
+	 * @param depth maximum depth
+	 */
+	public void setDepth(int depth) {
+		this.depth = depth;
+	}
+
+	/**
+	 * Sets the number of subclasses of each class, it is exceeded only if the
+	 * classes do not fit into the hierarchy of the given depth otherwise
+	 * @param branching number of subclasses
+	 */
+	public void setBranching(int branching) {
+		this.branching = branching;
+	}
+
+	/**
+	 * Sets the share of classes restricted by a nominal
+	 * @param nominalDensity share between 0 and 1
+	 */
+	public void setNominalDensity(float nominalDensity) {
+		this.nominalDensity = nominalDensity;
+	}
+
+	/**
+	 * Sets the probability of adjacent siblings being disjoint
+	 * @param disjointness probability between 0 and 1
+	 */
+	public void setDisjointness(float disjointness) {
+		this.disjointness = disjointness;
+	}
+
+	/**
+	 * Sets the share of classes moved up in the hierarchy of the second
+	 * ontology
+	 * @param divergence share between 0 and 1
+	 */
+	public void setDivergence(float divergence) {
+		this.divergence = divergence;
+	}
+
+	/**
+	 * Sets the number of correspondences of the reference alignment
+	 * @param alignmentSize number of correspondences
+	 */
+	public void setAlignmentSize(int alignmentSize) {
+		this.alignmentSize = alignmentSize;
+	}
+
+	/**
+	 * Sets the share of reference correspondences replaced by wrong ones in
+	 * the matcher alignments
+	 * @param noise share between 0 and 1
+	 */
+	public void setNoise(float noise) {
+		this.noise = noise;
+	}
+
+	/**
+	 * Sets the number of matcher alignments per case
+	 * @param matchers number of matcher alignments
+	 */
+	public void setMatchers(int matchers) {
+		this.matchers = matchers;
+	}
+}
@@ -0,0 +1,132 @@
+/*
+ *
+ * BaseMerge.java
+ *
+ * Software License Agreement (BSD License)
+ *
+ * Copyright (c) 2009 Daniel Fleischhacker <dev@dfleischhacker.de>
+ * All rights reserved.
+ *
+ * Redistribution and use of this software in source and binary forms, with or
+ * without modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   1. Redistributions of source code must retain the above copyright notice,
+ *      this list of conditions and the following disclaimer.
+ *
+ *   2. Redistributions in binary form must reproduce the above copyright
+ *      notice, this list of conditions and the following disclaimer in the
+ *      documentation and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package de.dfleischhacker.uni.thesis.utils.ontology;
+
+import de.dfleischhacker.uni.thesis.GlobalSettings;
+import de.dfleischhacker.uni.thesis.semantic.closure.CancellationToken;
+import de.dfleischhacker.uni.thesis.semantic.closure.ClosureStep;
+import java.net.URI;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import org.semanticweb.owl.model.OWLAxiom;
+import org.semanticweb.owl.model.OWLOntologyChangeException;
+import org.semanticweb.owl.model.OWLOntologyCreationException;
+
+/**
+ * Holds the axioms of the merge of two renamed ontologies before any
+ * correspondence has been added. Every aligned ontology created by the
+ * reductionistic semantics starts from these axioms, so the ontologies are
+ * copied and their ABox is deleted only once per test case instead of once
+ * per alignment and semantic.
+ *
+ * Deleting the ABox before adding the correspondences gives the same axioms
+ * as deleting it afterwards since the axioms generated from correspondences
+ * do not contain any individuals.
+ * @author Daniel Fleischhacker <dev@dfleischhacker.de>
+ */
+public class BaseMerge {
+	private Ontology onto1;
+	private Ontology onto2;
+	private boolean deleteABox;
+	private Set<OWLAxiom> axioms;
+
+	/**
+	 * Initializes the base merge of the given (already renamed) ontologies.
+	 * The merge itself is done when its axioms are requested first.
+	 * @param onto1 ontology 1
+	 * @param onto2 ontology 2
+	 * @param deleteABox if true the ABox of the merged ontology is deleted
+	 */
+	public BaseMerge(Ontology onto1, Ontology onto2, boolean deleteABox) {
+		this.onto1 = onto1;
+		this.onto2 = onto2;
+		this.deleteABox = deleteABox;
+	}
+
+	/**
+	 * Returns true if the ABox of the merged ontology is deleted
+	 * @return true if ABox is deleted, otherwise false
+	 */
+	public boolean isDeleteABox() {
+		return deleteABox;
+	}
+
+	/**
+	 * Returns the axioms of the merged ontologies. The returned set must not
+	 * be modified.
+	 * @return axioms of the base merge
+	 * @throws MergingException thrown if the ontologies could not be merged
+	 */
+	public synchronized Set<OWLAxiom> getAxioms() throws MergingException {
+		if (axioms == null) {
+			axioms = Collections.unmodifiableSet(merge());
+		}
+		return axioms;
+	}
+
+	/**
+	 * Copies both ontologies into a temporary ontology, deletes its ABox if
+	 * requested and returns the resulting axioms
+	 */
+	private Set<OWLAxiom> merge() throws MergingException {
+		Ontology merged;
+		try {
+			merged = OntologyManager.createOntology(URI.create(GlobalSettings.GENERAL_PREFIX + "/merged"));
+		} catch (OWLOntologyCreationException ex) {
+			throw new MergingException(ex.getMessage());
+		}
+
+		try {
+			merged.getManager().addAxioms(merged, onto1.getAxioms());
+			merged.getManager().addAxioms(merged, onto2.getAxioms());
+		} catch (OWLOntologyChangeException ex) {
+			throw new MergingException(ex.getMessage());
+		}
+
+		if (deleteABox) {
+			CancellationToken.reportStep(ClosureStep.DELETING_ABOX);
+			try {
+				merged.deleteABox();
+			} catch (Exception ex) {
+				System.out.println("Unable to delete ABox");
+			}
+			CancellationToken.reportStep(ClosureStep.MERGING);
+		}
+
+		Set<OWLAxiom> res = new HashSet<OWLAxiom>(merged.getAxioms());
+		OntologyManager.releaseOntology(merged);
+		return res;
+	}
+}
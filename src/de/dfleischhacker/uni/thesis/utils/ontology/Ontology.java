@@ -33,13 +33,24 @@
 
 package de.dfleischhacker.uni.thesis.utils.ontology;
 
+import de.dfleischhacker.uni.thesis.GlobalSettings;
 import de.dfleischhacker.uni.thesis.utils.ontology.nominals.NominalAxiomDetector;
 import de.dfleischhacker.uni.thesis.utils.ontology.nominals.NominalAxiomTranscriber;
+import de.dfleischhacker.uni.thesis.utils.ontology.nominals.TranscriptionException;
 import java.net.URI;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.semanticweb.owl.model.AddAxiom;
 import org.semanticweb.owl.model.AxiomType;
 import org.semanticweb.owl.model.OWLAnnotationAxiom;
@@ -120,7 +131,8 @@ import org.semanticweb.owl.util.OWLEntityRemover;
  * <b>Be aware of the fact that using the same OWLOntologyManager to create
  * multiple OWLOntology instances will almost definitely result in errors.
  * Therefore the preferred way to generate an Ontology is the usage of the
- * OntologyManager.</b>
+ * OntologyManager.</b> Ontologies created while an OntologySession is open
+ * share the session's manager, which takes care of conflicting URIs.
  * @author Daniel Fleischhacker <dev@dfleischhacker.de>
  */
 public class Ontology implements OWLMutableOntology {
@@ -130,6 +142,10 @@ public class Ontology implements OWLMutableOntology {
 	// OntologyManager used to create the wrapped OWLOntology
 	OWLOntologyManager manager;
 
+	// number of the next transcription of nominal axioms, part of the names
+	// of the substitute classes so they are unique across all ontologies
+	private static final AtomicInteger nextTranscription = new AtomicInteger();
+
 	/**
 	 * Sets the OWLOntology to wrap and the OWLOntologyManager used to create it.
 	 * @param ontology ontology to wrap
@@ -176,43 +192,118 @@ public class Ontology implements OWLMutableOntology {
 	 * Used to transcribe nominal axioms before removing instances.
 	 *
 	 * Kindly provided by Christian Meilicke. Adapted to blend with the
-	 * calculator object hierarchies.
+	 * calculator object hierarchies. Detection and transcription are spread
+	 * over GlobalSettings.WORKER_THREADS workers, the resulting changes are
+	 * applied as one batch.
 	 */
 	private void transcribeNominalAxioms() throws Exception {
-		// init the detector
-		NominalAxiomDetector nominalDetector = new NominalAxiomDetector();
-		// init the transcriber
-		NominalAxiomTranscriber nominalTranscriber = new NominalAxiomTranscriber();
-		nominalTranscriber.setLocalOntology(this);
-		nominalTranscriber.setOntologyCore(this);
-		nominalTranscriber.setFactory(this.getManager().getOWLDataFactory());
-		// ... keep track of the things to be changed
-		Set<OWLAxiom> axiomsToBeRemoved = new HashSet<OWLAxiom>();
-		Set<OWLAxiom> axiomsToBeAdded = new HashSet<OWLAxiom>();
-		Set<OWLAxiom> axioms = this.getAxioms();
-		for (OWLAxiom axiom : axioms) {
-			//System.out.println("AXIOM:" + axiom);
-			axiom.accept(nominalDetector);
-			if (nominalDetector.detectedNominal()) {
-				axiomsToBeRemoved.add(axiom);
-				nominalDetector.reset();
-				System.out.print("detected axiom using nominal: " + axiom);
-				ArrayList<OWLAxiom> rebuiltAxioms = nominalTranscriber.rebuild(axiom);
-				System.out.print("[transcribed as: ");
-				for (OWLAxiom rebuiltAxiom : rebuiltAxioms) {
-					axiomsToBeAdded.add(rebuiltAxiom);
-					System.out.print(rebuiltAxiom.toString() + " ");
+		// the ontology indexes used by the transcriber are built lazily, so
+		// make sure they exist before several workers are reading them
+		for (OWLIndividual individual : this.getReferencedIndividuals()) {
+			this.getClassAssertionAxioms(individual);
+			break;
+		}
+
+		List<OWLAxiom> axioms = new ArrayList<OWLAxiom>(this.getAxioms());
+		int threads = Math.max(1, Math.min(GlobalSettings.WORKER_THREADS, axioms.size()));
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			// first detect all axioms using nominals
+			List<Future<List<OWLAxiom>>> detections = new ArrayList<Future<List<OWLAxiom>>>();
+			for (int i = 0; i < threads; i++) {
+				final List<OWLAxiom> chunk = axioms.subList(
+						i * axioms.size() / threads, (i + 1) * axioms.size() / threads);
+				detections.add(executor.submit(new Callable<List<OWLAxiom>>() {
+					public List<OWLAxiom> call() {
+						NominalAxiomDetector nominalDetector = new NominalAxiomDetector();
+						List<OWLAxiom> detected = new ArrayList<OWLAxiom>();
+						for (OWLAxiom axiom : chunk) {
+							axiom.accept(nominalDetector);
+							if (nominalDetector.detectedNominal()) {
+								detected.add(axiom);
+							}
+						}
+						return detected;
+					}
+				}));
+			}
+			final List<OWLAxiom> nominalAxioms = new ArrayList<OWLAxiom>();
+			for (Future<List<OWLAxiom>> detection : detections) {
+				nominalAxioms.addAll(waitFor(detection));
+			}
+			if (nominalAxioms.isEmpty()) {
+				return;
+			}
+
+			// the number of this transcription and the position of an axiom
+			// in this order are used to name its substitute classes, so the
+			// names are unique and do not depend on scheduling
+			final int transcriptionNumber = nextTranscription.getAndIncrement();
+			Collections.sort(nominalAxioms, new Comparator<OWLAxiom>() {
+				public int compare(OWLAxiom a1, OWLAxiom a2) {
+					return a1.toString().compareTo(a2.toString());
 				}
-				System.out.println("]");
+			});
+
+			// then rebuild them, each worker using its own transcriber
+			List<Future<List<OWLAxiom>>> transcriptions = new ArrayList<Future<List<OWLAxiom>>>();
+			final Ontology ontology = this;
+			for (int i = 0; i < threads; i++) {
+				final int from = i * nominalAxioms.size() / threads;
+				final int to = (i + 1) * nominalAxioms.size() / threads;
+				transcriptions.add(executor.submit(new Callable<List<OWLAxiom>>() {
+					public List<OWLAxiom> call() throws TranscriptionException {
+						NominalAxiomTranscriber nominalTranscriber = new NominalAxiomTranscriber();
+						nominalTranscriber.setLocalOntology(ontology);
+						nominalTranscriber.setOntologyCore(ontology);
+						nominalTranscriber.setFactory(ontology.getManager().getOWLDataFactory());
+						List<OWLAxiom> rebuilt = new ArrayList<OWLAxiom>();
+						for (int j = from; j < to; j++) {
+							nominalTranscriber.setNamePrefix(transcriptionNumber + "_" + j + "_");
+							rebuilt.addAll(nominalTranscriber.rebuild(nominalAxioms.get(j)));
+						}
+						return rebuilt;
+					}
+				}));
+			}
+			Set<OWLAxiom> axiomsToBeAdded = new LinkedHashSet<OWLAxiom>();
+			for (Future<List<OWLAxiom>> transcription : transcriptions) {
+				axiomsToBeAdded.addAll(waitFor(transcription));
+			}
+
+			// first add all axioms replacing nominal-axioms, then remove the
+			// nominal-axioms, all in one batch
+			List<OWLOntologyChange> changes = new ArrayList<OWLOntologyChange>();
+			for (OWLAxiom axiomToBeAdded : axiomsToBeAdded) {
+				changes.add(new AddAxiom(this, axiomToBeAdded));
+			}
+			for (OWLAxiom axiomToBeRemoved : nominalAxioms) {
+				changes.add(new RemoveAxiom(this, axiomToBeRemoved));
 			}
+			this.manager.applyChanges(changes);
+			System.out.println("transcribed " + nominalAxioms.size() +
+					" axioms using nominals into " + axiomsToBeAdded.size() + " axioms");
+		}
+		finally {
+			executor.shutdownNow();
 		}
-		// first add all axioms replacing nominal-axioms
-		for (OWLAxiom axiomToBeAdded : axiomsToBeAdded) {
-			 this.manager.applyChange(new AddAxiom(this, axiomToBeAdded));
+	}
+
+	/**
+	 * Waits for the given task and passes on the exception which made it fail.
+	 * @param future task to wait for
+	 * @return result of the task
+	 * @throws java.lang.Exception exception thrown by the task
+	 */
+	private static <T> T waitFor(Future<T> future) throws Exception {
+		try {
+			return future.get();
 		}
-		// then remove the nominal-axioms
-		for (OWLAxiom axiomToBeRemoved : axiomsToBeRemoved) {
-			 this.manager.applyChange(new RemoveAxiom(this, axiomToBeRemoved));
+		catch (ExecutionException e) {
+			if (e.getCause() instanceof Exception) {
+				throw (Exception) e.getCause();
+			}
+			throw e;
 		}
 	}
 
@@ -34,14 +34,20 @@
 
 package de.dfleischhacker.uni.thesis.utils.ontology;
 
+import de.dfleischhacker.uni.thesis.GlobalSettings;
+import de.dfleischhacker.uni.thesis.utils.ontology.snapshot.OntologySnapshot;
+import de.dfleischhacker.uni.thesis.utils.ontology.snapshot.SnapshotFormatException;
 import org.semanticweb.owl.apibinding.OWLManager;
 import org.semanticweb.owl.io.RDFXMLOntologyFormat;
+import org.semanticweb.owl.model.OWLOntology;
+import org.semanticweb.owl.model.OWLOntologyChangeException;
 import org.semanticweb.owl.model.OWLOntologyCreationException;
 import org.semanticweb.owl.model.OWLOntologyManager;
 import org.semanticweb.owl.model.OWLOntologyStorageException;
 import org.semanticweb.owl.model.UnknownOWLOntologyException;
 
 import java.io.File;
+import java.io.IOException;
 import java.net.URI;
 
 /**
@@ -52,6 +58,10 @@ import java.net.URI;
  * @author Daniel Fleischhacker <dev@dfleischhacker.de>
  */
 public class OntologyManager {
+	private static OntologyPool pool = new OntologyPool(GlobalSettings.ONTOLOGY_POOL_SIZE);
+	private static int snapshotHits;
+	private static int snapshotMisses;
+
 	/**
 	 * Loads the given file as ontology. The filename has to be absolute. If no
 	 * schema (schema://) is given in the URI it is assumed that the filename
@@ -69,16 +79,21 @@ public class OntologyManager {
 			filename = String.valueOf(new File(filename).toURI());
 		}
 
-		OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
-		return new Ontology(
-				manager.loadOntologyFromPhysicalURI(URI.create(filename)),
-				manager
-		);
+		return loadOntology(URI.create(filename));
 	}
 
 	/**
 	 * Loads the file from the given physical URI as ontology.
 	 *
+	 * If GlobalSettings.USE_ONTOLOGY_POOL is set and the URI identifies a
+	 * local file, the ontology is copied from the ontology pool as long as
+	 * the file has not changed since it has been pooled.
+	 *
+	 * If GlobalSettings.USE_SNAPSHOTS is set and the URI identifies a local
+	 * file, the ontology is rebuilt from its snapshot as long as the file has
+	 * not changed since the snapshot was written. Otherwise the file is parsed
+	 * and a new snapshot is written.
+	 *
 	 * @param uri physical URI of ontology
 	 * @return ontology loaded from URI
 	 * @throws org.semanticweb.owl.model.OWLOntologyCreationException
@@ -86,11 +101,145 @@ public class OntologyManager {
 	public static Ontology loadOntology(URI uri)
 		throws OWLOntologyCreationException {
 
-		OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
-		return new Ontology(
+		if (GlobalSettings.USE_ONTOLOGY_POOL && "file".equals(uri.getScheme())) {
+			File source = new File(uri);
+			Ontology onto = pool.get(source, createLoadingManager());
+			if (onto == null) {
+				onto = loadOntologyFromFile(uri);
+				pool.put(source, onto, OWLManager.createOWLOntologyManager());
+			}
+			else if (GlobalSettings.DEBUG) {
+				System.out.println("loaded " + source + " from ontology pool");
+			}
+			return onto;
+		}
+
+		return loadOntologyFromFile(uri);
+	}
+
+	/**
+	 * Returns the pool used to keep loaded ontologies in memory if
+	 * GlobalSettings.USE_ONTOLOGY_POOL is set
+	 * @return ontology pool
+	 */
+	public static OntologyPool getPool() {
+		return pool;
+	}
+
+	/**
+	 * Returns the number of ontologies rebuilt from their snapshots
+	 * @return number of snapshot hits
+	 */
+	public static synchronized int getSnapshotHits() {
+		return snapshotHits;
+	}
+
+	/**
+	 * Returns the number of ontologies which had to be parsed because there
+	 * was no usable snapshot
+	 * @return number of snapshot misses
+	 */
+	public static synchronized int getSnapshotMisses() {
+		return snapshotMisses;
+	}
+
+	/**
+	 * Counts a hit or miss of the snapshots
+	 */
+	private static synchronized void countSnapshotUse(boolean hit) {
+		if (hit) {
+			snapshotHits++;
+		}
+		else {
+			snapshotMisses++;
+		}
+	}
+
+	/**
+	 * Loads the ontology from the given physical URI using its snapshot if
+	 * possible
+	 */
+	private static Ontology loadOntologyFromFile(URI uri)
+		throws OWLOntologyCreationException {
+
+		File source = null;
+		String sourceHash = null;
+		if (GlobalSettings.USE_SNAPSHOTS && "file".equals(uri.getScheme())) {
+			source = new File(uri);
+			try {
+				sourceHash = OntologySnapshot.hashFile(source);
+				Ontology onto = loadSnapshot(source, sourceHash);
+				countSnapshotUse(onto != null);
+				if (onto != null) {
+					return onto;
+				}
+			}
+			catch (IOException e) {
+				// file is not readable, let the parser report the problem
+				sourceHash = null;
+			}
+		}
+
+		OWLOntologyManager manager = createLoadingManager();
+		Ontology onto = new Ontology(
 				manager.loadOntologyFromPhysicalURI(uri),
 				manager
 		);
+
+		if (sourceHash != null) {
+			writeSnapshot(onto, source, sourceHash);
+		}
+		return onto;
+	}
+
+	/**
+	 * Rebuilds the ontology from the snapshot of the given source file.
+	 * @param source source file of the ontology
+	 * @param sourceHash current hash of the source file
+	 * @return ontology or null if there is no usable snapshot
+	 */
+	private static Ontology loadSnapshot(File source, String sourceHash) {
+		File snapshot = OntologySnapshot.getSnapshotFile(source);
+		if (!snapshot.isFile()) {
+			return null;
+		}
+		try {
+			Ontology onto = OntologySnapshot.read(snapshot, sourceHash,
+					createLoadingManager());
+			if (onto != null && GlobalSettings.DEBUG) {
+				System.out.println("loaded " + source + " from snapshot " + snapshot);
+			}
+			return onto;
+		}
+		catch (IOException e) {
+			System.out.println("unable to read snapshot " + snapshot + ": " + e.getMessage());
+		}
+		catch (SnapshotFormatException e) {
+			System.out.println("unable to read snapshot " + snapshot + ": " + e.getMessage());
+		}
+		return null;
+	}
+
+	/**
+	 * Writes the snapshot of the given ontology loaded from the given source
+	 * file. Failures are reported but do not affect loading the ontology.
+	 * @param onto ontology to write snapshot for
+	 * @param source source file of the ontology
+	 * @param sourceHash hash of the source file
+	 */
+	private static void writeSnapshot(Ontology onto, File source, String sourceHash) {
+		File snapshot = OntologySnapshot.getSnapshotFile(source);
+		try {
+			OntologySnapshot.write(onto, sourceHash, snapshot);
+		}
+		catch (IOException e) {
+			System.out.println("unable to write snapshot " + snapshot + ": " + e.getMessage());
+		}
+		catch (SnapshotFormatException e) {
+			if (GlobalSettings.DEBUG) {
+				System.out.println("no snapshot written for " + source + ": " + e.getMessage());
+			}
+		}
 	}
 
 	/**
@@ -101,20 +250,74 @@ public class OntologyManager {
 	 */
 	public static void writeOntology(Ontology onto, String filename)
 			throws UnknownOWLOntologyException, OWLOntologyStorageException {
-		onto.getManager().saveOntology(onto, new RDFXMLOntologyFormat(),
+		OWLOntologyManager manager = onto.getManager();
+		OWLOntology ontology = onto;
+		if (!manager.contains(onto.getURI())) {
+			// released ontology, copy it into a manager which is able to save it
+			manager = OWLManager.createOWLOntologyManager();
+			try {
+				ontology = manager.createOntology(onto.getURI());
+				manager.addAxioms(ontology, onto.getAxioms());
+			} catch (OWLOntologyCreationException ex) {
+				throw new OWLOntologyStorageException(ex);
+			} catch (OWLOntologyChangeException ex) {
+				throw new OWLOntologyStorageException(ex);
+			}
+		}
+		manager.saveOntology(ontology, new RDFXMLOntologyFormat(),
 				URI.create(new File(filename).toURI().toString()));
 	}
 
 	/**
 	 * Creates an Ontology object and adds the OWLOntologyManager used to
 	 * do this into the wrapper class.
+	 *
+	 * If an OntologySession is open, the ontology is created using the
+	 * session's manager and should be given to releaseOntology as soon as it
+	 * is not needed anymore. Only if an ontology with the given URI has not
+	 * been released, the new ontology gets a different URI.
 	 * @param uri URI to identify the ontology
 	 */
 	public static Ontology createOntology(URI uri) throws OWLOntologyCreationException {
-		OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+		OntologySession session = OntologySession.getCurrent();
+		OWLOntologyManager manager;
+		if (session != null) {
+			manager = session.getManager();
+			uri = session.getUnusedURI(uri);
+		}
+		else {
+			manager = OWLManager.createOWLOntologyManager();
+		}
 		return new Ontology(
 				manager.createOntology(uri),
 				manager
 		);
 	}
+
+	/**
+	 * Removes an ontology created by createOntology from its manager. The
+	 * ontology stays readable and can still be written by writeOntology, but
+	 * the manager of the OntologySession does not keep it anymore and its URI
+	 * can be used again.
+	 * @param onto ontology to release, may be null
+	 */
+	public static void releaseOntology(Ontology onto) {
+		if (onto != null && onto.getManager().contains(onto.getURI())) {
+			onto.getManager().removeOntology(onto.getURI());
+		}
+	}
+
+	/**
+	 * Returns the manager to load a new ontology into. This is a manager
+	 * sharing the data factory of the current OntologySession or a completely
+	 * new manager if there is no open session.
+	 * @return manager for loading an ontology
+	 */
+	private static OWLOntologyManager createLoadingManager() {
+		OntologySession session = OntologySession.getCurrent();
+		if (session != null) {
+			return session.createManager();
+		}
+		return OWLManager.createOWLOntologyManager();
+	}
 }
@@ -0,0 +1,179 @@
+/*
+ *
+ * OntologyPool.java
+ *
+ * Software License Agreement (BSD License)
+ *
+ * Copyright (c) 2009 Daniel Fleischhacker <dev@dfleischhacker.de>
+ * All rights reserved.
+ *
+ * Redistribution and use of this software in source and binary forms, with or
+ * without modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   1. Redistributions of source code must retain the above copyright notice,
+ *      this list of conditions and the following disclaimer.
+ *
+ *   2. Redistributions in binary form must reproduce the above copyright
+ *      notice, this list of conditions and the following disclaimer in the
+ *      documentation and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package de.dfleischhacker.uni.thesis.utils.ontology;
+
+import java.io.File;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import org.semanticweb.owl.model.AxiomType;
+import org.semanticweb.owl.model.OWLException;
+import org.semanticweb.owl.model.OWLOntology;
+import org.semanticweb.owl.model.OWLOntologyManager;
+
+/**
+ * Keeps ontologies loaded from local files in memory so that a long-running
+ * process like the evaluation daemon does not have to parse them again for
+ * each calculation.
+ *
+ * The semantics rename the entities of their ontologies in place, so the pool
+ * keeps an untouched copy of each ontology and hands out new copies of it.
+ * An entry is only used as long as the modification time and the size of its
+ * file have not changed. Like snapshots, ontologies importing other ontologies
+ * are not pooled. If the pool is full, the least recently used ontology is
+ * dropped.
+ * @author Daniel Fleischhacker <dev@dfleischhacker.de>
+ */
+public class OntologyPool {
+	private LinkedHashMap<String, Entry> entries;
+	private int capacity;
+	private int hits;
+	private int misses;
+
+	/**
+	 * Pooled copy of an ontology and the state of the file it was loaded from
+	 */
+	private static class Entry {
+		long lastModified;
+		long length;
+		Ontology ontology;
+	}
+
+	/**
+	 * Initializes an empty pool
+	 * @param capacity maximum number of pooled ontologies
+	 */
+	public OntologyPool(int capacity) {
+		// access order, so the least recently used entry comes first
+		entries = new LinkedHashMap<String, Entry>(16, 0.75f, true);
+		this.capacity = capacity;
+	}
+
+	/**
+	 * Returns a copy of the pooled ontology loaded from the given file.
+	 * @param source file the ontology has been loaded from
+	 * @param manager manager to create the copy in
+	 * @return copy of pooled ontology or null if the ontology is not pooled
+	 *	or its file has changed since it has been added
+	 */
+	public synchronized Ontology get(File source, OWLOntologyManager manager) {
+		Entry entry = entries.get(source.getAbsolutePath());
+		if (entry == null || entry.lastModified != source.lastModified() ||
+				entry.length != source.length()) {
+			misses++;
+			return null;
+		}
+		try {
+			Ontology copy = copy(entry.ontology, manager);
+			hits++;
+			return copy;
+		}
+		catch (OWLException ex) {
+			System.out.println("unable to copy pooled ontology " + source + ": " + ex.getMessage());
+			entries.remove(source.getAbsolutePath());
+			misses++;
+			return null;
+		}
+	}
+
+	/**
+	 * Adds a copy of the given ontology loaded from the given file to the
+	 * pool. The given ontology itself may be altered afterwards.
+	 * @param source file the ontology has been loaded from
+	 * @param onto ontology loaded from the file
+	 * @param manager manager to create the pooled copy in
+	 */
+	public synchronized void put(File source, Ontology onto, OWLOntologyManager manager) {
+		if (!onto.getAxioms(AxiomType.IMPORTS_DECLARATION).isEmpty()) {
+			return;
+		}
+		Entry entry = new Entry();
+		entry.lastModified = source.lastModified();
+		entry.length = source.length();
+		try {
+			entry.ontology = copy(onto, manager);
+		}
+		catch (OWLException ex) {
+			System.out.println("unable to pool ontology " + source + ": " + ex.getMessage());
+			return;
+		}
+		entries.put(source.getAbsolutePath(), entry);
+		Iterator<String> eldest = entries.keySet().iterator();
+		while (entries.size() > capacity) {
+			eldest.next();
+			eldest.remove();
+		}
+	}
+
+	/**
+	 * Removes all ontologies from the pool
+	 */
+	public synchronized void clear() {
+		entries.clear();
+	}
+
+	/**
+	 * Returns the number of pooled ontologies
+	 * @return number of pooled ontologies
+	 */
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	/**
+	 * Returns the number of requests answered from the pool
+	 * @return number of hits
+	 */
+	public synchronized int getHits() {
+		return hits;
+	}
+
+	/**
+	 * Returns the number of requests which could not be answered from the pool
+	 * @return number of misses
+	 */
+	public synchronized int getMisses() {
+		return misses;
+	}
+
+	/**
+	 * Copies the axioms of the given ontology into a new ontology with the
+	 * same URI created by the given manager
+	 */
+	private static Ontology copy(OWLOntology onto, OWLOntologyManager manager)
+			throws OWLException {
+		OWLOntology copy = manager.createOntology(onto.getURI());
+		manager.addAxioms(copy, onto.getAxioms());
+		return new Ontology(copy, manager);
+	}
+}
@@ -0,0 +1,169 @@
+/*
+ *
+ * OntologySession.java
+ *
+ * Software License Agreement (BSD License)
+ *
+ * Copyright (c) 2009 Daniel Fleischhacker <dev@dfleischhacker.de>
+ * All rights reserved.
+ *
+ * Redistribution and use of this software in source and binary forms, with or
+ * without modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   1. Redistributions of source code must retain the above copyright notice,
+ *      this list of conditions and the following disclaimer.
+ *
+ *   2. Redistributions in binary form must reproduce the above copyright
+ *      notice, this list of conditions and the following disclaimer in the
+ *      documentation and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package de.dfleischhacker.uni.thesis.utils.ontology;
+
+import java.net.URI;
+import org.coode.owl.rdf.rdfxml.RDFXMLOntologyStorer;
+import org.coode.owlapi.owlxml.renderer.OWLXMLOntologyStorer;
+import org.semanticweb.owl.apibinding.OWLManager;
+import org.semanticweb.owl.model.OWLDataFactory;
+import org.semanticweb.owl.model.OWLOntologyManager;
+import org.semanticweb.owl.util.NonMappingOntologyURIMapper;
+import uk.ac.manchester.cs.owl.EmptyInMemOWLOntologyFactory;
+import uk.ac.manchester.cs.owl.OWLOntologyManagerImpl;
+import uk.ac.manchester.cs.owl.ParsableOWLOntologyFactory;
+
+/**
+ * An OntologySession scopes one OWLOntologyManager and its OWLDataFactory to
+ * a single evaluation, i.e. the two ontologies and the aligned ontologies
+ * created from them. While a session is open for the current thread, the
+ * OntologyManager creates all ontologies using the session's data factory, so
+ * entities are interned only once instead of once per ontology.
+ *
+ * The OWL API identifies ontologies inside a manager by their URI and reuses
+ * an existing ontology if another one with the same URI is created. As the
+ * two ontologies of a test case often share their URI, ontologies loaded from
+ * files each get a manager of their own which is backed by the session's data
+ * factory. Ontologies created by the OntologyManager, e.g. the aligned
+ * ontologies, are placed into the session's manager and are removed from it
+ * by OntologyManager.releaseOntology once their closure has been consumed, so
+ * the manager does not grow with each closure and the ontologies keep their
+ * URI. Only if an ontology with the same URI has not been released, e.g.
+ * because its closure failed, the new one gets a unique URI.
+ *
+ * Sessions are bound to the thread which opened them and have to be closed
+ * by the same thread.
+ *
+ * @author Daniel Fleischhacker <dev@dfleischhacker.de>
+ */
+public class OntologySession {
+	// session of the current thread
+	private static final ThreadLocal<OntologySession> current = new ThreadLocal<OntologySession>();
+
+	private OWLOntologyManager manager;
+
+	private OWLDataFactory factory;
+
+	private OntologySession() {
+		this.manager = OWLManager.createOWLOntologyManager();
+		this.factory = manager.getOWLDataFactory();
+	}
+
+	/**
+	 * Opens a new session for the current thread.
+	 * @return opened session
+	 * @throws IllegalStateException if there already is an open session
+	 */
+	public static OntologySession open() {
+		if (current.get() != null) {
+			throw new IllegalStateException("there already is an open ontology session");
+		}
+		OntologySession session = new OntologySession();
+		current.set(session);
+		return session;
+	}
+
+	/**
+	 * Returns the session opened by the current thread.
+	 * @return current session or null if no session is open
+	 */
+	public static OntologySession getCurrent() {
+		return current.get();
+	}
+
+	/**
+	 * Closes this session. Ontologies created during the session stay usable
+	 * but ontologies created afterwards do not share their entities anymore.
+	 */
+	public void close() {
+		if (current.get() == this) {
+			current.remove();
+		}
+	}
+
+	/**
+	 * Returns the manager shared by the ontologies created during this session
+	 * @return session's manager
+	 */
+	public OWLOntologyManager getManager() {
+		return manager;
+	}
+
+	/**
+	 * Returns the data factory shared by all ontologies of this session
+	 * @return session's data factory
+	 */
+	public OWLDataFactory getDataFactory() {
+		return factory;
+	}
+
+	/**
+	 * Creates an additional manager backed by the session's data factory. It
+	 * is set up like the managers returned by OWLManager.
+	 * @return new manager sharing the session's data factory
+	 */
+	OWLOntologyManager createManager() {
+		OWLOntologyManager loadingManager = new OWLOntologyManagerImpl(factory);
+		loadingManager.addOntologyStorer(new RDFXMLOntologyStorer());
+		loadingManager.addOntologyStorer(new OWLXMLOntologyStorer());
+		loadingManager.addURIMapper(new NonMappingOntologyURIMapper());
+		loadingManager.addOntologyFactory(new EmptyInMemOWLOntologyFactory());
+		loadingManager.addOntologyFactory(new ParsableOWLOntologyFactory());
+		return loadingManager;
+	}
+
+	/**
+	 * Returns a URI for a new ontology in the session's manager. If the given
+	 * URI is already in use, a counter is appended to it.
+	 * @param uri preferred URI
+	 * @return URI not used by any ontology of the session's manager
+	 */
+	URI getUnusedURI(URI uri) {
+		if (!manager.contains(uri)) {
+			return uri;
+		}
+		String base = uri.toString();
+		String suffix = "";
+		if (base.endsWith("#")) {
+			base = base.substring(0, base.length() - 1);
+			suffix = "#";
+		}
+		int counter = 2;
+		URI candidate;
+		do {
+			candidate = URI.create(base + "-" + counter++ + suffix);
+		} while (manager.contains(candidate));
+		return candidate;
+	}
+}
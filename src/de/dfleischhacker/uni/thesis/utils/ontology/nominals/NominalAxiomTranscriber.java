@@ -29,7 +29,10 @@ public class NominalAxiomTranscriber extends OWLEntityCollector {
 	private Ontology ontology;
 	private OWLOntology ontologyCore;
 
-	private static int nextExtCounter = 0;
+	// prefix and counter used to name substitute classes, set per axiom by
+	// the caller so names stay unique when several transcribers are running
+	private String namePrefix = "";
+	private int nextExtCounter = 0;
 
 	private ArrayList<OWLAxiom> rebuiltAxioms;
 	private ArrayList<OWLObject> rebuiltObjects;
@@ -48,6 +51,18 @@ public class NominalAxiomTranscriber extends OWLEntityCollector {
 		this.factory = factory;
 	}
 
+	/**
+	 * Sets the prefix used for naming the substitute classes created while
+	 * rebuilding the next axioms and resets the counter appended to it.
+	 *
+	 * @param namePrefix prefix which has to be unique for each axiom of all
+	 *	ontologies
+	 */
+	public void setNamePrefix(String namePrefix) {
+		this.namePrefix = namePrefix;
+		this.nextExtCounter = 0;
+	}
+
 
 	// *************************************************
 	// *** visiting axioms potentially with nominals ***
@@ -279,20 +294,14 @@ public class NominalAxiomTranscriber extends OWLEntityCollector {
 
 	@Override
     public void visit(OWLObjectOneOf desc) {
-		URI nominalClassURI = URI.create(
-			GlobalSettings.NOMINAL_PREFIX + "#OneOfSubstitute_" +
-			nextExtCounter++);
-		OWLClass nominalClass = this.factory.getOWLClass(nominalClassURI);
+		OWLClass nominalClass = this.createSubstituteClass("#OneOfSubstitute_");
 		this.addSubClassAxiomForNominalSubstitute(desc, nominalClass);
 		this.rebuiltObjects.add(nominalClass);
 	}
 
 	@Override
     public void visit(OWLObjectValueRestriction desc) {
-		URI nominalClassURI = URI.create(
-				GlobalSettings.NOMINAL_PREFIX + "#ValueRestrictionSubstitute_"
-				+ nextExtCounter++);
-		OWLClass nominalClass = this.factory.getOWLClass(nominalClassURI);
+		OWLClass nominalClass = this.createSubstituteClass("#ValueRestrictionSubstitute_");
 		OWLObjectSomeRestriction someRestriction = this.factory.getOWLObjectSomeRestriction(desc.getProperty(), nominalClass);
 		this.addSubClassAxiomForNominalSubstitute(desc.getValue(), nominalClass);
 		this.rebuiltObjects.add(someRestriction);
@@ -303,10 +312,7 @@ public class NominalAxiomTranscriber extends OWLEntityCollector {
     // TODO add subclass statements (just add the domain ... maybe, seems to be not part of OWL 1.0)
 	@Override
     public void visit(OWLObjectSelfRestriction desc) {
-    	URI nominalClassURI = URI.create(
-				GlobalSettings.NOMINAL_PREFIX + "#ValueRestrictionSubstitute_"
-				+ nextExtCounter++);
-    	OWLClass nominalClass = this.factory.getOWLClass(nominalClassURI);
+    	OWLClass nominalClass = this.createSubstituteClass("#ValueRestrictionSubstitute_");
     	OWLObjectSomeRestriction someRestriction = this.factory.getOWLObjectSomeRestriction(desc.getProperty(), nominalClass);
     	this.rebuiltObjects.add(someRestriction);
     }
@@ -315,6 +321,16 @@ public class NominalAxiomTranscriber extends OWLEntityCollector {
 	// *** helper methods ***
 	// **********************
 
+	private OWLClass createSubstituteClass(String kind) {
+		URI nominalClassURI = URI.create(
+				GlobalSettings.NOMINAL_PREFIX + kind + this.namePrefix
+				+ nextExtCounter++);
+		// the data factory caches entities in unsynchronized maps
+		synchronized (this.factory) {
+			return this.factory.getOWLClass(nominalClassURI);
+		}
+	}
+
 	private void addSubClassAxiomForNominalSubstitute(OWLObjectOneOf desc, OWLClass nominalClass) {
 		Set<OWLDescription> typesOfIndividuals = new HashSet<OWLDescription>();
     	for (OWLIndividual ind : desc.getIndividuals()) {
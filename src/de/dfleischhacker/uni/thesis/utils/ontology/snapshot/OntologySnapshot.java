@@ -0,0 +1,242 @@
+/*
+ *
+ * OntologySnapshot.java
+ *
+ * Software License Agreement (BSD License)
+ *
+ * Copyright (c) 2009 Daniel Fleischhacker <dev@dfleischhacker.de>
+ * All rights reserved.
+ *
+ * Redistribution and use of this software in source and binary forms, with or
+ * without modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   1. Redistributions of source code must retain the above copyright notice,
+ *      this list of conditions and the following disclaimer.
+ *
+ *   2. Redistributions in binary form must reproduce the above copyright
+ *      notice, this list of conditions and the following disclaimer in the
+ *      documentation and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package de.dfleischhacker.uni.thesis.utils.ontology.snapshot;
+
+import de.dfleischhacker.uni.thesis.GlobalSettings;
+import de.dfleischhacker.uni.thesis.utils.ontology.Ontology;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import org.semanticweb.owl.model.OWLOntologyManager;
+
+/**
+ * Entry point for reading and writing ontology snapshots. A snapshot is a
+ * compact binary representation of the axioms of an ontology which can be
+ * rebuilt much faster than the RDF/XML file it was created from.
+ *
+ * A snapshot file starts with a header containing a magic number, the format
+ * version and the MD5 hash of the source file the ontology was loaded from.
+ * It is followed by a table of all strings (URIs, literals, ...) used in the
+ * ontology and the axioms themselves, which reference the strings by their
+ * index in the table. Snapshots whose hash does not match the current source
+ * file are ignored.
+ *
+ * @author Daniel Fleischhacker <dev@dfleischhacker.de>
+ */
+public class OntologySnapshot {
+	/**
+	 * Magic number at the start of each snapshot file ("SPSN")
+	 */
+	static final int MAGIC = 0x5350534E;
+
+	/**
+	 * Version of the snapshot format, has to be increased on each change
+	 */
+	static final int VERSION = 1;
+
+	// tags of entities
+	static final byte CLASS = 1;
+	static final byte OBJECT_PROPERTY = 2;
+	static final byte DATA_PROPERTY = 3;
+	static final byte INDIVIDUAL = 4;
+	static final byte DATATYPE = 5;
+
+	// tags of axioms
+	static final byte DECLARATION = 1;
+	static final byte SUB_CLASS = 2;
+	static final byte EQUIVALENT_CLASSES = 3;
+	static final byte DISJOINT_CLASSES = 4;
+	static final byte DISJOINT_UNION = 5;
+	static final byte OBJECT_PROPERTY_DOMAIN = 6;
+	static final byte OBJECT_PROPERTY_RANGE = 7;
+	static final byte DATA_PROPERTY_DOMAIN = 8;
+	static final byte DATA_PROPERTY_RANGE = 9;
+	static final byte SUB_OBJECT_PROPERTY = 10;
+	static final byte SUB_DATA_PROPERTY = 11;
+	static final byte EQUIVALENT_OBJECT_PROPERTIES = 12;
+	static final byte EQUIVALENT_DATA_PROPERTIES = 13;
+	static final byte DISJOINT_OBJECT_PROPERTIES = 14;
+	static final byte DISJOINT_DATA_PROPERTIES = 15;
+	static final byte INVERSE_OBJECT_PROPERTIES = 16;
+	static final byte FUNCTIONAL_OBJECT_PROPERTY = 17;
+	static final byte INVERSE_FUNCTIONAL_OBJECT_PROPERTY = 18;
+	static final byte TRANSITIVE_OBJECT_PROPERTY = 19;
+	static final byte SYMMETRIC_OBJECT_PROPERTY = 20;
+	static final byte ANTI_SYMMETRIC_OBJECT_PROPERTY = 21;
+	static final byte REFLEXIVE_OBJECT_PROPERTY = 22;
+	static final byte IRREFLEXIVE_OBJECT_PROPERTY = 23;
+	static final byte FUNCTIONAL_DATA_PROPERTY = 24;
+	static final byte PROPERTY_CHAIN = 25;
+	static final byte CLASS_ASSERTION = 26;
+	static final byte OBJECT_PROPERTY_ASSERTION = 27;
+	static final byte NEGATIVE_OBJECT_PROPERTY_ASSERTION = 28;
+	static final byte DATA_PROPERTY_ASSERTION = 29;
+	static final byte NEGATIVE_DATA_PROPERTY_ASSERTION = 30;
+	static final byte SAME_INDIVIDUALS = 31;
+	static final byte DIFFERENT_INDIVIDUALS = 32;
+	static final byte ENTITY_ANNOTATION = 33;
+	static final byte ONTOLOGY_ANNOTATION = 34;
+	static final byte AXIOM_ANNOTATION = 35;
+
+	// tags of descriptions
+	static final byte NAMED_CLASS = 1;
+	static final byte OBJECT_INTERSECTION_OF = 2;
+	static final byte OBJECT_UNION_OF = 3;
+	static final byte OBJECT_COMPLEMENT_OF = 4;
+	static final byte OBJECT_ONE_OF = 5;
+	static final byte OBJECT_SOME = 6;
+	static final byte OBJECT_ALL = 7;
+	static final byte OBJECT_VALUE = 8;
+	static final byte OBJECT_MIN_CARDINALITY = 9;
+	static final byte OBJECT_MAX_CARDINALITY = 10;
+	static final byte OBJECT_EXACT_CARDINALITY = 11;
+	static final byte OBJECT_SELF = 12;
+	static final byte DATA_SOME = 13;
+	static final byte DATA_ALL = 14;
+	static final byte DATA_VALUE = 15;
+	static final byte DATA_MIN_CARDINALITY = 16;
+	static final byte DATA_MAX_CARDINALITY = 17;
+	static final byte DATA_EXACT_CARDINALITY = 18;
+
+	// tags of object property expressions
+	static final byte NAMED_OBJECT_PROPERTY = 1;
+	static final byte INVERSE_OBJECT_PROPERTY = 2;
+
+	// tags of data ranges
+	static final byte NAMED_DATATYPE = 1;
+	static final byte DATA_ONE_OF = 2;
+	static final byte DATA_COMPLEMENT_OF = 3;
+	static final byte DATA_RANGE_RESTRICTION = 4;
+
+	// tags of constants
+	static final byte TYPED_CONSTANT = 1;
+	static final byte UNTYPED_CONSTANT = 2;
+
+	// tags of annotations
+	static final byte CONSTANT_ANNOTATION = 1;
+	static final byte OBJECT_ANNOTATION = 2;
+
+	private OntologySnapshot() {
+	}
+
+	/**
+	 * Returns the file the snapshot of the given source file is stored in.
+	 * Snapshots are kept in GlobalSettings.SNAPSHOT_DIRECTORY and named by
+	 * the hash of the absolute path of their source file.
+	 * @param source source file of the ontology
+	 * @return file to use for the snapshot
+	 */
+	public static File getSnapshotFile(File source) {
+		String name;
+		try {
+			name = toHex(MessageDigest.getInstance("MD5").digest(
+					source.getAbsolutePath().getBytes("UTF-8")));
+		}
+		catch (Exception e) {
+			name = Integer.toHexString(source.getAbsolutePath().hashCode());
+		}
+		return new File(GlobalSettings.SNAPSHOT_DIRECTORY, name + ".snapshot");
+	}
+
+	/**
+	 * Calculates the MD5 hash of the given file.
+	 * @param file file to calculate hash for
+	 * @return hash as hex string
+	 * @throws java.io.IOException on errors reading the file
+	 */
+	public static String hashFile(File file) throws IOException {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("MD5");
+		}
+		catch (NoSuchAlgorithmException e) {
+			throw new IOException("MD5 not available: " + e.getMessage());
+		}
+		InputStream in = new FileInputStream(file);
+		try {
+			byte[] buffer = new byte[65536];
+			int read;
+			while ((read = in.read(buffer)) != -1) {
+				digest.update(buffer, 0, read);
+			}
+		}
+		finally {
+			in.close();
+		}
+		return toHex(digest.digest());
+	}
+
+	/**
+	 * Writes the given ontology as snapshot into the given file. Nothing is
+	 * written if the ontology contains constructs which are not supported by
+	 * the snapshot format.
+	 * @param onto ontology to write
+	 * @param sourceHash hash of the file the ontology was loaded from
+	 * @param file snapshot file to write
+	 * @throws java.io.IOException on errors writing the file
+	 * @throws SnapshotFormatException if the ontology can not be represented
+	 */
+	public static void write(Ontology onto, String sourceHash, File file)
+			throws IOException, SnapshotFormatException {
+		new SnapshotWriter(onto).write(sourceHash, file);
+	}
+
+	/**
+	 * Rebuilds an ontology from the given snapshot file using the given
+	 * manager.
+	 * @param file snapshot file to read
+	 * @param sourceHash expected hash of the source file
+	 * @param manager manager used to create the ontology
+	 * @return ontology read from snapshot or null if the snapshot was made
+	 * from a different version of the source file
+	 * @throws java.io.IOException on errors reading the file
+	 * @throws SnapshotFormatException if the snapshot file is damaged
+	 */
+	public static Ontology read(File file, String sourceHash, OWLOntologyManager manager)
+			throws IOException, SnapshotFormatException {
+		return new SnapshotReader(file).read(sourceHash, manager);
+	}
+
+	private static String toHex(byte[] bytes) {
+		StringBuilder hex = new StringBuilder();
+		for (byte b : bytes) {
+			hex.append(Character.forDigit((b >> 4) & 0xF, 16));
+			hex.append(Character.forDigit(b & 0xF, 16));
+		}
+		return hex.toString();
+	}
+}
@@ -0,0 +1,459 @@
+/*
+ *
+ * SnapshotReader.java
+ *
+ * Software License Agreement (BSD License)
+ *
+ * Copyright (c) 2009 Daniel Fleischhacker <dev@dfleischhacker.de>
+ * All rights reserved.
+ *
+ * Redistribution and use of this software in source and binary forms, with or
+ * without modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   1. Redistributions of source code must retain the above copyright notice,
+ *      this list of conditions and the following disclaimer.
+ *
+ *   2. Redistributions in binary form must reproduce the above copyright
+ *      notice, this list of conditions and the following disclaimer in the
+ *      documentation and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package de.dfleischhacker.uni.thesis.utils.ontology.snapshot;
+
+import de.dfleischhacker.uni.thesis.utils.ontology.Ontology;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.net.URI;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.semanticweb.owl.model.OWLAnnotation;
+import org.semanticweb.owl.model.OWLAxiom;
+import org.semanticweb.owl.model.OWLConstant;
+import org.semanticweb.owl.model.OWLDataFactory;
+import org.semanticweb.owl.model.OWLDataProperty;
+import org.semanticweb.owl.model.OWLDataRange;
+import org.semanticweb.owl.model.OWLDataRangeFacetRestriction;
+import org.semanticweb.owl.model.OWLDescription;
+import org.semanticweb.owl.model.OWLEntity;
+import org.semanticweb.owl.model.OWLIndividual;
+import org.semanticweb.owl.model.OWLObjectPropertyExpression;
+import org.semanticweb.owl.model.OWLOntology;
+import org.semanticweb.owl.model.OWLOntologyChangeException;
+import org.semanticweb.owl.model.OWLOntologyCreationException;
+import org.semanticweb.owl.model.OWLOntologyManager;
+import org.semanticweb.owl.vocab.OWLRestrictedDataRangeFacetVocabulary;
+
+import static de.dfleischhacker.uni.thesis.utils.ontology.snapshot.OntologySnapshot.*;
+
+/**
+ * Rebuilds an ontology from a snapshot file. The file is mapped into memory
+ * and decoded directly from the mapped buffer.
+ * @author Daniel Fleischhacker <dev@dfleischhacker.de>
+ */
+class SnapshotReader {
+	private File file;
+
+	private ByteBuffer in;
+
+	// string table of the snapshot and URIs created from it on demand
+	private String[] strings;
+	private URI[] uris;
+
+	private OWLDataFactory factory;
+
+	private OWLOntology ontology;
+
+	/**
+	 * Creates a reader for the given snapshot file.
+	 * @param file snapshot file
+	 */
+	SnapshotReader(File file) {
+		this.file = file;
+	}
+
+	/**
+	 * Reads the snapshot and creates the ontology using the given manager.
+	 * @param sourceHash expected hash of the source file
+	 * @param manager manager to create ontology with
+	 * @return ontology or null if the snapshot is outdated
+	 */
+	Ontology read(String sourceHash, OWLOntologyManager manager)
+			throws IOException, SnapshotFormatException {
+		RandomAccessFile raf = new RandomAccessFile(file, "r");
+		try {
+			FileChannel channel = raf.getChannel();
+			this.in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+		finally {
+			raf.close();
+		}
+
+		try {
+			if (in.getInt() != MAGIC) {
+				throw new SnapshotFormatException(file + " is no snapshot file");
+			}
+			if (in.getInt() != VERSION) {
+				return null;
+			}
+			if (!sourceHash.equals(readUTF())) {
+				return null;
+			}
+			int ontologyURI = in.getInt();
+			this.strings = new String[in.getInt()];
+			this.uris = new URI[strings.length];
+			for (int i = 0; i < strings.length; i++) {
+				byte[] bytes = new byte[in.getInt()];
+				in.get(bytes);
+				strings[i] = new String(bytes, "UTF-8");
+			}
+
+			this.factory = manager.getOWLDataFactory();
+			this.ontology = manager.createOntology(uri(ontologyURI));
+			int axiomCount = readInt();
+			Set<OWLAxiom> axioms = new HashSet<OWLAxiom>(axiomCount * 4 / 3 + 1);
+			for (int i = 0; i < axiomCount; i++) {
+				axioms.add(readAxiom());
+			}
+			manager.addAxioms(ontology, axioms);
+			return new Ontology(ontology, manager);
+		}
+		catch (BufferUnderflowException e) {
+			throw new SnapshotFormatException(file + " is truncated");
+		}
+		catch (IndexOutOfBoundsException e) {
+			throw new SnapshotFormatException(file + " is damaged");
+		}
+		catch (OWLOntologyCreationException e) {
+			throw new SnapshotFormatException("unable to create ontology: " + e.getMessage());
+		}
+		catch (OWLOntologyChangeException e) {
+			throw new SnapshotFormatException("unable to add axioms: " + e.getMessage());
+		}
+	}
+
+	private OWLAxiom readAxiom() throws SnapshotFormatException {
+		byte tag = in.get();
+		switch (tag) {
+			case DECLARATION:
+				return factory.getOWLDeclarationAxiom(readEntity());
+			case SUB_CLASS:
+				return factory.getOWLSubClassAxiom(readDescription(), readDescription());
+			case EQUIVALENT_CLASSES:
+				return factory.getOWLEquivalentClassesAxiom(readDescriptions());
+			case DISJOINT_CLASSES:
+				return factory.getOWLDisjointClassesAxiom(readDescriptions());
+			case DISJOINT_UNION:
+				return factory.getOWLDisjointUnionAxiom(factory.getOWLClass(readURI()), readDescriptions());
+			case OBJECT_PROPERTY_DOMAIN:
+				return factory.getOWLObjectPropertyDomainAxiom(readObjectProperty(), readDescription());
+			case OBJECT_PROPERTY_RANGE:
+				return factory.getOWLObjectPropertyRangeAxiom(readObjectProperty(), readDescription());
+			case DATA_PROPERTY_DOMAIN:
+				return factory.getOWLDataPropertyDomainAxiom(readDataProperty(), readDescription());
+			case DATA_PROPERTY_RANGE:
+				return factory.getOWLDataPropertyRangeAxiom(readDataProperty(), readDataRange());
+			case SUB_OBJECT_PROPERTY:
+				return factory.getOWLSubObjectPropertyAxiom(readObjectProperty(), readObjectProperty());
+			case SUB_DATA_PROPERTY:
+				return factory.getOWLSubDataPropertyAxiom(readDataProperty(), readDataProperty());
+			case EQUIVALENT_OBJECT_PROPERTIES:
+				return factory.getOWLEquivalentObjectPropertiesAxiom(
+						new HashSet<OWLObjectPropertyExpression>(readObjectProperties()));
+			case EQUIVALENT_DATA_PROPERTIES:
+				return factory.getOWLEquivalentDataPropertiesAxiom(readDataProperties());
+			case DISJOINT_OBJECT_PROPERTIES:
+				return factory.getOWLDisjointObjectPropertiesAxiom(
+						new HashSet<OWLObjectPropertyExpression>(readObjectProperties()));
+			case DISJOINT_DATA_PROPERTIES:
+				return factory.getOWLDisjointDataPropertiesAxiom(readDataProperties());
+			case INVERSE_OBJECT_PROPERTIES:
+				return factory.getOWLInverseObjectPropertiesAxiom(readObjectProperty(), readObjectProperty());
+			case FUNCTIONAL_OBJECT_PROPERTY:
+				return factory.getOWLFunctionalObjectPropertyAxiom(readObjectProperty());
+			case INVERSE_FUNCTIONAL_OBJECT_PROPERTY:
+				return factory.getOWLInverseFunctionalObjectPropertyAxiom(readObjectProperty());
+			case TRANSITIVE_OBJECT_PROPERTY:
+				return factory.getOWLTransitiveObjectPropertyAxiom(readObjectProperty());
+			case SYMMETRIC_OBJECT_PROPERTY:
+				return factory.getOWLSymmetricObjectPropertyAxiom(readObjectProperty());
+			case ANTI_SYMMETRIC_OBJECT_PROPERTY:
+				return factory.getOWLAntiSymmetricObjectPropertyAxiom(readObjectProperty());
+			case REFLEXIVE_OBJECT_PROPERTY:
+				return factory.getOWLReflexiveObjectPropertyAxiom(readObjectProperty());
+			case IRREFLEXIVE_OBJECT_PROPERTY:
+				return factory.getOWLIrreflexiveObjectPropertyAxiom(readObjectProperty());
+			case FUNCTIONAL_DATA_PROPERTY:
+				return factory.getOWLFunctionalDataPropertyAxiom(readDataProperty());
+			case PROPERTY_CHAIN:
+				return factory.getOWLObjectPropertyChainSubPropertyAxiom(readObjectProperties(), readObjectProperty());
+			case CLASS_ASSERTION:
+				return factory.getOWLClassAssertionAxiom(readIndividual(), readDescription());
+			case OBJECT_PROPERTY_ASSERTION:
+				return factory.getOWLObjectPropertyAssertionAxiom(readIndividual(), readObjectProperty(), readIndividual());
+			case NEGATIVE_OBJECT_PROPERTY_ASSERTION:
+				return factory.getOWLNegativeObjectPropertyAssertionAxiom(readIndividual(), readObjectProperty(), readIndividual());
+			case DATA_PROPERTY_ASSERTION:
+				return factory.getOWLDataPropertyAssertionAxiom(readIndividual(), readDataProperty(), readConstant());
+			case NEGATIVE_DATA_PROPERTY_ASSERTION:
+				return factory.getOWLNegativeDataPropertyAssertionAxiom(readIndividual(), readDataProperty(), readConstant());
+			case SAME_INDIVIDUALS:
+				return factory.getOWLSameIndividualsAxiom(readIndividuals());
+			case DIFFERENT_INDIVIDUALS:
+				return factory.getOWLDifferentIndividualsAxiom(readIndividuals());
+			case ENTITY_ANNOTATION:
+				return factory.getOWLEntityAnnotationAxiom(readEntity(), readAnnotation());
+			case ONTOLOGY_ANNOTATION:
+				return factory.getOWLOntologyAnnotationAxiom(ontology, readAnnotation());
+			case AXIOM_ANNOTATION:
+				return factory.getOWLAxiomAnnotationAxiom(readAxiom(), readAnnotation());
+			default:
+				throw new SnapshotFormatException("unknown axiom tag " + tag);
+		}
+	}
+
+	private OWLDescription readDescription() throws SnapshotFormatException {
+		byte tag = in.get();
+		switch (tag) {
+			case NAMED_CLASS:
+				return factory.getOWLClass(readURI());
+			case OBJECT_INTERSECTION_OF:
+				return factory.getOWLObjectIntersectionOf(readDescriptions());
+			case OBJECT_UNION_OF:
+				return factory.getOWLObjectUnionOf(readDescriptions());
+			case OBJECT_COMPLEMENT_OF:
+				return factory.getOWLObjectComplementOf(readDescription());
+			case OBJECT_ONE_OF:
+				return factory.getOWLObjectOneOf(readIndividuals());
+			case OBJECT_SOME:
+				return factory.getOWLObjectSomeRestriction(readObjectProperty(), readDescription());
+			case OBJECT_ALL:
+				return factory.getOWLObjectAllRestriction(readObjectProperty(), readDescription());
+			case OBJECT_VALUE:
+				return factory.getOWLObjectValueRestriction(readObjectProperty(), readIndividual());
+			case OBJECT_MIN_CARDINALITY:
+				return factory.getOWLObjectMinCardinalityRestriction(readObjectProperty(), readInt(), readDescription());
+			case OBJECT_MAX_CARDINALITY:
+				return factory.getOWLObjectMaxCardinalityRestriction(readObjectProperty(), readInt(), readDescription());
+			case OBJECT_EXACT_CARDINALITY:
+				return factory.getOWLObjectExactCardinalityRestriction(readObjectProperty(), readInt(), readDescription());
+			case OBJECT_SELF:
+				return factory.getOWLObjectSelfRestriction(readObjectProperty());
+			case DATA_SOME:
+				return factory.getOWLDataSomeRestriction(readDataProperty(), readDataRange());
+			case DATA_ALL:
+				return factory.getOWLDataAllRestriction(readDataProperty(), readDataRange());
+			case DATA_VALUE:
+				return factory.getOWLDataValueRestriction(readDataProperty(), readConstant());
+			case DATA_MIN_CARDINALITY:
+				return factory.getOWLDataMinCardinalityRestriction(readDataProperty(), readInt(), readDataRange());
+			case DATA_MAX_CARDINALITY:
+				return factory.getOWLDataMaxCardinalityRestriction(readDataProperty(), readInt(), readDataRange());
+			case DATA_EXACT_CARDINALITY:
+				return factory.getOWLDataExactCardinalityRestriction(readDataProperty(), readInt(), readDataRange());
+			default:
+				throw new SnapshotFormatException("unknown description tag " + tag);
+		}
+	}
+
+	private Set<OWLDescription> readDescriptions() throws SnapshotFormatException {
+		int count = readInt();
+		Set<OWLDescription> descs = new HashSet<OWLDescription>();
+		for (int i = 0; i < count; i++) {
+			descs.add(readDescription());
+		}
+		return descs;
+	}
+
+	private OWLObjectPropertyExpression readObjectProperty() throws SnapshotFormatException {
+		byte tag = in.get();
+		switch (tag) {
+			case NAMED_OBJECT_PROPERTY:
+				return factory.getOWLObjectProperty(readURI());
+			case INVERSE_OBJECT_PROPERTY:
+				return factory.getOWLObjectPropertyInverse(readObjectProperty());
+			default:
+				throw new SnapshotFormatException("unknown object property tag " + tag);
+		}
+	}
+
+	private List<OWLObjectPropertyExpression> readObjectProperties() throws SnapshotFormatException {
+		int count = readInt();
+		List<OWLObjectPropertyExpression> props = new ArrayList<OWLObjectPropertyExpression>(count);
+		for (int i = 0; i < count; i++) {
+			props.add(readObjectProperty());
+		}
+		return props;
+	}
+
+	private OWLDataProperty readDataProperty() {
+		return factory.getOWLDataProperty(readURI());
+	}
+
+	private Set<OWLDataProperty> readDataProperties() {
+		int count = readInt();
+		Set<OWLDataProperty> props = new HashSet<OWLDataProperty>();
+		for (int i = 0; i < count; i++) {
+			props.add(readDataProperty());
+		}
+		return props;
+	}
+
+	private OWLIndividual readIndividual() {
+		boolean anonymous = in.get() != 0;
+		URI uri = readURI();
+		return anonymous ? factory.getOWLAnonymousIndividual(uri) : factory.getOWLIndividual(uri);
+	}
+
+	private Set<OWLIndividual> readIndividuals() {
+		int count = readInt();
+		Set<OWLIndividual> inds = new HashSet<OWLIndividual>();
+		for (int i = 0; i < count; i++) {
+			inds.add(readIndividual());
+		}
+		return inds;
+	}
+
+	private OWLEntity readEntity() throws SnapshotFormatException {
+		byte tag = in.get();
+		switch (tag) {
+			case CLASS:
+				return factory.getOWLClass(readURI());
+			case OBJECT_PROPERTY:
+				return factory.getOWLObjectProperty(readURI());
+			case DATA_PROPERTY:
+				return factory.getOWLDataProperty(readURI());
+			case INDIVIDUAL:
+				return readIndividual();
+			case DATATYPE:
+				return factory.getOWLDataType(readURI());
+			default:
+				throw new SnapshotFormatException("unknown entity tag " + tag);
+		}
+	}
+
+	private OWLDataRange readDataRange() throws SnapshotFormatException {
+		byte tag = in.get();
+		switch (tag) {
+			case NAMED_DATATYPE:
+				return factory.getOWLDataType(readURI());
+			case DATA_ONE_OF: {
+				int count = readInt();
+				Set<OWLConstant> values = new HashSet<OWLConstant>();
+				for (int i = 0; i < count; i++) {
+					values.add(readConstant());
+				}
+				return factory.getOWLDataOneOf(values);
+			}
+			case DATA_COMPLEMENT_OF:
+				return factory.getOWLDataComplementOf(readDataRange());
+			case DATA_RANGE_RESTRICTION: {
+				OWLDataRange range = readDataRange();
+				int count = readInt();
+				Set<OWLDataRangeFacetRestriction> facets = new HashSet<OWLDataRangeFacetRestriction>();
+				for (int i = 0; i < count; i++) {
+					OWLRestrictedDataRangeFacetVocabulary facet;
+					try {
+						facet = OWLRestrictedDataRangeFacetVocabulary.valueOf(readString());
+					}
+					catch (IllegalArgumentException e) {
+						throw new SnapshotFormatException("unknown facet " + e.getMessage());
+					}
+					facets.add(factory.getOWLDataRangeFacetRestriction(
+							facet, readConstant().asOWLTypedConstant()));
+				}
+				return factory.getOWLDataRangeRestriction(range, facets);
+			}
+			default:
+				throw new SnapshotFormatException("unknown data range tag " + tag);
+		}
+	}
+
+	private OWLConstant readConstant() throws SnapshotFormatException {
+		byte tag = in.get();
+		switch (tag) {
+			case TYPED_CONSTANT:
+				return factory.getOWLTypedConstant(readString(), factory.getOWLDataType(readURI()));
+			case UNTYPED_CONSTANT: {
+				String literal = readString();
+				String lang = readString();
+				return lang.length() == 0
+						? factory.getOWLUntypedConstant(literal)
+						: factory.getOWLUntypedConstant(literal, lang);
+			}
+			default:
+				throw new SnapshotFormatException("unknown constant tag " + tag);
+		}
+	}
+
+	private OWLAnnotation<?> readAnnotation() throws SnapshotFormatException {
+		byte tag = in.get();
+		switch (tag) {
+			case CONSTANT_ANNOTATION:
+				return factory.getOWLConstantAnnotation(readURI(), readConstant());
+			case OBJECT_ANNOTATION:
+				return factory.getOWLObjectAnnotation(readURI(), readIndividual());
+			default:
+				throw new SnapshotFormatException("unknown annotation tag " + tag);
+		}
+	}
+
+	private String readString() {
+		return strings[readInt()];
+	}
+
+	private URI readURI() {
+		return uri(readInt());
+	}
+
+	private URI uri(int index) {
+		if (uris[index] == null) {
+			uris[index] = URI.create(strings[index]);
+		}
+		return uris[index];
+	}
+
+	private String readUTF() {
+		byte[] bytes = new byte[in.getShort() & 0xFFFF];
+		in.get(bytes);
+		try {
+			return new String(bytes, "UTF-8");
+		}
+		catch (java.io.UnsupportedEncodingException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Reads an int written by SnapshotWriter.writeInt.
+	 */
+	private int readInt() {
+		int value = 0;
+		int shift = 0;
+		byte b;
+		do {
+			b = in.get();
+			value |= (b & 0x7F) << shift;
+			shift += 7;
+		} while ((b & 0x80) != 0);
+		return value;
+	}
+}
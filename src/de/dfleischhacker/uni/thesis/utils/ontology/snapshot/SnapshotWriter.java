@@ -0,0 +1,637 @@
+/*
+ *
+ * SnapshotWriter.java
+ *
+ * Software License Agreement (BSD License)
+ *
+ * Copyright (c) 2009 Daniel Fleischhacker <dev@dfleischhacker.de>
+ * All rights reserved.
+ *
+ * Redistribution and use of this software in source and binary forms, with or
+ * without modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   1. Redistributions of source code must retain the above copyright notice,
+ *      this list of conditions and the following disclaimer.
+ *
+ *   2. Redistributions in binary form must reproduce the above copyright
+ *      notice, this list of conditions and the following disclaimer in the
+ *      documentation and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package de.dfleischhacker.uni.thesis.utils.ontology.snapshot;
+
+import de.dfleischhacker.uni.thesis.utils.ontology.Ontology;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import org.semanticweb.owl.model.OWLAnnotation;
+import org.semanticweb.owl.model.OWLAnnotationAxiom;
+import org.semanticweb.owl.model.OWLAxiom;
+import org.semanticweb.owl.model.OWLAxiomAnnotationAxiom;
+import org.semanticweb.owl.model.OWLCardinalityRestriction;
+import org.semanticweb.owl.model.OWLClass;
+import org.semanticweb.owl.model.OWLClassAssertionAxiom;
+import org.semanticweb.owl.model.OWLConstant;
+import org.semanticweb.owl.model.OWLDataAllRestriction;
+import org.semanticweb.owl.model.OWLDataComplementOf;
+import org.semanticweb.owl.model.OWLDataExactCardinalityRestriction;
+import org.semanticweb.owl.model.OWLDataMaxCardinalityRestriction;
+import org.semanticweb.owl.model.OWLDataMinCardinalityRestriction;
+import org.semanticweb.owl.model.OWLDataOneOf;
+import org.semanticweb.owl.model.OWLDataProperty;
+import org.semanticweb.owl.model.OWLDataPropertyAssertionAxiom;
+import org.semanticweb.owl.model.OWLDataPropertyDomainAxiom;
+import org.semanticweb.owl.model.OWLDataPropertyExpression;
+import org.semanticweb.owl.model.OWLDataPropertyRangeAxiom;
+import org.semanticweb.owl.model.OWLDataRange;
+import org.semanticweb.owl.model.OWLDataRangeFacetRestriction;
+import org.semanticweb.owl.model.OWLDataRangeRestriction;
+import org.semanticweb.owl.model.OWLDataSomeRestriction;
+import org.semanticweb.owl.model.OWLDataSubPropertyAxiom;
+import org.semanticweb.owl.model.OWLDataType;
+import org.semanticweb.owl.model.OWLDataValueRestriction;
+import org.semanticweb.owl.model.OWLDeclarationAxiom;
+import org.semanticweb.owl.model.OWLDescription;
+import org.semanticweb.owl.model.OWLDifferentIndividualsAxiom;
+import org.semanticweb.owl.model.OWLDisjointClassesAxiom;
+import org.semanticweb.owl.model.OWLDisjointDataPropertiesAxiom;
+import org.semanticweb.owl.model.OWLDisjointObjectPropertiesAxiom;
+import org.semanticweb.owl.model.OWLDisjointUnionAxiom;
+import org.semanticweb.owl.model.OWLEntity;
+import org.semanticweb.owl.model.OWLEntityAnnotationAxiom;
+import org.semanticweb.owl.model.OWLEquivalentClassesAxiom;
+import org.semanticweb.owl.model.OWLEquivalentDataPropertiesAxiom;
+import org.semanticweb.owl.model.OWLEquivalentObjectPropertiesAxiom;
+import org.semanticweb.owl.model.OWLFunctionalDataPropertyAxiom;
+import org.semanticweb.owl.model.OWLFunctionalObjectPropertyAxiom;
+import org.semanticweb.owl.model.OWLIndividual;
+import org.semanticweb.owl.model.OWLInverseFunctionalObjectPropertyAxiom;
+import org.semanticweb.owl.model.OWLInverseObjectPropertiesAxiom;
+import org.semanticweb.owl.model.OWLIrreflexiveObjectPropertyAxiom;
+import org.semanticweb.owl.model.OWLAntiSymmetricObjectPropertyAxiom;
+import org.semanticweb.owl.model.OWLNegativeDataPropertyAssertionAxiom;
+import org.semanticweb.owl.model.OWLNegativeObjectPropertyAssertionAxiom;
+import org.semanticweb.owl.model.OWLObjectAllRestriction;
+import org.semanticweb.owl.model.OWLObjectComplementOf;
+import org.semanticweb.owl.model.OWLObjectExactCardinalityRestriction;
+import org.semanticweb.owl.model.OWLObjectIntersectionOf;
+import org.semanticweb.owl.model.OWLObjectMaxCardinalityRestriction;
+import org.semanticweb.owl.model.OWLObjectMinCardinalityRestriction;
+import org.semanticweb.owl.model.OWLObjectOneOf;
+import org.semanticweb.owl.model.OWLObjectProperty;
+import org.semanticweb.owl.model.OWLObjectPropertyAssertionAxiom;
+import org.semanticweb.owl.model.OWLObjectPropertyChainSubPropertyAxiom;
+import org.semanticweb.owl.model.OWLObjectPropertyDomainAxiom;
+import org.semanticweb.owl.model.OWLObjectPropertyExpression;
+import org.semanticweb.owl.model.OWLObjectPropertyInverse;
+import org.semanticweb.owl.model.OWLObjectPropertyRangeAxiom;
+import org.semanticweb.owl.model.OWLObjectSelfRestriction;
+import org.semanticweb.owl.model.OWLObjectSomeRestriction;
+import org.semanticweb.owl.model.OWLObjectSubPropertyAxiom;
+import org.semanticweb.owl.model.OWLObjectUnionOf;
+import org.semanticweb.owl.model.OWLObjectValueRestriction;
+import org.semanticweb.owl.model.OWLOntologyAnnotationAxiom;
+import org.semanticweb.owl.model.OWLReflexiveObjectPropertyAxiom;
+import org.semanticweb.owl.model.OWLSameIndividualsAxiom;
+import org.semanticweb.owl.model.OWLSubClassAxiom;
+import org.semanticweb.owl.model.OWLSymmetricObjectPropertyAxiom;
+import org.semanticweb.owl.model.OWLTransitiveObjectPropertyAxiom;
+import org.semanticweb.owl.model.OWLUnaryPropertyAxiom;
+
+import static de.dfleischhacker.uni.thesis.utils.ontology.snapshot.OntologySnapshot.*;
+
+/**
+ * Encodes the axioms of an ontology into the snapshot format. The axioms are
+ * encoded first, collecting all strings used on the way, so the string table
+ * can be written in front of them.
+ * @author Daniel Fleischhacker <dev@dfleischhacker.de>
+ */
+class SnapshotWriter {
+	private Ontology onto;
+
+	// strings used in the axioms mapped to their index in the string table
+	private Map<String, Integer> strings = new LinkedHashMap<String, Integer>();
+
+	private DataOutputStream out;
+
+	/**
+	 * Creates a writer for the given ontology.
+	 * @param onto ontology to write
+	 */
+	SnapshotWriter(Ontology onto) {
+		this.onto = onto;
+	}
+
+	/**
+	 * Encodes the ontology and writes it into the given file. The snapshot is
+	 * written to a temporary file first which is renamed when finished, so an
+	 * incomplete snapshot is never read.
+	 * @param sourceHash hash of the source file of the ontology
+	 * @param file file to write snapshot to
+	 */
+	void write(String sourceHash, File file) throws IOException, SnapshotFormatException {
+		ByteArrayOutputStream body = new ByteArrayOutputStream();
+		this.out = new DataOutputStream(body);
+		int ontologyURI = string(onto.getURI().toString());
+		Set<OWLAxiom> axioms = onto.getAxioms();
+		writeInt(axioms.size());
+		for (OWLAxiom axiom : axioms) {
+			writeAxiom(axiom);
+		}
+		this.out.flush();
+
+		File dir = file.getAbsoluteFile().getParentFile();
+		if (!dir.isDirectory() && !dir.mkdirs()) {
+			throw new IOException("unable to create snapshot directory " + dir);
+		}
+		File tmp = new File(dir, file.getName() + ".tmp");
+		DataOutputStream fileOut = new DataOutputStream(new FileOutputStream(tmp));
+		try {
+			fileOut.writeInt(MAGIC);
+			fileOut.writeInt(VERSION);
+			fileOut.writeUTF(sourceHash);
+			fileOut.writeInt(ontologyURI);
+			fileOut.writeInt(strings.size());
+			for (String s : strings.keySet()) {
+				byte[] bytes = s.getBytes("UTF-8");
+				fileOut.writeInt(bytes.length);
+				fileOut.write(bytes);
+			}
+			body.writeTo(fileOut);
+		}
+		finally {
+			fileOut.close();
+		}
+		if (file.exists() && !file.delete()) {
+			tmp.delete();
+			throw new IOException("unable to replace snapshot " + file);
+		}
+		if (!tmp.renameTo(file)) {
+			tmp.delete();
+			throw new IOException("unable to write snapshot " + file);
+		}
+	}
+
+	private void writeAxiom(OWLAxiom axiom) throws IOException, SnapshotFormatException {
+		if (axiom instanceof OWLDeclarationAxiom) {
+			tag(DECLARATION);
+			writeEntity(((OWLDeclarationAxiom) axiom).getEntity());
+		}
+		else if (axiom instanceof OWLSubClassAxiom) {
+			tag(SUB_CLASS);
+			writeDescription(((OWLSubClassAxiom) axiom).getSubClass());
+			writeDescription(((OWLSubClassAxiom) axiom).getSuperClass());
+		}
+		else if (axiom instanceof OWLEquivalentClassesAxiom) {
+			tag(EQUIVALENT_CLASSES);
+			writeDescriptions(((OWLEquivalentClassesAxiom) axiom).getDescriptions());
+		}
+		else if (axiom instanceof OWLDisjointClassesAxiom) {
+			tag(DISJOINT_CLASSES);
+			writeDescriptions(((OWLDisjointClassesAxiom) axiom).getDescriptions());
+		}
+		else if (axiom instanceof OWLDisjointUnionAxiom) {
+			tag(DISJOINT_UNION);
+			writeString(((OWLDisjointUnionAxiom) axiom).getOWLClass().getURI().toString());
+			writeDescriptions(((OWLDisjointUnionAxiom) axiom).getDescriptions());
+		}
+		else if (axiom instanceof OWLObjectPropertyDomainAxiom) {
+			tag(OBJECT_PROPERTY_DOMAIN);
+			writeObjectProperty(((OWLObjectPropertyDomainAxiom) axiom).getProperty());
+			writeDescription(((OWLObjectPropertyDomainAxiom) axiom).getDomain());
+		}
+		else if (axiom instanceof OWLObjectPropertyRangeAxiom) {
+			tag(OBJECT_PROPERTY_RANGE);
+			writeObjectProperty(((OWLObjectPropertyRangeAxiom) axiom).getProperty());
+			writeDescription(((OWLObjectPropertyRangeAxiom) axiom).getRange());
+		}
+		else if (axiom instanceof OWLDataPropertyDomainAxiom) {
+			tag(DATA_PROPERTY_DOMAIN);
+			writeDataProperty(((OWLDataPropertyDomainAxiom) axiom).getProperty());
+			writeDescription(((OWLDataPropertyDomainAxiom) axiom).getDomain());
+		}
+		else if (axiom instanceof OWLDataPropertyRangeAxiom) {
+			tag(DATA_PROPERTY_RANGE);
+			writeDataProperty(((OWLDataPropertyRangeAxiom) axiom).getProperty());
+			writeDataRange(((OWLDataPropertyRangeAxiom) axiom).getRange());
+		}
+		else if (axiom instanceof OWLObjectSubPropertyAxiom) {
+			tag(SUB_OBJECT_PROPERTY);
+			writeObjectProperty(((OWLObjectSubPropertyAxiom) axiom).getSubProperty());
+			writeObjectProperty(((OWLObjectSubPropertyAxiom) axiom).getSuperProperty());
+		}
+		else if (axiom instanceof OWLDataSubPropertyAxiom) {
+			tag(SUB_DATA_PROPERTY);
+			writeDataProperty(((OWLDataSubPropertyAxiom) axiom).getSubProperty());
+			writeDataProperty(((OWLDataSubPropertyAxiom) axiom).getSuperProperty());
+		}
+		else if (axiom instanceof OWLEquivalentObjectPropertiesAxiom) {
+			tag(EQUIVALENT_OBJECT_PROPERTIES);
+			writeObjectProperties(((OWLEquivalentObjectPropertiesAxiom) axiom).getProperties());
+		}
+		else if (axiom instanceof OWLEquivalentDataPropertiesAxiom) {
+			tag(EQUIVALENT_DATA_PROPERTIES);
+			writeDataProperties(((OWLEquivalentDataPropertiesAxiom) axiom).getProperties());
+		}
+		else if (axiom instanceof OWLDisjointObjectPropertiesAxiom) {
+			tag(DISJOINT_OBJECT_PROPERTIES);
+			writeObjectProperties(((OWLDisjointObjectPropertiesAxiom) axiom).getProperties());
+		}
+		else if (axiom instanceof OWLDisjointDataPropertiesAxiom) {
+			tag(DISJOINT_DATA_PROPERTIES);
+			writeDataProperties(((OWLDisjointDataPropertiesAxiom) axiom).getProperties());
+		}
+		else if (axiom instanceof OWLInverseObjectPropertiesAxiom) {
+			tag(INVERSE_OBJECT_PROPERTIES);
+			writeObjectProperty(((OWLInverseObjectPropertiesAxiom) axiom).getFirstProperty());
+			writeObjectProperty(((OWLInverseObjectPropertiesAxiom) axiom).getSecondProperty());
+		}
+		else if (axiom instanceof OWLFunctionalObjectPropertyAxiom) {
+			writeObjectPropertyCharacteristic(FUNCTIONAL_OBJECT_PROPERTY, axiom);
+		}
+		else if (axiom instanceof OWLInverseFunctionalObjectPropertyAxiom) {
+			writeObjectPropertyCharacteristic(INVERSE_FUNCTIONAL_OBJECT_PROPERTY, axiom);
+		}
+		else if (axiom instanceof OWLTransitiveObjectPropertyAxiom) {
+			writeObjectPropertyCharacteristic(TRANSITIVE_OBJECT_PROPERTY, axiom);
+		}
+		else if (axiom instanceof OWLSymmetricObjectPropertyAxiom) {
+			writeObjectPropertyCharacteristic(SYMMETRIC_OBJECT_PROPERTY, axiom);
+		}
+		else if (axiom instanceof OWLAntiSymmetricObjectPropertyAxiom) {
+			writeObjectPropertyCharacteristic(ANTI_SYMMETRIC_OBJECT_PROPERTY, axiom);
+		}
+		else if (axiom instanceof OWLReflexiveObjectPropertyAxiom) {
+			writeObjectPropertyCharacteristic(REFLEXIVE_OBJECT_PROPERTY, axiom);
+		}
+		else if (axiom instanceof OWLIrreflexiveObjectPropertyAxiom) {
+			writeObjectPropertyCharacteristic(IRREFLEXIVE_OBJECT_PROPERTY, axiom);
+		}
+		else if (axiom instanceof OWLFunctionalDataPropertyAxiom) {
+			tag(FUNCTIONAL_DATA_PROPERTY);
+			writeDataProperty(((OWLFunctionalDataPropertyAxiom) axiom).getProperty());
+		}
+		else if (axiom instanceof OWLObjectPropertyChainSubPropertyAxiom) {
+			tag(PROPERTY_CHAIN);
+			writeObjectProperties(((OWLObjectPropertyChainSubPropertyAxiom) axiom).getPropertyChain());
+			writeObjectProperty(((OWLObjectPropertyChainSubPropertyAxiom) axiom).getSuperProperty());
+		}
+		else if (axiom instanceof OWLClassAssertionAxiom) {
+			tag(CLASS_ASSERTION);
+			writeIndividual(((OWLClassAssertionAxiom) axiom).getIndividual());
+			writeDescription(((OWLClassAssertionAxiom) axiom).getDescription());
+		}
+		else if (axiom instanceof OWLObjectPropertyAssertionAxiom) {
+			OWLObjectPropertyAssertionAxiom assertion = (OWLObjectPropertyAssertionAxiom) axiom;
+			tag(OBJECT_PROPERTY_ASSERTION);
+			writeIndividual(assertion.getSubject());
+			writeObjectProperty(assertion.getProperty());
+			writeIndividual(assertion.getObject());
+		}
+		else if (axiom instanceof OWLNegativeObjectPropertyAssertionAxiom) {
+			OWLNegativeObjectPropertyAssertionAxiom assertion = (OWLNegativeObjectPropertyAssertionAxiom) axiom;
+			tag(NEGATIVE_OBJECT_PROPERTY_ASSERTION);
+			writeIndividual(assertion.getSubject());
+			writeObjectProperty(assertion.getProperty());
+			writeIndividual(assertion.getObject());
+		}
+		else if (axiom instanceof OWLDataPropertyAssertionAxiom) {
+			OWLDataPropertyAssertionAxiom assertion = (OWLDataPropertyAssertionAxiom) axiom;
+			tag(DATA_PROPERTY_ASSERTION);
+			writeIndividual(assertion.getSubject());
+			writeDataProperty(assertion.getProperty());
+			writeConstant(assertion.getObject());
+		}
+		else if (axiom instanceof OWLNegativeDataPropertyAssertionAxiom) {
+			OWLNegativeDataPropertyAssertionAxiom assertion = (OWLNegativeDataPropertyAssertionAxiom) axiom;
+			tag(NEGATIVE_DATA_PROPERTY_ASSERTION);
+			writeIndividual(assertion.getSubject());
+			writeDataProperty(assertion.getProperty());
+			writeConstant(assertion.getObject());
+		}
+		else if (axiom instanceof OWLSameIndividualsAxiom) {
+			tag(SAME_INDIVIDUALS);
+			writeIndividuals(((OWLSameIndividualsAxiom) axiom).getIndividuals());
+		}
+		else if (axiom instanceof OWLDifferentIndividualsAxiom) {
+			tag(DIFFERENT_INDIVIDUALS);
+			writeIndividuals(((OWLDifferentIndividualsAxiom) axiom).getIndividuals());
+		}
+		else if (axiom instanceof OWLEntityAnnotationAxiom) {
+			tag(ENTITY_ANNOTATION);
+			writeEntity(((OWLEntityAnnotationAxiom) axiom).getSubject());
+			writeAnnotation(((OWLAnnotationAxiom) axiom).getAnnotation());
+		}
+		else if (axiom instanceof OWLOntologyAnnotationAxiom) {
+			if (!onto.getURI().equals(((OWLOntologyAnnotationAxiom) axiom).getSubject().getURI())) {
+				throw new SnapshotFormatException("annotations of other ontologies are not supported");
+			}
+			tag(ONTOLOGY_ANNOTATION);
+			writeAnnotation(((OWLAnnotationAxiom) axiom).getAnnotation());
+		}
+		else if (axiom instanceof OWLAxiomAnnotationAxiom) {
+			tag(AXIOM_ANNOTATION);
+			writeAxiom(((OWLAxiomAnnotationAxiom) axiom).getSubject());
+			writeAnnotation(((OWLAnnotationAxiom) axiom).getAnnotation());
+		}
+		else {
+			// e.g. imports, which would require loading further ontologies,
+			// SWRL rules and deprecation axioms
+			throw new SnapshotFormatException("unsupported axiom type " + axiom.getAxiomType());
+		}
+	}
+
+	private void writeObjectPropertyCharacteristic(byte tag, OWLAxiom axiom)
+			throws IOException, SnapshotFormatException {
+		tag(tag);
+		writeObjectProperty((OWLObjectPropertyExpression) ((OWLUnaryPropertyAxiom) axiom).getProperty());
+	}
+
+	private void writeDescription(OWLDescription desc) throws IOException, SnapshotFormatException {
+		if (desc instanceof OWLClass) {
+			tag(NAMED_CLASS);
+			writeString(((OWLClass) desc).getURI().toString());
+		}
+		else if (desc instanceof OWLObjectIntersectionOf) {
+			tag(OBJECT_INTERSECTION_OF);
+			writeDescriptions(((OWLObjectIntersectionOf) desc).getOperands());
+		}
+		else if (desc instanceof OWLObjectUnionOf) {
+			tag(OBJECT_UNION_OF);
+			writeDescriptions(((OWLObjectUnionOf) desc).getOperands());
+		}
+		else if (desc instanceof OWLObjectComplementOf) {
+			tag(OBJECT_COMPLEMENT_OF);
+			writeDescription(((OWLObjectComplementOf) desc).getOperand());
+		}
+		else if (desc instanceof OWLObjectOneOf) {
+			tag(OBJECT_ONE_OF);
+			writeIndividuals(((OWLObjectOneOf) desc).getIndividuals());
+		}
+		else if (desc instanceof OWLObjectSomeRestriction) {
+			tag(OBJECT_SOME);
+			writeObjectProperty(((OWLObjectSomeRestriction) desc).getProperty());
+			writeDescription(((OWLObjectSomeRestriction) desc).getFiller());
+		}
+		else if (desc instanceof OWLObjectAllRestriction) {
+			tag(OBJECT_ALL);
+			writeObjectProperty(((OWLObjectAllRestriction) desc).getProperty());
+			writeDescription(((OWLObjectAllRestriction) desc).getFiller());
+		}
+		else if (desc instanceof OWLObjectValueRestriction) {
+			tag(OBJECT_VALUE);
+			writeObjectProperty(((OWLObjectValueRestriction) desc).getProperty());
+			writeIndividual(((OWLObjectValueRestriction) desc).getValue());
+		}
+		else if (desc instanceof OWLObjectMinCardinalityRestriction) {
+			tag(OBJECT_MIN_CARDINALITY);
+			writeObjectCardinality((OWLObjectMinCardinalityRestriction) desc);
+		}
+		else if (desc instanceof OWLObjectMaxCardinalityRestriction) {
+			tag(OBJECT_MAX_CARDINALITY);
+			writeObjectCardinality((OWLObjectMaxCardinalityRestriction) desc);
+		}
+		else if (desc instanceof OWLObjectExactCardinalityRestriction) {
+			tag(OBJECT_EXACT_CARDINALITY);
+			writeObjectCardinality((OWLObjectExactCardinalityRestriction) desc);
+		}
+		else if (desc instanceof OWLObjectSelfRestriction) {
+			tag(OBJECT_SELF);
+			writeObjectProperty(((OWLObjectSelfRestriction) desc).getProperty());
+		}
+		else if (desc instanceof OWLDataSomeRestriction) {
+			tag(DATA_SOME);
+			writeDataProperty(((OWLDataSomeRestriction) desc).getProperty());
+			writeDataRange(((OWLDataSomeRestriction) desc).getFiller());
+		}
+		else if (desc instanceof OWLDataAllRestriction) {
+			tag(DATA_ALL);
+			writeDataProperty(((OWLDataAllRestriction) desc).getProperty());
+			writeDataRange(((OWLDataAllRestriction) desc).getFiller());
+		}
+		else if (desc instanceof OWLDataValueRestriction) {
+			tag(DATA_VALUE);
+			writeDataProperty(((OWLDataValueRestriction) desc).getProperty());
+			writeConstant(((OWLDataValueRestriction) desc).getValue());
+		}
+		else if (desc instanceof OWLDataMinCardinalityRestriction) {
+			tag(DATA_MIN_CARDINALITY);
+			writeDataCardinality((OWLDataMinCardinalityRestriction) desc);
+		}
+		else if (desc instanceof OWLDataMaxCardinalityRestriction) {
+			tag(DATA_MAX_CARDINALITY);
+			writeDataCardinality((OWLDataMaxCardinalityRestriction) desc);
+		}
+		else if (desc instanceof OWLDataExactCardinalityRestriction) {
+			tag(DATA_EXACT_CARDINALITY);
+			writeDataCardinality((OWLDataExactCardinalityRestriction) desc);
+		}
+		else {
+			throw new SnapshotFormatException("unsupported description " + desc);
+		}
+	}
+
+	private void writeObjectCardinality(OWLCardinalityRestriction<OWLObjectPropertyExpression, OWLDescription> desc)
+			throws IOException, SnapshotFormatException {
+		writeObjectProperty(desc.getProperty());
+		writeInt(desc.getCardinality());
+		writeDescription(desc.getFiller());
+	}
+
+	private void writeDataCardinality(OWLCardinalityRestriction<OWLDataPropertyExpression, OWLDataRange> desc)
+			throws IOException, SnapshotFormatException {
+		writeDataProperty(desc.getProperty());
+		writeInt(desc.getCardinality());
+		writeDataRange(desc.getFiller());
+	}
+
+	private void writeDescriptions(Collection<? extends OWLDescription> descs)
+			throws IOException, SnapshotFormatException {
+		writeInt(descs.size());
+		for (OWLDescription desc : descs) {
+			writeDescription(desc);
+		}
+	}
+
+	private void writeObjectProperty(OWLObjectPropertyExpression prop)
+			throws IOException, SnapshotFormatException {
+		if (prop instanceof OWLObjectProperty) {
+			tag(NAMED_OBJECT_PROPERTY);
+			writeString(((OWLObjectProperty) prop).getURI().toString());
+		}
+		else if (prop instanceof OWLObjectPropertyInverse) {
+			tag(INVERSE_OBJECT_PROPERTY);
+			writeObjectProperty(((OWLObjectPropertyInverse) prop).getInverse());
+		}
+		else {
+			throw new SnapshotFormatException("unsupported object property " + prop);
+		}
+	}
+
+	private void writeObjectProperties(Collection<? extends OWLObjectPropertyExpression> props)
+			throws IOException, SnapshotFormatException {
+		writeInt(props.size());
+		for (OWLObjectPropertyExpression prop : props) {
+			writeObjectProperty(prop);
+		}
+	}
+
+	private void writeDataProperty(OWLDataPropertyExpression prop)
+			throws IOException, SnapshotFormatException {
+		if (!(prop instanceof OWLDataProperty)) {
+			throw new SnapshotFormatException("unsupported data property " + prop);
+		}
+		writeString(((OWLDataProperty) prop).getURI().toString());
+	}
+
+	private void writeDataProperties(Collection<? extends OWLDataPropertyExpression> props)
+			throws IOException, SnapshotFormatException {
+		writeInt(props.size());
+		for (OWLDataPropertyExpression prop : props) {
+			writeDataProperty(prop);
+		}
+	}
+
+	private void writeIndividual(OWLIndividual ind) throws IOException {
+		this.out.writeBoolean(ind.isAnonymous());
+		writeString(ind.getURI().toString());
+	}
+
+	private void writeIndividuals(Collection<OWLIndividual> inds) throws IOException {
+		writeInt(inds.size());
+		for (OWLIndividual ind : inds) {
+			writeIndividual(ind);
+		}
+	}
+
+	private void writeEntity(OWLEntity entity) throws IOException, SnapshotFormatException {
+		if (entity instanceof OWLClass) {
+			tag(CLASS);
+		}
+		else if (entity instanceof OWLObjectProperty) {
+			tag(OBJECT_PROPERTY);
+		}
+		else if (entity instanceof OWLDataProperty) {
+			tag(DATA_PROPERTY);
+		}
+		else if (entity instanceof OWLIndividual) {
+			tag(INDIVIDUAL);
+			this.out.writeBoolean(((OWLIndividual) entity).isAnonymous());
+		}
+		else if (entity instanceof OWLDataType) {
+			tag(DATATYPE);
+		}
+		else {
+			throw new SnapshotFormatException("unsupported entity " + entity);
+		}
+		writeString(entity.getURI().toString());
+	}
+
+	private void writeDataRange(OWLDataRange range) throws IOException, SnapshotFormatException {
+		if (range instanceof OWLDataType) {
+			tag(NAMED_DATATYPE);
+			writeString(((OWLDataType) range).getURI().toString());
+		}
+		else if (range instanceof OWLDataOneOf) {
+			tag(DATA_ONE_OF);
+			writeInt(((OWLDataOneOf) range).getValues().size());
+			for (OWLConstant value : ((OWLDataOneOf) range).getValues()) {
+				writeConstant(value);
+			}
+		}
+		else if (range instanceof OWLDataComplementOf) {
+			tag(DATA_COMPLEMENT_OF);
+			writeDataRange(((OWLDataComplementOf) range).getDataRange());
+		}
+		else if (range instanceof OWLDataRangeRestriction) {
+			tag(DATA_RANGE_RESTRICTION);
+			writeDataRange(((OWLDataRangeRestriction) range).getDataRange());
+			writeInt(((OWLDataRangeRestriction) range).getFacetRestrictions().size());
+			for (OWLDataRangeFacetRestriction facet : ((OWLDataRangeRestriction) range).getFacetRestrictions()) {
+				writeString(facet.getFacet().name());
+				writeConstant(facet.getFacetValue());
+			}
+		}
+		else {
+			throw new SnapshotFormatException("unsupported data range " + range);
+		}
+	}
+
+	private void writeConstant(OWLConstant constant) throws IOException {
+		if (constant.isTyped()) {
+			tag(TYPED_CONSTANT);
+			writeString(constant.getLiteral());
+			writeString(constant.asOWLTypedConstant().getDataType().getURI().toString());
+		}
+		else {
+			tag(UNTYPED_CONSTANT);
+			writeString(constant.getLiteral());
+			String lang = constant.asOWLUntypedConstant().getLang();
+			writeString(lang == null ? "" : lang);
+		}
+	}
+
+	private void writeAnnotation(OWLAnnotation<?> annotation) throws IOException, SnapshotFormatException {
+		if (annotation.isAnnotationByConstant()) {
+			tag(CONSTANT_ANNOTATION);
+			writeString(annotation.getAnnotationURI().toString());
+			writeConstant(annotation.getAnnotationValueAsConstant());
+		}
+		else if (annotation.getAnnotationValue() instanceof OWLIndividual) {
+			tag(OBJECT_ANNOTATION);
+			writeString(annotation.getAnnotationURI().toString());
+			writeIndividual((OWLIndividual) annotation.getAnnotationValue());
+		}
+		else {
+			throw new SnapshotFormatException("unsupported annotation " + annotation);
+		}
+	}
+
+	private void tag(byte tag) throws IOException {
+		this.out.writeByte(tag);
+	}
+
+	private void writeString(String s) throws IOException {
+		writeInt(string(s));
+	}
+
+	private int string(String s) {
+		Integer index = strings.get(s);
+		if (index == null) {
+			index = strings.size();
+			strings.put(s, index);
+		}
+		return index;
+	}
+
+	/**
+	 * Writes a non-negative int using seven bits per byte, so the small
+	 * numbers making up most of a snapshot only take one or two bytes.
+	 */
+	private void writeInt(int value) throws IOException {
+		while ((value & ~0x7F) != 0) {
+			this.out.writeByte((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		this.out.writeByte(value);
+	}
+}
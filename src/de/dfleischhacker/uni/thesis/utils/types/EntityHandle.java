@@ -0,0 +1,181 @@
+/*
+ *
+ * EntityHandle.java
+ *
+ * Software License Agreement (BSD License)
+ *
+ * Copyright (c) 2009 Daniel Fleischhacker <dev@dfleischhacker.de>
+ * All rights reserved.
+ *
+ * Redistribution and use of this software in source and binary forms, with or
+ * without modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   1. Redistributions of source code must retain the above copyright notice,
+ *      this list of conditions and the following disclaimer.
+ *
+ *   2. Redistributions in binary form must reproduce the above copyright
+ *      notice, this list of conditions and the following disclaimer in the
+ *      documentation and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package de.dfleischhacker.uni.thesis.utils.types;
+
+import org.semanticweb.owl.model.OWLClass;
+import org.semanticweb.owl.model.OWLDataProperty;
+import org.semanticweb.owl.model.OWLObjectProperty;
+
+/**
+ * Handle of an entity stored in a TypeMap. A handle keeps the OWL objects
+ * which have been created for its URI so that axioms can be built from them
+ * without resolving the URI again. Since OWL allows to use the same URI for
+ * different kinds of entities, a handle may represent a class and a property
+ * at the same time.
+ * @author Daniel Fleischhacker <dev@dfleischhacker.de>
+ */
+public class EntityHandle {
+	private final String uri;
+	private final int id;
+
+	private OWLClass owlClass;
+	private OWLObjectProperty objectProperty;
+	private OWLDataProperty dataProperty;
+
+	/**
+	 * Creates a new handle for the given URI.
+	 * @param uri entity's URI
+	 * @param id number of the handle inside its TypeMap
+	 */
+	EntityHandle(String uri, int id) {
+		this.uri = uri;
+		this.id = id;
+	}
+
+	/**
+	 * Returns the URI of the entity
+	 * @return entity's URI
+	 */
+	public String getURI() {
+		return uri;
+	}
+
+	/**
+	 * Returns the number of this handle. Handles of a TypeMap are numbered
+	 * consecutively starting from 0.
+	 * @return handle number
+	 */
+	public int getId() {
+		return id;
+	}
+
+	/**
+	 * Checks whether the entity is a class.
+	 * @return true if entity is class, false otherwise
+	 */
+	public boolean isClass() {
+		return owlClass != null;
+	}
+
+	/**
+	 * Checks whether the entity is an object property.
+	 * @return true if entity is object property, false otherwise
+	 */
+	public boolean isObjectProperty() {
+		return objectProperty != null;
+	}
+
+	/**
+	 * Checks whether the entity is a data property.
+	 * @return true if entity is data property, false otherwise
+	 */
+	public boolean isDataProperty() {
+		return dataProperty != null;
+	}
+
+	/**
+	 * Checks whether the entity is of the given type.
+	 * @param type type to check
+	 * @return true if entity is of the given type, false otherwise
+	 */
+	public boolean isOfType(EntityType type) {
+		switch (type) {
+			case CLASS:
+				return isClass();
+			case OBJECT_PROPERTY:
+				return isObjectProperty();
+			case DATA_PROPERTY:
+				return isDataProperty();
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the class represented by this handle
+	 * @return class or null if the entity is no class
+	 */
+	public OWLClass getOWLClass() {
+		return owlClass;
+	}
+
+	/**
+	 * Returns the object property represented by this handle
+	 * @return object property or null if the entity is no object property
+	 */
+	public OWLObjectProperty getOWLObjectProperty() {
+		return objectProperty;
+	}
+
+	/**
+	 * Returns the data property represented by this handle
+	 * @return data property or null if the entity is no data property
+	 */
+	public OWLDataProperty getOWLDataProperty() {
+		return dataProperty;
+	}
+
+	void setOWLClass(OWLClass owlClass) {
+		this.owlClass = owlClass;
+	}
+
+	void setOWLObjectProperty(OWLObjectProperty objectProperty) {
+		this.objectProperty = objectProperty;
+	}
+
+	void setOWLDataProperty(OWLDataProperty dataProperty) {
+		this.dataProperty = dataProperty;
+	}
+
+	/**
+	 * Returns the type of the entity as used by TypeMap.getType
+	 * @return type as string
+	 */
+	public String getType() {
+		if (isClass())
+			return "class";
+
+		if (isDataProperty())
+			return "dataproperty";
+
+		if (isObjectProperty())
+			return "objectproperty";
+
+		return "unknown type";
+	}
+
+	@Override
+	public String toString() {
+		return uri;
+	}
+}
@@ -37,7 +37,11 @@ import java.io.BufferedWriter;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import org.semanticweb.owl.model.OWLClass;
 import org.semanticweb.owl.model.OWLDataProperty;
 import org.semanticweb.owl.model.OWLObjectProperty;
@@ -46,18 +50,29 @@ import de.dfleischhacker.uni.thesis.utils.ontology.Ontology;
 /**
  * This class builds a map with entity types for the entities contained in the
  * given ontologies and provides an interface to receive these contents.
+ *
+ * All classes, object properties and data properties of both ontologies are
+ * kept in a single index from their URI to an EntityHandle. The handles keep
+ * the OWL objects of the entities, so axioms can be created from them without
+ * looking up the entities by their URI again.
  * @author Daniel Fleischhacker <dev@dfleischhacker.de>
  */
 public class TypeMap {
 	private Ontology onto1;
 	private Ontology onto2;
-	private HashMap<String,OWLClass> classMap1;
-	private HashMap<String,OWLDataProperty> dataPropertyMap1;
-	private HashMap<String,OWLObjectProperty> objectPropertyMap1;
 
-	private HashMap<String,OWLClass> classMap2;
-	private HashMap<String,OWLDataProperty> dataPropertyMap2;
-	private HashMap<String,OWLObjectProperty> objectPropertyMap2;
+	// all handles indexed by the URI of their entity
+	private HashMap<String,EntityHandle> handles;
+	// all handles indexed by their id
+	private ArrayList<EntityHandle> handleList;
+
+	// handles of the entities referenced in ontology 1 and 2
+	private List<EntityHandle> handles1;
+	private List<EntityHandle> handles2;
+
+	// number of all entities referenced in ontology 1 and 2
+	private int entityCount1;
+	private int entityCount2;
 
 	/**
 	 * Initializes the internal entity type maps from the given ontologies.
@@ -68,57 +83,109 @@ public class TypeMap {
 		this.onto1 = onto1;
 		this.onto2 = onto2;
 
-		// build entity lists for ontology 1
-		classMap1 = new HashMap<String, OWLClass>();
-		dataPropertyMap1 = new HashMap<String,OWLDataProperty>();
-		objectPropertyMap1 = new HashMap<String,OWLObjectProperty>();
+		handles = new HashMap<String,EntityHandle>();
+		handleList = new ArrayList<EntityHandle>();
+
+		handles1 = addEntities(onto1);
+		handles2 = addEntities(onto2);
+
+		entityCount1 = onto1.getReferencedEntities().size();
+		entityCount2 = onto2.getReferencedEntities().size();
+	}
 
-		for (OWLClass clazz : onto1.getReferencedClasses()) {
-			classMap1.put(
-				clazz.getURI().toString(),
-				clazz
-			);
+	/**
+	 * Adds the classes and properties of the given ontology to the index.
+	 * @param onto ontology to add entities for
+	 * @return handles of the entities referenced in the given ontology
+	 */
+	private List<EntityHandle> addEntities(Ontology onto) {
+		LinkedHashSet<EntityHandle> ontoHandles = new LinkedHashSet<EntityHandle>();
+
+		for (OWLClass clazz : onto.getReferencedClasses()) {
+			EntityHandle handle = getOrCreateHandle(clazz.getURI().toString());
+			handle.setOWLClass(clazz);
+			ontoHandles.add(handle);
 		}
 
-		for (OWLDataProperty prop : onto1.getReferencedDataProperties()) {
-			dataPropertyMap1.put(
-				prop.getURI().toString(),
-				prop
-			);
+		for (OWLDataProperty prop : onto.getReferencedDataProperties()) {
+			EntityHandle handle = getOrCreateHandle(prop.getURI().toString());
+			handle.setOWLDataProperty(prop);
+			ontoHandles.add(handle);
 		}
 
-		for (OWLObjectProperty prop : onto1.getReferencedObjectProperties()) {
-			objectPropertyMap1.put(
-				prop.getURI().toString(),
-				prop
-			);
+		for (OWLObjectProperty prop : onto.getReferencedObjectProperties()) {
+			EntityHandle handle = getOrCreateHandle(prop.getURI().toString());
+			handle.setOWLObjectProperty(prop);
+			ontoHandles.add(handle);
 		}
 
-		// build ontology lists for ontology 2
-		classMap2 = new HashMap<String, OWLClass>();
-		dataPropertyMap2 = new HashMap<String,OWLDataProperty>();
-		objectPropertyMap2 = new HashMap<String,OWLObjectProperty>();
+		return Collections.unmodifiableList(new ArrayList<EntityHandle>(ontoHandles));
+	}
 
-		for (OWLClass clazz : onto2.getReferencedClasses()) {
-			classMap2.put(
-				clazz.getURI().toString(),
-				clazz
-			);
+	private EntityHandle getOrCreateHandle(String uri) {
+		EntityHandle handle = handles.get(uri);
+		if (handle == null) {
+			handle = new EntityHandle(uri, handleList.size());
+			handles.put(uri, handle);
+			handleList.add(handle);
 		}
+		return handle;
+	}
 
-		for (OWLDataProperty prop : onto2.getReferencedDataProperties()) {
-			dataPropertyMap2.put(
-				prop.getURI().toString(),
-				prop
-			);
-		}
+	/**
+	 * Returns the handle of the entity identified by the given URI.
+	 * @param uri entity's URI
+	 * @return handle of the entity or null if the URI is no class or property
+	 *	of one of the ontologies
+	 */
+	public EntityHandle getHandle(String uri) {
+		return handles.get(uri);
+	}
 
-		for (OWLObjectProperty prop : onto2.getReferencedObjectProperties()) {
-			objectPropertyMap2.put(
-				prop.getURI().toString(),
-				prop
-			);
-		}
+	/**
+	 * Returns the handle with the given id.
+	 * @param id id of the handle
+	 * @return handle with the given id
+	 */
+	public EntityHandle getHandle(int id) {
+		return handleList.get(id);
+	}
+
+	/**
+	 * Returns the number of handles in this map. The ids of the handles range
+	 * from 0 to size() - 1.
+	 * @return number of handles
+	 */
+	public int size() {
+		return handleList.size();
+	}
+
+	/**
+	 * Returns the handles of the classes and properties referenced in the
+	 * given ontology.
+	 * @param onto number of the ontology (1 or 2)
+	 * @return handles of the ontology's entities
+	 */
+	public List<EntityHandle> getHandles(int onto) {
+		if (onto == 1)
+			return handles1;
+		if (onto == 2)
+			return handles2;
+		throw new IllegalArgumentException("invalid ontology number: " + onto);
+	}
+
+	/**
+	 * Returns the number of all entities referenced in the given ontology
+	 * including individuals and datatypes which are not kept in this map.
+	 * @param onto number of the ontology (1 or 2)
+	 * @return number of referenced entities
+	 */
+	public int getReferencedEntityCount(int onto) {
+		if (onto == 1)
+			return entityCount1;
+		if (onto == 2)
+			return entityCount2;
+		throw new IllegalArgumentException("invalid ontology number: " + onto);
 	}
 
 	/**
@@ -127,8 +194,8 @@ public class TypeMap {
 	 * @return true if entity is class, false otherwise
 	 */
 	public boolean isClass(String entity) {
-		return classMap1.containsKey(entity)
-				|| classMap2.containsKey(entity);
+		EntityHandle handle = handles.get(entity);
+		return handle != null && handle.isClass();
 	}
 
 	/**
@@ -137,8 +204,8 @@ public class TypeMap {
 	 * @return true if entity is data property, false otherwise
 	 */
 	public boolean isDataProperty(String entity) {
-		return dataPropertyMap1.containsKey(entity)
-				|| dataPropertyMap2.containsKey(entity);
+		EntityHandle handle = handles.get(entity);
+		return handle != null && handle.isDataProperty();
 	}
 
 	/**
@@ -147,8 +214,8 @@ public class TypeMap {
 	 * @return true if entity is object property, false otherwise
 	 */
 	public boolean isObjectProperty(String entity) {
-		return objectPropertyMap1.containsKey(entity)
-				|| objectPropertyMap2.containsKey(entity);
+		EntityHandle handle = handles.get(entity);
+		return handle != null && handle.isObjectProperty();
 	}
 
 	/**
@@ -158,18 +225,11 @@ public class TypeMap {
 	 * @return type as string
 	 */
 	public String getType(String uri) {
-		String uriString = uri.toString();
-
-		if (classMap1.containsKey(uriString) || classMap2.containsKey(uriString))
-			return "class";
-
-		if (dataPropertyMap1.containsKey(uriString) || dataPropertyMap2.containsKey(uriString))
-			return "dataproperty";
+		EntityHandle handle = handles.get(uri);
+		if (handle == null)
+			return "unknown type";
 
-		if (objectPropertyMap1.containsKey(uriString) || objectPropertyMap2.containsKey(uriString))
-			return "objectproperty";
-
-		return "unknown type";
+		return handle.getType();
 	}
 
 	/**
@@ -179,23 +239,17 @@ public class TypeMap {
 	 public void dump(String filename) throws IOException {
 		 PrintWriter writer = new PrintWriter(new BufferedWriter(new FileWriter(filename)));
 
-		 for (String cls : classMap1.keySet()) {
-			 writer.println("Class: " + cls);
-		 }
-		 for (String cls : classMap2.keySet()) {
-			 writer.println("Class: " + cls);
-		 }
-		 for (String cls : dataPropertyMap1.keySet()) {
-			 writer.println("Data property: " + cls);
-		 }
-		 for (String cls : dataPropertyMap2.keySet()) {
-			 writer.println("Data property: " + cls);
+		 for (EntityHandle handle : handleList) {
+			 if (handle.isClass())
+				 writer.println("Class: " + handle.getURI());
 		 }
-		 for (String cls : objectPropertyMap1.keySet()) {
-			 writer.println("Object property: " + cls);
+		 for (EntityHandle handle : handleList) {
+			 if (handle.isDataProperty())
+				 writer.println("Data property: " + handle.getURI());
 		 }
-		 for (String cls : objectPropertyMap2.keySet()) {
-			 writer.println("Object property: " + cls);
+		 for (EntityHandle handle : handleList) {
+			 if (handle.isObjectProperty())
+				 writer.println("Object property: " + handle.getURI());
 		 }
 
 		 writer.close();
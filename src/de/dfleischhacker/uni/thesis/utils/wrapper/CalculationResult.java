@@ -57,6 +57,9 @@ public class CalculationResult {
 	private Alignment originalReference;
 	private String nameEvAlign;
 	private String nameRefAlign;
+	private float threshold;
+	private String nameSemantic;
+	private EvaluationStatistics statistics;
 
 	/**
 	 * @return the precision
@@ -271,4 +274,48 @@ public class CalculationResult {
 	public void setOriginalReference(Alignment originalReference) {
 		this.originalReference = originalReference;
 	}
+
+	/**
+	 * @return the threshold the evaluation alignment has been filtered with
+	 */
+	public float getThreshold() {
+		return threshold;
+	}
+
+	/**
+	 * @param threshold the threshold to set
+	 */
+	public void setThreshold(float threshold) {
+		this.threshold = threshold;
+	}
+
+	/**
+	 * @return the name of the semantic the closures have been generated with
+	 */
+	public String getNameSemantic() {
+		return nameSemantic;
+	}
+
+	/**
+	 * @param nameSemantic the nameSemantic to set
+	 */
+	public void setNameSemantic(String nameSemantic) {
+		this.nameSemantic = nameSemantic;
+	}
+
+	/**
+	 * Returns the timings and counters recorded while calculating this result
+	 * @return statistics or null if none have been recorded
+	 */
+	public EvaluationStatistics getStatistics() {
+		return statistics;
+	}
+
+	/**
+	 * Sets the timings and counters recorded while calculating this result
+	 * @param statistics recorded statistics
+	 */
+	public void setStatistics(EvaluationStatistics statistics) {
+		this.statistics = statistics;
+	}
 }
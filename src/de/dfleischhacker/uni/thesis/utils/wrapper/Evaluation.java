@@ -0,0 +1,511 @@
+/*
+ *
+ * Evaluation.java
+ *
+ * Software License Agreement (BSD License)
+ *
+ * Copyright (c) 2009 Daniel Fleischhacker <dev@dfleischhacker.de>
+ * All rights reserved.
+ *
+ * Redistribution and use of this software in source and binary forms, with or
+ * without modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   1. Redistributions of source code must retain the above copyright notice,
+ *      this list of conditions and the following disclaimer.
+ *
+ *   2. Redistributions in binary form must reproduce the above copyright
+ *      notice, this list of conditions and the following disclaimer in the
+ *      documentation and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package de.dfleischhacker.uni.thesis.utils.wrapper;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.Callable;
+import org.mindswap.pellet.exceptions.TimeoutException;
+import org.semanticweb.owl.model.OWLOntologyCreationException;
+import de.dfleischhacker.uni.thesis.GlobalSettings;
+import de.dfleischhacker.uni.thesis.calculator.Calculator;
+import de.dfleischhacker.uni.thesis.semantic.ClosureResult;
+import de.dfleischhacker.uni.thesis.semantic.SemanticManager;
+import de.dfleischhacker.uni.thesis.semantic.SemanticModule;
+import de.dfleischhacker.uni.thesis.semantic.closure.CancellationToken;
+import de.dfleischhacker.uni.thesis.semantic.closure.ClosureProgressListener;
+import de.dfleischhacker.uni.thesis.semantic.closure.ClosureStep;
+import de.dfleischhacker.uni.thesis.semantic.closure.ClosureGenerationException;
+import de.dfleischhacker.uni.thesis.utils.alignment.Alignment;
+import de.dfleischhacker.uni.thesis.utils.alignment.AlignmentManager;
+import de.dfleischhacker.uni.thesis.utils.alignment.Correspondence;
+import de.dfleischhacker.uni.thesis.utils.alignment.InvalidAlignmentException;
+import de.dfleischhacker.uni.thesis.utils.ontology.MergingException;
+import de.dfleischhacker.uni.thesis.utils.ontology.Ontology;
+import de.dfleischhacker.uni.thesis.utils.ontology.OntologyManager;
+import de.dfleischhacker.uni.thesis.utils.ontology.OntologySession;
+
+/**
+ * An evaluation of an alignment against a reference alignment, i.e. the
+ * calculation of precision and recall under a given semantic. Evaluations are
+ * either run directly by calling call() or submitted to an executor using
+ * Wrapper.submit, which returns a Future for the result.
+ *
+ * An evaluation may also cover several semantics and thresholds, callAll()
+ * and Wrapper.submitAll then return one result per semantic and threshold.
+ * The ontologies and alignments are loaded and validated only once and the
+ * ontologies are renamed once for all semantics. For each semantic, the
+ * closure of the reference alignment is generated only once. The alignment
+ * of a threshold consists of the correspondences with the highest measures,
+ * so if two thresholds select the same correspondences, the closure of the
+ * higher threshold is reused.
+ *
+ * A running evaluation may be cancelled from another thread. The
+ * cancellation is checked between the phases of the evaluation and passed on
+ * to the reasoners created while generating the closures, which abort their
+ * classification or entailment check.
+ *
+ * @author Daniel Fleischhacker <dev@dfleischhacker.de>
+ */
+public class Evaluation implements Callable<CalculationResult> {
+	private URI uriOnto1;
+	private URI uriOnto2;
+	private String nameEvAlign;
+	private String nameRefAlign;
+	private String[] namesSemantic;
+	private float[] thresholds;
+	private boolean deleteABox;
+
+	private ProgressListener listener;
+	private volatile Phase phase;
+	private volatile String nameSemantic;
+	private volatile boolean cancelled;
+	private volatile CancellationToken token;
+
+	// timer of the running calculation, only used by the calculating thread
+	private PhaseTimer timer;
+
+	/**
+	 * Initializes the evaluation of the given alignment
+	 * @param uriOnto1 URI of ontology 1
+	 * @param uriOnto2 URI of ontology 2
+	 * @param nameEvAlign filename of the alignment to evaluate
+	 * @param nameRefAlign filename of the reference alignment
+	 * @param nameSemantic name of the semantic
+	 * @param threshold only correspondences of the evaluated alignment with
+	 *	at least this measure are considered
+	 * @param deleteABox if true the ABox of the aligned ontologies is deleted
+	 */
+	public Evaluation(URI uriOnto1, URI uriOnto2, String nameEvAlign,
+			String nameRefAlign, String nameSemantic, float threshold, boolean deleteABox) {
+		this(uriOnto1, uriOnto2, nameEvAlign, nameRefAlign, new String[] { nameSemantic },
+				new float[] { threshold }, deleteABox);
+	}
+
+	/**
+	 * Initializes the evaluation of the given alignment under each of the
+	 * given semantics and for each of the given thresholds
+	 * @param uriOnto1 URI of ontology 1
+	 * @param uriOnto2 URI of ontology 2
+	 * @param nameEvAlign filename of the alignment to evaluate
+	 * @param nameRefAlign filename of the reference alignment
+	 * @param namesSemantic names of the semantics, at least one
+	 * @param thresholds minimum measures of the considered correspondences of
+	 *	the evaluated alignment, at least one
+	 * @param deleteABox if true the ABox of the aligned ontologies is deleted
+	 */
+	public Evaluation(URI uriOnto1, URI uriOnto2, String nameEvAlign,
+			String nameRefAlign, String[] namesSemantic, float[] thresholds,
+			boolean deleteABox) {
+		if (namesSemantic.length == 0 || thresholds.length == 0) {
+			throw new IllegalArgumentException("At least one semantic and threshold is required");
+		}
+		this.uriOnto1 = uriOnto1;
+		this.uriOnto2 = uriOnto2;
+		this.nameEvAlign = nameEvAlign;
+		this.nameRefAlign = nameRefAlign;
+		this.namesSemantic = namesSemantic.clone();
+		this.thresholds = thresholds.clone();
+		this.deleteABox = deleteABox;
+		this.nameSemantic = namesSemantic[0];
+	}
+
+	/**
+	 * Sets the listener to inform about the progress of this evaluation
+	 * @param listener listener or null to remove the listener
+	 */
+	public void setProgressListener(ProgressListener listener) {
+		this.listener = listener;
+	}
+
+	/**
+	 * Returns the phase this evaluation is currently in
+	 * @return current phase or null if the evaluation has not been started
+	 */
+	public Phase getPhase() {
+		return phase;
+	}
+
+	/**
+	 * Returns the name of the semantic used by this evaluation. If the
+	 * evaluation covers several semantics, this is the semantic currently
+	 * evaluated.
+	 * @return semantic name
+	 */
+	public String getNameSemantic() {
+		return nameSemantic;
+	}
+
+	/**
+	 * Returns the filename of the evaluated alignment
+	 * @return filename of evaluated alignment
+	 */
+	public String getNameEvAlign() {
+		return nameEvAlign;
+	}
+
+	/**
+	 * Returns the filename of the reference alignment
+	 * @return filename of reference alignment
+	 */
+	public String getNameRefAlign() {
+		return nameRefAlign;
+	}
+
+	/**
+	 * Cancels this evaluation. May be called from any thread, the evaluation
+	 * then fails with a WrapperException as soon as possible.
+	 */
+	public void cancel() {
+		cancelled = true;
+		CancellationToken current = token;
+		if (current != null) {
+			current.cancel();
+		}
+	}
+
+	/**
+	 * Returns true if this evaluation has been cancelled
+	 * @return true if cancelled, otherwise false
+	 */
+	public boolean isCancelled() {
+		return cancelled;
+	}
+
+	/**
+	 * Runs the evaluation in the current thread and returns the result of
+	 * the first semantic and the highest threshold. Use callAll to get the
+	 * results of all semantics and thresholds.
+	 * @return result of the evaluation
+	 * @throws WrapperException thrown if the evaluation fails or has been
+	 *	cancelled
+	 */
+	@Override
+	public CalculationResult call() throws WrapperException {
+		return callAll().get(0);
+	}
+
+	/**
+	 * Runs the evaluation in the current thread.
+	 *
+	 * If GlobalSettings.USE_ONTOLOGY_SESSIONS is set and there is no open
+	 * OntologySession yet, the calculation is done in a session of its own.
+	 * @return one result per semantic and threshold, ordered by the semantics
+	 *	as given and for each semantic by descending threshold
+	 * @throws WrapperException thrown if the evaluation fails or has been
+	 *	cancelled
+	 */
+	public List<CalculationResult> callAll() throws WrapperException {
+		OntologySession session = null;
+		if (GlobalSettings.USE_ONTOLOGY_SESSIONS && OntologySession.getCurrent() == null) {
+			session = OntologySession.open();
+		}
+		timer = new PhaseTimer(nameEvAlign, namesSemantic.length == 1 ?
+				namesSemantic[0] : Arrays.toString(namesSemantic));
+		// a token of an enclosing calculation becomes the parent of this one,
+		// so cancelling either of them interrupts the reasoners
+		CancellationToken ownToken = CancellationToken.open();
+		token = ownToken;
+		final ProgressListener progress = listener;
+		final PhaseTimer stepTimer = timer;
+		ownToken.setProgressListener(new ClosureProgressListener() {
+			@Override
+			public void stepStarted(ClosureStep step) {
+				stepTimer.stepStarted(step);
+				if (progress != null) {
+					progress.closureStepStarted(Evaluation.this, step);
+				}
+			}
+
+			@Override
+			public void pairsChecked(long checked, long total) {
+				stepTimer.pairsChecked(checked, total);
+				if (progress != null) {
+					progress.pairsChecked(Evaluation.this, checked, total);
+				}
+			}
+		});
+		if (cancelled) {
+			ownToken.cancel();
+		}
+		try {
+			return evaluate();
+		}
+		catch (TimeoutException ex) {
+			if (ownToken.isCancelled()) {
+				throw new WrapperException("Evaluation has been cancelled");
+			}
+			throw ex;
+		}
+		finally {
+			stepTimer.close();
+			timer = null;
+			token = null;
+			ownToken.close();
+			if (session != null) {
+				session.close();
+			}
+		}
+	}
+
+	/**
+	 * Enters the given phase after checking for cancellation, starts its
+	 * timing and informs the listener
+	 */
+	private void enterPhase(Phase phase) throws WrapperException {
+		if (cancelled || token.isCancelled() || Thread.currentThread().isInterrupted()) {
+			throw new WrapperException("Evaluation has been cancelled");
+		}
+		this.phase = phase;
+		timer.enterPhase(phase);
+		if (listener != null) {
+			listener.phaseStarted(this, phase);
+		}
+	}
+
+	/**
+	 * Does the actual evaluation
+	 */
+	private List<CalculationResult> evaluate() throws WrapperException {
+		EvaluationStatistics shared = timer.getStatistics();
+
+		/*
+		 * Load needed files into corresponding objects
+		 */
+		enterPhase(Phase.LOADING_ONTOLOGIES);
+		Ontology onto1 = null;
+		try {
+			onto1 = OntologyManager.loadOntology(uriOnto1);
+		} catch (OWLOntologyCreationException ex) {
+			throw new WrapperException("Error loading ontology 1: " + ex.getMessage());
+		}
+		int entCountOnto1 = onto1.getReferencedEntities().size();
+		shared.setOntologyCounters("onto1", onto1);
+
+		Ontology onto2 = null;
+		try {
+			onto2 = OntologyManager.loadOntology(uriOnto2);
+		} catch (OWLOntologyCreationException ex) {
+			throw new WrapperException("Error loading ontology 2: " + ex.getMessage());
+		}
+		int entCountOnto2 = onto2.getReferencedEntities().size();
+		shared.setOntologyCounters("onto2", onto2);
+
+		float[] ascending = thresholds.clone();
+		Arrays.sort(ascending);
+
+		enterPhase(Phase.LOADING_ALIGNMENTS);
+		// only the correspondences selected by one of the thresholds have to
+		// be valid, all others are contained in the one of the lowest
+		List<Alignment> thresholdAligns = Wrapper.loadEvaluationAlignments(nameEvAlign, ascending);
+		Alignment evAlign = thresholdAligns.get(0);
+		Alignment refAlign = Wrapper.loadReferenceAlignment(nameRefAlign);
+		shared.setCounter("evaluationAlignmentSize", evAlign.getCorrespondenceCount());
+		shared.setCounter("referenceAlignmentSize", refAlign.getCorrespondenceCount());
+
+		// validate alignments against ontologies
+		try {
+			refAlign.validate(onto1, onto2);
+		} catch (InvalidAlignmentException ex) {
+			throw new WrapperException("Invalid reference alignment: " + ex.getMessage());
+		}
+
+		try {
+			evAlign.validate(onto1, onto2);
+		} catch (InvalidAlignmentException ex) {
+			throw new WrapperException("Invalid evaluation alignment: " + ex.getMessage());
+		}
+
+		enterPhase(Phase.RENAMING_ONTOLOGIES);
+		List<SemanticModule> sems;
+		if (namesSemantic.length == 1) {
+			SemanticModule sem = SemanticManager.getModuleInstance(namesSemantic[0], onto1,
+					onto2, deleteABox);
+			sems = sem == null ? null : Collections.singletonList(sem);
+		}
+		else {
+			sems = SemanticManager.getModuleInstances(namesSemantic, onto1, onto2, deleteABox);
+		}
+		timer.stop();
+
+		if (sems == null) {
+			throw new WrapperException("Unable to get semantic " + Arrays.toString(namesSemantic));
+		}
+
+		ArrayList<CalculationResult> results =
+				new ArrayList<CalculationResult>(namesSemantic.length * ascending.length);
+		Alignment originalAlign = null;
+		Alignment originalRef = null;
+		for (int s = 0; s < namesSemantic.length; s++) {
+			SemanticModule sem = sems.get(s);
+			nameSemantic = namesSemantic[s];
+			timer.setSemantic(nameSemantic);
+			if (namesSemantic.length > 1) {
+				System.out.println("Semantic: " + nameSemantic);
+			}
+
+			// the reference closure is shared by the results of all thresholds
+			EvaluationStatistics semanticStatistics = new EvaluationStatistics(shared);
+			timer.setStatistics(semanticStatistics);
+			enterPhase(Phase.REFERENCE_CLOSURE);
+			ClosureResult referenceClosureRes = null;
+			try {
+				referenceClosureRes = sem.getClosure(refAlign);
+			} catch (MergingException ex) {
+				throw new WrapperException("Error merging ontologies: " + ex.getMessage());
+			} catch (ClosureGenerationException ex) {
+				throw new WrapperException("Error generating reference alignment closure: " + ex.getMessage());
+			}
+			semanticStatistics.setClosureCounters("reference", referenceClosureRes);
+			if (listener != null) {
+				listener.closureFinished(this, Phase.REFERENCE_CLOSURE, refAlign, referenceClosureRes);
+			}
+			OntologyManager.releaseOntology(referenceClosureRes.getAlignedOntology());
+			timer.stop();
+
+			ClosureResult evaluationClosureRes = null;
+			Alignment closureAlign = null;
+			for (int i = ascending.length - 1; i >= 0; i--) {
+				float threshold = ascending[i];
+				EvaluationStatistics statistics = new EvaluationStatistics(semanticStatistics);
+				timer.setStatistics(statistics);
+
+				Alignment thresholdAlign = thresholdAligns.get(i);
+				int length = thresholdAlign.getCorrespondenceCount();
+				statistics.setCounter("evaluationAlignmentSize", length);
+
+				if (closureAlign == null || !sameCorrespondences(thresholdAlign, closureAlign)) {
+					enterPhase(Phase.EVALUATION_CLOSURE);
+					try {
+						evaluationClosureRes = sem.getClosure(thresholdAlign);
+					} catch (MergingException ex) {
+						throw new WrapperException("Error merging ontologies: " + ex.getMessage());
+					} catch (ClosureGenerationException ex) {
+						throw new WrapperException("Error generating alignment closure: " + ex.getMessage());
+					}
+					statistics.setClosureCounters("evaluation", evaluationClosureRes);
+					if (listener != null) {
+						listener.closureFinished(this, Phase.EVALUATION_CLOSURE, thresholdAlign,
+								evaluationClosureRes);
+					}
+					OntologyManager.releaseOntology(evaluationClosureRes.getAlignedOntology());
+					closureAlign = thresholdAlign;
+				}
+				else {
+					System.out.println("Threshold " + threshold + " selects the same " + length +
+							" correspondences, reusing closure");
+					statistics.setClosureCounters("evaluation", evaluationClosureRes);
+				}
+
+				CalculationResult res = new CalculationResult();
+				res.setNameOnto1(uriOnto1.toString());
+				res.setEntCountOnto1(entCountOnto1);
+				res.setNameOnto2(uriOnto2.toString());
+				res.setEntCountOnto2(entCountOnto2);
+				res.setNameEvAlign(nameEvAlign);
+				res.setNameRefAlign(nameRefAlign);
+				res.setThreshold(threshold);
+				res.setNameSemantic(nameSemantic);
+
+				res.setCombinedEvOntology(evaluationClosureRes.getAlignedOntology());
+				res.setEvaluationClosure(evaluationClosureRes.getClosure());
+				res.setCombinedRefOntology(referenceClosureRes.getAlignedOntology());
+				res.setReferenceClosure(referenceClosureRes.getClosure());
+
+				enterPhase(Phase.CALCULATING_MEASURES);
+				Calculator calc = new Calculator(
+						evaluationClosureRes.getClosure(),
+						referenceClosureRes.getClosure()
+				);
+
+				res.setPrecision(calc.getPrecision());
+				res.setRecall(calc.getRecall());
+				res.setIntersection(calc.getIntersection());
+				statistics.setCounter("intersectionSize", calc.getIntersection().getCorrespondenceCount());
+
+				// save original alignments into result
+				if (originalAlign == null) {
+					try {
+						originalAlign = AlignmentManager.loadAlignment(nameEvAlign);
+					} catch (Exception e) {
+						System.out.println("ERROR saving alignment");
+					}
+					try {
+						originalRef = AlignmentManager.loadAlignment(nameRefAlign);
+					} catch (Exception e) {
+						System.out.println("ERROR saving reference alignment");
+					}
+				}
+				res.setOriginalAlignment(originalAlign);
+				res.setOriginalReference(originalRef);
+
+				res.setStatistics(timer.finish());
+				results.add(res);
+			}
+		}
+
+		enterPhase(Phase.FINISHED);
+		return results;
+	}
+
+	/**
+	 * Checks whether the given alignments contain the same correspondences
+	 * with the same confidence measures, which is not checked by
+	 * Correspondence.equals
+	 * @param align1 first alignment
+	 * @param align2 second alignment
+	 * @return true if both alignments contain the same correspondences
+	 */
+	private static boolean sameCorrespondences(Alignment align1, Alignment align2) {
+		if (align1.getCorrespondenceCount() != align2.getCorrespondenceCount()) {
+			return false;
+		}
+		HashMap<Correspondence, Float> measures = new HashMap<Correspondence, Float>();
+		for (Correspondence corr : align2.getCorrespondences()) {
+			measures.put(corr, corr.getMeasure());
+		}
+		for (Correspondence corr : align1.getCorrespondences()) {
+			Float measure = measures.get(corr);
+			if (measure == null || measure.floatValue() != corr.getMeasure()) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
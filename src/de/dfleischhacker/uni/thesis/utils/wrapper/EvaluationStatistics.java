@@ -0,0 +1,252 @@
+/*
+ *
+ * EvaluationStatistics.java
+ *
+ * Software License Agreement (BSD License)
+ *
+ * Copyright (c) 2009 Daniel Fleischhacker <dev@dfleischhacker.de>
+ * All rights reserved.
+ *
+ * Redistribution and use of this software in source and binary forms, with or
+ * without modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   1. Redistributions of source code must retain the above copyright notice,
+ *      this list of conditions and the following disclaimer.
+ *
+ *   2. Redistributions in binary form must reproduce the above copyright
+ *      notice, this list of conditions and the following disclaimer in the
+ *      documentation and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package de.dfleischhacker.uni.thesis.utils.wrapper;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import de.dfleischhacker.uni.thesis.semantic.ClosureResult;
+import de.dfleischhacker.uni.thesis.utils.ontology.Ontology;
+
+/**
+ * Statistics about the calculation of a CalculationResult: the wall and CPU
+ * time spent in each phase of the calculation and in each step of the closure
+ * generations, some counters describing the size of the problem and the peak
+ * heap usage.
+ *
+ * Timings are named by their phase, timings of closure steps by their phase
+ * and step separated by a dot, e.g. "EVALUATION_CLOSURE.CLASSIFYING". The CPU
+ * time is the time of the calculating thread only, threads classifying the
+ * components of a partitioned ontology are not included.
+ *
+ * If several results are calculated together, the phases done once for all
+ * of them (e.g. loading the ontologies) are contained in the statistics of
+ * each result.
+ * @author Daniel Fleischhacker <dev@dfleischhacker.de>
+ */
+public class EvaluationStatistics {
+	private LinkedHashMap<String, Timing> timings;
+	private LinkedHashMap<String, Long> counters;
+	private long peakHeap = -1;
+
+	/**
+	 * Wall and CPU time spent in a phase or step
+	 */
+	public static class Timing {
+		private String name;
+		private long wallTime;
+		private long cpuTime;
+
+		Timing(String name) {
+			this.name = name;
+		}
+
+		/**
+		 * Returns the name of the phase or step
+		 * @return name
+		 */
+		public String getName() {
+			return name;
+		}
+
+		/**
+		 * Returns the wall time spent in the phase or step
+		 * @return wall time in nanoseconds
+		 */
+		public long getWallTime() {
+			return wallTime;
+		}
+
+		/**
+		 * Returns the CPU time the calculating thread spent in the phase or
+		 * step
+		 * @return CPU time in nanoseconds or -1 if not supported by the JVM
+		 */
+		public long getCpuTime() {
+			return cpuTime;
+		}
+	}
+
+	/**
+	 * Initializes empty statistics
+	 */
+	public EvaluationStatistics() {
+		timings = new LinkedHashMap<String, Timing>();
+		counters = new LinkedHashMap<String, Long>();
+	}
+
+	/**
+	 * Initializes statistics containing the values of the given statistics
+	 * @param statistics statistics to copy
+	 */
+	public EvaluationStatistics(EvaluationStatistics statistics) {
+		this();
+		for (Timing timing : statistics.timings.values()) {
+			addTiming(timing.name, timing.wallTime, timing.cpuTime);
+		}
+		counters.putAll(statistics.counters);
+		peakHeap = statistics.peakHeap;
+	}
+
+	/**
+	 * Adds the given times to the timing of the given name. Times added to
+	 * the same name several times are summed up.
+	 * @param name name of phase or step
+	 * @param wallTime wall time in nanoseconds
+	 * @param cpuTime CPU time in nanoseconds or -1 if unknown
+	 */
+	public void addTiming(String name, long wallTime, long cpuTime) {
+		Timing timing = timings.get(name);
+		if (timing == null) {
+			timing = new Timing(name);
+			timing.cpuTime = cpuTime < 0 ? -1 : 0;
+			timings.put(name, timing);
+		}
+		timing.wallTime += wallTime;
+		if (timing.cpuTime >= 0) {
+			timing.cpuTime = cpuTime < 0 ? -1 : timing.cpuTime + cpuTime;
+		}
+	}
+
+	/**
+	 * Returns the timings in the order the phases and steps have been
+	 * started first
+	 * @return list of timings
+	 */
+	public List<Timing> getTimings() {
+		return Collections.unmodifiableList(new ArrayList<Timing>(timings.values()));
+	}
+
+	/**
+	 * Returns the timing of the given phase or step
+	 * @param name name of phase or step
+	 * @return timing or null if the phase or step has not been entered
+	 */
+	public Timing getTiming(String name) {
+		return timings.get(name);
+	}
+
+	/**
+	 * Sets the counter of the given name
+	 * @param name name of counter
+	 * @param value value of counter
+	 */
+	public void setCounter(String name, long value) {
+		counters.put(name, value);
+	}
+
+	/**
+	 * Returns the counters in the order they have been set first
+	 * @return map from counter names to values
+	 */
+	public Map<String, Long> getCounters() {
+		return Collections.unmodifiableMap(counters);
+	}
+
+	/**
+	 * Sets the counters of the given ontology using the given prefix, i.e.
+	 * prefix + "Axioms" and prefix + "Entities"
+	 * @param prefix prefix of counter names
+	 * @param onto ontology to count axioms and entities of
+	 */
+	void setOntologyCounters(String prefix, Ontology onto) {
+		setCounter(prefix + "Axioms", onto.getAxioms().size());
+		setCounter(prefix + "Entities", onto.getReferencedEntities().size());
+	}
+
+	/**
+	 * Sets the counters of the given closure using the given prefix, i.e. the
+	 * number of axioms in the aligned ontology, the number of candidate pairs,
+	 * the number of entailment checks and the size of the closure
+	 * @param prefix prefix of counter names
+	 * @param closure closure result to count
+	 */
+	void setClosureCounters(String prefix, ClosureResult closure) {
+		if (closure.getAlignedOntology() != null) {
+			setCounter(prefix + "AlignedAxioms", closure.getAlignedOntology().getAxioms().size());
+		}
+		setCounter(prefix + "CandidatePairs", closure.getCandidatePairs());
+		setCounter(prefix + "EntailmentChecks", closure.getEntailmentChecks());
+		setCounter(prefix + "ClosureSize", closure.getClosure().getCorrespondenceCount());
+	}
+
+	/**
+	 * Sets the peak heap usage
+	 * @param peakHeap peak heap usage in bytes
+	 */
+	public void setPeakHeap(long peakHeap) {
+		this.peakHeap = peakHeap;
+	}
+
+	/**
+	 * Returns the peak heap usage of the JVM while calculating. This is the
+	 * sum of the peak usages of all heap memory pools, so it is an upper bound
+	 * of the actual peak. It is unknown if other evaluations have been
+	 * running at the same time.
+	 * @return peak heap usage in bytes or -1 if unknown
+	 */
+	public long getPeakHeap() {
+		return peakHeap;
+	}
+
+	/**
+	 * Returns a human-readable table of the statistics
+	 * @return statistics as multi-line string
+	 */
+	@Override
+	public String toString() {
+		StringBuilder res = new StringBuilder();
+		res.append(String.format("%-36s %12s %12s%n", "Phase", "Wall [ms]", "CPU [ms]"));
+		for (Timing timing : timings.values()) {
+			String name = timing.name;
+			int dot = name.indexOf('.');
+			if (dot >= 0) {
+				name = "  " + name.substring(dot + 1);
+			}
+			res.append(String.format("%-36s %12.1f %12s%n", name,
+					timing.wallTime / 1e6,
+					timing.cpuTime < 0 ? "-" : String.format("%.1f", timing.cpuTime / 1e6)));
+		}
+		res.append(String.format("%n"));
+		for (Map.Entry<String, Long> counter : counters.entrySet()) {
+			res.append(String.format("%-36s %12d%n", counter.getKey(), counter.getValue()));
+		}
+		if (peakHeap >= 0) {
+			res.append(String.format("%-36s %12.1f%n", "peakHeap [MB]", peakHeap / 1048576.0));
+		}
+		return res.toString();
+	}
+}
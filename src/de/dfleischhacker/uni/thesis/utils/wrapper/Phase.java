@@ -0,0 +1,75 @@
+/*
+ *
+ * Phase.java
+ *
+ * Software License Agreement (BSD License)
+ *
+ * Copyright (c) 2009 Daniel Fleischhacker <dev@dfleischhacker.de>
+ * All rights reserved.
+ *
+ * Redistribution and use of this software in source and binary forms, with or
+ * without modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   1. Redistributions of source code must retain the above copyright notice,
+ *      this list of conditions and the following disclaimer.
+ *
+ *   2. Redistributions in binary form must reproduce the above copyright
+ *      notice, this list of conditions and the following disclaimer in the
+ *      documentation and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package de.dfleischhacker.uni.thesis.utils.wrapper;
+
+/**
+ * Phases of an evaluation as reported to a ProgressListener
+ * @author Daniel Fleischhacker <dev@dfleischhacker.de>
+ */
+public enum Phase {
+	/**
+	 * The ontologies are loaded
+	 */
+	LOADING_ONTOLOGIES,
+
+	/**
+	 * The alignments are loaded and validated against the ontologies
+	 */
+	LOADING_ALIGNMENTS,
+
+	/**
+	 * The entities of the ontologies are renamed for the semantic
+	 */
+	RENAMING_ONTOLOGIES,
+
+	/**
+	 * The closure of the evaluation alignment is generated
+	 */
+	EVALUATION_CLOSURE,
+
+	/**
+	 * The closure of the reference alignment is generated
+	 */
+	REFERENCE_CLOSURE,
+
+	/**
+	 * Precision and recall are calculated from the closures
+	 */
+	CALCULATING_MEASURES,
+
+	/**
+	 * The evaluation has been finished
+	 */
+	FINISHED
+}
@@ -0,0 +1,91 @@
+/*
+ *
+ * PhaseRecorder.java
+ *
+ * Software License Agreement (BSD License)
+ *
+ * Copyright (c) 2009 Daniel Fleischhacker <dev@dfleischhacker.de>
+ * All rights reserved.
+ *
+ * Redistribution and use of this software in source and binary forms, with or
+ * without modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   1. Redistributions of source code must retain the above copyright notice,
+ *      this list of conditions and the following disclaimer.
+ *
+ *   2. Redistributions in binary form must reproduce the above copyright
+ *      notice, this list of conditions and the following disclaimer in the
+ *      documentation and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package de.dfleischhacker.uni.thesis.utils.wrapper;
+
+/**
+ * Receives the phases and closure steps measured by the phase timer, e.g. to
+ * pass them on to a profiler. The recorder used is created reflectively by
+ * the phase timer, see GlobalSettings.PHASE_RECORDER.
+ *
+ * Phases and steps are named like their timings in EvaluationStatistics.
+ * While the candidate pairs of a closure are checked, each chunk of pairs
+ * between two progress reports is recorded as well. Sizes which are not known
+ * for a phase are passed as -1.
+ * @author Daniel Fleischhacker <dev@dfleischhacker.de>
+ */
+public interface PhaseRecorder {
+	/**
+	 * A phase or step which has been started
+	 */
+	public interface Span {
+		/**
+		 * Ends the phase or step
+		 * @param axiomCount number of axioms of the ontologies processed
+		 * @param resultSize size of the result, e.g. the closure size
+		 * @param entailmentChecks number of entailment checks done
+		 */
+		public void end(long axiomCount, long resultSize, long entailmentChecks);
+	}
+
+	/**
+	 * A chunk of candidate pairs which is being checked
+	 */
+	public interface Chunk {
+		/**
+		 * Ends the chunk
+		 * @param checked number of pairs checked so far
+		 * @param total number of pairs to check
+		 */
+		public void end(long checked, long total);
+	}
+
+	/**
+	 * Starts a phase or step
+	 * @param caseId identifier of the evaluated case
+	 * @param semantic name of the semantic
+	 * @param name name of the phase or step
+	 * @return started span
+	 */
+	public Span start(String caseId, String semantic, String name);
+
+	/**
+	 * Starts a chunk of candidate pairs
+	 * @param caseId identifier of the evaluated case
+	 * @param semantic name of the semantic
+	 * @param name name of the step checking the pairs
+	 * @param first number of pairs checked before this chunk
+	 * @return started chunk
+	 */
+	public Chunk startChunk(String caseId, String semantic, String name, long first);
+}
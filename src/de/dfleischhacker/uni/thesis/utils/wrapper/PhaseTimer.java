@@ -0,0 +1,433 @@
+/*
+ *
+ * PhaseTimer.java
+ *
+ * Software License Agreement (BSD License)
+ *
+ * Copyright (c) 2009 Daniel Fleischhacker <dev@dfleischhacker.de>
+ * All rights reserved.
+ *
+ * Redistribution and use of this software in source and binary forms, with or
+ * without modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   1. Redistributions of source code must retain the above copyright notice,
+ *      this list of conditions and the following disclaimer.
+ *
+ *   2. Redistributions in binary form must reproduce the above copyright
+ *      notice, this list of conditions and the following disclaimer in the
+ *      documentation and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package de.dfleischhacker.uni.thesis.utils.wrapper;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.InvocationTargetException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import de.dfleischhacker.uni.thesis.GlobalSettings;
+import de.dfleischhacker.uni.thesis.semantic.closure.ClosureProgressListener;
+import de.dfleischhacker.uni.thesis.semantic.closure.ClosureStep;
+
+/**
+ * Measures the wall and CPU time of the phases of a calculation and of the
+ * closure steps reported by the semantics and records them in
+ * EvaluationStatistics. A phase or step ends when the next one is entered.
+ *
+ * The timer has to be used by the calculating thread only since the CPU time
+ * is taken from the current thread.
+ *
+ * If a PhaseRecorder is available, the phases, steps and chunks of checked
+ * candidate pairs are passed on to it as well. Besides the recorder named by
+ * GlobalSettings.PHASE_RECORDER, further recorders may be added at runtime.
+ * They are used by all timers created afterwards.
+ *
+ * The peak usage of the heap memory pools is global to the JVM. A timer
+ * therefore only resets it and records the peak heap usage if no other
+ * timer is running at any time between its creation and its closing,
+ * otherwise the peak heap usage is recorded as unknown.
+ * @author Daniel Fleischhacker <dev@dfleischhacker.de>
+ */
+class PhaseTimer implements ClosureProgressListener {
+	private static final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+	private static final PhaseRecorder configuredRecorder = createRecorder();
+	private static final List<PhaseRecorder> addedRecorders =
+			new CopyOnWriteArrayList<PhaseRecorder>();
+	// timers created and not yet closed, also guards overlapped
+	private static final Set<PhaseTimer> running = new HashSet<PhaseTimer>();
+
+	private final PhaseRecorder recorder;
+	private boolean overlapped;
+	private EvaluationStatistics statistics;
+	private final boolean cpuTimeSupported;
+	private String caseId;
+	private String semantic;
+
+	private String phase;
+	private long phaseWall;
+	private long phaseCpu;
+
+	private String step;
+	private long stepWall;
+	private long stepCpu;
+
+	private PhaseRecorder.Span phaseSpan;
+	private PhaseRecorder.Span stepSpan;
+	private PhaseRecorder.Chunk chunk;
+
+	/**
+	 * Initializes a timer recording into new statistics and resets the peak
+	 * usage of the heap memory pools if no other timer is running
+	 * @param caseId identifier of the evaluated case passed to the recorder
+	 * @param semantic name of the semantic passed to the recorder
+	 */
+	PhaseTimer(String caseId, String semantic) {
+		this.caseId = caseId;
+		this.semantic = semantic;
+		recorder = getRecorder();
+		statistics = new EvaluationStatistics();
+		cpuTimeSupported = threads.isCurrentThreadCpuTimeSupported() &&
+				threads.isThreadCpuTimeEnabled();
+		synchronized (running) {
+			for (PhaseTimer other : running) {
+				other.overlapped = true;
+			}
+			overlapped = !running.isEmpty();
+			running.add(this);
+			if (!overlapped) {
+				for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+					if (pool.getType() == MemoryType.HEAP && pool.isValid()) {
+						pool.resetPeakUsage();
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Ends the measurement of the peak heap usage, so timers created
+	 * afterwards may reset it again. Has to be called when the calculation
+	 * has finished or failed.
+	 */
+	void close() {
+		synchronized (running) {
+			running.remove(this);
+		}
+	}
+
+	/**
+	 * Returns the statistics the timer records into
+	 * @return statistics
+	 */
+	EvaluationStatistics getStatistics() {
+		return statistics;
+	}
+
+	/**
+	 * Sets the statistics to record into, the current phase is stopped
+	 * @param statistics statistics to record into
+	 */
+	void setStatistics(EvaluationStatistics statistics) {
+		stop();
+		this.statistics = statistics;
+	}
+
+	/**
+	 * Sets the name of the semantic passed to the recorder for the following
+	 * phases
+	 * @param semantic name of the semantic
+	 */
+	void setSemantic(String semantic) {
+		this.semantic = semantic;
+	}
+
+	/**
+	 * Stops the current phase and starts the given one
+	 * @param phase phase to start, the timer is stopped if this is
+	 *	Phase.FINISHED
+	 */
+	void enterPhase(Phase phase) {
+		stop();
+		if (phase != Phase.FINISHED) {
+			this.phase = phase.name();
+			// add the timing at once so that it precedes the timings of its steps
+			statistics.addTiming(this.phase, 0, cpuTimeSupported ? 0 : -1);
+			phaseWall = System.nanoTime();
+			phaseCpu = cpuTime();
+			if (recorder != null) {
+				phaseSpan = recorder.start(caseId, semantic, this.phase);
+			}
+		}
+	}
+
+	/**
+	 * Stops the current step and phase
+	 */
+	void stop() {
+		stopStep();
+		if (phase != null) {
+			statistics.addTiming(phase, System.nanoTime() - phaseWall, elapsedCpu(phaseCpu));
+			phaseSpan = endSpan(phaseSpan, phase);
+			phase = null;
+		}
+	}
+
+	/**
+	 * Stops the current phase and records the peak heap usage, which is
+	 * unknown if another timer has been running meanwhile
+	 * @return recorded statistics
+	 */
+	EvaluationStatistics finish() {
+		stop();
+		synchronized (running) {
+			statistics.setPeakHeap(overlapped ? -1 : getPeakHeap());
+		}
+		return statistics;
+	}
+
+	@Override
+	public void stepStarted(ClosureStep step) {
+		stopStep();
+		if (phase != null) {
+			this.step = phase + "." + step.name();
+			stepWall = System.nanoTime();
+			stepCpu = cpuTime();
+			if (recorder != null) {
+				stepSpan = recorder.start(caseId, semantic, this.step);
+			}
+		}
+	}
+
+	@Override
+	public void pairsChecked(long checked, long total) {
+		if (recorder == null || step == null) {
+			return;
+		}
+		if (chunk != null) {
+			chunk.end(checked, total);
+			chunk = null;
+		}
+		if (checked < total) {
+			chunk = recorder.startChunk(caseId, semantic, step, checked);
+		}
+	}
+
+	/**
+	 * Stops the current step
+	 */
+	private void stopStep() {
+		if (step != null) {
+			statistics.addTiming(step, System.nanoTime() - stepWall, elapsedCpu(stepCpu));
+			if (chunk != null) {
+				chunk.end(-1, -1);
+				chunk = null;
+			}
+			stepSpan = endSpan(stepSpan, step);
+			step = null;
+		}
+	}
+
+	/**
+	 * Ends the given span of the recorder passing the sizes known for the
+	 * given phase or step
+	 * @return null
+	 */
+	private PhaseRecorder.Span endSpan(PhaseRecorder.Span span, String name) {
+		if (span == null) {
+			return null;
+		}
+		if (name.startsWith(Phase.LOADING_ONTOLOGIES.name())) {
+			span.end(counter("onto1Axioms", "onto2Axioms"),
+					counter("onto1Entities", "onto2Entities"), -1);
+		}
+		else if (name.startsWith(Phase.LOADING_ALIGNMENTS.name())) {
+			span.end(-1, counter("evaluationAlignmentSize", "referenceAlignmentSize"), -1);
+		}
+		else if (name.startsWith(Phase.RENAMING_ONTOLOGIES.name())) {
+			span.end(counter("onto1Axioms", "onto2Axioms"), -1, -1);
+		}
+		else if (name.startsWith(Phase.EVALUATION_CLOSURE.name())) {
+			span.end(counter("evaluationAlignedAxioms"), counter("evaluationClosureSize"),
+					counter("evaluationEntailmentChecks"));
+		}
+		else if (name.startsWith(Phase.REFERENCE_CLOSURE.name())) {
+			span.end(counter("referenceAlignedAxioms"), counter("referenceClosureSize"),
+					counter("referenceEntailmentChecks"));
+		}
+		else if (name.startsWith(Phase.CALCULATING_MEASURES.name())) {
+			span.end(-1, counter("intersectionSize"), -1);
+		}
+		else {
+			span.end(-1, -1, -1);
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the sum of the given counters or -1 if none of them is set
+	 */
+	private long counter(String... names) {
+		long sum = -1;
+		for (String name : names) {
+			Long value = statistics.getCounters().get(name);
+			if (value != null) {
+				sum = (sum < 0 ? 0 : sum) + value;
+			}
+		}
+		return sum;
+	}
+
+	/**
+	 * Adds a recorder used by the timers created from now on
+	 * @param added recorder to add
+	 */
+	static void addRecorder(PhaseRecorder added) {
+		addedRecorders.add(added);
+	}
+
+	/**
+	 * Removes a recorder added before
+	 * @param removed recorder to remove
+	 */
+	static void removeRecorder(PhaseRecorder removed) {
+		addedRecorders.remove(removed);
+	}
+
+	/**
+	 * Returns the recorder to use for a new timer, which passes everything on
+	 * to all available recorders, or null if there is none
+	 */
+	private static PhaseRecorder getRecorder() {
+		PhaseRecorder[] added = addedRecorders.toArray(new PhaseRecorder[0]);
+		if (added.length == 0) {
+			return configuredRecorder;
+		}
+		if (configuredRecorder == null && added.length == 1) {
+			return added[0];
+		}
+		PhaseRecorder[] all = added;
+		if (configuredRecorder != null) {
+			all = new PhaseRecorder[added.length + 1];
+			all[0] = configuredRecorder;
+			System.arraycopy(added, 0, all, 1, added.length);
+		}
+		return new RecorderGroup(all);
+	}
+
+	/**
+	 * Creates the recorder named by GlobalSettings.PHASE_RECORDER. The
+	 * recorder is optional, so null is returned if it is not available, e.g.
+	 * because it has not been compiled or needs a newer JVM.
+	 */
+	private static PhaseRecorder createRecorder() {
+		if (GlobalSettings.PHASE_RECORDER == null) {
+			return null;
+		}
+		try {
+			return Class.forName(GlobalSettings.PHASE_RECORDER).asSubclass(PhaseRecorder.class)
+					.getDeclaredConstructor().newInstance();
+		} catch (ClassNotFoundException ex) {
+			return null;
+		} catch (ClassCastException ex) {
+			return null;
+		} catch (NoSuchMethodException ex) {
+			return null;
+		} catch (InstantiationException ex) {
+			return null;
+		} catch (IllegalAccessException ex) {
+			return null;
+		} catch (InvocationTargetException ex) {
+			return null;
+		} catch (LinkageError ex) {
+			return null;
+		}
+	}
+
+	/**
+	 * Returns the CPU time of the current thread or -1 if not supported
+	 */
+	private long cpuTime() {
+		return cpuTimeSupported ? threads.getCurrentThreadCpuTime() : -1;
+	}
+
+	/**
+	 * Returns the CPU time elapsed since the given CPU time or -1 if not
+	 * supported
+	 */
+	private long elapsedCpu(long start) {
+		return start < 0 ? -1 : cpuTime() - start;
+	}
+
+	/**
+	 * Returns the sum of the peak usages of the heap memory pools
+	 */
+	private static long getPeakHeap() {
+		long peak = 0;
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (pool.getType() == MemoryType.HEAP && pool.isValid()) {
+				peak += pool.getPeakUsage().getUsed();
+			}
+		}
+		return peak;
+	}
+
+	/**
+	 * Passes the phases, steps and chunks on to several recorders
+	 */
+	private static class RecorderGroup implements PhaseRecorder {
+		private final PhaseRecorder[] recorders;
+
+		RecorderGroup(PhaseRecorder[] recorders) {
+			this.recorders = recorders;
+		}
+
+		@Override
+		public Span start(String caseId, String semantic, String name) {
+			final Span[] spans = new Span[recorders.length];
+			for (int i = 0; i < recorders.length; i++) {
+				spans[i] = recorders[i].start(caseId, semantic, name);
+			}
+			return new Span() {
+				@Override
+				public void end(long axiomCount, long resultSize, long entailmentChecks) {
+					for (Span span : spans) {
+						span.end(axiomCount, resultSize, entailmentChecks);
+					}
+				}
+			};
+		}
+
+		@Override
+		public Chunk startChunk(String caseId, String semantic, String name, long first) {
+			final Chunk[] chunks = new Chunk[recorders.length];
+			for (int i = 0; i < recorders.length; i++) {
+				chunks[i] = recorders[i].startChunk(caseId, semantic, name, first);
+			}
+			return new Chunk() {
+				@Override
+				public void end(long checked, long total) {
+					for (Chunk chunk : chunks) {
+						chunk.end(checked, total);
+					}
+				}
+			};
+		}
+	}
+}
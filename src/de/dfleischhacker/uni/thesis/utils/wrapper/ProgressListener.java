@@ -0,0 +1,79 @@
+/*
+ *
+ * ProgressListener.java
+ *
+ * Software License Agreement (BSD License)
+ *
+ * Copyright (c) 2009 Daniel Fleischhacker <dev@dfleischhacker.de>
+ * All rights reserved.
+ *
+ * Redistribution and use of this software in source and binary forms, with or
+ * without modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *   1. Redistributions of source code must retain the above copyright notice,
+ *      this list of conditions and the following disclaimer.
+ *
+ *   2. Redistributions in binary form must reproduce the above copyright
+ *      notice, this list of conditions and the following disclaimer in the
+ *      documentation and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package de.dfleischhacker.uni.thesis.utils.wrapper;
+
+import de.dfleischhacker.uni.thesis.semantic.ClosureResult;
+import de.dfleischhacker.uni.thesis.semantic.closure.ClosureStep;
+import de.dfleischhacker.uni.thesis.utils.alignment.Alignment;
+
+/**
+ * Listener which is informed about the progress of an Evaluation. The
+ * listener is called from the thread running the evaluation, listeners
+ * updating a user interface have to pass the update on to the interface's
+ * thread themselves.
+ * @author Daniel Fleischhacker <dev@dfleischhacker.de>
+ */
+public interface ProgressListener {
+	/**
+	 * Called when the evaluation enters the given phase
+	 * @param evaluation evaluation which has entered the phase
+	 * @param phase phase entered by the evaluation
+	 */
+	public void phaseStarted(Evaluation evaluation, Phase phase);
+
+	/**
+	 * Called when the generation of a closure starts the given step
+	 * @param evaluation evaluation generating the closure
+	 * @param step step started
+	 */
+	public void closureStepStarted(Evaluation evaluation, ClosureStep step);
+
+	/**
+	 * Called while the candidate pairs of a closure are checked
+	 * @param evaluation evaluation generating the closure
+	 * @param checked number of pairs checked so far
+	 * @param total number of pairs to check
+	 */
+	public void pairsChecked(Evaluation evaluation, long checked, long total);
+
+	/**
+	 * Called when a closure has been generated
+	 * @param evaluation evaluation which has generated the closure
+	 * @param phase EVALUATION_CLOSURE or REFERENCE_CLOSURE
+	 * @param alignment alignment the closure has been generated for
+	 * @param closure generated closure
+	 */
+	public void closureFinished(Evaluation evaluation, Phase phase, Alignment alignment,
+			ClosureResult closure);
+}
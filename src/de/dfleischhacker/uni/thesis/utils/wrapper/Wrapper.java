@@ -36,20 +36,20 @@ package de.dfleischhacker.uni.thesis.utils.wrapper;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.net.URI;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
 import javax.xml.parsers.ParserConfigurationException;
 import org.semanticweb.owl.model.OWLOntologyCreationException;
 import org.xml.sax.SAXException;
-import de.dfleischhacker.uni.thesis.calculator.Calculator;
-import de.dfleischhacker.uni.thesis.semantic.ClosureResult;
 import de.dfleischhacker.uni.thesis.semantic.SemanticManager;
-import de.dfleischhacker.uni.thesis.semantic.SemanticModule;
-import de.dfleischhacker.uni.thesis.semantic.closure.ClosureGenerationException;
 import de.dfleischhacker.uni.thesis.utils.alignment.Alignment;
 import de.dfleischhacker.uni.thesis.utils.alignment.AlignmentFormatException;
 import de.dfleischhacker.uni.thesis.utils.alignment.AlignmentManager;
-import de.dfleischhacker.uni.thesis.utils.alignment.InvalidAlignmentException;
-import de.dfleischhacker.uni.thesis.utils.ontology.MergingException;
-import de.dfleischhacker.uni.thesis.utils.ontology.Ontology;
 import de.dfleischhacker.uni.thesis.utils.ontology.OntologyManager;
 
 /**
@@ -58,6 +58,8 @@ import de.dfleischhacker.uni.thesis.utils.ontology.OntologyManager;
  * @author Daniel Fleischhacker <dev@dfleischhacker.de>
  */
 public class Wrapper {
+	private static Executor defaultExecutor;
+
 	/**
 	 * Checks if it is possible to load the ontology from the given filename
 	 * @param filename name of ontology file
@@ -181,36 +183,193 @@ public class Wrapper {
 
 	/**
 	 * Calculates recall and precision and returns an CalculationResult object
+	 *
+	 * The calculation is done by an Evaluation running in the current thread.
+	 * If GlobalSettings.USE_ONTOLOGY_SESSIONS is set and there is no open
+	 * OntologySession yet, the calculation is done in a session of its own.
 	 */
 	public static CalculationResult calculate(URI uriOnto1, URI uriOnto2, String nameEvAlign,
 			String nameRefAlign, String nameSemantic, float threshold, boolean deleteABox) throws WrapperException {
-		CalculationResult res = new CalculationResult();
+		return new Evaluation(uriOnto1, uriOnto2, nameEvAlign, nameRefAlign,
+				nameSemantic, threshold, deleteABox).call();
+	}
 
-		/*
-		 * Load needed files into corresponding objects
-		 */
-		res.setNameOnto1(uriOnto1.toString());
-		Ontology onto1 = null;
-		try {
-			onto1 = OntologyManager.loadOntology(uriOnto1);
-		} catch (OWLOntologyCreationException ex) {
-			throw new WrapperException("Error loading ontology 1: " + ex.getMessage());
+	/**
+	 * Submits the evaluation of the given alignment to the default executor
+	 * and returns a Future for its result. Cancelling the Future with
+	 * mayInterruptIfRunning set aborts the running evaluation.
+	 * @param listener listener to inform about the progress, may be null
+	 * @return Future for the result of the evaluation
+	 */
+	public static Future<CalculationResult> submit(URI uriOnto1, URI uriOnto2, String nameEvAlign,
+			String nameRefAlign, String nameSemantic, float threshold, boolean deleteABox,
+			ProgressListener listener) {
+		Evaluation evaluation = new Evaluation(uriOnto1, uriOnto2, nameEvAlign, nameRefAlign,
+				nameSemantic, threshold, deleteABox);
+		evaluation.setProgressListener(listener);
+		return submit(evaluation, getDefaultExecutor());
+	}
+
+	/**
+	 * Submits the given evaluation to the given executor and returns a Future
+	 * for its result. Cancelling the Future with mayInterruptIfRunning set
+	 * aborts the running evaluation.
+	 * @param evaluation evaluation to run
+	 * @param executor executor to run the evaluation
+	 * @return Future for the result of the evaluation
+	 */
+	public static Future<CalculationResult> submit(Evaluation evaluation, Executor executor) {
+		EvaluationFuture<CalculationResult> future =
+				new EvaluationFuture<CalculationResult>(evaluation, evaluation);
+		executor.execute(future);
+		return future;
+	}
+
+	/**
+	 * Submits the given evaluation covering several semantics or thresholds
+	 * to the given executor and returns a Future for the results of all
+	 * semantics and thresholds as returned by Evaluation.callAll. Cancelling
+	 * the Future with mayInterruptIfRunning set aborts the running
+	 * evaluation.
+	 * @param evaluation evaluation to run
+	 * @param executor executor to run the evaluation
+	 * @return Future for the results of the evaluation
+	 */
+	public static Future<List<CalculationResult>> submitAll(final Evaluation evaluation,
+			Executor executor) {
+		Callable<List<CalculationResult>> callable = new Callable<List<CalculationResult>>() {
+			public List<CalculationResult> call() throws WrapperException {
+				return evaluation.callAll();
+			}
+		};
+		EvaluationFuture<List<CalculationResult>> future =
+				new EvaluationFuture<List<CalculationResult>>(callable, evaluation);
+		executor.execute(future);
+		return future;
+	}
+
+	/**
+	 * Returns the executor used by submit if no executor is given. Unless
+	 * another executor has been set, evaluations are run one after the other
+	 * by a single daemon thread.
+	 * @return default executor
+	 */
+	public static synchronized Executor getDefaultExecutor() {
+		if (defaultExecutor == null) {
+			defaultExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+				public Thread newThread(Runnable runnable) {
+					Thread thread = new Thread(runnable, "evaluation");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
 		}
-		res.setEntCountOnto1(onto1.getReferencedEntities().size());
+		return defaultExecutor;
+	}
 
-		res.setNameOnto2(uriOnto2.toString());
-		Ontology onto2 = null;
-		try {
-			onto2 = OntologyManager.loadOntology(uriOnto2);
-		} catch (OWLOntologyCreationException ex) {
-			throw new WrapperException("Error loading ontology 2: " + ex.getMessage());
+	/**
+	 * Sets the executor used by submit if no executor is given
+	 * @param executor new default executor
+	 */
+	public static synchronized void setDefaultExecutor(Executor executor) {
+		defaultExecutor = executor;
+	}
+
+	/**
+	 * Adds a recorder which is informed about the phases and closure steps of
+	 * all calculations started from now on, in addition to the recorder named
+	 * by GlobalSettings.PHASE_RECORDER
+	 * @param recorder recorder to add
+	 */
+	public static void addPhaseRecorder(PhaseRecorder recorder) {
+		PhaseTimer.addRecorder(recorder);
+	}
+
+	/**
+	 * Removes a recorder added by addPhaseRecorder
+	 * @param recorder recorder to remove
+	 */
+	public static void removePhaseRecorder(PhaseRecorder recorder) {
+		PhaseTimer.removeRecorder(recorder);
+	}
+
+	/**
+	 * Future of a submitted Evaluation which cancels the evaluation itself
+	 * when being cancelled
+	 */
+	private static class EvaluationFuture<T> extends FutureTask<T> {
+		private Evaluation evaluation;
+
+		EvaluationFuture(Callable<T> callable, Evaluation evaluation) {
+			super(callable);
+			this.evaluation = evaluation;
+		}
+
+		@Override
+		public boolean cancel(boolean mayInterruptIfRunning) {
+			boolean cancelled = super.cancel(mayInterruptIfRunning);
+			if (cancelled && mayInterruptIfRunning) {
+				evaluation.cancel();
+			}
+			return cancelled;
 		}
-		res.setEntCountOnto2(onto2.getReferencedEntities().size());
+	}
 
-		res.setNameEvAlign(nameEvAlign);
-		Alignment evAlign = null;
+	/**
+	 * Calculates recall and precision of the evaluation alignment for each of
+	 * the given thresholds and returns one CalculationResult per threshold in
+	 * descending order of the thresholds.
+	 *
+	 * The calculation is done by an Evaluation covering all thresholds, so the
+	 * ontologies and alignments are loaded only once, the closure of the
+	 * reference alignment is generated only once and the closure of a
+	 * threshold is reused if it selects the same correspondences as the
+	 * previous one. The statistics of each result contain the timings of the
+	 * shared phases and of the closure of the evaluation alignment if it has
+	 * not been reused.
+	 */
+	public static List<CalculationResult> calculateSweep(URI uriOnto1, URI uriOnto2,
+			String nameEvAlign, String nameRefAlign, String nameSemantic,
+			float[] thresholds, boolean deleteABox) throws WrapperException {
+		return new Evaluation(uriOnto1, uriOnto2, nameEvAlign, nameRefAlign,
+				new String[] { nameSemantic }, thresholds, deleteABox).callAll();
+	}
+
+	/**
+	 * Calculates recall and precision of the evaluation alignment under each
+	 * of the given semantics and returns one CalculationResult per semantic
+	 * in the order of the given names.
+	 *
+	 * The calculation is done by an Evaluation covering all semantics, so the
+	 * ontologies and alignments are loaded and validated only once. The
+	 * ontologies are renamed once for all semantics and the semantics share
+	 * the merge of the renamed ontologies (including the deletion of their
+	 * ABox), so only the translation of the correspondences and the
+	 * classification are done per semantic. The statistics of each result
+	 * contain the timings of the shared phases and of the closures generated
+	 * by its semantic.
+	 */
+	public static List<CalculationResult> calculateSemantics(URI uriOnto1, URI uriOnto2,
+			String nameEvAlign, String nameRefAlign, String[] namesSemantic,
+			float threshold, boolean deleteABox) throws WrapperException {
+		return new Evaluation(uriOnto1, uriOnto2, nameEvAlign, nameRefAlign,
+				namesSemantic, new float[] { threshold }, deleteABox).callAll();
+	}
+
+	/**
+	 * Loads the evaluation alignment from the given file for each of the
+	 * given thresholds
+	 * @param nameEvAlign file to load alignment from
+	 * @param thresholds thresholds in ascending order, each alignment
+	 *		contains only correspondences with at least this value as
+	 *		confidence measure
+	 * @return loaded alignments in the order of the thresholds
+	 * @throws WrapperException if the alignment can not be loaded
+	 */
+	static List<Alignment> loadEvaluationAlignments(String nameEvAlign, float[] thresholds)
+			throws WrapperException {
 		try {
-			evAlign = AlignmentManager.loadAlignment(nameEvAlign, threshold);
+			return AlignmentManager.loadAlignments(nameEvAlign, thresholds);
 		} catch (FileNotFoundException ex) {
 			throw new WrapperException("Error loading evaluation alignment: " + ex.getMessage());
 		} catch (SAXException ex) {
@@ -225,11 +384,18 @@ public class Wrapper {
 		catch (Exception ex) {
 			throw new WrapperException("Error loading evaluation alignment: " + ex.getMessage() + " " + ex.getClass().getName());
 		}
+	}
 
-		res.setNameRefAlign(nameRefAlign);
-		Alignment refAlign = null;
+	/**
+	 * Loads the reference alignment from the given file
+	 * @param nameRefAlign file to load alignment from
+	 * @return loaded alignment
+	 * @throws WrapperException if the alignment can not be loaded
+	 */
+	static Alignment loadReferenceAlignment(String nameRefAlign)
+			throws WrapperException {
 		try {
-			refAlign = AlignmentManager.loadAlignment(nameRefAlign);
+			return AlignmentManager.loadAlignment(nameRefAlign);
 		} catch (FileNotFoundException ex) {
 			throw new WrapperException("Error loading reference alignment: " + ex.getMessage());
 		} catch (SAXException ex) {
@@ -241,71 +407,5 @@ public class Wrapper {
 		} catch (AlignmentFormatException ex) {
 			throw new WrapperException("Error loading reference alignment: " + ex.getMessage());
 		}
-
-		// validate alignments against ontologies
-		try {
-			refAlign.validate(onto1, onto2);
-		} catch (InvalidAlignmentException ex) {
-			throw new WrapperException("Invalid reference alignment: " + ex.getMessage());
-		}
-
-		try {
-			evAlign.validate(onto1, onto2);
-		} catch (InvalidAlignmentException ex) {
-			throw new WrapperException("Invalid evaluation alignment: " + ex.getMessage());
-		}
-
-		SemanticModule sem = SemanticManager.getModuleInstance(nameSemantic, onto1, onto2,
-				deleteABox);
-
-		if (sem == null) {
-			System.out.println("Semantic == null!");
-		}
-
-		ClosureResult evaluationClosureRes = null;
-		try {
-			evaluationClosureRes = sem.getClosure(evAlign);
-		} catch (MergingException ex) {
-			throw new WrapperException("Error merging ontologies: " + ex.getMessage());
-		} catch (ClosureGenerationException ex) {
-			throw new WrapperException("Error generating alignment closure: " + ex.getMessage());
-		}
-		res.setCombinedEvOntology(evaluationClosureRes.getAlignedOntology());
-		res.setEvaluationClosure(evaluationClosureRes.getClosure());
-
-		ClosureResult referenceClosureRes = null;
-		try {
-			referenceClosureRes = sem.getClosure(refAlign);
-		} catch (MergingException ex) {
-			throw new WrapperException("Error merging ontologies: " + ex.getMessage());
-		} catch (ClosureGenerationException ex) {
-			throw new WrapperException("Error generating reference alignment closure: " + ex.getMessage());
-		}
-		res.setCombinedRefOntology(referenceClosureRes.getAlignedOntology());
-		res.setReferenceClosure(referenceClosureRes.getClosure());
-
-
-		Calculator calc = new Calculator(
-				evaluationClosureRes.getClosure(),
-				referenceClosureRes.getClosure()
-		);
-
-		res.setPrecision(calc.getPrecision());
-		res.setRecall(calc.getRecall());
-		res.setIntersection(calc.getIntersection());
-
-		// save original alignments into result
-		try {
-			res.setOriginalAlignment(AlignmentManager.loadAlignment(nameEvAlign));
-		} catch (Exception e) {
-			System.out.println("ERROR saving alignment");
-		}
-		try {
-			res.setOriginalReference(AlignmentManager.loadAlignment(nameRefAlign));
-		} catch (Exception e) {
-			System.out.println("ERROR saving reference alignment");
-		}
-
-		return res;
 	}
 }